@@ -0,0 +1,37 @@
+package ru.practicum.shareit;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.cache.transaction.TransactionAwareCacheManagerProxy;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import ru.practicum.shareit.item.service.ItemSearchResultCache;
+import ru.practicum.shareit.request.service.ItemRequestInfoCache;
+import ru.practicum.shareit.user.service.UserServiceImpl;
+
+import java.util.List;
+
+/**
+ * Кэши Caffeine ограничены по размеру и времени жизни (shareit.cache.spec). Менеджер обернут
+ * в TransactionAwareCacheManagerProxy: запись в кэш внутри транзакции откладывается до коммита,
+ * поэтому данные откатившейся транзакции в кэш не попадают.
+ * Кэш результатов поиска настраивается отдельно (shareit.search.cache.spec): его вес - число вещей
+ * в закэшированной странице, так что maximumWeight ограничивает память, а не число запросов.
+ */
+@Configuration
+public class CacheConfiguration {
+    @Bean
+    public CacheManager cacheManager(@Value("${shareit.cache.spec}") String spec,
+                                     @Value("${shareit.search.cache.spec}") String searchSpec) {
+        CaffeineCacheManager caffeineCacheManager = new CaffeineCacheManager();
+        caffeineCacheManager.setCacheSpecification(spec);
+        caffeineCacheManager.setCacheNames(List.of(UserServiceImpl.USERS_CACHE,
+                ItemRequestInfoCache.ITEM_REQUESTS_CACHE));
+        caffeineCacheManager.registerCustomCache(ItemSearchResultCache.ITEM_SEARCH_CACHE, Caffeine.from(searchSpec)
+                .<Object, Object>weigher((key, items) -> ((List<?>) items).size() + 1)
+                .build());
+        return new TransactionAwareCacheManagerProxy(caffeineCacheManager);
+    }
+}
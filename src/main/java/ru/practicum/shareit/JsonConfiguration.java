@@ -7,8 +7,13 @@ import org.springframework.context.annotation.Configuration;
 
 @Configuration
 public class JsonConfiguration {
+    /**
+     * Незагруженные ленивые связи сущностей (владелец и запрос вещи) выводятся как {"id": ...},
+     * без дополнительных запросов к базе.
+     */
     @Bean
     public Module hibernateModule() {
-        return new Hibernate5Module();
+        return new Hibernate5Module()
+                .enable(Hibernate5Module.Feature.SERIALIZE_IDENTIFIER_FOR_LAZY_NOT_LOADED_OBJECTS);
     }
 }
@@ -0,0 +1,24 @@
+package ru.practicum.shareit;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.web.method.support.HandlerMethodArgumentResolver;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+import ru.practicum.shareit.user.controller.SharerUserArgumentResolver;
+import ru.practicum.shareit.user.service.ActingUserContext;
+
+import java.util.List;
+
+@Configuration
+public class WebConfiguration implements WebMvcConfigurer {
+    private final ActingUserContext actingUserContext;
+
+    public WebConfiguration(@Lazy ActingUserContext actingUserContext) {
+        this.actingUserContext = actingUserContext;
+    }
+
+    @Override
+    public void addArgumentResolvers(List<HandlerMethodArgumentResolver> resolvers) {
+        resolvers.add(new SharerUserArgumentResolver(actingUserContext));
+    }
+}
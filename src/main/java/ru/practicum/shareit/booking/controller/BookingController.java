@@ -2,6 +2,7 @@ package ru.practicum.shareit.booking.controller;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
 import ru.practicum.shareit.booking.dto.BookingDtoFromUser;
@@ -12,8 +13,9 @@ import ru.practicum.shareit.booking.model.Booking;
 import ru.practicum.shareit.booking.service.BookingService;
 import ru.practicum.shareit.item.model.Item;
 import ru.practicum.shareit.item.service.ItemService;
+import ru.practicum.shareit.pagination.Cursor;
+import ru.practicum.shareit.user.controller.SharerUser;
 import ru.practicum.shareit.user.model.User;
-import ru.practicum.shareit.user.service.UserService;
 
 import javax.validation.Valid;
 import javax.validation.constraints.Max;
@@ -29,15 +31,15 @@ import java.util.List;
 @Slf4j
 public class BookingController {
 
+    static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+
     private final BookingService bookingService;
-    private final UserService userService;
     private final ItemService itemService;
     private final BookingDtoMapper bookingDtoMapper;
 
     @PostMapping
     public BookingDtoToUser add(@RequestBody @Valid BookingDtoFromUser bookingDtoFromUser,
-                                @RequestHeader("X-Sharer-User-Id") @Positive(message = "id не может быть меньше 1") long userId) {
-        User user = userService.getById(userId);
+                                @SharerUser User user) {
         Item item = itemService.getById(bookingDtoFromUser.getItemId());
         Booking booking = bookingService.add(bookingDtoMapper.toBooking(bookingDtoFromUser, user, item));
         return bookingDtoMapper.toBookingDtoToUser(booking);
@@ -61,22 +63,46 @@ public class BookingController {
 
 
     @GetMapping
-    public List<BookingDtoToUser> getAllBookingsForUser(@RequestHeader("X-Sharer-User-Id") @Positive(message = "id не может быть меньше 1") long userId,
-                                                        @RequestParam(name = "state", defaultValue = "ALL") @NotBlank String stateParam,
-                                                        @RequestParam(value = "from", defaultValue = "0") @Min(0) Integer from,
-                                                        @RequestParam(value = "size", defaultValue = "20") @Min(1) @Max(100) Integer size) {
+    public ResponseEntity<List<BookingDtoToUser>> getAllBookingsForUser(@RequestHeader("X-Sharer-User-Id") @Positive(message = "id не может быть меньше 1") long userId,
+                                                                        @RequestParam(name = "state", defaultValue = "ALL") @NotBlank String stateParam,
+                                                                        @RequestParam(value = "from", defaultValue = "0") @Min(0) Integer from,
+                                                                        @RequestParam(value = "size", defaultValue = "20") @Min(1) @Max(100) Integer size,
+                                                                        @RequestParam(value = "cursor", required = false) String cursor) {
         BookingState bookingState = BookingState.convert(stateParam.toUpperCase()).orElseThrow(() -> new IllegalArgumentException("Unknown state: " + stateParam));
-        List<Booking> bookings = bookingService.getBookingsForUser(userId, bookingState, from / size, size);
-        return bookingDtoMapper.toBookingDtoToUserList(bookings);
+        if (cursor == null) {
+            List<Booking> bookings = bookingService.getBookingsForUser(userId, bookingState, from / size, size);
+            return ResponseEntity.ok(bookingDtoMapper.toBookingDtoToUserList(bookings));
+        }
+        List<Booking> bookings = bookingService.getBookingsForUserByCursor(userId, bookingState,
+                Cursor.decode(cursor), size);
+        return toCursorPage(bookings, size);
     }
 
     @GetMapping("/owner")
-    public List<BookingDtoToUser> getAllBookingsForUserItems(@RequestHeader("X-Sharer-User-Id") @Positive(message = "id не может быть меньше 1") long userId,
-                                                             @RequestParam(name = "state", defaultValue = "ALL") @NotBlank String stateParam,
-                                                             @RequestParam(value = "from", defaultValue = "0") @Min(0) Integer from,
-                                                             @RequestParam(value = "size", defaultValue = "20") @Min(1) @Max(100) Integer size) {
+    public ResponseEntity<List<BookingDtoToUser>> getAllBookingsForUserItems(@RequestHeader("X-Sharer-User-Id") @Positive(message = "id не может быть меньше 1") long userId,
+                                                                             @RequestParam(name = "state", defaultValue = "ALL") @NotBlank String stateParam,
+                                                                             @RequestParam(value = "from", defaultValue = "0") @Min(0) Integer from,
+                                                                             @RequestParam(value = "size", defaultValue = "20") @Min(1) @Max(100) Integer size,
+                                                                             @RequestParam(value = "cursor", required = false) String cursor) {
         BookingState bookingState = BookingState.convert(stateParam.toUpperCase()).orElseThrow(() -> new IllegalArgumentException("Unknown state: " + stateParam));
-        List<Booking> bookings = bookingService.getAllBookingsForUserItems(userId, bookingState, from / size, size);
-        return bookingDtoMapper.toBookingDtoToUserList(bookings);
+        if (cursor == null) {
+            List<Booking> bookings = bookingService.getAllBookingsForUserItems(userId, bookingState, from / size, size);
+            return ResponseEntity.ok(bookingDtoMapper.toBookingDtoToUserList(bookings));
+        }
+        List<Booking> bookings = bookingService.getAllBookingsForUserItemsByCursor(userId, bookingState,
+                Cursor.decode(cursor), size);
+        return toCursorPage(bookings, size);
+    }
+
+    /**
+     * Курсор следующей страницы отдается в заголовке, только если текущая страница заполнена целиком.
+     */
+    private ResponseEntity<List<BookingDtoToUser>> toCursorPage(List<Booking> bookings, int size) {
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (bookings.size() == size) {
+            Booking last = bookings.get(bookings.size() - 1);
+            response.header(NEXT_CURSOR_HEADER, new Cursor(last.getStart(), last.getId()).encode());
+        }
+        return response.body(bookingDtoMapper.toBookingDtoToUserList(bookings));
     }
 }
@@ -7,6 +7,7 @@ import ru.practicum.shareit.booking.dto.BookingDtoToUser;
 import ru.practicum.shareit.booking.model.Booking;
 import ru.practicum.shareit.item.dto.ItemDtoToUser;
 import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.model.ItemBookingSnapshot;
 import ru.practicum.shareit.user.dto.UserDtoWithIdOnly;
 import ru.practicum.shareit.user.model.User;
 
@@ -38,6 +39,22 @@ public class BookingDtoMapper {
         return bookingDto;
     }
 
+    public BookingDto toLastBookingDto(ItemBookingSnapshot snapshot, Item item) {
+        if (snapshot == null || snapshot.getLastBookingId() == null) {
+            return null;
+        }
+        return new BookingDto(snapshot.getLastBookingId(), snapshot.getLastBookingStart(),
+                snapshot.getLastBookingEnd(), item, snapshot.getLastBookerId());
+    }
+
+    public BookingDto toNextBookingDto(ItemBookingSnapshot snapshot, Item item) {
+        if (snapshot == null || snapshot.getNextBookingId() == null) {
+            return null;
+        }
+        return new BookingDto(snapshot.getNextBookingId(), snapshot.getNextBookingStart(),
+                snapshot.getNextBookingEnd(), item, snapshot.getNextBookerId());
+    }
+
     public BookingDtoToUser toBookingDtoToUser(Booking booking) {
         BookingDtoToUser bookingDtoToUser = new BookingDtoToUser();
         bookingDtoToUser.setId(booking.getId());
@@ -1,8 +1,10 @@
 package ru.practicum.shareit.booking.model;
 
-import lombok.AllArgsConstructor;
+import lombok.AccessLevel;
 import lombok.Data;
+import lombok.EqualsAndHashCode;
 import lombok.NoArgsConstructor;
+import lombok.Setter;
 import lombok.ToString;
 import ru.practicum.shareit.booking.enums.Status;
 import ru.practicum.shareit.item.model.Item;
@@ -11,13 +13,19 @@ import ru.practicum.shareit.user.model.User;
 import javax.persistence.*;
 import java.time.LocalDateTime;
 
+/**
+ * Вещь и автор бронирования загружаются лениво. Списки и карточка бронирования читают вещь тем же запросом
+ * (граф ITEM_GRAPH или fetch join), владелец вещи и автор бронирования нужны им только по id из внешних ключей.
+ */
 @Entity
 @Table(name = "bookings")
+@NamedEntityGraph(name = Booking.ITEM_GRAPH, attributeNodes = @NamedAttributeNode("item"))
 @NoArgsConstructor
-@AllArgsConstructor
 @Data
 public class Booking {
 
+    public static final String ITEM_GRAPH = "Booking.item";
+
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
@@ -28,16 +36,42 @@ public class Booking {
     @Column(name = "end_time", nullable = false)
     private LocalDateTime end;
 
-    @ManyToOne(fetch = FetchType.EAGER)
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "item_id", referencedColumnName = "id")
     @ToString.Exclude
     private Item item;
 
-    @ManyToOne(fetch = FetchType.EAGER)
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "user_id", referencedColumnName = "id")
     @ToString.Exclude
     private User booker;
 
     @Enumerated(EnumType.STRING)
     private Status status = Status.WAITING;
+
+    /**
+     * Владелец вещи, продублированный из items.user_id: индекс (owner_id, start_time, id) отдает брони всех вещей
+     * владельца сразу в порядке страницы. Заполняется при вставке, владелец у вещи не меняется.
+     */
+    @Column(name = "owner_id", updatable = false)
+    @Setter(AccessLevel.NONE)
+    @EqualsAndHashCode.Exclude
+    @ToString.Exclude
+    private Long ownerId;
+
+    public Booking(Long id, LocalDateTime start, LocalDateTime end, Item item, User booker, Status status) {
+        this.id = id;
+        this.start = start;
+        this.end = end;
+        this.item = item;
+        this.booker = booker;
+        this.status = status;
+    }
+
+    @PrePersist
+    void fillOwnerId() {
+        if (item != null && item.getOwner() != null) {
+            ownerId = item.getOwner().getId();
+        }
+    }
 }
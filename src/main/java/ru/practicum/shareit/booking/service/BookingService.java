@@ -3,6 +3,7 @@ package ru.practicum.shareit.booking.service;
 import ru.practicum.shareit.booking.enums.BookingState;
 import ru.practicum.shareit.booking.model.Booking;
 import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.pagination.Cursor;
 import ru.practicum.shareit.user.model.User;
 
 import java.util.List;
@@ -20,11 +21,9 @@ public interface BookingService {
 
     List<Booking> getAllBookingsForUserItems(long userId, BookingState bookingState, int page, int size);
 
-    Booking getLastOrNextBooking(Item item, boolean isLast);
+    List<Booking> getBookingsForUserByCursor(long userId, BookingState bookingState, Cursor cursor, int size);
 
-    boolean checkIfUserRentedItem(User user, Item item);
-
-    List<Booking> findAllLastAndNextBookingsForItems(List<Item> items, int page, int size);
+    List<Booking> getAllBookingsForUserItemsByCursor(long userId, BookingState bookingState, Cursor cursor, int size);
 
-    //List<Booking> findAllNextBookingsForItems(List<Item> items, int page, int size);
+    boolean checkIfUserRentedItem(User user, Item item);
 }
@@ -2,24 +2,32 @@ package ru.practicum.shareit.booking.service;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.data.domain.PageRequest;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import ru.practicum.shareit.booking.enums.BookingRole;
 import ru.practicum.shareit.booking.enums.BookingState;
 import ru.practicum.shareit.booking.enums.Status;
 import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.storage.BookingIntervalIndex;
+import ru.practicum.shareit.booking.storage.BookingQuery;
 import ru.practicum.shareit.booking.storage.BookingRepository;
 import ru.practicum.shareit.exceptions.BookingCannotBeProcessedException;
 import ru.practicum.shareit.exceptions.ObjectAlreadyExistsException;
 import ru.practicum.shareit.exceptions.ObjectNotFoundException;
 import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.pagination.Cursor;
 import ru.practicum.shareit.user.model.User;
-import ru.practicum.shareit.user.service.UserService;
+import ru.practicum.shareit.user.service.ActingUserContext;
 
+import java.sql.SQLException;
 import java.time.LocalDateTime;
-import java.util.ArrayList;
 import java.util.List;
 import java.util.Objects;
+import java.util.concurrent.locks.Lock;
+import java.util.function.UnaryOperator;
 
 @Service
 @Transactional(readOnly = true)
@@ -27,14 +35,29 @@ import java.util.Objects;
 @Slf4j
 public class BookingServiceImpl implements BookingService {
 
+    private static final String EXCLUSION_VIOLATION = "23P01";
+
     private final BookingRepository bookingRepository;
-    private final UserService userService;
+    private final BookingIntervalIndex bookingIntervalIndex;
+    private final ItemBookingLocks itemBookingLocks;
+    private final ItemBookingSnapshotUpdater itemBookingSnapshotUpdater;
+    private final ActingUserContext actingUserContext;
 
     @Transactional
     public Booking add(Booking booking) {
-        checkIfItemCanBeBooked(booking);
-        checkIfBookerNotOwner(booking);
-        return bookingRepository.save(booking);
+        checkIfItemAvailable(booking);
+        Lock itemLock = itemBookingLocks.forItem(booking.getItem().getId());
+        itemLock.lock();
+        try {
+            checkIfItemNotBooked(booking);
+            checkIfBookerNotOwner(booking);
+            Booking savedBooking = saveIfNotOverlapping(booking, bookingRepository::save);
+            occupyInterval(savedBooking);
+            itemBookingSnapshotUpdater.bookingAdded(savedBooking);
+            return savedBooking;
+        } finally {
+            itemLock.unlock();
+        }
     }
 
     @Override
@@ -60,120 +83,74 @@ public class BookingServiceImpl implements BookingService {
         );
         checkIfBookingStatusAllowsApproval(booking, approved);
         checkIfNotItemOwnerUpdates(userId, booking.getItem().getOwner().getId());
-        if (approved) {
-            booking.setStatus(Status.APPROVED);
-        } else {
-            booking.setStatus(Status.REJECTED);
+        Lock itemLock = itemBookingLocks.forItem(booking.getItem().getId());
+        itemLock.lock();
+        try {
+            if (approved) {
+                approve(booking);
+            } else {
+                booking.setStatus(Status.REJECTED);
+                releaseInterval(booking);
+                itemBookingSnapshotUpdater.bookingReleased(booking);
+            }
+        } finally {
+            itemLock.unlock();
         }
         return booking;
     }
 
     @Override
     public List<Booking> getBookingsForUser(long userId, BookingState bookingState, int page, int size) {
-        User user = userService.getById(userId);
-        List<Booking> bookings = new ArrayList<>();
-        switch (bookingState) {
-            case ALL:
-                bookings = bookingRepository.findAllByBookerOrderByStartDesc(user, PageRequest.of(page, size));
-                break;
-            case CURRENT:
-                bookings = bookingRepository.findAllByBookerAndStartBeforeAndEndAfterOrderByStartDesc(user,
-                        LocalDateTime.now(),
-                        LocalDateTime.now(),
-                        PageRequest.of(page, size));
-                break;
-            case PAST:
-                bookings = bookingRepository.findAllByBookerAndEndBeforeOrderByStartDesc(user,
-                        LocalDateTime.now(),
-                        PageRequest.of(page, size));
-                break;
-            case FUTURE:
-                bookings = bookingRepository.findAllByBookerAndStartAfterOrderByStartDesc(user,
-                        LocalDateTime.now(),
-                        PageRequest.of(page, size));
-                break;
-            case WAITING:
-                Status waitingStatus = Status.valueOf(BookingState.WAITING.toString());
-                bookings = bookingRepository.findAllByBookerAndStatus(user, waitingStatus, PageRequest.of(page, size));
-                break;
-            case REJECTED:
-                Status rejectedStatus = Status.valueOf(BookingState.REJECTED.toString());
-                bookings = bookingRepository.findAllByBookerAndStatus(user, rejectedStatus, PageRequest.of(page, size));
-                break;
-        }
-        return bookings;
+        return findBookings(BookingRole.BOOKER, userId, bookingState, Cursor.FIRST, page * size, size);
     }
 
     @Override
     public List<Booking> getAllBookingsForUserItems(long userId, BookingState bookingState, int page, int size) {
-        User user = userService.getById(userId);
-        List<Booking> bookings = new ArrayList<>();
-        switch (bookingState) {
-            case ALL:
-                bookings = bookingRepository.findAllByItemOwnerOrderByStartDesc(user, PageRequest.of(page, size));
-                break;
-            case CURRENT:
-                bookings = bookingRepository.findAllByItemOwnerAndStartBeforeAndEndAfterOrderByStartDesc(user,
-                        LocalDateTime.now(),
-                        LocalDateTime.now(),
-                        PageRequest.of(page, size));
-                break;
-            case PAST:
-                bookings = bookingRepository.findAllByItemOwnerAndEndBeforeOrderByStartDesc(user, LocalDateTime.now(),
-                        PageRequest.of(page, size));
-                break;
-            case FUTURE:
-                bookings = bookingRepository.findAllByItemOwnerAndStartAfterOrderByStartDesc(user, LocalDateTime.now(),
-                        PageRequest.of(page, size));
-                ;
-                break;
-            case WAITING:
-                Status waitingStatus = Status.valueOf(BookingState.WAITING.name());
-                bookings = bookingRepository.findAllByItemOwnerAndStatusOrderByStartDesc(user, waitingStatus,
-                        PageRequest.of(page, size));
-                break;
-            case REJECTED:
-                Status rejectedStatus = Status.valueOf(BookingState.REJECTED.name());
-                bookings = bookingRepository.findAllByItemOwnerAndStatusOrderByStartDesc(user, rejectedStatus,
-                        PageRequest.of(page, size));
-                break;
-        }
-        return bookings;
+        return findBookings(BookingRole.OWNER, userId, bookingState, Cursor.FIRST, page * size, size);
     }
 
     @Override
-    public Booking getLastOrNextBooking(Item item, boolean isLast) {
-        Booking booking;
-        if (isLast) {
-            booking = bookingRepository.findFirstByItemAndStatusNotInAndStartBeforeOrderByStartDesc(item,
-                    List.of(Status.REJECTED, Status.CANCELLED),
-                    LocalDateTime.now());
-        } else {
-            booking = bookingRepository.findFirstByItemAndStatusNotInAndStartAfterOrderByStartAsc(item,
-                    List.of(Status.REJECTED, Status.CANCELLED),
-                    LocalDateTime.now());
-        }
-        return booking;
+    public List<Booking> getBookingsForUserByCursor(long userId, BookingState bookingState, Cursor cursor, int size) {
+        return findBookings(BookingRole.BOOKER, userId, bookingState, cursor, 0, size);
     }
 
     @Override
-    public List<Booking> findAllLastAndNextBookingsForItems(List<Item> items, int page, int size) {
-        return bookingRepository.findAllUnion(items, LocalDateTime.now(), PageRequest.of(page, size));
-/*        return bookingRepository.findAllByItemInAndStatusNotInAndStartBeforeOrderByStartDesc(items,
-                LocalDateTime.now(), PageRequest.of(page, size));*/
+    public List<Booking> getAllBookingsForUserItemsByCursor(long userId, BookingState bookingState, Cursor cursor,
+                                                            int size) {
+        return findBookings(BookingRole.OWNER, userId, bookingState, cursor, 0, size);
     }
 
-/*    @Override
-    public List<Booking> findAllNextBookingsForItems(List<Item> items, int page, int size) {
-        return bookingRepository.findAllByItemInAndStatusNotInAndStartAfterOrderByStartAsc(items,
-                LocalDateTime.now(), PageRequest.of(page, size));
-    }*/
-
     @Override
     public boolean checkIfUserRentedItem(User user, Item item) {
         return bookingRepository.countByBookerAndItemAndEndBefore(user, item, LocalDateTime.now()) > 0;
     }
 
+    private List<Booking> findBookings(BookingRole role, long userId, BookingState bookingState, Cursor cursor,
+                                       int offset, int size) {
+        User user = actingUserContext.resolve(userId);
+        return bookingRepository.findAllByQuery(new BookingQuery(role, user, bookingState, LocalDateTime.now(),
+                cursor, offset, size));
+    }
+
+    /**
+     * Ожидающая бронь уже занимает интервал в индексе. Отклоненная бронь его освободила, и за это время
+     * даты могли занять: повторное подтверждение проходит ту же проверку, что и новая бронь. Изменение
+     * сбрасывается в базу сразу, чтобы нарушение bookings_no_overlap в PostgreSQL стало ответом 409, а не
+     * ошибкой при коммите. Отклонение убрало бронь из последнего и следующего бронирования вещи, поэтому
+     * она снова предлагается туда, как новая. Вызывается под блокировкой вещи.
+     */
+    private void approve(Booking booking) {
+        if (booking.getStatus() != Status.REJECTED) {
+            booking.setStatus(Status.APPROVED);
+            return;
+        }
+        checkIfItemNotBooked(booking);
+        booking.setStatus(Status.APPROVED);
+        saveIfNotOverlapping(booking, bookingRepository::saveAndFlush);
+        occupyInterval(booking);
+        itemBookingSnapshotUpdater.bookingAdded(booking);
+    }
+
     private void checkIfBookingStatusAllowsApproval(Booking booking, boolean approved) {
         if (booking.getStatus() == Status.APPROVED && approved) {
             log.error("Статус брони уже 'Approved' и поэтому не может быть подтверждена");
@@ -204,23 +181,48 @@ public class BookingServiceImpl implements BookingService {
     }
 
 
-    private void checkIfItemCanBeBooked(Booking booking) {
+    private void checkIfItemAvailable(Booking booking) {
         if (!booking.getItem().getAvailable()) {
             log.error("Данная вещь с id {} не доступна для аренды", booking.getItem().getId());
             throw new IllegalArgumentException(String.format("Данная вещь с id %d не доступна для аренды",
                     booking.getItem().getId()));
         }
-        checkIfItemNotBooked(booking);
     }
 
     private void checkIfItemNotBooked(Booking booking) {
-        if (bookingRepository.findIfBookingTimeCrossed(booking.getItem(), booking.getStart(), booking.getEnd()).isPresent()) {
-            log.error("На данные даты вещи уже забронирована: start = {}, end = {}", booking.getStart(), booking.getEnd());
-            throw new ObjectAlreadyExistsException(String.format("На данные даты вещи уже забронирована: start = %s, end = %s",
-                    booking.getStart(), booking.getEnd()));
+        if (bookingIntervalIndex.isBooked(booking.getItem().getId(), booking.getStart(), booking.getEnd())) {
+            throw itemAlreadyBooked(booking);
         }
     }
 
+    private Booking saveIfNotOverlapping(Booking booking, UnaryOperator<Booking> save) {
+        try {
+            return save.apply(booking);
+        } catch (DataIntegrityViolationException e) {
+            if (isOverlapViolation(e)) {
+                throw itemAlreadyBooked(booking);
+            }
+            throw e;
+        }
+    }
+
+    private boolean isOverlapViolation(DataIntegrityViolationException e) {
+        Throwable cause = e;
+        while (cause != null) {
+            if (cause instanceof SQLException && EXCLUSION_VIOLATION.equals(((SQLException) cause).getSQLState())) {
+                return true;
+            }
+            cause = cause.getCause();
+        }
+        return false;
+    }
+
+    private ObjectAlreadyExistsException itemAlreadyBooked(Booking booking) {
+        log.error("На данные даты вещи уже забронирована: start = {}, end = {}", booking.getStart(), booking.getEnd());
+        return new ObjectAlreadyExistsException(String.format("На данные даты вещи уже забронирована: start = %s, end = %s",
+                booking.getStart(), booking.getEnd()));
+    }
+
     private void checkIfBookerNotOwner(Booking booking) {
         if (Objects.equals(booking.getItem().getOwner().getId(), booking.getBooker().getId())) {
             log.error("Владелец вещи не может ее забронировать. bookerId = {}, ownerId = {}",
@@ -231,6 +233,30 @@ public class BookingServiceImpl implements BookingService {
     }
 
     private void checkIfUserExists(long userId) {
-        userService.getById(userId);
+        actingUserContext.resolve(userId);
+    }
+
+    private void occupyInterval(Booking booking) {
+        bookingIntervalIndex.add(booking);
+        onRollback(() -> bookingIntervalIndex.remove(booking));
+    }
+
+    private void releaseInterval(Booking booking) {
+        bookingIntervalIndex.remove(booking);
+        onRollback(() -> bookingIntervalIndex.add(booking));
+    }
+
+    private void onRollback(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                if (status != STATUS_COMMITTED) {
+                    action.run();
+                }
+            }
+        });
     }
 }
@@ -0,0 +1,28 @@
+package ru.practicum.shareit.booking.service;
+
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Набор блокировок, разбитый на полосы по id вещи: брони одной вещи проходят проверку и сохранение
+ * строго по очереди, а брони разных вещей не мешают друг другу (кроме редких совпадений полос).
+ */
+@Component
+public class ItemBookingLocks {
+
+    private static final int STRIPES = 256;
+
+    private final Lock[] locks = new Lock[STRIPES];
+
+    public ItemBookingLocks() {
+        for (int i = 0; i < STRIPES; i++) {
+            locks[i] = new ReentrantLock();
+        }
+    }
+
+    public Lock forItem(long itemId) {
+        return locks[Math.floorMod(Long.hashCode(itemId), STRIPES)];
+    }
+}
@@ -0,0 +1,106 @@
+package ru.practicum.shareit.booking.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.storage.BookingRepository;
+import ru.practicum.shareit.item.model.ItemBookingSnapshot;
+import ru.practicum.shareit.item.storage.ItemBookingSnapshotRepository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Поддерживает последнее и следующее бронирование в строках items (ItemBookingSnapshot).
+ * Новая бронь применяется условным UPDATE без чтения bookings. Отклоненная бронь, занимавшая одну из позиций,
+ * и следующая бронь, время которой наступило, пересчитываются по bookings под блокировкой строки вещи.
+ * Повторно подтвержденная отклоненная бронь снова предлагается как новая.
+ */
+@Component
+@Slf4j
+public class ItemBookingSnapshotUpdater {
+
+    private final ItemBookingSnapshotRepository itemBookingSnapshotRepository;
+    private final BookingRepository bookingRepository;
+    private final int advanceBatch;
+
+    public ItemBookingSnapshotUpdater(ItemBookingSnapshotRepository itemBookingSnapshotRepository,
+                                      BookingRepository bookingRepository,
+                                      @Value("${shareit.item-bookings.advance-batch:500}") int advanceBatch) {
+        this.itemBookingSnapshotRepository = itemBookingSnapshotRepository;
+        this.bookingRepository = bookingRepository;
+        this.advanceBatch = advanceBatch;
+    }
+
+    @Transactional
+    public void bookingAdded(Booking booking) {
+        LocalDateTime now = LocalDateTime.now();
+        if (booking.getStart().isAfter(now)) {
+            itemBookingSnapshotRepository.offerNextBooking(booking.getItem().getId(), booking.getId(),
+                    booking.getStart(), booking.getEnd(), booking.getBooker().getId());
+        } else if (booking.getStart().isBefore(now)) {
+            itemBookingSnapshotRepository.offerLastBooking(booking.getItem().getId(), booking.getId(),
+                    booking.getStart(), booking.getEnd(), booking.getBooker().getId());
+        }
+    }
+
+    @Transactional
+    public void bookingReleased(Booking booking) {
+        itemBookingSnapshotRepository.findByIdForUpdate(booking.getItem().getId())
+                .filter(snapshot -> Objects.equals(snapshot.getLastBookingId(), booking.getId())
+                        || Objects.equals(snapshot.getNextBookingId(), booking.getId()))
+                .ifPresent(snapshot -> refresh(List.of(snapshot), LocalDateTime.now()));
+    }
+
+    /**
+     * Когда следующее бронирование начинается, оно становится последним, а следующим - очередное.
+     * Вещи читаются пачками по shareit.item-bookings.advance-batch, пока не останется ни одной с наступившим
+     * следующим бронированием: пересчитанная вещь получает следующее бронирование позже now или никакого
+     * и в очередную пачку не попадает.
+     */
+    @Scheduled(fixedDelayString = "${shareit.item-bookings.advance-interval:60000}")
+    @Transactional
+    public void advance() {
+        LocalDateTime now = LocalDateTime.now();
+        int advanced = 0;
+        List<ItemBookingSnapshot> started;
+        do {
+            started = itemBookingSnapshotRepository.findAllByNextBookingStartBefore(now,
+                    PageRequest.of(0, advanceBatch));
+            if (!started.isEmpty()) {
+                refresh(started, now);
+                itemBookingSnapshotRepository.flush();
+                advanced += started.size();
+            }
+        } while (started.size() == advanceBatch);
+        if (advanced > 0) {
+            log.debug("Обновлены последнее и следующее бронирование для {} вещей", advanced);
+        }
+    }
+
+    private void refresh(List<ItemBookingSnapshot> snapshots, LocalDateTime now) {
+        Map<Long, ItemBookingSnapshot> snapshotsById = snapshots.stream()
+                .collect(Collectors.toMap(ItemBookingSnapshot::getId, Function.identity()));
+        bookingRepository.flush();
+        snapshots.forEach(snapshot -> {
+            snapshot.setLastBooking(null);
+            snapshot.setNextBooking(null);
+        });
+        for (Booking booking : bookingRepository.findLastAndNextByItemIdIn(List.copyOf(snapshotsById.keySet()), now)) {
+            ItemBookingSnapshot snapshot = snapshotsById.get(booking.getItem().getId());
+            if (booking.getStart().isBefore(now)) {
+                snapshot.setLastBooking(booking);
+            } else {
+                snapshot.setNextBooking(booking);
+            }
+        }
+    }
+}
@@ -0,0 +1,77 @@
+package ru.practicum.shareit.booking.storage;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import ru.practicum.shareit.booking.enums.Status;
+import ru.practicum.shareit.booking.model.Booking;
+
+import java.time.LocalDateTime;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+
+/**
+ * Индекс занятых интервалов по каждой вещи. Активные брони одной вещи не пересекаются,
+ * поэтому интервалы хранятся отсортированными по началу аренды, и проверка пересечения
+ * сводится к поиску ближайшего интервала, начинающегося не позже конца новой брони. Ключ - пара
+ * (начало, id брони), чтобы две брони с одинаковым началом не затирали друг друга.
+ * Источником истины остается база данных: при старте приложения индекс строится заново.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class BookingIntervalIndex {
+
+    private static final List<Status> RELEASED_STATUSES = List.of(Status.REJECTED, Status.CANCELLED);
+
+    private static final Comparator<BookingInterval> BY_START_AND_ID = Comparator.comparing(BookingInterval::getStart)
+            .thenComparing(BookingInterval::getBookingId);
+
+    private final BookingRepository bookingRepository;
+    private final Map<Long, NavigableSet<BookingInterval>> intervalsByItem = new ConcurrentHashMap<>();
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        intervalsByItem.clear();
+        List<BookingInterval> intervals = bookingRepository.findAllIntervalsByStatusNotIn(RELEASED_STATUSES);
+        for (BookingInterval interval : intervals) {
+            add(interval);
+        }
+        log.info("Индекс бронирований построен, загружено интервалов: {}", intervals.size());
+    }
+
+    public boolean isBooked(long itemId, LocalDateTime start, LocalDateTime end) {
+        NavigableSet<BookingInterval> intervals = intervalsByItem.get(itemId);
+        if (intervals == null) {
+            return false;
+        }
+        BookingInterval candidate = intervals.floor(new BookingInterval(Long.MAX_VALUE, itemId, end, end));
+        return candidate != null && !candidate.getEnd().isBefore(start);
+    }
+
+    public void add(Booking booking) {
+        add(toInterval(booking));
+    }
+
+    public void remove(Booking booking) {
+        NavigableSet<BookingInterval> intervals = intervalsByItem.get(booking.getItem().getId());
+        if (intervals != null) {
+            intervals.remove(toInterval(booking));
+        }
+    }
+
+    private void add(BookingInterval interval) {
+        intervalsByItem.computeIfAbsent(interval.getItemId(), itemId -> new ConcurrentSkipListSet<>(BY_START_AND_ID))
+                .add(interval);
+    }
+
+    private BookingInterval toInterval(Booking booking) {
+        return new BookingInterval(booking.getId(), booking.getItem().getId(), booking.getStart(), booking.getEnd());
+    }
+}
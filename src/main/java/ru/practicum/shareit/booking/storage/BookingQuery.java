@@ -0,0 +1,29 @@
+package ru.practicum.shareit.booking.storage;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
+import ru.practicum.shareit.booking.enums.BookingRole;
+import ru.practicum.shareit.booking.enums.BookingState;
+import ru.practicum.shareit.pagination.Cursor;
+import ru.practicum.shareit.user.model.User;
+
+import java.time.LocalDateTime;
+
+/**
+ * Параметры выборки бронирований: чьи (роль и пользователь), в каком состоянии относительно момента now,
+ * с какой позиции и сколько. Момент now фиксируется один раз на запрос.
+ */
+@Getter
+@AllArgsConstructor
+@ToString
+public class BookingQuery {
+
+    private final BookingRole role;
+    private final User user;
+    private final BookingState state;
+    private final LocalDateTime now;
+    private final Cursor cursor;
+    private final int offset;
+    private final int limit;
+}
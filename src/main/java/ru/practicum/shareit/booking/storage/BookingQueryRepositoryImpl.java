@@ -0,0 +1,104 @@
+package ru.practicum.shareit.booking.storage;
+
+import ru.practicum.shareit.booking.enums.BookingRole;
+import ru.practicum.shareit.booking.enums.Status;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.user.model.User;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import javax.persistence.TypedQuery;
+import javax.persistence.criteria.*;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Одна выборка бронирований вместо отдельного метода на каждую пару (роль, состояние).
+ * Все значения передаются параметрами, а не литералами, поэтому для каждой пары (роль, состояние) текст запроса
+ * один и тот же и переиспользует план Hibernate и подготовленный оператор СУБД.
+ * Сортировка (start desc, id desc) совпадает с ключом курсора.
+ * Вещь читается тем же запросом через fetch join, поэтому страница бронирований загружается одним оператором SQL.
+ * Брони владельца выбираются по bookings.owner_id, а не через items.user_id: так и у автора, и у владельца
+ * страница после курсора читается из индекса (пользователь, start_time, id) без сортировки всех его броней.
+ */
+public class BookingQueryRepositoryImpl implements BookingQueryRepository {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public List<Booking> findAllByQuery(BookingQuery query) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Booking> criteria = cb.createQuery(Booking.class);
+        Root<Booking> booking = criteria.from(Booking.class);
+        @SuppressWarnings("unchecked")
+        Join<Booking, Item> item = (Join<Booking, Item>) booking.<Booking, Item>fetch("item");
+
+        ParameterExpression<User> user = cb.parameter(User.class, "user");
+        ParameterExpression<Long> ownerId = cb.parameter(Long.class, "ownerId");
+        ParameterExpression<LocalDateTime> cursorStart = cb.parameter(LocalDateTime.class, "cursorStart");
+        ParameterExpression<Long> cursorId = cb.parameter(Long.class, "cursorId");
+        ParameterExpression<LocalDateTime> now = cb.parameter(LocalDateTime.class, "now");
+        ParameterExpression<Status> status = cb.parameter(Status.class, "status");
+
+        List<Predicate> predicates = new ArrayList<>();
+        predicates.add(query.getRole() == BookingRole.BOOKER
+                ? cb.equal(booking.get("booker"), user)
+                : cb.equal(booking.get("ownerId"), ownerId));
+        Path<LocalDateTime> start = booking.get("start");
+        Path<LocalDateTime> end = booking.get("end");
+        boolean usesNow = false;
+        boolean usesStatus = false;
+        switch (query.getState()) {
+            case CURRENT:
+                predicates.add(cb.lessThan(start, now));
+                predicates.add(cb.greaterThan(end, now));
+                usesNow = true;
+                break;
+            case PAST:
+                predicates.add(cb.lessThan(end, now));
+                usesNow = true;
+                break;
+            case FUTURE:
+                predicates.add(cb.greaterThan(start, now));
+                usesNow = true;
+                break;
+            case WAITING:
+            case REJECTED:
+                predicates.add(cb.equal(booking.get("status"), status));
+                usesStatus = true;
+                break;
+            case ALL:
+                break;
+        }
+        Path<Long> id = booking.get("id");
+        predicates.add(cb.or(
+                cb.lessThan(start, cursorStart),
+                cb.and(cb.equal(start, cursorStart), cb.lessThan(id, cursorId))));
+
+        criteria.select(booking)
+                .where(predicates.toArray(new Predicate[0]))
+                .orderBy(cb.desc(start), cb.desc(id));
+
+        TypedQuery<Booking> typedQuery = entityManager.createQuery(criteria)
+                .setParameter(cursorStart, query.getCursor().getTimestamp())
+                .setParameter(cursorId, query.getCursor().getId());
+        if (query.getRole() == BookingRole.BOOKER) {
+            typedQuery.setParameter(user, query.getUser());
+        } else {
+            typedQuery.setParameter(ownerId, query.getUser().getId());
+        }
+        if (usesNow) {
+            typedQuery.setParameter(now, query.getNow());
+        }
+        if (usesStatus) {
+            typedQuery.setParameter(status, Status.valueOf(query.getState().name()));
+        }
+        return typedQuery
+                .setFirstResult(query.getOffset())
+                .setMaxResults(query.getLimit())
+                .getResultList();
+    }
+}
@@ -1,6 +1,6 @@
 package ru.practicum.shareit.booking.storage;
 
-import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
@@ -14,92 +14,34 @@ import java.util.List;
 import java.util.Optional;
 
 @Repository
-public interface BookingRepository extends JpaRepository<Booking, Long> {
+public interface BookingRepository extends JpaRepository<Booking, Long>, BookingQueryRepository {
 
-    @Query("select bk from Booking as bk " +
-            "where bk.item = ?1 " +
-            "and ((bk.start between ?2 and ?3) " +
-            "or (bk.end between ?2 and ?3) " +
-            "or (bk.start < ?2 and bk.end > ?3))")
-    Optional<Booking> findIfBookingTimeCrossed(Item item, LocalDateTime start, LocalDateTime end);
+    @EntityGraph(Booking.ITEM_GRAPH)
+    @Override
+    Optional<Booking> findById(Long id);
 
-    List<Booking> findAllByBookerOrderByStartDesc(User booker, Pageable pageable);
-
-    List<Booking> findAllByBookerAndStatus(User booker, Status status, Pageable pageable);
-
-    List<Booking> findAllByBookerAndEndBeforeOrderByStartDesc(User booker, LocalDateTime currentTime, Pageable pageable);
-
-    List<Booking> findAllByBookerAndStartBeforeAndEndAfterOrderByStartDesc(User booker, LocalDateTime currentTime,
-                                                                           LocalDateTime currentTimeSecondParameter,
-                                                                           Pageable pageable);
-
-    List<Booking> findAllByBookerAndStartAfterOrderByStartDesc(User booker, LocalDateTime currentTime,
-                                                               Pageable pageable);
-
-    List<Booking> findAllByItemOwnerOrderByStartDesc(User owner, Pageable pageable);
-
-
-    List<Booking> findAllByItemOwnerAndStatusOrderByStartDesc(User owner, Status status, Pageable pageable);
-
-
-    List<Booking> findAllByItemOwnerAndEndBeforeOrderByStartDesc(User owner, LocalDateTime currentTime, Pageable pageable);
-
-    List<Booking> findAllByItemOwnerAndStartBeforeAndEndAfterOrderByStartDesc(User owner, LocalDateTime currentTime,
-                                                                              LocalDateTime currentTimeSecondParameter,
-                                                                              Pageable pageable);
-
-    List<Booking> findAllByItemOwnerAndStartAfterOrderByStartDesc(User owner, LocalDateTime currentTime,
-                                                                  Pageable pageable);
-
-    Booking findFirstByItemAndStatusNotInAndStartBeforeOrderByStartDesc(Item item,
-                                                                        List<Status> statuses,
-                                                                        LocalDateTime currentTime);
-
-    Booking findFirstByItemAndStatusNotInAndStartAfterOrderByStartAsc(Item item,
-                                                                      List<Status> statuses,
-                                                                      LocalDateTime currentTime);
+    @Query("select new ru.practicum.shareit.booking.storage.BookingInterval(bk.id, bk.item.id, bk.start, bk.end) " +
+            "from Booking as bk " +
+            "where bk.status not in ?1")
+    List<BookingInterval> findAllIntervalsByStatusNotIn(List<Status> statuses);
 
     long countByBookerAndItemAndEndBefore(User user, Item item, LocalDateTime currentTime);
 
-/*    @Query(value = "SELECT DISTINCT ON (item_id) " +
-            "bk.id, bk.item_id, bk.start_time, bk.end_time, bk.user_id, bk.status " +
-            "FROM bookings as bk " +
-            "WHERE bk.item_id IN (?1) " +
-            "AND bk.status NOT IN ('CANCELLED', 'REJECTED') " +
-            "AND bk.start_time < ?2 " +
-            "ORDER BY bk.item_id, bk.start_time DESC ", nativeQuery = true)
-    List<Booking> findAllByItemInAndStatusNotInAndStartBeforeOrderByStartDesc(List<Item> items,
-                                                                              LocalDateTime currentTime,
-                                                                              Pageable pageable);
-
-    @Query(value = "SELECT DISTINCT ON (item_id) " +
-            "bk.id, bk.item_id, bk.start_time, bk.end_time, bk.user_id, bk.status " +
-            "FROM bookings as bk " +
-            "WHERE bk.item_id IN (?1) " +
-            "AND bk.status NOT IN ('CANCELLED', 'REJECTED') " +
-            "AND bk.start_time > ?2 " +
-            "ORDER BY bk.item_id, bk.start_time ASC ", nativeQuery = true)
-    List<Booking> findAllByItemInAndStatusNotInAndStartAfterOrderByStartAsc(List<Item> items,
-                                                                            LocalDateTime currentTime,
-                                                                            Pageable pageable);*/
-
-    @Query(value = "SELECT * FROM " +
-            "((SELECT DISTINCT ON (item_id) " +
-            "bk.id, bk.item_id, bk.start_time, bk.end_time, bk.user_id, bk.status " +
-            "FROM bookings as bk " +
-            "WHERE bk.item_id IN (?1) " +
-            "AND bk.status NOT IN ('CANCELLED', 'REJECTED') " +
-            "AND bk.start_time < ?2 " +
-            "ORDER BY bk.item_id, bk.start_time DESC) " +
-            "UNION " +
-            "(SELECT DISTINCT ON (item_id) " +
-            "bk.id, bk.item_id, bk.start_time, bk.end_time, bk.user_id, bk.status " +
-            "FROM bookings as bk " +
+    /**
+     * Для каждой вещи одним запросом возвращает последнее (start < now) и ближайшее следующее (start > now)
+     * бронирование: строки нумеруются внутри окна (вещь, до/после now), берется первая строка каждого окна.
+     * ROW_NUMBER поддерживается и PostgreSQL, и H2, в отличие от DISTINCT ON.
+     */
+    @Query(value = "SELECT ranked.id, ranked.item_id, ranked.start_time, ranked.end_time, ranked.user_id, ranked.status, " +
+            "ranked.owner_id " +
+            "FROM (SELECT bk.id, bk.item_id, bk.start_time, bk.end_time, bk.user_id, bk.status, bk.owner_id, " +
+            "ROW_NUMBER() OVER (PARTITION BY bk.item_id, CASE WHEN bk.start_time < ?2 THEN 0 ELSE 1 END " +
+            "ORDER BY CASE WHEN bk.start_time < ?2 THEN bk.start_time END DESC, " +
+            "CASE WHEN bk.start_time > ?2 THEN bk.start_time END ASC) AS row_num " +
+            "FROM bookings AS bk " +
             "WHERE bk.item_id IN (?1) " +
             "AND bk.status NOT IN ('CANCELLED', 'REJECTED') " +
-            "AND bk.start_time > ?2 " +
-            "ORDER BY bk.item_id, bk.start_time ASC))", nativeQuery = true)
-    List<Booking> findAllUnion(List<Item> items,
-                               LocalDateTime currentTime,
-                               Pageable pageable);
+            "AND bk.start_time <> ?2) AS ranked " +
+            "WHERE ranked.row_num = 1", nativeQuery = true)
+    List<Booking> findLastAndNextByItemIdIn(List<Long> itemIds, LocalDateTime currentTime);
 }
@@ -1,35 +1,57 @@
 package ru.practicum.shareit.item.controller;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import ru.practicum.shareit.item.dto.CommentDto;
 import ru.practicum.shareit.item.dto.CommentDtoFromUser;
 import ru.practicum.shareit.item.dto.ItemDtoFromOrToUser;
 import ru.practicum.shareit.item.dto.ItemDtoWithComments;
+import ru.practicum.shareit.item.dto.ItemFacetedSearchDto;
 import ru.practicum.shareit.item.dto.mapper.CommentDtoMapper;
 import ru.practicum.shareit.item.dto.mapper.ItemDtoMapper;
+import ru.practicum.shareit.item.enums.ItemRecency;
+import ru.practicum.shareit.item.enums.ItemSearchSort;
 import ru.practicum.shareit.item.model.Comment;
 import ru.practicum.shareit.item.model.Item;
 import ru.practicum.shareit.item.service.ItemService;
+import ru.practicum.shareit.item.storage.ItemFacetFilter;
 import ru.practicum.shareit.validationGroups.OnCreate;
 import ru.practicum.shareit.validationGroups.OnUpdate;
 
 import javax.validation.Valid;
+import javax.validation.ValidationException;
 import javax.validation.constraints.Max;
 import javax.validation.constraints.Min;
 import javax.validation.constraints.Positive;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.concurrent.atomic.AtomicInteger;
 
 @RestController
 @RequestMapping("/items")
 @RequiredArgsConstructor
 @Validated
 public class ItemController {
+    public static final String APPLICATION_NDJSON_VALUE = "application/x-ndjson";
+    private static final int FLUSH_EVERY = 100;
+    /**
+     * Ранжированный поиск держит в памяти from + size лучших вещей, поэтому глубина его страниц ограничена.
+     * Поиск в порядке id страниц в памяти не держит, и для него from не ограничен.
+     */
+    private static final int MAX_SEARCH_FROM = 10_000;
+
     private final ItemService itemService;
     private final ItemDtoMapper itemDtoMapper;
     private final CommentDtoMapper commentDtoMapper;
+    private final ObjectMapper objectMapper;
 
     @Validated(OnCreate.class)
     @PostMapping
@@ -71,8 +93,60 @@ public class ItemController {
             @RequestHeader("X-Sharer-User-Id") @Positive(message = "id не может быть меньше 1") long userId,
             @RequestParam("text") String text,
             @RequestParam(value = "from", defaultValue = "0") @Min(0) Integer from,
+            @RequestParam(value = "size", defaultValue = "20") @Min(1) @Max(100) Integer size,
+            @RequestParam(value = "sort", defaultValue = "ID") String sortParam) {
+        ItemSearchSort sort = ItemSearchSort.convert(sortParam.toUpperCase()).orElseThrow(() -> new IllegalArgumentException("Unknown sort: " + sortParam));
+        if (sort == ItemSearchSort.RELEVANCE && from > MAX_SEARCH_FROM) {
+            throw new ValidationException(String.format("При сортировке по релевантности from не может быть больше %d",
+                    MAX_SEARCH_FROM));
+        }
+        return sort == ItemSearchSort.RELEVANCE
+                ? itemService.searchByRelevance(userId, text, from / size, size)
+                : itemService.search(userId, text, from / size, size);
+    }
+
+    @GetMapping("/search/faceted")
+    public ItemFacetedSearchDto facetedSearch(
+            @RequestHeader("X-Sharer-User-Id") @Positive(message = "id не может быть меньше 1") long userId,
+            @RequestParam(value = "text", required = false) String text,
+            @RequestParam(value = "ownerId", required = false) @Positive(message = "id не может быть меньше 1") Long ownerId,
+            @RequestParam(value = "available", required = false) Boolean available,
+            @RequestParam(value = "hasRequest", required = false) Boolean hasRequest,
+            @RequestParam(value = "createdWithin", required = false) String createdWithinParam,
+            @RequestParam(value = "from", defaultValue = "0") @Min(0) Integer from,
             @RequestParam(value = "size", defaultValue = "20") @Min(1) @Max(100) Integer size) {
-        return itemService.search(userId, text, from / size, size).stream().map(itemDtoMapper::toDto).collect(Collectors.toList());
+        ItemRecency createdWithin = createdWithinParam == null ? null : ItemRecency.convert(createdWithinParam.toUpperCase())
+                .orElseThrow(() -> new IllegalArgumentException("Unknown createdWithin: " + createdWithinParam));
+        return itemService.facetedSearch(userId, text, new ItemFacetFilter(ownerId, available, hasRequest, createdWithin),
+                from / size, size);
+    }
+
+    /**
+     * Все найденные вещи без ограничения size, по одному JSON-объекту на строку. Строки пишутся по мере
+     * чтения курсора, первые из них уходят клиенту до окончания выборки.
+     */
+    @GetMapping(value = "/search/stream", params = "text", produces = APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamSearch(
+            @RequestHeader("X-Sharer-User-Id") @Positive(message = "id не может быть меньше 1") long userId,
+            @RequestParam("text") String text) {
+        ObjectWriter writer = objectMapper.writerFor(ItemDtoFromOrToUser.class);
+        StreamingResponseBody body = outputStream -> {
+            AtomicInteger written = new AtomicInteger();
+            itemService.streamSearch(userId, text, item ->
+                    writeLine(outputStream, writer, item, written.getAndIncrement() % FLUSH_EVERY == 0));
+            outputStream.flush();
+        };
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(APPLICATION_NDJSON_VALUE))
+                .body(body);
+    }
+
+    @GetMapping("/suggest")
+    public List<String> suggest(
+            @RequestHeader("X-Sharer-User-Id") @Positive(message = "id не может быть меньше 1") long userId,
+            @RequestParam("prefix") String prefix,
+            @RequestParam(value = "limit", defaultValue = "10") @Min(1) @Max(10) Integer limit) {
+        return itemService.suggestNames(userId, prefix, limit);
     }
 
     @PostMapping("/{itemId}/comment")
@@ -84,4 +158,16 @@ public class ItemController {
         comment.setText(commentDtoFromUser.getText());
         return commentDtoMapper.toCommentDto(itemService.addComment(userId, itemId, comment));
     }
+
+    private static void writeLine(OutputStream outputStream, ObjectWriter writer, ItemDtoFromOrToUser item, boolean flush) {
+        try {
+            outputStream.write(writer.writeValueAsBytes(item));
+            outputStream.write('\n');
+            if (flush) {
+                outputStream.flush();
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
 }
@@ -0,0 +1,17 @@
+package ru.practicum.shareit.item.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+import java.util.Map;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class ItemFacetedSearchDto {
+    private List<ItemDtoFromOrToUser> items;
+    private Integer total;
+    private Map<String, Map<String, Integer>> facets;
+}
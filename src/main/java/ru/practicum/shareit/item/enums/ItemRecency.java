@@ -0,0 +1,29 @@
+package ru.practicum.shareit.item.enums;
+
+import java.time.Duration;
+import java.util.Optional;
+
+public enum ItemRecency {
+    DAY(Duration.ofDays(1)),
+    WEEK(Duration.ofDays(7)),
+    MONTH(Duration.ofDays(30));
+
+    private final Duration period;
+
+    ItemRecency(Duration period) {
+        this.period = period;
+    }
+
+    public Duration getPeriod() {
+        return period;
+    }
+
+    public static Optional<ItemRecency> convert(String recencyParam) {
+        for (ItemRecency value : ItemRecency.values()) {
+            if (value.name().equals(recencyParam)) {
+                return Optional.of(value);
+            }
+        }
+        return Optional.empty();
+    }
+}
@@ -0,0 +1,17 @@
+package ru.practicum.shareit.item.enums;
+
+import java.util.Optional;
+
+public enum ItemSearchSort {
+    ID,
+    RELEVANCE;
+
+    public static Optional<ItemSearchSort> convert(String sortParam) {
+        for (ItemSearchSort value : ItemSearchSort.values()) {
+            if (value.name().equals(sortParam)) {
+                return Optional.of(value);
+            }
+        }
+        return Optional.empty();
+    }
+}
@@ -0,0 +1,40 @@
+package ru.practicum.shareit.item.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.Immutable;
+
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.Id;
+import javax.persistence.Table;
+import java.time.LocalDateTime;
+
+/**
+ * Колонки items, по которым строятся фасеты поиска. Как и ItemBookingSnapshot, отдельная сущность над той же
+ * таблицей, чтобы Item не менялся; только читается, created заполняет база.
+ */
+@Data
+@Entity
+@Immutable
+@Table(name = "items")
+@NoArgsConstructor
+@AllArgsConstructor
+public class ItemFacetAttributes {
+
+    @Id
+    private Long id;
+
+    @Column(name = "user_id")
+    private Long ownerId;
+
+    @Column
+    private Boolean available;
+
+    @Column(name = "request_id")
+    private Long requestId;
+
+    @Column
+    private LocalDateTime created;
+}
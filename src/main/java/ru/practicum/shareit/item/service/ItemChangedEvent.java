@@ -0,0 +1,22 @@
+package ru.practicum.shareit.item.service;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.storage.ItemSearchDocument;
+
+/**
+ * Публикуется при добавлении и изменении вещи. Слушатели, которым важен только закоммиченный результат,
+ * подписываются через @TransactionalEventListener.
+ * previous - название и описание до изменения, если вещь до него была доступна для поиска, иначе null.
+ */
+@Getter
+@AllArgsConstructor
+public class ItemChangedEvent {
+    private final Item item;
+    private final ItemSearchDocument previous;
+
+    public ItemChangedEvent(Item item) {
+        this(item, null);
+    }
+}
@@ -0,0 +1,143 @@
+package ru.practicum.shareit.item.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.Value;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.cache.CacheManager;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import ru.practicum.shareit.item.dto.ItemDtoFromOrToUser;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.storage.ItemSearchDocument;
+import ru.practicum.shareit.user.service.UserDeletedEvent;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+/**
+ * Кэш страниц поиска вещей по ключу (text без учета регистра, page, size). Поиск ищет text как подстроку
+ * названия или описания, поэтому изменение вещи затрагивает только запросы, чей text входит в ее старый
+ * или новый текст: после коммита удаляются только такие записи. Размер кэша ограничен суммарным числом
+ * вещей в закэшированных страницах (shareit.search.cache.spec), вытеснения и попадания видны в метриках
+ * cache.* с тегом cache=itemSearch.
+ */
+@Component
+@Slf4j
+public class ItemSearchResultCache {
+
+    public static final String ITEM_SEARCH_CACHE = "itemSearch";
+
+    private final Cache<Object, Object> cache;
+    private final Counter invalidatedEntries;
+    private final AtomicLong invalidations = new AtomicLong();
+
+    @SuppressWarnings("unchecked")
+    public ItemSearchResultCache(CacheManager cacheManager, MeterRegistry meterRegistry) {
+        this.cache = (Cache<Object, Object>) cacheManager.getCache(ITEM_SEARCH_CACHE).getNativeCache();
+        this.invalidatedEntries = Counter.builder("cache.invalidated.entries")
+                .description("Записи кэша поиска, удаленные из-за изменения вещей")
+                .tag("cache", ITEM_SEARCH_CACHE)
+                .register(meterRegistry);
+        Gauge.builder("cache.hit.ratio", cache, nativeCache -> nativeCache.stats().hitRate())
+                .tag("cache", ITEM_SEARCH_CACHE)
+                .register(meterRegistry);
+    }
+
+    /**
+     * Страница из кэша, при промахе - результат loader. Результат, загруженный одновременно
+     * с удалением записей, в кэше не остается, чтобы не закэшировать данные до коммита изменения.
+     * В кэше хранятся неизменяемые CachedItem, каждый вызов получает новые ItemDtoFromOrToUser:
+     * DTO изменяемы, и общий объект из кэша мог бы изменить один из запросов.
+     */
+    @SuppressWarnings("unchecked")
+    public List<ItemDtoFromOrToUser> get(String text, int page, int size, Supplier<List<ItemDtoFromOrToUser>> loader) {
+        Key key = new Key(normalize(text), page, size);
+        List<CachedItem> cached = (List<CachedItem>) cache.getIfPresent(key);
+        if (cached != null) {
+            return cached.stream().map(CachedItem::toDto).collect(Collectors.toList());
+        }
+        long invalidationsBefore = invalidations.get();
+        List<ItemDtoFromOrToUser> items = loader.get();
+        cache.put(key, items.stream().map(CachedItem::of).collect(Collectors.toUnmodifiableList()));
+        if (invalidations.get() != invalidationsBefore) {
+            cache.invalidate(key);
+        }
+        return items;
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onItemChanged(ItemChangedEvent event) {
+        List<String> texts = new ArrayList<>();
+        ItemSearchDocument previous = event.getPrevious();
+        if (previous != null) {
+            texts.add(normalize(previous.getName()));
+            texts.add(normalize(previous.getDescription()));
+        }
+        Item item = event.getItem();
+        if (Boolean.TRUE.equals(item.getAvailable())) {
+            texts.add(normalize(item.getName()));
+            texts.add(normalize(item.getDescription()));
+        }
+        if (texts.isEmpty()) {
+            return;
+        }
+        invalidations.incrementAndGet();
+        List<Object> affected = new ArrayList<>();
+        for (Object key : cache.asMap().keySet()) {
+            String queryText = ((Key) key).getText();
+            if (texts.stream().anyMatch(text -> text.contains(queryText))) {
+                affected.add(key);
+            }
+        }
+        cache.invalidateAll(affected);
+        invalidatedEntries.increment(affected.size());
+        log.debug("Из кэша поиска удалено записей после изменения вещи с id {}: {}", item.getId(), affected.size());
+    }
+
+    /**
+     * Вещи удаленного пользователя удаляются каскадно, их текст неизвестен, поэтому кэш очищается целиком.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onUserDeleted(UserDeletedEvent event) {
+        invalidations.incrementAndGet();
+        long size = cache.estimatedSize();
+        cache.invalidateAll();
+        invalidatedEntries.increment(size);
+    }
+
+    private static String normalize(String text) {
+        return text == null ? "" : text.toLowerCase(Locale.ROOT);
+    }
+
+    @Value
+    private static class Key {
+        String text;
+        int page;
+        int size;
+    }
+
+    @Value
+    private static class CachedItem {
+        Long id;
+        String name;
+        String description;
+        Boolean available;
+        Long requestId;
+
+        static CachedItem of(ItemDtoFromOrToUser item) {
+            return new CachedItem(item.getId(), item.getName(), item.getDescription(), item.getAvailable(),
+                    item.getRequestId());
+        }
+
+        ItemDtoFromOrToUser toDto() {
+            return new ItemDtoFromOrToUser(id, name, description, available, requestId);
+        }
+    }
+}
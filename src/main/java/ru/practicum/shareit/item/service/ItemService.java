@@ -2,11 +2,13 @@ package ru.practicum.shareit.item.service;
 
 import ru.practicum.shareit.item.dto.ItemDtoFromOrToUser;
 import ru.practicum.shareit.item.dto.ItemDtoWithComments;
+import ru.practicum.shareit.item.dto.ItemFacetedSearchDto;
 import ru.practicum.shareit.item.model.Comment;
 import ru.practicum.shareit.item.model.Item;
-import ru.practicum.shareit.request.model.ItemRequest;
+import ru.practicum.shareit.item.storage.ItemFacetFilter;
 
 import java.util.List;
+import java.util.function.Consumer;
 
 public interface ItemService {
     Item add(long userId, ItemDtoFromOrToUser itemDtoFromOrToUser);
@@ -19,12 +21,18 @@ public interface ItemService {
 
     List<ItemDtoWithComments> getAllForUserPageable(long userId, int page, int size);
 
-    List<Item> search(long userId, String text, int page, int size);
+    List<ItemDtoFromOrToUser> search(long userId, String text, int page, int size);
 
-    Comment addComment(long userId, long itemId, Comment comment);
+    List<ItemDtoFromOrToUser> searchByRelevance(long userId, String text, int page, int size);
+
+    List<String> suggestNames(long userId, String prefix, int limit);
+
+    void streamSearch(long userId, String text, Consumer<ItemDtoFromOrToUser> consumer);
 
-    List<Item> findItemsForRequest(long requestId);
+    ItemFacetedSearchDto facetedSearch(long userId, String text, ItemFacetFilter filter, int page, int size);
+
+    Comment addComment(long userId, long itemId, Comment comment);
 
-    List<Item> findItemsForRequests(List<ItemRequest> requests);
+    List<ItemDtoFromOrToUser> findItemsForRequest(long requestId);
 
 }
@@ -2,30 +2,43 @@ package ru.practicum.shareit.item.service;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import ru.practicum.shareit.booking.dto.mapper.BookingDtoMapper;
-import ru.practicum.shareit.booking.model.Booking;
 import ru.practicum.shareit.booking.service.BookingService;
 import ru.practicum.shareit.exceptions.AuthorizationException;
 import ru.practicum.shareit.exceptions.ObjectNotFoundException;
 import ru.practicum.shareit.item.dto.ItemDtoFromOrToUser;
 import ru.practicum.shareit.item.dto.ItemDtoWithComments;
+import ru.practicum.shareit.item.dto.ItemFacetedSearchDto;
 import ru.practicum.shareit.item.dto.mapper.CommentDtoMapper;
 import ru.practicum.shareit.item.dto.mapper.ItemDtoMapper;
 import ru.practicum.shareit.item.model.Comment;
 import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.model.ItemBookingSnapshot;
+import ru.practicum.shareit.item.storage.ItemBookingSnapshotRepository;
 import ru.practicum.shareit.item.storage.CommentRepository;
+import ru.practicum.shareit.item.storage.ItemFacetFilter;
+import ru.practicum.shareit.item.storage.ItemFacetIndex;
+import ru.practicum.shareit.item.storage.ItemFacetPage;
+import ru.practicum.shareit.item.storage.ItemNameSuggester;
+import ru.practicum.shareit.item.storage.ItemRelevanceIndex;
 import ru.practicum.shareit.item.storage.ItemRepository;
-import ru.practicum.shareit.request.model.ItemRequest;
+import ru.practicum.shareit.item.storage.ItemSearchDocument;
+import ru.practicum.shareit.item.storage.ItemTextSearch;
+import ru.practicum.shareit.request.dto.ItemRequestInfoDto;
+import ru.practicum.shareit.request.service.ItemRequestFulfilledEvent;
 import ru.practicum.shareit.request.storage.ItemRequestRepository;
 import ru.practicum.shareit.user.model.User;
-import ru.practicum.shareit.user.storage.UserRepository;
+import ru.practicum.shareit.user.service.ActingUserContext;
 
-import java.time.LocalDateTime;
 import java.util.*;
+import java.util.function.Consumer;
+import java.util.function.Function;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Service
 @RequiredArgsConstructor
@@ -33,10 +46,17 @@ import java.util.stream.Collectors;
 @Transactional(readOnly = true)
 public class ItemServiceImpl implements ItemService {
     private final ItemRepository itemRepository;
-    private final UserRepository userRepository;
+    private final ActingUserContext actingUserContext;
     private final BookingService bookingService;
     private final CommentRepository commentRepository;
     private final ItemRequestRepository itemRequestRepository;
+    private final ItemBookingSnapshotRepository itemBookingSnapshotRepository;
+    private final ItemTextSearch itemTextSearch;
+    private final ItemRelevanceIndex itemRelevanceIndex;
+    private final ItemNameSuggester itemNameSuggester;
+    private final ItemSearchResultCache itemSearchResultCache;
+    private final ItemFacetIndex itemFacetIndex;
+    private final ApplicationEventPublisher eventPublisher;
 
     private final ItemDtoMapper itemDtoMapper;
     private final CommentDtoMapper commentDtoMapper;
@@ -45,11 +65,7 @@ public class ItemServiceImpl implements ItemService {
     @Transactional
     @Override
     public Item add(long userId, ItemDtoFromOrToUser itemDtoFromOrToUser) {
-        User user = userRepository.findById(userId).orElseThrow(() -> {
-                    log.error("Пользователь с id {} не найден", userId);
-                    return new ObjectNotFoundException(String.format("Пользователь с id %d не найден", userId));
-                }
-        );
+        User user = actingUserContext.resolve(userId);
         Item item = itemDtoMapper.toItem(itemDtoFromOrToUser);
         item.setOwner(user);
 
@@ -61,43 +77,47 @@ public class ItemServiceImpl implements ItemService {
                     }
             ));
         }
-        return itemRepository.save(item);
+        Item savedItem = itemRepository.save(item);
+        eventPublisher.publishEvent(new ItemChangedEvent(savedItem));
+        if (savedItem.getRequest() != null) {
+            eventPublisher.publishEvent(new ItemRequestFulfilledEvent(savedItem.getRequest().getRequester().getId(),
+                    new ItemRequestInfoDto.ItemInfoDto(savedItem.getId(), savedItem.getName(),
+                            savedItem.getDescription(), savedItem.getRequest().getId(), savedItem.getAvailable())));
+        }
+        return savedItem;
     }
 
     @Transactional
     @Override
     public Item updateItem(long userId, long itemId, Item item) {
-        userRepository.findById(userId).orElseThrow(() -> {
-                    log.error("Пользователь с id {} не найден", userId);
-                    return new ObjectNotFoundException(String.format("Пользователь с id %d не найден", userId));
-                }
-        );
+        actingUserContext.resolve(userId);
         Item savedItem = itemRepository.findById(itemId).orElseThrow(() -> {
             log.error("Вещи с id {} не найдено", itemId);
             return new ObjectNotFoundException(String.format("Вещи с id %d не найдено", itemId));
         });
         checkIfOwnerUpdates(userId, savedItem);
+        ItemSearchDocument previous = Boolean.TRUE.equals(savedItem.getAvailable())
+                ? new ItemSearchDocument(savedItem.getId(), userId, savedItem.getName(), savedItem.getDescription())
+                : null;
         updateFields(savedItem, item);
         itemRepository.save(savedItem);
+        eventPublisher.publishEvent(new ItemChangedEvent(savedItem, previous));
         return savedItem;
     }
 
     @Override
     public ItemDtoWithComments getWithBookingsById(long userId, long itemId) {
-        userRepository.findById(userId).orElseThrow(() -> {
-                    log.error("Пользователь с id {} не найден", userId);
-                    return new ObjectNotFoundException(String.format("Пользователь с id %d не найден", userId));
-                }
-        );
+        actingUserContext.resolve(userId);
         Item item = itemRepository.findById(itemId).orElseThrow(() -> {
             log.error("Вещи с id {} не найдено", itemId);
             return new ObjectNotFoundException(String.format("Вещи с id %d не найдено", itemId));
         });
         if (userId == item.getOwner().getId()) {
+            ItemBookingSnapshot snapshot = itemBookingSnapshotRepository.findById(itemId).orElse(null);
             return itemDtoMapper.toItemDtoWithComments(item,
                     commentDtoMapper.toCommentDtoList(commentRepository.findAllByItem(item)),
-                    bookingDtoMapper.toBookingDtoWithBookerId(bookingService.getLastOrNextBooking(item, true)),
-                    bookingDtoMapper.toBookingDtoWithBookerId(bookingService.getLastOrNextBooking(item, false)));
+                    bookingDtoMapper.toLastBookingDto(snapshot, item),
+                    bookingDtoMapper.toNextBookingDto(snapshot, item));
         } else {
             return itemDtoMapper.toItemDtoWithComments(item,
                     commentDtoMapper.toCommentDtoList(commentRepository.findAllByItem(item)), null, null);
@@ -114,8 +134,7 @@ public class ItemServiceImpl implements ItemService {
 
     @Override
     public List<ItemDtoWithComments> getAllForUserPageable(long userId, int page, int size) {
-        User user = userRepository.findById(userId)
-                .orElseThrow(() -> new ObjectNotFoundException(String.format("Пользователь с id %d не найден", userId)));
+        User user = actingUserContext.resolve(userId);
 
         List<Item> items = itemRepository.findAllByOwner(user, PageRequest.of(page, size));
         if (items.isEmpty()) {
@@ -125,30 +144,15 @@ public class ItemServiceImpl implements ItemService {
         Map<Long, List<Comment>> commentsMap = commentRepository.findAllByItemIn(items).stream()
                 .collect(Collectors.groupingBy(comment -> comment.getItem().getId()));
 
-        List<Booking> bookings = bookingService.findAllLastAndNextBookingsForItems(items, page, size);
-        Map<Long, Booking> lastBookings = new HashMap<>();
-        Map<Long, Booking> nextBookings = new HashMap<>();
-
-        if (!bookings.isEmpty()) {
-            Map<Long, List<Booking>> bookingsMap = bookings.stream()
-                    .collect(Collectors.groupingBy(booking -> booking.getItem().getId()));
-            for (Long longId : bookingsMap.keySet()) {
-                List<Booking> savedList = bookingsMap.get(longId);
-
-                Optional<Booking> lastBooking = savedList.stream()
-                        .filter(element -> element.getStart().isBefore(LocalDateTime.now())).findFirst();
-                lastBooking.ifPresent(booking -> lastBookings.put(longId, booking));
-
-                Optional<Booking> nextBooking = savedList.stream()
-                        .filter(element -> element.getStart().isAfter(LocalDateTime.now())).findFirst();
-                nextBooking.ifPresent(booking -> nextBookings.put(longId, booking));
-            }
-        }
+        Map<Long, ItemBookingSnapshot> snapshots = itemBookingSnapshotRepository.findAllById(items.stream()
+                        .map(Item::getId)
+                        .collect(Collectors.toList())).stream()
+                .collect(Collectors.toMap(ItemBookingSnapshot::getId, Function.identity()));
         return items.stream()
                 .map(item -> itemDtoMapper.toItemDtoWithComments(item,
                         commentDtoMapper.toCommentDtoList(commentsMap.getOrDefault(item.getId(), Collections.emptyList())),
-                        bookingDtoMapper.toBookingDtoWithBookerId(lastBookings.getOrDefault(item.getId(), null)),
-                        bookingDtoMapper.toBookingDtoWithBookerId(nextBookings.getOrDefault(item.getId(), null))))
+                        bookingDtoMapper.toLastBookingDto(snapshots.get(item.getId()), item),
+                        bookingDtoMapper.toNextBookingDto(snapshots.get(item.getId()), item)))
                 .sorted(Comparator.comparingLong(ItemDtoWithComments::getId))
                 .collect(Collectors.toList());
     }
@@ -156,11 +160,7 @@ public class ItemServiceImpl implements ItemService {
     @Transactional
     @Override
     public Comment addComment(long userId, long itemId, Comment comment) {
-        User user = userRepository.findById(userId)
-                .orElseThrow(() -> {
-                    log.error("Пользователь с id {} не найден", userId);
-                    return new ObjectNotFoundException(String.format("Пользователь с id %d не найден", userId));
-                });
+        User user = actingUserContext.resolve(userId);
         Item item = itemRepository.findById(itemId)
                 .orElseThrow(() -> {
                     log.error("Вещи с id {} не найдено", itemId);
@@ -173,23 +173,56 @@ public class ItemServiceImpl implements ItemService {
     }
 
     @Override
-    public List<Item> search(long userId, String text, int page, int size) {
+    public List<ItemDtoFromOrToUser> search(long userId, String text, int page, int size) {
         if (text.isBlank()) {
             log.error("поле text содержит пустую строку");
             return new ArrayList<>();
         }
-        return itemRepository.findAllContainingTextWithAvailableStatus(text, PageRequest.of(page, size));
+        return itemSearchResultCache.get(text, page, size, () -> itemTextSearch.search(text, page, size));
+    }
+
+    @Override
+    public List<ItemDtoFromOrToUser> searchByRelevance(long userId, String text, int page, int size) {
+        if (text.isBlank()) {
+            log.error("поле text содержит пустую строку");
+            return new ArrayList<>();
+        }
+        return itemRepository.findAllDtoByIdInOrder(itemRelevanceIndex.search(text, page * size, size));
+    }
+
+    @Override
+    public List<String> suggestNames(long userId, String prefix, int limit) {
+        if (prefix.isBlank()) {
+            log.error("поле prefix содержит пустую строку");
+            return new ArrayList<>();
+        }
+        return itemNameSuggester.suggest(prefix, limit);
+    }
+
+    @Override
+    public void streamSearch(long userId, String text, Consumer<ItemDtoFromOrToUser> consumer) {
+        if (text.isBlank()) {
+            log.error("поле text содержит пустую строку");
+            return;
+        }
+        try (Stream<ItemDtoFromOrToUser> items = itemRepository.streamAllContainingTextWithAvailableStatus(text)) {
+            items.forEach(consumer);
+        }
     }
 
     @Override
-    public List<Item> findItemsForRequest(long requestId) {
-        ItemRequest itemRequest = itemRequestRepository.findById(requestId).get();
-        return itemRepository.findAllByRequest(itemRequest);
+    public ItemFacetedSearchDto facetedSearch(long userId, String text, ItemFacetFilter filter, int page, int size) {
+        BitSet candidates = text == null || text.isBlank()
+                ? null
+                : ItemFacetIndex.toBitSet(itemRepository.findAllIdsContainingText(text));
+        ItemFacetPage facetPage = itemFacetIndex.search(candidates, filter, page * size, size);
+        List<ItemDtoFromOrToUser> items = itemRepository.findAllDtoByIdInOrder(facetPage.getItemIds());
+        return new ItemFacetedSearchDto(items, facetPage.getTotal(), facetPage.getFacets());
     }
 
     @Override
-    public List<Item> findItemsForRequests(List<ItemRequest> requests) {
-        return itemRepository.findAllByRequestIn(requests);
+    public List<ItemDtoFromOrToUser> findItemsForRequest(long requestId) {
+        return itemRepository.findAllDtoByRequestId(requestId);
     }
 
     private void checkIfOwnerUpdates(long userId, Item item) {
@@ -1,14 +1,20 @@
 package ru.practicum.shareit.item.storage;
 
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import ru.practicum.shareit.item.model.Comment;
 import ru.practicum.shareit.item.model.Item;
 
 import java.util.List;
 
+/**
+ * Авторы комментариев читаются тем же запросом: имя автора нужно в каждом CommentDto.
+ */
 public interface CommentRepository extends JpaRepository<Comment, Long> {
 
+    @EntityGraph(attributePaths = "author")
     List<Comment> findAllByItem(Item item);
 
+    @EntityGraph(attributePaths = "author")
     List<Comment> findAllByItemIn(List<Item> item);
 }
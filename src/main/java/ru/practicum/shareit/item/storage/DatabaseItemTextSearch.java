@@ -0,0 +1,25 @@
+package ru.practicum.shareit.item.storage;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+import ru.practicum.shareit.item.dto.ItemDtoFromOrToUser;
+
+import java.util.List;
+
+/**
+ * Поиск запросом LIKE. В PostgreSQL его обслуживают частичные индексы pg_trgm (миграция V6),
+ * в H2 выполняется полный просмотр таблицы.
+ */
+@Component
+@ConditionalOnProperty(name = ItemTextSearch.MODE_PROPERTY, havingValue = "database")
+@RequiredArgsConstructor
+public class DatabaseItemTextSearch implements ItemTextSearch {
+    private final ItemRepository itemRepository;
+
+    @Override
+    public List<ItemDtoFromOrToUser> search(String text, int page, int size) {
+        return itemRepository.findAllDtoContainingTextWithAvailableStatus(text, PageRequest.of(page, size));
+    }
+}
@@ -0,0 +1,45 @@
+package ru.practicum.shareit.item.storage;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+import ru.practicum.shareit.item.model.ItemBookingSnapshot;
+
+import javax.persistence.LockModeType;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface ItemBookingSnapshotRepository extends JpaRepository<ItemBookingSnapshot, Long> {
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select sn from ItemBookingSnapshot as sn where sn.id = ?1")
+    Optional<ItemBookingSnapshot> findByIdForUpdate(long itemId);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select sn from ItemBookingSnapshot as sn where sn.nextBookingStart <= ?1 order by sn.id")
+    List<ItemBookingSnapshot> findAllByNextBookingStartBefore(LocalDateTime currentTime, Pageable pageable);
+
+    /**
+     * Условное обновление: новая бронь становится следующей, только если она раньше текущей следующей.
+     * Сравнение и запись выполняются одним UPDATE под блокировкой строки, поэтому параллельные брони не теряются.
+     */
+    @Modifying(flushAutomatically = true)
+    @Query("update ItemBookingSnapshot as sn " +
+            "set sn.nextBookingId = ?2, sn.nextBookingStart = ?3, sn.nextBookingEnd = ?4, sn.nextBookerId = ?5 " +
+            "where sn.id = ?1 and (sn.nextBookingStart is null or sn.nextBookingStart > ?3)")
+    int offerNextBooking(long itemId, long bookingId, LocalDateTime start, LocalDateTime end, long bookerId);
+
+    /**
+     * Условное обновление: новая бронь становится последней, только если она позже текущей последней.
+     */
+    @Modifying(flushAutomatically = true)
+    @Query("update ItemBookingSnapshot as sn " +
+            "set sn.lastBookingId = ?2, sn.lastBookingStart = ?3, sn.lastBookingEnd = ?4, sn.lastBookerId = ?5 " +
+            "where sn.id = ?1 and (sn.lastBookingStart is null or sn.lastBookingStart < ?3)")
+    int offerLastBooking(long itemId, long bookingId, LocalDateTime start, LocalDateTime end, long bookerId);
+}
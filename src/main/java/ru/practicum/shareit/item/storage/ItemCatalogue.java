@@ -0,0 +1,52 @@
+package ru.practicum.shareit.item.storage;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import ru.practicum.shareit.item.service.ItemChangedEvent;
+import ru.practicum.shareit.user.service.UserDeletedEvent;
+
+import java.util.List;
+
+/**
+ * Единственный источник вещей для индексов в памяти (ItemCatalogueListener). Источником истины остается база:
+ * при старте приложения вещи читаются одним запросом и раздаются всем индексам, изменения вещей и удаление
+ * пользователя передаются индексам после коммита транзакции.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class ItemCatalogue {
+
+    private final ItemRepository itemRepository;
+    private final List<ItemCatalogueListener> listeners;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        List<ItemCatalogueEntry> items = itemRepository.findAllCatalogueEntries();
+        listeners.forEach(listener -> listener.catalogueLoaded(items));
+        log.info("Каталог вещей загружен, вещей: {}, индексов: {}", items.size(), listeners.size());
+    }
+
+    /**
+     * Выполняется раньше остальных слушателей, чтобы кэш результатов поиска не перезагрузил страницу
+     * из еще не обновленного индекса.
+     */
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onItemChanged(ItemChangedEvent event) {
+        ItemCatalogueEntry item = ItemCatalogueEntry.of(event.getItem());
+        listeners.forEach(listener -> listener.itemChanged(item));
+    }
+
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onUserDeleted(UserDeletedEvent event) {
+        listeners.forEach(listener -> listener.itemsDeleted(event.getDeletedItemIds()));
+    }
+}
@@ -0,0 +1,36 @@
+package ru.practicum.shareit.item.storage;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import ru.practicum.shareit.item.model.Item;
+
+import java.time.LocalDateTime;
+
+/**
+ * Вещь в том виде, в каком ее получают индексы в памяти. created известен только при загрузке каталога:
+ * у измененной вещи он null, время создания заполняет база.
+ */
+@Data
+@AllArgsConstructor
+public class ItemCatalogueEntry {
+    private Long id;
+    private Long ownerId;
+    private String name;
+    private String description;
+    private Boolean available;
+    private Long requestId;
+    private LocalDateTime created;
+
+    public static ItemCatalogueEntry of(Item item) {
+        return new ItemCatalogueEntry(item.getId(), item.getOwner().getId(), item.getName(), item.getDescription(),
+                item.getAvailable(), item.getRequest() == null ? null : item.getRequest().getId(), null);
+    }
+
+    public boolean isSearchable() {
+        return Boolean.TRUE.equals(available);
+    }
+
+    public ItemSearchDocument toSearchDocument() {
+        return new ItemSearchDocument(id, ownerId, name, description);
+    }
+}
@@ -0,0 +1,19 @@
+package ru.practicum.shareit.item.storage;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Индекс вещей в памяти, который заполняет и обновляет ItemCatalogue.
+ */
+public interface ItemCatalogueListener {
+
+    /**
+     * Все вещи, включая недоступные; прежнее содержимое индекса заменяется.
+     */
+    void catalogueLoaded(List<ItemCatalogueEntry> items);
+
+    void itemChanged(ItemCatalogueEntry item);
+
+    void itemsDeleted(Collection<Long> itemIds);
+}
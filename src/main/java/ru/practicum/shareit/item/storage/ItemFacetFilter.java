@@ -0,0 +1,19 @@
+package ru.practicum.shareit.item.storage;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import ru.practicum.shareit.item.enums.ItemRecency;
+
+/**
+ * Фильтры поиска с фасетами, null - фильтр не задан.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class ItemFacetFilter {
+    private Long ownerId;
+    private Boolean available;
+    private Boolean hasRequest;
+    private ItemRecency createdWithin;
+}
@@ -0,0 +1,370 @@
+package ru.practicum.shareit.item.storage;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import ru.practicum.shareit.item.enums.ItemRecency;
+import ru.practicum.shareit.item.model.ItemFacetAttributes;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.IntConsumer;
+
+/**
+ * Множества id всех вещей (включая недоступные) по значениям фильтров: владелец, доступность,
+ * наличие запроса, время создания. Фильтры и счетчики фасетов считаются пересечениями множеств в памяти,
+ * без запросов COUNT к базе. Счетчик фасета считается с остальными фильтрами, но без своего,
+ * чтобы были видны соседние значения.
+ * Битовыми множествами хранятся только общие множества (все, доступные, с запросом): их размер линеен
+ * от числа вещей. Вещи владельца и вещи одного дня создания хранятся отсортированными массивами id,
+ * потому что BitSet занимает память до самого большого id даже с одной вещью. Для каждого ItemRecency
+ * битовое множество вещей, созданных в полные дни периода, поддерживается при изменениях и пересобирается
+ * при смене даты; при поиске к нему добавляются только вещи граничного дня.
+ */
+@Component
+@Slf4j
+public class ItemFacetIndex implements ItemCatalogueListener {
+
+    public static final String OWNER_FACET = "owner";
+    public static final String AVAILABLE_FACET = "available";
+    public static final String HAS_REQUEST_FACET = "hasRequest";
+    public static final String CREATED_WITHIN_FACET = "createdWithin";
+    static final int MAX_OWNER_VALUES = 10;
+    /**
+     * Если кандидатов меньше чем 1/OWNER_SCAN_RATIO от всех вещей, владельцы считаются по кандидатам,
+     * иначе - проходом по массивам вещей владельцев.
+     */
+    static final int OWNER_SCAN_RATIO = 16;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<Long, ItemFacetAttributes> items = new HashMap<>();
+    private final BitSet all = new BitSet();
+    private final BitSet available = new BitSet();
+    private final BitSet withRequest = new BitSet();
+    private final Map<Long, SortedIds> byOwner = new HashMap<>();
+    private final NavigableMap<LocalDate, SortedIds> byCreatedDay = new TreeMap<>();
+    private final Map<ItemRecency, BitSet> createdInFullDays = new EnumMap<>(ItemRecency.class);
+    private volatile LocalDate fullDaysDate = LocalDate.now();
+
+    public ItemFacetIndex() {
+        for (ItemRecency recency : ItemRecency.values()) {
+            createdInFullDays.put(recency, new BitSet());
+        }
+    }
+
+    @Override
+    public void catalogueLoaded(List<ItemCatalogueEntry> catalogue) {
+        lock.writeLock().lock();
+        try {
+            items.clear();
+            all.clear();
+            available.clear();
+            withRequest.clear();
+            byOwner.clear();
+            byCreatedDay.clear();
+            createdInFullDays.values().forEach(BitSet::clear);
+            catalogue.forEach(item -> putLocked(attributes(item, item.getCreated())));
+        } finally {
+            lock.writeLock().unlock();
+        }
+        log.info("Индекс фасетов вещей построен, загружено вещей: {}", catalogue.size());
+    }
+
+    /**
+     * Новой вещи, которой еще нет в индексе, время создания ставится по времени события.
+     */
+    @Override
+    public void itemChanged(ItemCatalogueEntry item) {
+        lock.writeLock().lock();
+        try {
+            ItemFacetAttributes indexed = items.get(item.getId());
+            putLocked(attributes(item, indexed == null ? LocalDateTime.now() : indexed.getCreated()));
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void itemsDeleted(Collection<Long> itemIds) {
+        lock.writeLock().lock();
+        try {
+            itemIds.forEach(this::removeLocked);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Страница id вещей из candidates (null - все вещи), прошедших фильтры, в порядке id, и счетчики фасетов.
+     */
+    public ItemFacetPage search(BitSet candidates, ItemFacetFilter filter, int offset, int limit) {
+        LocalDateTime now = LocalDateTime.now();
+        refreshFullDays(now.toLocalDate());
+        lock.readLock().lock();
+        try {
+            BitSet base = (BitSet) all.clone();
+            if (candidates != null) {
+                base.and(candidates);
+            }
+            Map<ItemRecency, BitSet> createdMasks = createdSince(now);
+            BitSet ownerMask = filter.getOwnerId() == null ? null : ownerMask(filter.getOwnerId());
+            BitSet availableMask = filter.getAvailable() == null ? null : valueMask(available, filter.getAvailable());
+            BitSet requestMask = filter.getHasRequest() == null ? null : valueMask(withRequest, filter.getHasRequest());
+            BitSet createdMask = filter.getCreatedWithin() == null ? null : createdMasks.get(filter.getCreatedWithin());
+
+            Map<String, Map<String, Integer>> facets = new LinkedHashMap<>();
+            facets.put(OWNER_FACET, ownerCounts(intersect(base, availableMask, requestMask, createdMask)));
+            facets.put(AVAILABLE_FACET, valueCounts(intersect(base, ownerMask, requestMask, createdMask), available));
+            facets.put(HAS_REQUEST_FACET, valueCounts(intersect(base, ownerMask, availableMask, createdMask), withRequest));
+            facets.put(CREATED_WITHIN_FACET, createdCounts(intersect(base, ownerMask, availableMask, requestMask),
+                    createdMasks));
+
+            BitSet matched = intersect(base, ownerMask, availableMask, requestMask, createdMask);
+            List<Long> itemIds = new ArrayList<>();
+            int skipped = 0;
+            for (int id = matched.nextSetBit(0); id >= 0 && itemIds.size() < limit; id = matched.nextSetBit(id + 1)) {
+                if (skipped < offset) {
+                    skipped++;
+                } else {
+                    itemIds.add((long) id);
+                }
+            }
+            return new ItemFacetPage(itemIds, matched.cardinality(), facets);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public static BitSet toBitSet(Collection<Long> itemIds) {
+        BitSet bitSet = new BitSet();
+        itemIds.forEach(itemId -> bitSet.set(index(itemId)));
+        return bitSet;
+    }
+
+    private static ItemFacetAttributes attributes(ItemCatalogueEntry item, LocalDateTime created) {
+        return new ItemFacetAttributes(item.getId(), item.getOwnerId(), item.getAvailable(), item.getRequestId(),
+                created);
+    }
+
+    private void putLocked(ItemFacetAttributes attributes) {
+        removeLocked(attributes.getId());
+        int index = index(attributes.getId());
+        items.put(attributes.getId(), attributes);
+        all.set(index);
+        if (Boolean.TRUE.equals(attributes.getAvailable())) {
+            available.set(index);
+        }
+        if (attributes.getRequestId() != null) {
+            withRequest.set(index);
+        }
+        byOwner.computeIfAbsent(attributes.getOwnerId(), key -> new SortedIds()).add(index);
+        LocalDate createdDay = attributes.getCreated().toLocalDate();
+        byCreatedDay.computeIfAbsent(createdDay, key -> new SortedIds()).add(index);
+        createdInFullDays.forEach((recency, set) -> {
+            if (createdDay.isAfter(boundaryDay(fullDaysDate, recency))) {
+                set.set(index);
+            }
+        });
+    }
+
+    private void removeLocked(long itemId) {
+        ItemFacetAttributes attributes = items.remove(itemId);
+        if (attributes == null) {
+            return;
+        }
+        int index = index(itemId);
+        all.clear(index);
+        available.clear(index);
+        withRequest.clear(index);
+        clearIn(byOwner, attributes.getOwnerId(), index);
+        clearIn(byCreatedDay, attributes.getCreated().toLocalDate(), index);
+        createdInFullDays.values().forEach(set -> set.clear(index));
+    }
+
+    /**
+     * После смены даты граничные дни периодов сдвигаются, и множества полных дней пересобираются.
+     */
+    private void refreshFullDays(LocalDate today) {
+        if (today.equals(fullDaysDate)) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            if (!today.equals(fullDaysDate)) {
+                fullDaysDate = today;
+                createdInFullDays.forEach((recency, set) -> {
+                    set.clear();
+                    byCreatedDay.tailMap(boundaryDay(today, recency), false).values().forEach(ids -> ids.setIn(set));
+                });
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * День, в который начинается период: вещи этого дня попадают в период не целиком.
+     */
+    private static LocalDate boundaryDay(LocalDate today, ItemRecency recency) {
+        return today.minusDays(recency.getPeriod().toDays());
+    }
+
+    private BitSet ownerMask(long ownerId) {
+        BitSet mask = new BitSet();
+        SortedIds ids = byOwner.get(ownerId);
+        if (ids != null) {
+            ids.setIn(mask);
+        }
+        return mask;
+    }
+
+    private BitSet valueMask(BitSet values, boolean value) {
+        if (value) {
+            return values;
+        }
+        BitSet mask = (BitSet) all.clone();
+        mask.andNot(values);
+        return mask;
+    }
+
+    /**
+     * Вещи, созданные не раньше now минус период, для каждого ItemRecency: множество полных дней
+     * и вещи граничного дня, проверенные по точному времени создания.
+     */
+    private Map<ItemRecency, BitSet> createdSince(LocalDateTime now) {
+        Map<ItemRecency, BitSet> masks = new EnumMap<>(ItemRecency.class);
+        createdInFullDays.forEach((recency, fullDays) -> {
+            BitSet mask = (BitSet) fullDays.clone();
+            LocalDateTime since = now.minus(recency.getPeriod());
+            SortedIds boundary = byCreatedDay.get(boundaryDay(fullDaysDate, recency));
+            if (boundary != null) {
+                boundary.forEach(index -> {
+                    if (!items.get((long) index).getCreated().isBefore(since)) {
+                        mask.set(index);
+                    }
+                });
+            }
+            masks.put(recency, mask);
+        });
+        return masks;
+    }
+
+    private Map<String, Integer> ownerCounts(BitSet set) {
+        Map<Long, Integer> counts = new HashMap<>();
+        if ((long) set.cardinality() * OWNER_SCAN_RATIO < items.size()) {
+            set.stream().forEach(index -> counts.merge(items.get((long) index).getOwnerId(), 1, Integer::sum));
+        } else {
+            byOwner.forEach((ownerId, ids) -> {
+                int count = ids.countIn(set);
+                if (count > 0) {
+                    counts.put(ownerId, count);
+                }
+            });
+        }
+        Map<String, Integer> top = new LinkedHashMap<>();
+        counts.entrySet().stream()
+                .sorted(Map.Entry.<Long, Integer>comparingByValue().reversed()
+                        .thenComparing(Map.Entry.comparingByKey()))
+                .limit(MAX_OWNER_VALUES)
+                .forEach(entry -> top.put(String.valueOf(entry.getKey()), entry.getValue()));
+        return top;
+    }
+
+    private static Map<String, Integer> valueCounts(BitSet set, BitSet values) {
+        BitSet withValue = (BitSet) set.clone();
+        withValue.and(values);
+        Map<String, Integer> counts = new LinkedHashMap<>();
+        counts.put("true", withValue.cardinality());
+        counts.put("false", set.cardinality() - withValue.cardinality());
+        return counts;
+    }
+
+    private static Map<String, Integer> createdCounts(BitSet set, Map<ItemRecency, BitSet> createdMasks) {
+        Map<String, Integer> counts = new LinkedHashMap<>();
+        createdMasks.forEach((recency, mask) -> counts.put(recency.name(), intersect(set, mask).cardinality()));
+        return counts;
+    }
+
+    private static BitSet intersect(BitSet base, BitSet... masks) {
+        BitSet result = (BitSet) base.clone();
+        for (BitSet mask : masks) {
+            if (mask != null) {
+                result.and(mask);
+            }
+        }
+        return result;
+    }
+
+    private static <K> void clearIn(Map<K, SortedIds> sets, K key, int index) {
+        SortedIds ids = sets.get(key);
+        if (ids != null) {
+            ids.remove(index);
+            if (ids.isEmpty()) {
+                sets.remove(key);
+            }
+        }
+    }
+
+    private static int index(long itemId) {
+        return Math.toIntExact(itemId);
+    }
+
+    /**
+     * Отсортированный массив id: память пропорциональна числу вещей в множестве, а не наибольшему id.
+     * Новые вещи получают растущие id, поэтому вставка почти всегда идет в конец массива.
+     */
+    private static final class SortedIds {
+        private int[] ids = new int[4];
+        private int size;
+
+        void add(int id) {
+            int position = Arrays.binarySearch(ids, 0, size, id);
+            if (position >= 0) {
+                return;
+            }
+            position = -position - 1;
+            if (size == ids.length) {
+                ids = Arrays.copyOf(ids, size * 2);
+            }
+            System.arraycopy(ids, position, ids, position + 1, size - position);
+            ids[position] = id;
+            size++;
+        }
+
+        void remove(int id) {
+            int position = Arrays.binarySearch(ids, 0, size, id);
+            if (position >= 0) {
+                System.arraycopy(ids, position + 1, ids, position, size - position - 1);
+                size--;
+            }
+        }
+
+        boolean isEmpty() {
+            return size == 0;
+        }
+
+        int countIn(BitSet set) {
+            int count = 0;
+            for (int i = 0; i < size; i++) {
+                if (set.get(ids[i])) {
+                    count++;
+                }
+            }
+            return count;
+        }
+
+        void setIn(BitSet set) {
+            for (int i = 0; i < size; i++) {
+                set.set(ids[i]);
+            }
+        }
+
+        void forEach(IntConsumer action) {
+            for (int i = 0; i < size; i++) {
+                action.accept(ids[i]);
+            }
+        }
+    }
+}
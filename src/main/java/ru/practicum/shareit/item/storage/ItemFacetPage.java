@@ -0,0 +1,18 @@
+package ru.practicum.shareit.item.storage;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Страница id вещей, общее число подходящих вещей и счетчики фасетов: фасет -> значение -> число вещей.
+ */
+@Data
+@AllArgsConstructor
+public class ItemFacetPage {
+    private List<Long> itemIds;
+    private int total;
+    private Map<String, Map<String, Integer>> facets;
+}
@@ -0,0 +1,276 @@
+package ru.practicum.shareit.item.storage;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.util.*;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Подсказки названий доступных вещей по началу строки. Названия без учета регистра хранятся
+ * в сжатом префиксном дереве (цепочки узлов с одним потомком склеены в одно ребро), каждый узел
+ * держит готовый список из MAX_SUGGESTIONS лучших продолжений: чаще встречающиеся названия выше,
+ * при равенстве - по алфавиту. Запрос проходит только по символам префикса и отдает готовый список.
+ * При изменении названия или доступности вещи пересчитываются списки узлов на пути к этому названию.
+ */
+@Component
+@Slf4j
+public class ItemNameSuggester implements ItemCatalogueListener {
+
+    public static final int MAX_SUGGESTIONS = 10;
+
+    private static final Comparator<Suggestion> BY_POPULARITY = Comparator.comparingInt(Suggestion::getItemCount)
+            .reversed()
+            .thenComparing(Suggestion::getKey);
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<Long, ItemSearchDocument> documents = new HashMap<>();
+    private Node root = new Node("");
+
+    @Override
+    public void catalogueLoaded(List<ItemCatalogueEntry> catalogue) {
+        lock.writeLock().lock();
+        try {
+            documents.clear();
+            root = new Node("");
+            catalogue.stream().filter(ItemCatalogueEntry::isSearchable).map(ItemCatalogueEntry::toSearchDocument)
+                    .forEach(this::putLocked);
+        } finally {
+            lock.writeLock().unlock();
+        }
+        log.info("Дерево подсказок названий вещей построено, загружено вещей: {}", documents.size());
+    }
+
+    @Override
+    public void itemChanged(ItemCatalogueEntry item) {
+        if (item.isSearchable()) {
+            put(item.toSearchDocument());
+        } else {
+            remove(item.getId());
+        }
+    }
+
+    @Override
+    public void itemsDeleted(Collection<Long> itemIds) {
+        lock.writeLock().lock();
+        try {
+            itemIds.forEach(this::removeLocked);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Не больше limit названий доступных вещей, начинающихся с prefix без учета регистра.
+     */
+    public List<String> suggest(String prefix, int limit) {
+        String key = normalize(prefix);
+        if (key.isEmpty() || limit <= 0) {
+            return new ArrayList<>();
+        }
+        lock.readLock().lock();
+        try {
+            Node node = root;
+            int matched = 0;
+            while (matched < key.length()) {
+                node = node.children.get(key.charAt(matched));
+                if (node == null) {
+                    return new ArrayList<>();
+                }
+                int length = Math.min(node.label.length(), key.length() - matched);
+                if (!node.label.regionMatches(0, key, matched, length)) {
+                    return new ArrayList<>();
+                }
+                matched += length;
+            }
+            List<String> names = new ArrayList<>();
+            for (Suggestion suggestion : node.best) {
+                if (names.size() == limit) {
+                    break;
+                }
+                names.add(suggestion.getName());
+            }
+            return names;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public void put(ItemSearchDocument document) {
+        lock.writeLock().lock();
+        try {
+            putLocked(document);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(long itemId) {
+        lock.writeLock().lock();
+        try {
+            removeLocked(itemId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void putLocked(ItemSearchDocument document) {
+        ItemSearchDocument previous = documents.put(document.getId(), document);
+        if (previous != null) {
+            if (Objects.equals(previous.getName(), document.getName())) {
+                return;
+            }
+            removeName(previous.getName());
+        }
+        addName(document.getName());
+    }
+
+    private void removeLocked(long itemId) {
+        ItemSearchDocument document = documents.remove(itemId);
+        if (document != null) {
+            removeName(document.getName());
+        }
+    }
+
+    private void addName(String name) {
+        String key = normalize(name);
+        if (key.isEmpty()) {
+            return;
+        }
+        Deque<Node> path = new ArrayDeque<>();
+        Node node = root;
+        path.push(node);
+        int matched = 0;
+        while (matched < key.length()) {
+            char next = key.charAt(matched);
+            Node child = node.children.get(next);
+            if (child == null) {
+                child = new Node(key.substring(matched));
+                node.children.put(next, child);
+                matched = key.length();
+            } else {
+                int common = commonPrefixLength(child.label, key, matched);
+                if (common < child.label.length()) {
+                    Node middle = new Node(child.label.substring(0, common));
+                    child.label = child.label.substring(common);
+                    middle.children.put(child.label.charAt(0), child);
+                    node.children.put(next, middle);
+                    child = middle;
+                }
+                matched += common;
+            }
+            node = child;
+            path.push(node);
+        }
+        if (node.itemCount++ == 0) {
+            node.name = name.trim();
+        }
+        path.forEach(Node::updateBest);
+    }
+
+    private void removeName(String name) {
+        String key = normalize(name);
+        if (key.isEmpty()) {
+            return;
+        }
+        Deque<Node> path = new ArrayDeque<>();
+        Node node = root;
+        path.push(node);
+        int matched = 0;
+        while (matched < key.length()) {
+            node = node.children.get(key.charAt(matched));
+            if (node == null || !key.startsWith(node.label, matched)) {
+                return;
+            }
+            matched += node.label.length();
+            path.push(node);
+        }
+        if (node.itemCount == 0) {
+            return;
+        }
+        node.itemCount--;
+        path.pop();
+        Node child = node;
+        for (Node parent : path) {
+            if (child.itemCount == 0 && child.children.isEmpty()) {
+                parent.children.remove(child.label.charAt(0));
+            } else if (child.itemCount == 0 && child.children.size() == 1) {
+                Node grandChild = child.children.values().iterator().next();
+                grandChild.label = child.label + grandChild.label;
+                parent.children.put(grandChild.label.charAt(0), grandChild);
+            } else {
+                child.updateBest();
+            }
+            child = parent;
+        }
+        root.updateBest();
+    }
+
+    private static int commonPrefixLength(String label, String key, int offset) {
+        int length = 0;
+        while (length < label.length() && offset + length < key.length()
+                && label.charAt(length) == key.charAt(offset + length)) {
+            length++;
+        }
+        return length;
+    }
+
+    private static String normalize(String text) {
+        return text == null ? "" : text.trim().toLowerCase(Locale.ROOT);
+    }
+
+    private static final class Node {
+        private String label;
+        private final Map<Character, Node> children = new HashMap<>();
+        private int itemCount;
+        private String name;
+        private List<Suggestion> best = List.of();
+
+        private Node(String label) {
+            this.label = label;
+        }
+
+        /**
+         * Собирает лучшие продолжения из собственного названия и готовых списков потомков.
+         */
+        private void updateBest() {
+            PriorityQueue<Suggestion> candidates = new PriorityQueue<>(BY_POPULARITY);
+            if (itemCount > 0) {
+                candidates.add(new Suggestion(normalize(name), name, itemCount));
+            }
+            for (Node child : children.values()) {
+                candidates.addAll(child.best);
+            }
+            List<Suggestion> updated = new ArrayList<>(Math.min(candidates.size(), MAX_SUGGESTIONS));
+            while (!candidates.isEmpty() && updated.size() < MAX_SUGGESTIONS) {
+                updated.add(candidates.poll());
+            }
+            best = List.copyOf(updated);
+        }
+    }
+
+    private static final class Suggestion {
+        private final String key;
+        private final String name;
+        private final int itemCount;
+
+        private Suggestion(String key, String name, int itemCount) {
+            this.key = key;
+            this.name = name;
+            this.itemCount = itemCount;
+        }
+
+        private String getKey() {
+            return key;
+        }
+
+        private String getName() {
+            return name;
+        }
+
+        private int getItemCount() {
+            return itemCount;
+        }
+    }
+}
@@ -0,0 +1,355 @@
+package ru.practicum.shareit.item.storage;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.util.*;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.regex.Pattern;
+
+/**
+ * Индекс доступных вещей для поиска с ранжированием по BM25. Название и описание индексируются
+ * как отдельные поля, совпадение в названии весит больше. Слово запроса сопоставляется со словами
+ * словаря на расстоянии Левенштейна до 1 (от 5 букв) или до 2 (от 9 букв): кандидаты отбираются
+ * по общим триграммам, вес совпадения с опечаткой снижается. Из набранных оценок держится только
+ * куча из offset + limit лучших вещей, полная сортировка результатов не выполняется.
+ */
+@Component
+@Slf4j
+public class ItemRelevanceIndex implements ItemCatalogueListener {
+
+    static final double K1 = 1.2;
+    static final double B = 0.75;
+    static final double NAME_BOOST = 2.0;
+    static final double DESCRIPTION_BOOST = 1.0;
+    private static final int GRAM_LENGTH = 3;
+    private static final String PADDING = "^^";
+    private static final Pattern TOKEN_SEPARATOR = Pattern.compile("[^\\p{L}\\p{Nd}]+");
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<Long, IndexedItem> items = new HashMap<>();
+    private final Field name = new Field(NAME_BOOST);
+    private final Field description = new Field(DESCRIPTION_BOOST);
+    private final Map<String, Integer> documentFrequency = new HashMap<>();
+    private final Map<String, Set<String>> termsByGram = new HashMap<>();
+
+    @Override
+    public void catalogueLoaded(List<ItemCatalogueEntry> catalogue) {
+        lock.writeLock().lock();
+        try {
+            items.clear();
+            name.clear();
+            description.clear();
+            documentFrequency.clear();
+            termsByGram.clear();
+            catalogue.stream().filter(ItemCatalogueEntry::isSearchable).map(ItemCatalogueEntry::toSearchDocument)
+                    .forEach(this::putLocked);
+        } finally {
+            lock.writeLock().unlock();
+        }
+        log.info("Индекс ранжированного поиска вещей построен, загружено вещей: {}", items.size());
+    }
+
+    @Override
+    public void itemChanged(ItemCatalogueEntry item) {
+        if (item.isSearchable()) {
+            put(item.toSearchDocument());
+        } else {
+            remove(item.getId());
+        }
+    }
+
+    @Override
+    public void itemsDeleted(Collection<Long> itemIds) {
+        lock.writeLock().lock();
+        try {
+            itemIds.forEach(this::removeLocked);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * id доступных вещей по убыванию релевантности, при равной оценке - по возрастанию id.
+     */
+    public List<Long> search(String text, int offset, int limit) {
+        Set<String> queryTerms = new LinkedHashSet<>(tokenize(text));
+        if (queryTerms.isEmpty() || limit <= 0) {
+            return new ArrayList<>();
+        }
+        lock.readLock().lock();
+        try {
+            Map<Long, Double> scores = new HashMap<>();
+            for (String queryTerm : queryTerms) {
+                Map<Long, Double> termScores = new HashMap<>();
+                for (Map.Entry<String, Integer> match : expand(queryTerm).entrySet()) {
+                    double weight = idf(match.getKey()) / (1 + match.getValue());
+                    Map<Long, Double> matchScores = new HashMap<>();
+                    name.score(match.getKey(), weight, matchScores);
+                    description.score(match.getKey(), weight, matchScores);
+                    matchScores.forEach((itemId, score) -> termScores.merge(itemId, score, Math::max));
+                }
+                termScores.forEach((itemId, score) -> scores.merge(itemId, score, Double::sum));
+            }
+            return top(scores, offset, limit);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public void put(ItemSearchDocument document) {
+        lock.writeLock().lock();
+        try {
+            putLocked(document);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(long itemId) {
+        lock.writeLock().lock();
+        try {
+            removeLocked(itemId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public static List<String> tokenize(String text) {
+        List<String> tokens = new ArrayList<>();
+        if (text == null) {
+            return tokens;
+        }
+        for (String token : TOKEN_SEPARATOR.split(text.toLowerCase(Locale.ROOT))) {
+            if (!token.isEmpty()) {
+                tokens.add(token);
+            }
+        }
+        return tokens;
+    }
+
+    static int allowedEdits(String term) {
+        if (term.length() >= 9) {
+            return 2;
+        }
+        return term.length() >= 5 ? 1 : 0;
+    }
+
+    /**
+     * Расстояние Левенштейна, если оно не больше maxEdits, иначе maxEdits + 1.
+     */
+    static int boundedLevenshtein(String left, String right, int maxEdits) {
+        if (Math.abs(left.length() - right.length()) > maxEdits) {
+            return maxEdits + 1;
+        }
+        int[] previous = new int[right.length() + 1];
+        int[] current = new int[right.length() + 1];
+        for (int j = 0; j <= right.length(); j++) {
+            previous[j] = j;
+        }
+        for (int i = 1; i <= left.length(); i++) {
+            current[0] = i;
+            int rowMin = current[0];
+            for (int j = 1; j <= right.length(); j++) {
+                int substitution = previous[j - 1] + (left.charAt(i - 1) == right.charAt(j - 1) ? 0 : 1);
+                current[j] = Math.min(substitution, Math.min(previous[j], current[j - 1]) + 1);
+                rowMin = Math.min(rowMin, current[j]);
+            }
+            if (rowMin > maxEdits) {
+                return maxEdits + 1;
+            }
+            int[] swap = previous;
+            previous = current;
+            current = swap;
+        }
+        return Math.min(previous[right.length()], maxEdits + 1);
+    }
+
+    private void putLocked(ItemSearchDocument document) {
+        removeLocked(document.getId());
+        IndexedItem item = new IndexedItem(document.getId(), tokenize(document.getName()),
+                tokenize(document.getDescription()));
+        items.put(item.id, item);
+        name.add(item.id, item.nameTerms);
+        description.add(item.id, item.descriptionTerms);
+        for (String term : item.distinctTerms()) {
+            if (documentFrequency.merge(term, 1, Integer::sum) == 1) {
+                for (String gram : grams(term)) {
+                    termsByGram.computeIfAbsent(gram, key -> new HashSet<>()).add(term);
+                }
+            }
+        }
+    }
+
+    private void removeLocked(long itemId) {
+        IndexedItem item = items.remove(itemId);
+        if (item == null) {
+            return;
+        }
+        name.remove(item.id, item.nameTerms);
+        description.remove(item.id, item.descriptionTerms);
+        for (String term : item.distinctTerms()) {
+            if (documentFrequency.merge(term, -1, Integer::sum) == 0) {
+                documentFrequency.remove(term);
+                for (String gram : grams(term)) {
+                    Set<String> terms = termsByGram.get(gram);
+                    terms.remove(term);
+                    if (terms.isEmpty()) {
+                        termsByGram.remove(gram);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Слова словаря, подходящие под слово запроса, с числом опечаток. Слово с k правками теряет
+     * не больше k * GRAM_LENGTH различных триграмм, поэтому проверяются только слова с достаточным
+     * числом общих триграмм.
+     */
+    private Map<String, Integer> expand(String queryTerm) {
+        Map<String, Integer> matches = new HashMap<>();
+        if (documentFrequency.containsKey(queryTerm)) {
+            matches.put(queryTerm, 0);
+        }
+        int maxEdits = allowedEdits(queryTerm);
+        if (maxEdits == 0) {
+            return matches;
+        }
+        Set<String> queryGrams = grams(queryTerm);
+        Map<String, Integer> sharedGrams = new HashMap<>();
+        for (String gram : queryGrams) {
+            for (String term : termsByGram.getOrDefault(gram, Collections.emptySet())) {
+                sharedGrams.merge(term, 1, Integer::sum);
+            }
+        }
+        int threshold = queryGrams.size() - maxEdits * GRAM_LENGTH;
+        for (Map.Entry<String, Integer> candidate : sharedGrams.entrySet()) {
+            String term = candidate.getKey();
+            if (candidate.getValue() < threshold || matches.containsKey(term)) {
+                continue;
+            }
+            int edits = boundedLevenshtein(queryTerm, term, maxEdits);
+            if (edits <= maxEdits) {
+                matches.put(term, edits);
+            }
+        }
+        return matches;
+    }
+
+    private double idf(String term) {
+        int frequency = documentFrequency.getOrDefault(term, 0);
+        return Math.log(1 + (items.size() - frequency + 0.5) / (frequency + 0.5));
+    }
+
+    /**
+     * Куча не больше числа найденных вещей: offset и limit приходят из запроса, и их сумма может быть
+     * сколь угодно большой или переполнить int.
+     */
+    private static List<Long> top(Map<Long, Double> scores, int offset, int limit) {
+        if (offset >= scores.size()) {
+            return new ArrayList<>();
+        }
+        Comparator<Map.Entry<Long, Double>> byRelevance = Map.Entry.<Long, Double>comparingByValue().reversed()
+                .thenComparing(Map.Entry.<Long, Double>comparingByKey());
+        int capacity = (int) Math.min((long) offset + limit, scores.size());
+        PriorityQueue<Map.Entry<Long, Double>> heap = new PriorityQueue<>(capacity, byRelevance.reversed());
+        for (Map.Entry<Long, Double> entry : scores.entrySet()) {
+            if (heap.size() < capacity) {
+                heap.add(entry);
+            } else if (byRelevance.compare(entry, heap.peek()) < 0) {
+                heap.poll();
+                heap.add(entry);
+            }
+        }
+        List<Map.Entry<Long, Double>> best = new ArrayList<>(heap);
+        best.sort(byRelevance);
+        List<Long> result = new ArrayList<>();
+        for (int i = offset; i < best.size(); i++) {
+            result.add(best.get(i).getKey());
+        }
+        return result;
+    }
+
+    private static Set<String> grams(String term) {
+        String padded = PADDING + term + PADDING;
+        Set<String> grams = new HashSet<>();
+        for (int i = 0; i + GRAM_LENGTH <= padded.length(); i++) {
+            grams.add(padded.substring(i, i + GRAM_LENGTH));
+        }
+        return grams;
+    }
+
+    private static final class IndexedItem {
+        private final long id;
+        private final List<String> nameTerms;
+        private final List<String> descriptionTerms;
+
+        private IndexedItem(long id, List<String> nameTerms, List<String> descriptionTerms) {
+            this.id = id;
+            this.nameTerms = nameTerms;
+            this.descriptionTerms = descriptionTerms;
+        }
+
+        private Set<String> distinctTerms() {
+            Set<String> terms = new HashSet<>(nameTerms);
+            terms.addAll(descriptionTerms);
+            return terms;
+        }
+    }
+
+    /**
+     * Поле документа: частоты слов по вещам и длины для нормализации BM25.
+     */
+    private static final class Field {
+        private final double boost;
+        private final Map<String, Map<Long, Integer>> postings = new HashMap<>();
+        private final Map<Long, Integer> lengths = new HashMap<>();
+        private long totalLength;
+
+        private Field(double boost) {
+            this.boost = boost;
+        }
+
+        private void add(long itemId, List<String> terms) {
+            for (String term : terms) {
+                postings.computeIfAbsent(term, key -> new HashMap<>()).merge(itemId, 1, Integer::sum);
+            }
+            lengths.put(itemId, terms.size());
+            totalLength += terms.size();
+        }
+
+        private void remove(long itemId, List<String> terms) {
+            for (String term : new HashSet<>(terms)) {
+                Map<Long, Integer> frequencies = postings.get(term);
+                frequencies.remove(itemId);
+                if (frequencies.isEmpty()) {
+                    postings.remove(term);
+                }
+            }
+            Integer length = lengths.remove(itemId);
+            totalLength -= length == null ? 0 : length;
+        }
+
+        private void clear() {
+            postings.clear();
+            lengths.clear();
+            totalLength = 0;
+        }
+
+        private void score(String term, double weight, Map<Long, Double> scores) {
+            Map<Long, Integer> frequencies = postings.get(term);
+            if (frequencies == null) {
+                return;
+            }
+            double averageLength = lengths.isEmpty() ? 1 : Math.max(1.0, (double) totalLength / lengths.size());
+            for (Map.Entry<Long, Integer> posting : frequencies.entrySet()) {
+                int frequency = posting.getValue();
+                double normalization = K1 * (1 - B + B * lengths.get(posting.getKey()) / averageLength);
+                double score = boost * weight * frequency * (K1 + 1) / (frequency + normalization);
+                scores.merge(posting.getKey(), score, Double::sum);
+            }
+        }
+    }
+}
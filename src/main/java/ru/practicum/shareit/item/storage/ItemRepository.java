@@ -3,26 +3,111 @@ package ru.practicum.shareit.item.storage;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
+import ru.practicum.shareit.item.dto.ItemDtoFromOrToUser;
 import ru.practicum.shareit.item.model.Item;
-import ru.practicum.shareit.request.model.ItemRequest;
 import ru.practicum.shareit.user.model.User;
 
+import javax.persistence.QueryHint;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.QueryHints.HINT_FETCH_SIZE;
+import static org.hibernate.jpa.QueryHints.HINT_READONLY;
 
 @Repository
 public interface ItemRepository extends JpaRepository<Item, Long> {
 
     List<Item> findAllByOwner(User owner, Pageable pageable);
 
-    @Query("select it " +
+    /**
+     * Доступные вещи, в названии или описании которых есть text, без учета регистра. Читаются только колонки
+     * ItemDtoFromOrToUser: без владельца, запроса и автора запроса. Текст ищется как есть: %, _ и символ
+     * экранирования в нем экранируются (escape из Spring Data), как и в поиске по индексу в памяти.
+     */
+    @Query("select new ru.practicum.shareit.item.dto.ItemDtoFromOrToUser(it.id, it.name, it.description, it.available, r.id) " +
+            "from Item as it " +
+            "left join it.request as r " +
+            "where it.available = true " +
+            "and (lower(it.description) like lower(CONCAT('%', ?#{escape([0])}, '%')) escape ?#{escapeCharacter()} " +
+            "or lower(it.name) like lower(CONCAT('%', ?#{escape([0])}, '%')) escape ?#{escapeCharacter()}) " +
+            "order by it.id")
+    List<ItemDtoFromOrToUser> findAllDtoContainingTextWithAvailableStatus(String text, Pageable pageable);
+
+    @Query("select it.id " +
+            "from Item as it " +
+            "where lower(it.description) like lower(CONCAT('%', ?#{escape([0])}, '%')) escape ?#{escapeCharacter()} " +
+            "or lower(it.name) like lower(CONCAT('%', ?#{escape([0])}, '%')) escape ?#{escapeCharacter()}")
+    List<Long> findAllIdsContainingText(String text);
+
+    /**
+     * То же условие, что и в findAllDtoContainingTextWithAvailableStatus, но без страниц: строки читаются
+     * курсором порциями по fetch size и сразу отображаются в DTO, не попадая в контекст персистентности.
+     * Поток нужно читать внутри транзакции и закрывать.
+     */
+    @QueryHints({@QueryHint(name = HINT_FETCH_SIZE, value = "500"), @QueryHint(name = HINT_READONLY, value = "true")})
+    @Query("select new ru.practicum.shareit.item.dto.ItemDtoFromOrToUser(it.id, it.name, it.description, it.available, r.id) " +
             "from Item as it " +
+            "left join it.request as r " +
             "where it.available = true " +
-            "and (lower(it.description) like lower(CONCAT('%', ?1, '%')) " +
-            "or lower(it.name) like lower(CONCAT('%', ?1, '%')))")
-    List<Item> findAllContainingTextWithAvailableStatus(String text, Pageable pageable);
+            "and (lower(it.description) like lower(CONCAT('%', ?#{escape([0])}, '%')) escape ?#{escapeCharacter()} " +
+            "or lower(it.name) like lower(CONCAT('%', ?#{escape([0])}, '%')) escape ?#{escapeCharacter()}) " +
+            "order by it.id")
+    Stream<ItemDtoFromOrToUser> streamAllContainingTextWithAvailableStatus(String text);
 
-    List<Item> findAllByRequest(ItemRequest itemRequest);
+    /**
+     * Все вещи для ItemCatalogue. Время создания заполняет база, в Item его нет, поэтому оно берется
+     * из ItemFacetAttributes над той же строкой.
+     */
+    @Query("select new ru.practicum.shareit.item.storage.ItemCatalogueEntry(it.id, it.owner.id, it.name, " +
+            "it.description, it.available, fa.requestId, fa.created) " +
+            "from Item as it, ItemFacetAttributes as fa " +
+            "where fa.id = it.id " +
+            "order by it.id")
+    List<ItemCatalogueEntry> findAllCatalogueEntries();
 
-    List<Item> findAllByRequestIn(List<ItemRequest> itemRequests);
+    @Query("select new ru.practicum.shareit.item.dto.ItemDtoFromOrToUser(it.id, it.name, it.description, it.available, r.id) " +
+            "from Item as it " +
+            "left join it.request as r " +
+            "where it.id in ?1")
+    List<ItemDtoFromOrToUser> findAllDtoByIdIn(Collection<Long> itemIds);
+
+    /**
+     * DTO вещей с переданными id в порядке списка, отсутствующие в базе пропускаются.
+     */
+    default List<ItemDtoFromOrToUser> findAllDtoByIdInOrder(List<Long> itemIds) {
+        if (itemIds.isEmpty()) {
+            return new ArrayList<>();
+        }
+        Map<Long, ItemDtoFromOrToUser> items = findAllDtoByIdIn(itemIds).stream()
+                .collect(Collectors.toMap(ItemDtoFromOrToUser::getId, Function.identity()));
+        return itemIds.stream()
+                .map(items::get)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * id вещей, которые база удалит каскадом вместе с пользователем: его собственных и созданных другими
+     * пользователями в ответ на его запросы.
+     */
+    @Query("select it.id " +
+            "from Item as it " +
+            "left join it.request as r " +
+            "where it.owner.id = ?1 " +
+            "or r.requester.id = ?1")
+    List<Long> findAllIdsDeletedWithUser(long userId);
+
+    @Query("select new ru.practicum.shareit.item.dto.ItemDtoFromOrToUser(it.id, it.name, it.description, it.available, it.request.id) " +
+            "from Item as it " +
+            "where it.request.id = ?1 " +
+            "order by it.id")
+    List<ItemDtoFromOrToUser> findAllDtoByRequestId(long requestId);
 }
\ No newline at end of file
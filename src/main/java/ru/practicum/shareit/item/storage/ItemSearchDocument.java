@@ -0,0 +1,13 @@
+package ru.practicum.shareit.item.storage;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+@Data
+@AllArgsConstructor
+public class ItemSearchDocument {
+    private Long id;
+    private Long ownerId;
+    private String name;
+    private String description;
+}
@@ -0,0 +1,139 @@
+package ru.practicum.shareit.item.storage;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+
+/**
+ * Инвертированный индекс доступных вещей для поиска по подстроке в названии и описании.
+ * Текст разбивается на триграммы, для каждой хранится отсортированное множество id вещей.
+ * Кандидаты берутся из самого короткого списка триграмм запроса и проверяются по самому тексту,
+ * поэтому результат совпадает с lower(...) like '%text%' и выдается в порядке id.
+ */
+@Component
+@ConditionalOnProperty(name = ItemTextSearch.MODE_PROPERTY, havingValue = "memory", matchIfMissing = true)
+@Slf4j
+public class ItemSearchIndex implements ItemCatalogueListener {
+
+    static final int GRAM_LENGTH = 3;
+
+    private final NavigableMap<Long, ItemSearchDocument> documents = new ConcurrentSkipListMap<>();
+    private final Map<String, NavigableSet<Long>> postings = new ConcurrentHashMap<>();
+
+    @Override
+    public synchronized void catalogueLoaded(List<ItemCatalogueEntry> items) {
+        documents.clear();
+        postings.clear();
+        items.stream().filter(ItemCatalogueEntry::isSearchable).map(ItemCatalogueEntry::toSearchDocument)
+                .forEach(this::put);
+        log.info("Поисковый индекс вещей построен, загружено вещей: {}", documents.size());
+    }
+
+    @Override
+    public void itemChanged(ItemCatalogueEntry item) {
+        if (item.isSearchable()) {
+            put(item.toSearchDocument());
+        } else {
+            remove(item.getId());
+        }
+    }
+
+    @Override
+    public synchronized void itemsDeleted(Collection<Long> itemIds) {
+        itemIds.forEach(this::remove);
+    }
+
+    /**
+     * id доступных вещей, в названии или описании которых встречается text без учета регистра.
+     */
+    public List<Long> search(String text, int offset, int limit) {
+        String needle = normalize(text);
+        List<Long> result = new ArrayList<>();
+        int skipped = 0;
+        for (Long itemId : candidates(needle)) {
+            ItemSearchDocument document = documents.get(itemId);
+            if (document == null || !contains(document, needle)) {
+                continue;
+            }
+            if (skipped < offset) {
+                skipped++;
+                continue;
+            }
+            result.add(itemId);
+            if (result.size() == limit) {
+                break;
+            }
+        }
+        return result;
+    }
+
+    public synchronized void put(ItemSearchDocument document) {
+        remove(document.getId());
+        ItemSearchDocument normalized = new ItemSearchDocument(document.getId(), document.getOwnerId(),
+                normalize(document.getName()), normalize(document.getDescription()));
+        documents.put(normalized.getId(), normalized);
+        for (String gram : grams(normalized)) {
+            postings.computeIfAbsent(gram, key -> new ConcurrentSkipListSet<>()).add(normalized.getId());
+        }
+    }
+
+    public synchronized void remove(long itemId) {
+        ItemSearchDocument document = documents.remove(itemId);
+        if (document == null) {
+            return;
+        }
+        for (String gram : grams(document)) {
+            NavigableSet<Long> itemIds = postings.get(gram);
+            if (itemIds != null) {
+                itemIds.remove(itemId);
+                if (itemIds.isEmpty()) {
+                    postings.remove(gram);
+                }
+            }
+        }
+    }
+
+    private Iterable<Long> candidates(String needle) {
+        if (needle.length() < GRAM_LENGTH) {
+            return documents.keySet();
+        }
+        NavigableSet<Long> shortest = null;
+        for (String gram : grams(needle, new HashSet<>())) {
+            NavigableSet<Long> itemIds = postings.get(gram);
+            if (itemIds == null) {
+                return Collections.emptySet();
+            }
+            if (shortest == null || itemIds.size() < shortest.size()) {
+                shortest = itemIds;
+            }
+        }
+        return shortest;
+    }
+
+    private static boolean contains(ItemSearchDocument document, String needle) {
+        return document.getName().contains(needle) || document.getDescription().contains(needle);
+    }
+
+    private static Set<String> grams(ItemSearchDocument document) {
+        Set<String> grams = new HashSet<>();
+        grams(document.getName(), grams);
+        grams(document.getDescription(), grams);
+        return grams;
+    }
+
+    private static Set<String> grams(String text, Set<String> grams) {
+        for (int i = 0; i + GRAM_LENGTH <= text.length(); i++) {
+            grams.add(text.substring(i, i + GRAM_LENGTH));
+        }
+        return grams;
+    }
+
+    private static String normalize(String text) {
+        return text == null ? "" : text.toLowerCase(Locale.ROOT);
+    }
+}
@@ -0,0 +1,16 @@
+package ru.practicum.shareit.item.storage;
+
+import ru.practicum.shareit.item.dto.ItemDtoFromOrToUser;
+
+import java.util.List;
+
+/**
+ * Поиск доступных вещей по подстроке в названии или описании без учета регистра, результат упорядочен по id.
+ * Реализация выбирается свойством shareit.search.mode: memory (по умолчанию) или database.
+ */
+public interface ItemTextSearch {
+
+    String MODE_PROPERTY = "shareit.search.mode";
+
+    List<ItemDtoFromOrToUser> search(String text, int page, int size);
+}
@@ -0,0 +1,24 @@
+package ru.practicum.shareit.item.storage;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import ru.practicum.shareit.item.dto.ItemDtoFromOrToUser;
+
+import java.util.List;
+
+/**
+ * Поиск по индексу в памяти приложения, из базы читаются только колонки DTO найденных вещей.
+ */
+@Component
+@ConditionalOnProperty(name = ItemTextSearch.MODE_PROPERTY, havingValue = "memory", matchIfMissing = true)
+@RequiredArgsConstructor
+public class MemoryItemTextSearch implements ItemTextSearch {
+    private final ItemSearchIndex itemSearchIndex;
+    private final ItemRepository itemRepository;
+
+    @Override
+    public List<ItemDtoFromOrToUser> search(String text, int page, int size) {
+        return itemRepository.findAllDtoByIdInOrder(itemSearchIndex.search(text, page * size, size));
+    }
+}
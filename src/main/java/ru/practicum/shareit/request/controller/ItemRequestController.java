@@ -2,8 +2,12 @@ package ru.practicum.shareit.request.controller;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import ru.practicum.shareit.pagination.Cursor;
 import ru.practicum.shareit.request.dto.ItemRequestFromUserDto;
 import ru.practicum.shareit.request.dto.ItemRequestInfoDto;
 import ru.practicum.shareit.request.dto.ItemRequestToUserDto;
@@ -22,6 +26,8 @@ import java.util.List;
 @Validated
 public class ItemRequestController {
 
+    static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+
     private final ItemRequestService itemRequestService;
 
     @PostMapping
@@ -45,11 +51,38 @@ public class ItemRequestController {
     }
 
     @GetMapping("/all")
-    public List<ItemRequestInfoDto> getAllForUser(
+    public ResponseEntity<List<ItemRequestInfoDto>> getAllForUser(
             @RequestHeader("X-Sharer-User-Id") @Positive(message = "id не может быть меньше 1") long userId,
             @RequestParam(value = "from", defaultValue = "0") @Min(0) Integer from,
-            @RequestParam(value = "size", defaultValue = "20") @Min(1) @Max(100) Integer size) {
-        return itemRequestService.getAllFromOtherUsersPageable(userId, from / size, size);
+            @RequestParam(value = "size", defaultValue = "20") @Min(1) @Max(100) Integer size,
+            @RequestParam(value = "cursor", required = false) String cursor) {
+        if (cursor == null) {
+            return ResponseEntity.ok(itemRequestService.getAllFromOtherUsersPageable(userId, from / size, size));
+        }
+        List<ItemRequestInfoDto> itemRequests = itemRequestService.getAllFromOtherUsersByCursor(userId,
+                Cursor.decode(cursor), size);
+        return toCursorPage(itemRequests, size);
+    }
+
+    /**
+     * Поток SSE: событие item-added с вещью, добавленной в ответ на запрос пользователя, вместо опроса GET /requests.
+     */
+    @GetMapping(path = "/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter subscribe(
+            @RequestHeader("X-Sharer-User-Id") @Positive(message = "id не может быть меньше 1") long userId) {
+        return itemRequestService.subscribe(userId);
+    }
+
+    /**
+     * Курсор следующей страницы отдается в заголовке, только если текущая страница заполнена целиком.
+     */
+    private ResponseEntity<List<ItemRequestInfoDto>> toCursorPage(List<ItemRequestInfoDto> itemRequests, int size) {
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (itemRequests.size() == size) {
+            ItemRequestInfoDto last = itemRequests.get(itemRequests.size() - 1);
+            response.header(NEXT_CURSOR_HEADER, new Cursor(last.getCreated(), last.getId()).encode());
+        }
+        return response.body(itemRequests);
     }
 
 }
@@ -22,6 +22,7 @@ public class ItemRequestInfoDto {
 
     @Data
     @AllArgsConstructor
+    @NoArgsConstructor
     public static class ItemInfoDto {
         private Long id;
         private String name;
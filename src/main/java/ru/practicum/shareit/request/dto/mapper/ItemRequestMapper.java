@@ -1,7 +1,7 @@
 package ru.practicum.shareit.request.dto.mapper;
 
 import org.springframework.stereotype.Component;
-import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.dto.ItemDtoFromOrToUser;
 import ru.practicum.shareit.request.dto.ItemRequestFromUserDto;
 import ru.practicum.shareit.request.dto.ItemRequestInfoDto;
 import ru.practicum.shareit.request.dto.ItemRequestToUserDto;
@@ -22,7 +22,7 @@ public class ItemRequestMapper {
         return new ItemRequestToUserDto(itemRequest.getId(), itemRequest.getDescription(), itemRequest.getCreated());
     }
 
-    public ItemRequestInfoDto toItemRequestInfoDto(ItemRequest itemRequest, List<Item> items) {
+    public ItemRequestInfoDto toItemRequestInfoDto(ItemRequest itemRequest, List<ItemDtoFromOrToUser> items) {
         ItemRequestInfoDto itemRequestInfoDto = ItemRequestInfoDto.builder()
                 .id(itemRequest.getId())
                 .description(itemRequest.getDescription())
@@ -31,7 +31,7 @@ public class ItemRequestMapper {
 
         List<ItemRequestInfoDto.ItemInfoDto> itemInfoDtos = new ArrayList<>();
         if (!items.isEmpty()) {
-            for (Item item : items) {
+            for (ItemDtoFromOrToUser item : items) {
                 itemInfoDtos.add(toItemInfoDto(item));
             }
         }
@@ -40,12 +40,12 @@ public class ItemRequestMapper {
                 .build();
     }
 
-    public ItemRequestInfoDto.ItemInfoDto toItemInfoDto(Item item) {
+    public ItemRequestInfoDto.ItemInfoDto toItemInfoDto(ItemDtoFromOrToUser item) {
         return new ItemRequestInfoDto.ItemInfoDto(
                 item.getId(),
                 item.getName(),
                 item.getDescription(),
-                item.getRequest().getId(),
+                item.getRequestId(),
                 item.getAvailable());
     }
 }
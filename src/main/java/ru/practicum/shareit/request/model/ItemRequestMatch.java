@@ -0,0 +1,17 @@
+package ru.practicum.shareit.request.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Вещь, подходящая к открытому запросу по тексту, с оценкой сходства от 0 до 1.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ItemRequestMatch {
+    private Long requestId;
+    private Long itemId;
+    private Double score;
+}
@@ -0,0 +1,48 @@
+package ru.practicum.shareit.request.service;
+
+import lombok.Value;
+import ru.practicum.shareit.request.dto.ItemRequestInfoDto;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Неизменяемая запись кэша запросов. ItemRequestInfoDto и его список вещей изменяемы, и объект из кэша
+ * разделялся бы всеми вызовами, поэтому, как и CachedUser, каждый вызов получает новую копию.
+ */
+@Value
+class CachedItemRequestInfo {
+    long id;
+    String description;
+    LocalDateTime created;
+    List<CachedItem> items;
+
+    static CachedItemRequestInfo of(ItemRequestInfoDto itemRequest) {
+        return new CachedItemRequestInfo(itemRequest.getId(), itemRequest.getDescription(), itemRequest.getCreated(),
+                itemRequest.getItems().stream().map(CachedItem::of).collect(Collectors.toUnmodifiableList()));
+    }
+
+    ItemRequestInfoDto toDto() {
+        return new ItemRequestInfoDto(id, description, created,
+                items.stream().map(CachedItem::toDto).collect(Collectors.toList()));
+    }
+
+    @Value
+    static class CachedItem {
+        Long id;
+        String name;
+        String description;
+        Long requestId;
+        Boolean available;
+
+        static CachedItem of(ItemRequestInfoDto.ItemInfoDto item) {
+            return new CachedItem(item.getId(), item.getName(), item.getDescription(), item.getRequestId(),
+                    item.getAvailable());
+        }
+
+        ItemRequestInfoDto.ItemInfoDto toDto() {
+            return new ItemRequestInfoDto.ItemInfoDto(id, name, description, requestId, available);
+        }
+    }
+}
@@ -0,0 +1,14 @@
+package ru.practicum.shareit.request.service;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import ru.practicum.shareit.request.model.ItemRequest;
+
+/**
+ * Публикуется при добавлении запроса вещи, чтобы индекс открытых запросов получил его после коммита.
+ */
+@Getter
+@AllArgsConstructor
+public class ItemRequestCreatedEvent {
+    private final ItemRequest itemRequest;
+}
@@ -0,0 +1,291 @@
+package ru.practicum.shareit.request.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import ru.practicum.shareit.request.dto.ItemRequestInfoDto;
+
+import javax.annotation.PreDestroy;
+import java.io.IOException;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Рассылка вещей, добавленных в ответ на запросы, подписчикам SSE автора запроса. У каждого подписчика
+ * своя очередь на shareit.request-events.buffer-size событий: слушатель после коммита только кладет
+ * в нее событие, отправку выполняет пул из shareit.request-events.threads потоков, не больше одной задачи
+ * на подписчика, поэтому события одного подписчика уходят по порядку. Подписчик, чья очередь переполнена,
+ * не успевает читать: соединение закрывается, клиент переподключается и перечитывает запросы через GET /requests.
+ * Запись в сокет клиента, который перестал читать, может заблокироваться надолго. Отправка, не уложившаяся
+ * в shareit.request-events.send-timeout-millis, отключает подписчика, а пул на время блокировки получает
+ * замену зависшему потоку, но не больше shareit.request-events.max-stalled-senders замен. Соединение
+ * закрывается, когда зависшая запись завершится: до этого SseEmitter не даст закрыть его из другого потока.
+ * Поэтому complete() вызывает только поток отправки: слушатель и stop() лишь помечают подписчика закрытым,
+ * иначе поток, закоммитивший вещь, ждал бы чужую зависшую запись.
+ */
+@Component
+@Slf4j
+public class ItemRequestEventHub {
+
+    public static final String ITEM_ADDED_EVENT = "item-added";
+
+    private final Map<Long, Set<Subscriber>> subscribers = new ConcurrentHashMap<>();
+    private final AtomicLong eventIds = new AtomicLong();
+    private final int threads;
+    private final int bufferSize;
+    private final long sendTimeoutMillis;
+    private final int maxStalledSenders;
+    private final ThreadPoolExecutor senders;
+    private final ScheduledExecutorService deadlines;
+    private final Object stallLock = new Object();
+    private final AtomicInteger stalledSenders = new AtomicInteger();
+    private final Counter slowSubscribers;
+    private final Counter stalledSubscribers;
+
+    public ItemRequestEventHub(MeterRegistry meterRegistry,
+                               @Value("${shareit.request-events.threads}") int threads,
+                               @Value("${shareit.request-events.buffer-size}") int bufferSize,
+                               @Value("${shareit.request-events.send-timeout-millis}") long sendTimeoutMillis,
+                               @Value("${shareit.request-events.max-stalled-senders}") int maxStalledSenders) {
+        this.threads = threads;
+        this.bufferSize = bufferSize;
+        this.sendTimeoutMillis = sendTimeoutMillis;
+        this.maxStalledSenders = maxStalledSenders;
+        AtomicInteger number = new AtomicInteger();
+        this.senders = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new LinkedBlockingQueue<>(), runnable -> {
+                    Thread thread = new Thread(runnable, "item-request-events-" + number.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+        this.deadlines = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "item-request-events-deadlines");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.slowSubscribers = Counter.builder("item.request.events.slow.subscribers")
+                .description("Подписчики, отключенные из-за переполнения очереди событий")
+                .register(meterRegistry);
+        this.stalledSubscribers = Counter.builder("item.request.events.stalled.subscribers")
+                .description("Подписчики, отключенные из-за зависшей отправки события")
+                .register(meterRegistry);
+        Gauge.builder("item.request.events.subscribers", subscribers,
+                        map -> map.values().stream().mapToInt(Set::size).sum())
+                .register(meterRegistry);
+        Gauge.builder("item.request.events.stalled.senders", stalledSenders, AtomicInteger::get)
+                .description("Потоки отправки, заблокированные записью зависшему подписчику и замененные в пуле")
+                .register(meterRegistry);
+    }
+
+    public SseEmitter subscribe(long userId) {
+        return subscribe(userId, new SseEmitter());
+    }
+
+    SseEmitter subscribe(long userId, SseEmitter emitter) {
+        Subscriber subscriber = new Subscriber(userId, emitter, new ArrayBlockingQueue<>(bufferSize));
+        subscribers.computeIfAbsent(userId, key -> ConcurrentHashMap.newKeySet()).add(subscriber);
+        emitter.onCompletion(() -> unsubscribe(subscriber));
+        emitter.onTimeout(() -> unsubscribe(subscriber));
+        emitter.onError(error -> unsubscribe(subscriber));
+        log.debug("Пользователь с id {} подписался на события своих запросов", userId);
+        return emitter;
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onItemRequestFulfilled(ItemRequestFulfilledEvent event) {
+        Set<Subscriber> userSubscribers = subscribers.get(event.getRequesterId());
+        if (userSubscribers == null) {
+            return;
+        }
+        Message message = new Message(eventIds.incrementAndGet(), event.getItem());
+        for (Subscriber subscriber : userSubscribers) {
+            if (!subscriber.buffer.offer(message)) {
+                slowSubscribers.increment();
+                log.debug("Очередь событий пользователя с id {} переполнена, подписка закрыта", subscriber.userId);
+                disconnect(subscriber);
+            }
+            if (subscriber.sending.compareAndSet(false, true)) {
+                senders.execute(() -> send(subscriber));
+            }
+        }
+    }
+
+    /**
+     * Подписчики, у которых нет задачи отправки, закрываются сразу. Остальные закроет их задача после
+     * текущей записи, поэтому пул останавливается через shutdown, а не shutdownNow.
+     */
+    @PreDestroy
+    public void stop() {
+        deadlines.shutdownNow();
+        subscribers.values().forEach(userSubscribers -> userSubscribers.forEach(subscriber -> {
+            subscriber.closed.set(true);
+            if (subscriber.sending.compareAndSet(false, true)) {
+                subscriber.emitter.complete();
+            }
+        }));
+        subscribers.clear();
+        senders.shutdown();
+    }
+
+    /**
+     * Отправляет накопленные события, а закрытому подписчику закрывает соединение. Флаг sending снимается
+     * только при пустой очереди открытого подписчика, а событие или закрытие после снятия флага подхватывается
+     * повторной проверкой: флаг closed ставится раньше попытки захватить sending.
+     */
+    private void send(Subscriber subscriber) {
+        do {
+            Message message;
+            while (!subscriber.closed.get() && (message = subscriber.buffer.poll()) != null) {
+                if (!sendBeforeDeadline(subscriber, message)) {
+                    return;
+                }
+            }
+            if (subscriber.closed.get()) {
+                subscriber.emitter.complete();
+                return;
+            }
+            subscriber.sending.set(false);
+        } while ((subscriber.closed.get() || !subscriber.buffer.isEmpty())
+                && subscriber.sending.compareAndSet(false, true));
+    }
+
+    /**
+     * Возвращает false, если подписчик отключен: отправка не удалась или не уложилась в срок. Исход решает
+     * смена состояния SENDING: либо этот поток после записи, либо stall по истечении срока.
+     */
+    private boolean sendBeforeDeadline(Subscriber subscriber, Message message) {
+        subscriber.state.set(SendState.SENDING);
+        ScheduledFuture<?> deadline = deadlines.schedule(() -> stall(subscriber), sendTimeoutMillis,
+                TimeUnit.MILLISECONDS);
+        boolean sent = true;
+        try {
+            subscriber.emitter.send(SseEmitter.event()
+                    .id(String.valueOf(message.id))
+                    .name(ITEM_ADDED_EVENT)
+                    .data(message.item, MediaType.APPLICATION_JSON));
+        } catch (IOException | IllegalStateException e) {
+            log.debug("Не удалось отправить событие пользователю с id {}: {}", subscriber.userId, e.getMessage());
+            sent = false;
+        }
+        if (subscriber.state.compareAndSet(SendState.SENDING, SendState.IDLE)) {
+            deadline.cancel(false);
+            if (!sent) {
+                unsubscribe(subscriber);
+                subscriber.buffer.clear();
+            }
+            return sent;
+        }
+        releaseStalled(subscriber);
+        if (sent) {
+            subscriber.emitter.complete();
+        }
+        return false;
+    }
+
+    /**
+     * Срок отправки истек: подписчик отключается, а пул, пока не исчерпан лимит замен, получает поток
+     * вместо заблокированного.
+     */
+    private void stall(Subscriber subscriber) {
+        synchronized (stallLock) {
+            if (!subscriber.state.compareAndSet(SendState.SENDING, SendState.STALLED)) {
+                return;
+            }
+            if (stalledSenders.get() < maxStalledSenders) {
+                subscriber.replaced = true;
+                resizeSenders(stalledSenders.incrementAndGet());
+            }
+        }
+        stalledSubscribers.increment();
+        disconnect(subscriber);
+        log.debug("Отправка события пользователю с id {} не завершилась за {} мс, подписка закрыта",
+                subscriber.userId, sendTimeoutMillis);
+    }
+
+    private void releaseStalled(Subscriber subscriber) {
+        synchronized (stallLock) {
+            if (subscriber.replaced) {
+                subscriber.replaced = false;
+                resizeSenders(stalledSenders.decrementAndGet());
+            }
+        }
+    }
+
+    private void resizeSenders(int stalled) {
+        int size = threads + stalled;
+        if (size > senders.getMaximumPoolSize()) {
+            senders.setMaximumPoolSize(size);
+            senders.setCorePoolSize(size);
+        } else {
+            senders.setCorePoolSize(size);
+            senders.setMaximumPoolSize(size);
+        }
+    }
+
+    /**
+     * Отключает подписчика без вызова complete(): соединение закроет поток отправки.
+     */
+    private void disconnect(Subscriber subscriber) {
+        subscriber.closed.set(true);
+        unsubscribe(subscriber);
+        subscriber.buffer.clear();
+    }
+
+    private void unsubscribe(Subscriber subscriber) {
+        subscribers.computeIfPresent(subscriber.userId, (userId, userSubscribers) -> {
+            userSubscribers.remove(subscriber);
+            return userSubscribers.isEmpty() ? null : userSubscribers;
+        });
+    }
+
+    private static final class Subscriber {
+        private final long userId;
+        private final SseEmitter emitter;
+        private final BlockingQueue<Message> buffer;
+        private final AtomicBoolean sending = new AtomicBoolean();
+        private final AtomicBoolean closed = new AtomicBoolean();
+        private final AtomicReference<SendState> state = new AtomicReference<>(SendState.IDLE);
+        private boolean replaced;
+
+        private Subscriber(long userId, SseEmitter emitter, BlockingQueue<Message> buffer) {
+            this.userId = userId;
+            this.emitter = emitter;
+            this.buffer = buffer;
+        }
+    }
+
+    private enum SendState {
+        IDLE,
+        SENDING,
+        STALLED
+    }
+
+    private static final class Message {
+        private final long id;
+        private final ItemRequestInfoDto.ItemInfoDto item;
+
+        private Message(long id, ItemRequestInfoDto.ItemInfoDto item) {
+            this.id = id;
+            this.item = item;
+        }
+    }
+}
@@ -0,0 +1,16 @@
+package ru.practicum.shareit.request.service;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import ru.practicum.shareit.request.dto.ItemRequestInfoDto;
+
+/**
+ * Публикуется при добавлении вещи в ответ на запрос. После коммита ItemRequestEventHub
+ * отправляет вещь подписчикам автора запроса.
+ */
+@Getter
+@AllArgsConstructor
+public class ItemRequestFulfilledEvent {
+    private final long requesterId;
+    private final ItemRequestInfoDto.ItemInfoDto item;
+}
@@ -0,0 +1,68 @@
+package ru.practicum.shareit.request.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.service.ItemChangedEvent;
+import ru.practicum.shareit.request.dto.ItemRequestInfoDto;
+import ru.practicum.shareit.user.service.UserDeletedEvent;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Собранные ItemRequestInfoDto по id запроса. Запрос после создания не меняется, меняется только список
+ * его вещей, поэтому запись удаляется после коммита добавления или изменения вещи, ссылающейся на запрос.
+ * Как и в ItemSearchResultCache, используется кэш Caffeine без транзакционной обертки, а результат,
+ * загруженный одновременно с удалением записей, в кэше не остается.
+ */
+@Component
+public class ItemRequestInfoCache {
+
+    public static final String ITEM_REQUESTS_CACHE = "itemRequests";
+
+    private final Cache<Object, Object> cache;
+    private final AtomicLong invalidations = new AtomicLong();
+
+    @SuppressWarnings("unchecked")
+    public ItemRequestInfoCache(CacheManager cacheManager) {
+        this.cache = (Cache<Object, Object>) cacheManager.getCache(ITEM_REQUESTS_CACHE).getNativeCache();
+    }
+
+    /**
+     * Копия запроса из кэша, при промахе - результат loader. В кэше хранится неизменяемая CachedItemRequestInfo.
+     */
+    public ItemRequestInfoDto get(long requestId, Supplier<ItemRequestInfoDto> loader) {
+        CachedItemRequestInfo cached = (CachedItemRequestInfo) cache.getIfPresent(requestId);
+        if (cached != null) {
+            return cached.toDto();
+        }
+        long invalidationsBefore = invalidations.get();
+        ItemRequestInfoDto itemRequest = loader.get();
+        cache.put(requestId, CachedItemRequestInfo.of(itemRequest));
+        if (invalidations.get() != invalidationsBefore) {
+            cache.invalidate(requestId);
+        }
+        return itemRequest;
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onItemChanged(ItemChangedEvent event) {
+        Item item = event.getItem();
+        if (item.getRequest() != null) {
+            invalidations.incrementAndGet();
+            cache.invalidate(item.getRequest().getId());
+        }
+    }
+
+    /**
+     * Запросы и вещи удаленного пользователя удаляются каскадно, поэтому кэш очищается целиком.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onUserDeleted(UserDeletedEvent event) {
+        invalidations.incrementAndGet();
+        cache.invalidateAll();
+    }
+}
@@ -0,0 +1,186 @@
+package ru.practicum.shareit.request.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.service.ItemChangedEvent;
+import ru.practicum.shareit.item.storage.ItemSearchDocument;
+import ru.practicum.shareit.request.model.ItemRequestMatch;
+import ru.practicum.shareit.request.storage.ItemRequestMatchStorage;
+import ru.practicum.shareit.request.storage.OpenItemRequestIndex;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Подбирает открытые запросы к добавленным и измененным доступным вещам без запроса и записывает кандидатов
+ * в item_request_matches. Слушатель только кладет текст вещи в ограниченную очередь, поэтому добавление вещи
+ * не ждет подбора; вещи, не поместившиеся в очередь, пропускаются и учитываются в метрике
+ * item.request.matching.dropped. У каждого из shareit.matching.threads потоков своя очередь, и вещь всегда
+ * попадает в очередь по своему id: кандидатов одной вещи не заменяют два потока сразу. Поток разбирает очередь
+ * пачками до BATCH_SIZE вещей, из повторов одной вещи в пачке остается последний: оценка идет
+ * по OpenItemRequestIndex в памяти, запись - одним пакетом на пачку.
+ */
+@Component
+@Slf4j
+public class ItemRequestMatcher {
+
+    static final int BATCH_SIZE = 500;
+    static final int MAX_MATCHES_PER_ITEM = 10;
+
+    private final OpenItemRequestIndex openItemRequestIndex;
+    private final ItemRequestMatchStorage itemRequestMatchStorage;
+    private final int threads;
+    private final List<BlockingQueue<ItemSearchDocument>> queues;
+    private final Counter droppedItems;
+    private final Counter matchedItems;
+    private final Counter failedItems;
+    private ExecutorService workers;
+
+    public ItemRequestMatcher(OpenItemRequestIndex openItemRequestIndex,
+                              ItemRequestMatchStorage itemRequestMatchStorage,
+                              MeterRegistry meterRegistry,
+                              @Value("${shareit.matching.threads}") int threads,
+                              @Value("${shareit.matching.queue-capacity}") int queueCapacity) {
+        this.openItemRequestIndex = openItemRequestIndex;
+        this.itemRequestMatchStorage = itemRequestMatchStorage;
+        this.threads = threads;
+        this.queues = new ArrayList<>(threads);
+        for (int i = 0; i < threads; i++) {
+            queues.add(new ArrayBlockingQueue<>(Math.max(1, queueCapacity / threads)));
+        }
+        this.droppedItems = Counter.builder("item.request.matching.dropped")
+                .description("Вещи, пропущенные подбором запросов из-за переполнения очереди")
+                .register(meterRegistry);
+        this.matchedItems = Counter.builder("item.request.matching.processed")
+                .description("Вещи, для которых подобраны запросы")
+                .register(meterRegistry);
+        this.failedItems = Counter.builder("item.request.matching.failed")
+                .description("Вещи, кандидатов для которых не удалось сохранить")
+                .register(meterRegistry);
+        Gauge.builder("item.request.matching.queue", queues,
+                        list -> list.stream().mapToInt(BlockingQueue::size).sum())
+                .register(meterRegistry);
+    }
+
+    @PostConstruct
+    public void start() {
+        AtomicInteger number = new AtomicInteger();
+        workers = Executors.newFixedThreadPool(threads, runnable -> {
+            Thread thread = new Thread(runnable, "item-request-matcher-" + number.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        for (BlockingQueue<ItemSearchDocument> queue : queues) {
+            workers.execute(() -> work(queue));
+        }
+    }
+
+    @PreDestroy
+    public void stop() {
+        workers.shutdownNow();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onItemChanged(ItemChangedEvent event) {
+        Item item = event.getItem();
+        if (item.getRequest() != null || !Boolean.TRUE.equals(item.getAvailable())) {
+            return;
+        }
+        BlockingQueue<ItemSearchDocument> queue = queues.get(Math.floorMod(Long.hashCode(item.getId()), threads));
+        if (!queue.offer(new ItemSearchDocument(item.getId(), item.getOwner().getId(), item.getName(),
+                item.getDescription()))) {
+            droppedItems.increment();
+            log.debug("Очередь подбора запросов заполнена, вещь с id {} пропущена", item.getId());
+        }
+    }
+
+    /**
+     * Подбирает запросы для пачки вещей и заменяет их прежних кандидатов. Вещь, измененная несколько раз,
+     * оценивается один раз по последнему тексту, иначе ее кандидаты попали бы в один пакет вставки дважды.
+     * Запрос или вещь, удаленные вместе с пользователем до записи, хранилище пропускает само. Если удаление
+     * успело закоммититься уже во время записи, пакет нарушает внешний ключ, и тогда кандидаты записываются
+     * по одной вещи, чтобы из-за одной удаленной вещи не терялась вся пачка.
+     */
+    void process(List<ItemSearchDocument> items) {
+        Map<Long, ItemSearchDocument> latest = new LinkedHashMap<>();
+        Map<Long, Integer> changes = new HashMap<>();
+        for (ItemSearchDocument item : items) {
+            latest.remove(item.getId());
+            latest.put(item.getId(), item);
+            changes.merge(item.getId(), 1, Integer::sum);
+        }
+        Map<Long, List<ItemRequestMatch>> matchesByItem = new LinkedHashMap<>();
+        List<ItemRequestMatch> matches = new ArrayList<>();
+        for (ItemSearchDocument item : latest.values()) {
+            List<ItemRequestMatch> itemMatches = openItemRequestIndex.match(item.getId(), item.getOwnerId(),
+                    item.getName() + " " + item.getDescription(), MAX_MATCHES_PER_ITEM);
+            matchesByItem.put(item.getId(), itemMatches);
+            matches.addAll(itemMatches);
+        }
+        List<Long> itemIds = new ArrayList<>(latest.keySet());
+        try {
+            itemRequestMatchStorage.replaceForItems(itemIds, matches);
+            matchedItems.increment(items.size());
+        } catch (DataIntegrityViolationException e) {
+            if (itemIds.size() == 1) {
+                fail(itemIds, items.size(), e);
+                return;
+            }
+            log.debug("Пакет кандидатов для вещей {} нарушил ограничение, запись повторяется по одной вещи", itemIds);
+            matchesByItem.forEach((itemId, itemMatches) -> replaceForItem(itemId, itemMatches, changes.get(itemId)));
+        } catch (DataAccessException e) {
+            fail(itemIds, items.size(), e);
+        }
+    }
+
+    private void replaceForItem(long itemId, List<ItemRequestMatch> matches, int changes) {
+        try {
+            itemRequestMatchStorage.replaceForItems(List.of(itemId), matches);
+            matchedItems.increment(changes);
+        } catch (DataAccessException e) {
+            fail(List.of(itemId), changes, e);
+        }
+    }
+
+    private void fail(List<Long> itemIds, int changes, DataAccessException e) {
+        failedItems.increment(changes);
+        log.warn("Не удалось сохранить кандидатов в ответы на запросы для вещей {}", itemIds, e);
+    }
+
+    private void work(BlockingQueue<ItemSearchDocument> queue) {
+        List<ItemSearchDocument> batch = new ArrayList<>(BATCH_SIZE);
+        while (!Thread.currentThread().isInterrupted()) {
+            try {
+                batch.add(queue.take());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+            queue.drainTo(batch, BATCH_SIZE - 1);
+            try {
+                process(batch);
+            } catch (RuntimeException e) {
+                log.error("Ошибка подбора запросов для пачки из {} вещей", batch.size(), e);
+            }
+            batch.clear();
+        }
+    }
+}
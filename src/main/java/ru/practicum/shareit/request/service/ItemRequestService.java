@@ -1,6 +1,8 @@
 package ru.practicum.shareit.request.service;
 
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
+import ru.practicum.shareit.pagination.Cursor;
 import ru.practicum.shareit.request.dto.ItemRequestFromUserDto;
 import ru.practicum.shareit.request.dto.ItemRequestInfoDto;
 import ru.practicum.shareit.request.dto.ItemRequestToUserDto;
@@ -15,4 +17,8 @@ public interface ItemRequestService {
     List<ItemRequestInfoDto> getAllForUser(long userId);
 
     List<ItemRequestInfoDto> getAllFromOtherUsersPageable(long userId, int from, int size);
+
+    List<ItemRequestInfoDto> getAllFromOtherUsersByCursor(long userId, Cursor cursor, int size);
+
+    SseEmitter subscribe(long userId);
 }
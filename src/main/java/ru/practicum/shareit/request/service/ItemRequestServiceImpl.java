@@ -2,26 +2,24 @@ package ru.practicum.shareit.request.service;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.data.domain.PageRequest;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 import ru.practicum.shareit.exceptions.ObjectNotFoundException;
-import ru.practicum.shareit.item.model.Item;
 import ru.practicum.shareit.item.service.ItemService;
+import ru.practicum.shareit.pagination.Cursor;
 import ru.practicum.shareit.request.dto.ItemRequestFromUserDto;
 import ru.practicum.shareit.request.dto.ItemRequestInfoDto;
 import ru.practicum.shareit.request.dto.ItemRequestToUserDto;
 import ru.practicum.shareit.request.dto.mapper.ItemRequestMapper;
 import ru.practicum.shareit.request.model.ItemRequest;
+import ru.practicum.shareit.request.storage.ItemRequestInfoStorage;
 import ru.practicum.shareit.request.storage.ItemRequestRepository;
 import ru.practicum.shareit.user.model.User;
-import ru.practicum.shareit.user.storage.UserRepository;
+import ru.practicum.shareit.user.service.ActingUserContext;
 
-import java.util.ArrayList;
-import java.util.Collections;
 import java.util.List;
-import java.util.Map;
-import java.util.stream.Collectors;
 
 @Service
 @Slf4j
@@ -31,50 +29,42 @@ public class ItemRequestServiceImpl implements ItemRequestService {
 
     private final ItemRequestRepository itemRequestRepository;
     private final ItemService itemService;
-    private final UserRepository userRepository;
+    private final ActingUserContext actingUserContext;
     private final ItemRequestMapper itemRequestMapper;
+    private final ApplicationEventPublisher eventPublisher;
+    private final ItemRequestEventHub itemRequestEventHub;
+    private final ItemRequestInfoCache itemRequestInfoCache;
+    private final ItemRequestInfoStorage itemRequestInfoStorage;
 
     @Override
     @Transactional
     public ItemRequestToUserDto add(ItemRequestFromUserDto itemRequestFromUserDto, long userId) {
-        User user = userRepository.findById(userId).orElseThrow(() -> {
-                    log.error("Пользователь с id {} не найден", userId);
-                    return new ObjectNotFoundException(String.format("Пользователь с id %d не найден", userId));
-                }
-        );
+        User user = actingUserContext.resolve(userId);
         ItemRequest itemRequest = itemRequestMapper.toItemRequest(itemRequestFromUserDto);
         itemRequest.setRequester(user);
-        return itemRequestMapper.toItemRequestForUserDto(itemRequestRepository.save(itemRequest));
+        ItemRequest savedItemRequest = itemRequestRepository.save(itemRequest);
+        eventPublisher.publishEvent(new ItemRequestCreatedEvent(savedItemRequest));
+        return itemRequestMapper.toItemRequestForUserDto(savedItemRequest);
     }
 
     @Override
     public ItemRequestInfoDto getById(long requestId, long userId) {
-        userRepository.findById(userId).orElseThrow(() -> {
-                    log.error("Пользователь с id {} не найден", userId);
-                    return new ObjectNotFoundException(String.format("Пользователь с id %d не найден", userId));
-                }
-        );
-        ItemRequest itemRequest = itemRequestRepository.findById(requestId).orElseThrow(() -> {
-                    log.error("Запроса с id {} не найдено", requestId);
-                    return new ObjectNotFoundException(String.format("Запроса с id %d не найдено", requestId));
-                }
-        );
-        var items = itemService.findItemsForRequest(requestId);
-        return itemRequestMapper.toItemRequestInfoDto(itemRequest, items);
+        actingUserContext.resolve(userId);
+        return itemRequestInfoCache.get(requestId, () -> {
+            ItemRequest itemRequest = itemRequestRepository.findById(requestId).orElseThrow(() -> {
+                        log.error("Запроса с id {} не найдено", requestId);
+                        return new ObjectNotFoundException(String.format("Запроса с id %d не найдено", requestId));
+                    }
+            );
+            var items = itemService.findItemsForRequest(requestId);
+            return itemRequestMapper.toItemRequestInfoDto(itemRequest, items);
+        });
     }
 
     @Override
     public List<ItemRequestInfoDto> getAllForUser(long userId) {
-        User user = userRepository.findById(userId).orElseThrow(() -> {
-                    log.error("Пользователь с id {} не найден", userId);
-                    return new ObjectNotFoundException(String.format("Пользователь с id %d не найден", userId));
-                }
-        );
-        var itemRequests = itemRequestRepository.findAllByRequesterOrderByCreatedDesc(user);
-        if (itemRequests.isEmpty()) {
-            return new ArrayList<>();
-        }
-        return getItemRequestsDtoWithItemsResponse(itemRequests);
+        actingUserContext.resolve(userId);
+        return itemRequestInfoStorage.findAllByRequester(userId);
     }
 
     @Override
@@ -82,30 +72,19 @@ public class ItemRequestServiceImpl implements ItemRequestService {
             long userId,
             int page,
             int size) {
-        User user = userRepository.findById(userId).orElseThrow(() -> {
-                    log.error("Пользователь с id {} не найден", userId);
-                    return new ObjectNotFoundException(String.format("Пользователь с id %d не найден", userId));
-                }
-        );
-        var itemRequests = itemRequestRepository.findAllByRequesterNotOrderByCreatedDesc(user,
-                PageRequest.of(page, size));
-        if (itemRequests.isEmpty()) {
-            return new ArrayList<>();
-        }
-        return getItemRequestsDtoWithItemsResponse(itemRequests);
+        actingUserContext.resolve(userId);
+        return itemRequestInfoStorage.findAllByRequesterNot(userId, page * size, size);
     }
 
-    private List<ItemRequestInfoDto> getItemRequestsDtoWithItemsResponse(List<ItemRequest> itemRequests) {
-        var items = itemService.findItemsForRequests(itemRequests);
-
-        Map<Long, List<Item>> requestItemsMap = items.stream()
-                .collect(Collectors.groupingBy(item -> item.getRequest().getId()));
+    @Override
+    public List<ItemRequestInfoDto> getAllFromOtherUsersByCursor(long userId, Cursor cursor, int size) {
+        actingUserContext.resolve(userId);
+        return itemRequestInfoStorage.findAllByRequesterNotAfterCursor(userId, cursor, size);
+    }
 
-        List<ItemRequestInfoDto> resultList = new ArrayList<>();
-        for (ItemRequest itemRequest : itemRequests) {
-            resultList.add(itemRequestMapper.toItemRequestInfoDto(itemRequest,
-                    requestItemsMap.getOrDefault(itemRequest.getId(), Collections.emptyList())));
-        }
-        return resultList;
+    @Override
+    public SseEmitter subscribe(long userId) {
+        actingUserContext.resolve(userId);
+        return itemRequestEventHub.subscribe(userId);
     }
 }
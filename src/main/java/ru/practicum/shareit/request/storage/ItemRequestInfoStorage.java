@@ -0,0 +1,117 @@
+package ru.practicum.shareit.request.storage;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataRetrievalFailureException;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Repository;
+import ru.practicum.shareit.pagination.Cursor;
+import ru.practicum.shareit.request.dto.ItemRequestInfoDto;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Запросы вместе с краткими списками откликнувшихся вещей одним оператором SQL. Страница запросов выбирается
+ * подзапросом, вещи присоединяются к ней LEFT JOIN. В PostgreSQL вещи каждого запроса собираются в массив
+ * json_agg и приходят одной строкой на запрос. В остальных базах (H2 в тестах) приходит строка на каждую вещь,
+ * и строки одного запроса, идущие подряд, сворачиваются в один ItemRequestInfoDto без группировки по Map.
+ */
+@Repository
+@Slf4j
+public class ItemRequestInfoStorage {
+
+    private static final String REQUESTS_OF_USER = "SELECT id, description, created FROM item_requests " +
+            "WHERE user_id = ?";
+    private static final String REQUESTS_OF_OTHERS_PAGE = "SELECT id, description, created FROM item_requests " +
+            "WHERE user_id <> ? ORDER BY created DESC, id DESC LIMIT ? OFFSET ?";
+    private static final String REQUESTS_OF_OTHERS_AFTER_CURSOR = "SELECT id, description, created " +
+            "FROM item_requests WHERE user_id <> ? AND (created < ? OR (created = ? AND id < ?)) " +
+            "ORDER BY created DESC, id DESC LIMIT ?";
+
+    private static final String JSON_AGGREGATE = "SELECT r.id, r.description, r.created, " +
+            "COALESCE(json_agg(json_build_object('id', it.id, 'name', it.name, 'description', it.description, " +
+            "'requestId', it.request_id, 'available', it.available) ORDER BY it.id) " +
+            "FILTER (WHERE it.id IS NOT NULL), CAST('[]' AS json)) AS items " +
+            "FROM (%s) AS r LEFT JOIN items AS it ON it.request_id = r.id " +
+            "GROUP BY r.id, r.description, r.created " +
+            "ORDER BY r.created DESC, r.id DESC";
+    private static final String JOIN = "SELECT r.id, r.description, r.created, it.id AS item_id, " +
+            "it.name AS item_name, it.description AS item_description, it.available AS item_available " +
+            "FROM (%s) AS r LEFT JOIN items AS it ON it.request_id = r.id " +
+            "ORDER BY r.created DESC, r.id DESC, it.id";
+
+    private static final TypeReference<List<ItemRequestInfoDto.ItemInfoDto>> ITEMS_TYPE = new TypeReference<>() {
+    };
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ObjectMapper objectMapper;
+    private final boolean jsonAggregate;
+
+    public ItemRequestInfoStorage(JdbcTemplate jdbcTemplate, ObjectMapper objectMapper) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.objectMapper = objectMapper;
+        String database = jdbcTemplate.execute((ConnectionCallback<String>) connection ->
+                connection.getMetaData().getDatabaseProductName());
+        this.jsonAggregate = "PostgreSQL".equals(database);
+        log.info("Запросы с вещами читаются {}", jsonAggregate ? "агрегатом json_agg" : "соединением строк");
+    }
+
+    public List<ItemRequestInfoDto> findAllByRequester(long requesterId) {
+        return query(REQUESTS_OF_USER, requesterId);
+    }
+
+    public List<ItemRequestInfoDto> findAllByRequesterNot(long requesterId, int offset, int limit) {
+        return query(REQUESTS_OF_OTHERS_PAGE, requesterId, limit, offset);
+    }
+
+    public List<ItemRequestInfoDto> findAllByRequesterNotAfterCursor(long requesterId, Cursor cursor, int limit) {
+        Timestamp cursorCreated = Timestamp.valueOf(cursor.getTimestamp());
+        return query(REQUESTS_OF_OTHERS_AFTER_CURSOR, requesterId, cursorCreated, cursorCreated, cursor.getId(),
+                limit);
+    }
+
+    private List<ItemRequestInfoDto> query(String requestsSql, Object... args) {
+        if (jsonAggregate) {
+            return jdbcTemplate.query(String.format(JSON_AGGREGATE, requestsSql),
+                    (resultSet, rowNum) -> toItemRequest(resultSet, readItems(resultSet.getString("items"))), args);
+        }
+        List<ItemRequestInfoDto> itemRequests = new ArrayList<>();
+        RowCallbackHandler foldItems = resultSet -> {
+            long requestId = resultSet.getLong("id");
+            ItemRequestInfoDto current = itemRequests.isEmpty() ? null : itemRequests.get(itemRequests.size() - 1);
+            if (current == null || current.getId() != requestId) {
+                current = toItemRequest(resultSet, new ArrayList<>());
+                itemRequests.add(current);
+            }
+            long itemId = resultSet.getLong("item_id");
+            if (!resultSet.wasNull()) {
+                current.getItems().add(new ItemRequestInfoDto.ItemInfoDto(itemId, resultSet.getString("item_name"),
+                        resultSet.getString("item_description"), requestId, resultSet.getBoolean("item_available")));
+            }
+        };
+        jdbcTemplate.query(String.format(JOIN, requestsSql), foldItems, args);
+        return itemRequests;
+    }
+
+    private static ItemRequestInfoDto toItemRequest(ResultSet resultSet, List<ItemRequestInfoDto.ItemInfoDto> items)
+            throws SQLException {
+        return new ItemRequestInfoDto(resultSet.getLong("id"), resultSet.getString("description"),
+                resultSet.getTimestamp("created").toLocalDateTime(), items);
+    }
+
+    private List<ItemRequestInfoDto.ItemInfoDto> readItems(String json) {
+        try {
+            return objectMapper.readValue(json, ITEMS_TYPE);
+        } catch (JsonProcessingException e) {
+            throw new DataRetrievalFailureException("Некорректный список вещей запроса: " + json, e);
+        }
+    }
+}
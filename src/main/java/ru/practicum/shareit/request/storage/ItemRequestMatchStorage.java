@@ -0,0 +1,56 @@
+package ru.practicum.shareit.request.storage;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.shareit.request.model.ItemRequestMatch;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Таблица item_request_matches. Пишется пакетами через JdbcTemplate: у строки составной ключ без генерации,
+ * и save из JPA читал бы каждую строку перед вставкой.
+ */
+@Repository
+@RequiredArgsConstructor
+public class ItemRequestMatchStorage {
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Заменяет кандидатов для вещей itemIds на matches одной транзакцией. Строка вставляется выборкой
+     * из item_requests и items, поэтому кандидат с запросом или вещью, удаленными после подбора
+     * (каскадом вместе с пользователем), пропускается, а не нарушает внешний ключ всего пакета.
+     */
+    @Transactional
+    public void replaceForItems(Collection<Long> itemIds, List<ItemRequestMatch> matches) {
+        if (!itemIds.isEmpty()) {
+            jdbcTemplate.batchUpdate("DELETE FROM item_request_matches WHERE item_id = ?",
+                    itemIds, itemIds.size(), (statement, itemId) -> statement.setLong(1, itemId));
+        }
+        if (!matches.isEmpty()) {
+            Timestamp created = Timestamp.valueOf(LocalDateTime.now());
+            jdbcTemplate.batchUpdate("INSERT INTO item_request_matches (request_id, item_id, score, created) " +
+                            "SELECT r.id, it.id, ?, ? FROM item_requests AS r JOIN items AS it ON it.id = ? " +
+                            "WHERE r.id = ?",
+                    matches, matches.size(), (statement, match) -> {
+                        statement.setDouble(1, match.getScore());
+                        statement.setTimestamp(2, created);
+                        statement.setLong(3, match.getItemId());
+                        statement.setLong(4, match.getRequestId());
+                    });
+        }
+    }
+
+    public List<ItemRequestMatch> findAllByRequestId(long requestId) {
+        return jdbcTemplate.query("SELECT request_id, item_id, score FROM item_request_matches " +
+                        "WHERE request_id = ? ORDER BY score DESC, item_id",
+                (resultSet, rowNum) -> new ItemRequestMatch(resultSet.getLong("request_id"),
+                        resultSet.getLong("item_id"), resultSet.getDouble("score")),
+                requestId);
+    }
+}
@@ -1,17 +1,18 @@
 package ru.practicum.shareit.request.storage;
 
-import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 import ru.practicum.shareit.request.model.ItemRequest;
-import ru.practicum.shareit.user.model.User;
 
 import java.util.List;
 
 @Repository
 public interface ItemRequestRepository extends JpaRepository<ItemRequest, Long> {
 
-    List<ItemRequest> findAllByRequesterOrderByCreatedDesc(User requester);
-
-    List<ItemRequest> findAllByRequesterNotOrderByCreatedDesc(User requester, Pageable pageable);
+    /**
+     * Открытые запросы: к ним еще не привязана ни одна вещь.
+     */
+    @Query("select r from ItemRequest as r where not exists (select it.id from Item as it where it.request = r)")
+    List<ItemRequest> findAllOpen();
 }
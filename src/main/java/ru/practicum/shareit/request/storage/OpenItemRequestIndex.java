@@ -0,0 +1,189 @@
+package ru.practicum.shareit.request.storage;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.service.ItemChangedEvent;
+import ru.practicum.shareit.item.storage.ItemRelevanceIndex;
+import ru.practicum.shareit.request.model.ItemRequest;
+import ru.practicum.shareit.request.model.ItemRequestMatch;
+import ru.practicum.shareit.request.service.ItemRequestCreatedEvent;
+import ru.practicum.shareit.user.service.UserDeletedEvent;
+
+import java.util.*;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Инвертированный индекс слов описаний открытых запросов - тех, к которым еще не привязана ни одна вещь.
+ * Текст вещи сравнивается с описаниями по косинусу между наборами слов с весами idf: кандидаты берутся
+ * только из списков слов вещи, поэтому стоимость сравнения не зависит от общего числа запросов.
+ * Запрос закрывается, когда владелец привязывает к нему вещь. Строится при старте и обновляется после коммита.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class OpenItemRequestIndex {
+
+    static final double MIN_SCORE = 0.3;
+
+    private final ItemRequestRepository itemRequestRepository;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<Long, IndexedRequest> requests = new HashMap<>();
+    private final Map<String, Set<Long>> postings = new HashMap<>();
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        List<ItemRequest> open = itemRequestRepository.findAllOpen();
+        lock.writeLock().lock();
+        try {
+            requests.clear();
+            postings.clear();
+            open.forEach(itemRequest -> putLocked(itemRequest.getId(), itemRequest.getRequester().getId(),
+                    itemRequest.getDescription()));
+        } finally {
+            lock.writeLock().unlock();
+        }
+        log.info("Индекс открытых запросов построен, загружено запросов: {}", open.size());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onItemRequestCreated(ItemRequestCreatedEvent event) {
+        ItemRequest itemRequest = event.getItemRequest();
+        put(itemRequest.getId(), itemRequest.getRequester().getId(), itemRequest.getDescription());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onItemChanged(ItemChangedEvent event) {
+        Item item = event.getItem();
+        if (item.getRequest() != null) {
+            remove(item.getRequest().getId());
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onUserDeleted(UserDeletedEvent event) {
+        lock.writeLock().lock();
+        try {
+            List<Long> requestIds = new ArrayList<>();
+            for (IndexedRequest request : requests.values()) {
+                if (request.requesterId == event.getUserId()) {
+                    requestIds.add(request.id);
+                }
+            }
+            requestIds.forEach(this::removeLocked);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Не больше limit открытых запросов других пользователей с оценкой не ниже MIN_SCORE,
+     * по убыванию оценки, при равной оценке - по возрастанию id запроса.
+     */
+    public List<ItemRequestMatch> match(long itemId, long ownerId, String text, int limit) {
+        Set<String> terms = new HashSet<>(ItemRelevanceIndex.tokenize(text));
+        if (terms.isEmpty() || limit <= 0) {
+            return new ArrayList<>();
+        }
+        lock.readLock().lock();
+        try {
+            double itemNorm = 0;
+            Map<Long, Double> products = new HashMap<>();
+            for (String term : terms) {
+                double weight = squaredIdf(term);
+                itemNorm += weight;
+                for (Long requestId : postings.getOrDefault(term, Collections.emptySet())) {
+                    products.merge(requestId, weight, Double::sum);
+                }
+            }
+            List<ItemRequestMatch> matches = new ArrayList<>();
+            for (Map.Entry<Long, Double> product : products.entrySet()) {
+                IndexedRequest request = requests.get(product.getKey());
+                if (request.requesterId == ownerId) {
+                    continue;
+                }
+                double requestNorm = 0;
+                for (String term : request.terms) {
+                    requestNorm += squaredIdf(term);
+                }
+                double score = product.getValue() / Math.sqrt(itemNorm * requestNorm);
+                if (score >= MIN_SCORE) {
+                    matches.add(new ItemRequestMatch(request.id, itemId, score));
+                }
+            }
+            matches.sort(Comparator.comparing(ItemRequestMatch::getScore).reversed()
+                    .thenComparing(ItemRequestMatch::getRequestId));
+            return matches.size() > limit ? new ArrayList<>(matches.subList(0, limit)) : matches;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public void put(long requestId, long requesterId, String description) {
+        lock.writeLock().lock();
+        try {
+            putLocked(requestId, requesterId, description);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(long requestId) {
+        lock.writeLock().lock();
+        try {
+            removeLocked(requestId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void putLocked(long requestId, long requesterId, String description) {
+        removeLocked(requestId);
+        IndexedRequest request = new IndexedRequest(requestId, requesterId,
+                new HashSet<>(ItemRelevanceIndex.tokenize(description)));
+        requests.put(requestId, request);
+        for (String term : request.terms) {
+            postings.computeIfAbsent(term, key -> new HashSet<>()).add(requestId);
+        }
+    }
+
+    private void removeLocked(long requestId) {
+        IndexedRequest request = requests.remove(requestId);
+        if (request == null) {
+            return;
+        }
+        for (String term : request.terms) {
+            Set<Long> requestIds = postings.get(term);
+            requestIds.remove(requestId);
+            if (requestIds.isEmpty()) {
+                postings.remove(term);
+            }
+        }
+    }
+
+    /**
+     * Квадрат idf: слова, встречающиеся во многих запросах ("нужна", "для"), весят меньше редких.
+     */
+    private double squaredIdf(String term) {
+        int frequency = postings.getOrDefault(term, Collections.emptySet()).size();
+        double idf = Math.log(1 + (requests.size() + 1.0) / (frequency + 1.0));
+        return idf * idf;
+    }
+
+    private static final class IndexedRequest {
+        private final long id;
+        private final long requesterId;
+        private final Set<String> terms;
+
+        private IndexedRequest(long id, long requesterId, Set<String> terms) {
+            this.id = id;
+            this.requesterId = requesterId;
+            this.terms = terms;
+        }
+    }
+}
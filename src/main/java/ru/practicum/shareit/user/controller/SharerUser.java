@@ -0,0 +1,15 @@
+package ru.practicum.shareit.user.controller;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Параметр контроллера типа User, в который подставляется пользователь из заголовка X-Sharer-User-Id.
+ */
+@Target(ElementType.PARAMETER)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface SharerUser {
+    String HEADER = "X-Sharer-User-Id";
+}
@@ -0,0 +1,46 @@
+package ru.practicum.shareit.user.controller;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.MethodParameter;
+import org.springframework.web.bind.MissingRequestHeaderException;
+import org.springframework.web.bind.support.WebDataBinderFactory;
+import org.springframework.web.context.request.NativeWebRequest;
+import org.springframework.web.method.support.HandlerMethodArgumentResolver;
+import org.springframework.web.method.support.ModelAndViewContainer;
+import ru.practicum.shareit.user.model.User;
+import ru.practicum.shareit.user.service.ActingUserContext;
+
+import javax.validation.ValidationException;
+
+@Slf4j
+@RequiredArgsConstructor
+public class SharerUserArgumentResolver implements HandlerMethodArgumentResolver {
+    private final ActingUserContext actingUserContext;
+
+    @Override
+    public boolean supportsParameter(MethodParameter parameter) {
+        return parameter.hasParameterAnnotation(SharerUser.class) && User.class.equals(parameter.getParameterType());
+    }
+
+    @Override
+    public User resolveArgument(MethodParameter parameter, ModelAndViewContainer mavContainer,
+                                NativeWebRequest webRequest, WebDataBinderFactory binderFactory) throws Exception {
+        String header = webRequest.getHeader(SharerUser.HEADER);
+        if (header == null) {
+            throw new MissingRequestHeaderException(SharerUser.HEADER, parameter);
+        }
+        long userId;
+        try {
+            userId = Long.parseLong(header.trim());
+        } catch (NumberFormatException e) {
+            log.error("Некорректный id пользователя: {}", header);
+            throw new IllegalArgumentException(String.format("Некорректный id пользователя: %s", header));
+        }
+        if (userId < 1) {
+            log.error("id не может быть меньше 1: {}", userId);
+            throw new ValidationException("id не может быть меньше 1");
+        }
+        return actingUserContext.resolve(userId);
+    }
+}
@@ -0,0 +1,34 @@
+package ru.practicum.shareit.user.service;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+import ru.practicum.shareit.user.model.User;
+
+/**
+ * Пользователь, от имени которого выполняется HTTP-запрос (заголовок X-Sharer-User-Id). Загружается и проверяется
+ * один раз за запрос и хранится в его атрибутах, повторные обращения контроллера и сервисов в том же запросе
+ * не идут ни в кэш, ни в базу. Вне HTTP-запроса (планировщик, асинхронные задачи) просто делегирует UserService.
+ */
+@Component
+@RequiredArgsConstructor
+public class ActingUserContext {
+    private static final String ATTRIBUTE_PREFIX = ActingUserContext.class.getName() + ".";
+
+    private final UserService userService;
+
+    public User resolve(long userId) {
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        if (attributes == null) {
+            return userService.getById(userId);
+        }
+        String name = ATTRIBUTE_PREFIX + userId;
+        User user = (User) attributes.getAttribute(name, RequestAttributes.SCOPE_REQUEST);
+        if (user == null) {
+            user = userService.getById(userId);
+            attributes.setAttribute(name, user, RequestAttributes.SCOPE_REQUEST);
+        }
+        return user;
+    }
+}
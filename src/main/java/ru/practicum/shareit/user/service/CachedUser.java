@@ -0,0 +1,23 @@
+package ru.practicum.shareit.user.service;
+
+import lombok.Value;
+import ru.practicum.shareit.user.model.User;
+
+/**
+ * Неизменяемая запись кэша пользователей. Сущность User в кэше разделялась бы всеми запросами, и изменение
+ * полученного объекта в одном из них меняло бы кэш, поэтому каждый вызов получает новую копию.
+ */
+@Value
+class CachedUser {
+    long id;
+    String name;
+    String email;
+
+    static CachedUser of(User user) {
+        return new CachedUser(user.getId(), user.getName(), user.getEmail());
+    }
+
+    User toUser() {
+        return new User(id, name, email);
+    }
+}
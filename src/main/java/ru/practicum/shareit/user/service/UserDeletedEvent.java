@@ -0,0 +1,19 @@
+package ru.practicum.shareit.user.service;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.util.Set;
+
+/**
+ * Публикуется при удалении пользователя. Вещи, запросы и бронирования пользователя база удаляет каскадно,
+ * поэтому слушатели чистят по этому событию свои данные в памяти. Каскад удаляет и чужие вещи, созданные
+ * в ответ на запросы пользователя (fk_items_to_requests), поэтому id всех удаляемых вещей читаются до удаления
+ * и передаются в deletedItemIds.
+ */
+@Getter
+@AllArgsConstructor
+public class UserDeletedEvent {
+    private final long userId;
+    private final Set<Long> deletedItemIds;
+}
@@ -2,12 +2,19 @@ package ru.practicum.shareit.user.service;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 import ru.practicum.shareit.exceptions.ObjectNotFoundException;
+import ru.practicum.shareit.item.storage.ItemRepository;
 import ru.practicum.shareit.user.model.User;
 import ru.practicum.shareit.user.storage.UserRepository;
 
+import java.util.HashSet;
 import java.util.List;
 
 @Service
@@ -15,7 +22,12 @@ import java.util.List;
 @RequiredArgsConstructor
 @Transactional(readOnly = true)
 public class UserServiceImpl implements UserService {
+    public static final String USERS_CACHE = "users";
+
     private final UserRepository userRepository;
+    private final ItemRepository itemRepository;
+    private final CacheManager cacheManager;
+    private final ApplicationEventPublisher eventPublisher;
 
     @Transactional
     @Override
@@ -23,12 +35,24 @@ public class UserServiceImpl implements UserService {
         return userRepository.save(user);
     }
 
+    /**
+     * В кэше лежит неизменяемая копия пользователя, вызывающий получает новую сущность, отсоединенную
+     * от контекста. Запись в кэш транзакционного менеджера откладывается до коммита.
+     */
     @Override
     public User getById(long id) {
-        return userRepository.findById(id).orElseThrow(() -> {
-            log.error("Пользователь с id {} не найден", id);
-            return new ObjectNotFoundException(String.format("Пользователь с id %d не найден", id));
-        });
+        Cache cache = cacheManager.getCache(USERS_CACHE);
+        CachedUser cached = cache == null ? null : cache.get(id, CachedUser.class);
+        if (cached == null) {
+            cached = CachedUser.of(userRepository.findById(id).orElseThrow(() -> {
+                log.error("Пользователь с id {} не найден", id);
+                return new ObjectNotFoundException(String.format("Пользователь с id %d не найден", id));
+            }));
+            if (cache != null) {
+                cache.put(id, cached);
+            }
+        }
+        return cached.toUser();
     }
 
     @Override
@@ -44,6 +68,7 @@ public class UserServiceImpl implements UserService {
             return new ObjectNotFoundException(String.format("Пользователь с id %d не найден", id));
         });
         updateRequiredFields(userForUpdate, user);
+        evictFromCache(id);
         return userRepository.save(userForUpdate);
     }
 
@@ -54,7 +79,10 @@ public class UserServiceImpl implements UserService {
             log.error("Пользователь с id {} не найден", id);
             return new ObjectNotFoundException(String.format("Пользователь с id %d не найден", id));
         });
+        HashSet<Long> deletedItemIds = new HashSet<>(itemRepository.findAllIdsDeletedWithUser(id));
         userRepository.deleteById(id);
+        evictFromCache(id);
+        eventPublisher.publishEvent(new UserDeletedEvent(id, deletedItemIds));
     }
 
     private void updateRequiredFields(User savedUser, User newUser) {
@@ -65,4 +93,26 @@ public class UserServiceImpl implements UserService {
             savedUser.setName(newUser.getName());
         }
     }
+
+    /**
+     * Удаляет пользователя из кэша сразу и повторно после завершения транзакции, чтобы параллельное чтение
+     * не оставило в кэше состояние до коммита. evict у транзакционного кэша откладывается до коммита,
+     * поэтому используется evictIfPresent.
+     */
+    private void evictFromCache(long id) {
+        Cache cache = cacheManager.getCache(USERS_CACHE);
+        if (cache == null) {
+            return;
+        }
+        cache.evictIfPresent(id);
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                cache.evictIfPresent(id);
+            }
+        });
+    }
 }
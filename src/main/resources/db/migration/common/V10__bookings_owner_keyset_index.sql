@@ -0,0 +1,10 @@
+-- BookingQueryRepositoryImpl, брони владельца: индекс (item_id, start_time, id) упорядочивает брони только
+-- внутри одной вещи, и страница по всем вещам владельца требовала сортировки всех его броней. Владелец вещи
+-- дублируется в bookings, и страница после курсора читается из индекса сразу с его позиции.
+ALTER TABLE bookings ADD COLUMN owner_id BIGINT;
+
+UPDATE bookings SET owner_id = (SELECT it.user_id FROM items AS it WHERE it.id = bookings.item_id);
+
+ALTER TABLE bookings ADD CONSTRAINT fk_bookings_to_owners FOREIGN KEY(owner_id) REFERENCES users(id) ON DELETE CASCADE ON UPDATE CASCADE;
+
+CREATE INDEX IF NOT EXISTS idx_bookings_owner_start_id ON bookings (owner_id, start_time DESC, id DESC);
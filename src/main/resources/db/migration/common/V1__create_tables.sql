@@ -12,7 +12,6 @@ created timestamp NOT NULL,
 CONSTRAINT fk_item_requests_to_users FOREIGN KEY(user_id) REFERENCES users(id) ON DELETE CASCADE ON UPDATE CASCADE
 );
 
-
 CREATE TABLE IF NOT EXISTS items (
 id BIGINT GENERATED ALWAYS AS IDENTITY PRIMARY KEY,
 name varchar(100) NOT NULL unique,
@@ -35,7 +34,6 @@ CONSTRAINT fk_bookings_to_items FOREIGN KEY(item_id) REFERENCES items(id) ON DEL
 CONSTRAINT fk_bookings_to_users FOREIGN KEY(user_id) REFERENCES users(id) ON DELETE CASCADE ON UPDATE CASCADE
 );
 
-
 CREATE TABLE IF NOT EXISTS comments (
 id BIGINT GENERATED ALWAYS AS IDENTITY PRIMARY KEY,
 description varchar(255) NOT NULL,
@@ -44,4 +42,4 @@ user_id BIGINT,
 created timestamp NOT NULL,
 CONSTRAINT fk_comments_to_items FOREIGN KEY(item_id) REFERENCES items(id) ON DELETE CASCADE ON UPDATE CASCADE,
 CONSTRAINT fk_comments_to_users FOREIGN KEY(user_id) REFERENCES users(id) ON DELETE CASCADE ON UPDATE CASCADE
-);
\ No newline at end of file
+);
@@ -0,0 +1,20 @@
+-- BookingRepository.findAllByBooker...OrderByStartDesc, countByBookerAndItemAndEndBefore
+CREATE INDEX IF NOT EXISTS idx_bookings_booker_start ON bookings (user_id, start_time DESC);
+
+-- BookingRepository.findAllByBookerAndStatus
+CREATE INDEX IF NOT EXISTS idx_bookings_booker_status_start ON bookings (user_id, status, start_time DESC);
+
+-- BookingRepository.findAllByItemOwner... (через items.user_id), findFirstByItemAndStatusNotIn..., findAllUnion
+CREATE INDEX IF NOT EXISTS idx_bookings_item_status_start ON bookings (item_id, status, start_time);
+
+-- ItemRepository.findAllByOwner, соединение с items в запросах владельца
+CREATE INDEX IF NOT EXISTS idx_items_owner ON items (user_id);
+
+-- ItemRepository.findAllByRequest, findAllByRequestIn
+CREATE INDEX IF NOT EXISTS idx_items_request ON items (request_id);
+
+-- CommentRepository.findAllByItem, findAllByItemIn
+CREATE INDEX IF NOT EXISTS idx_comments_item ON comments (item_id);
+
+-- ItemRequestRepository.findAllByRequesterOrderByCreatedDesc
+CREATE INDEX IF NOT EXISTS idx_item_requests_requester_created ON item_requests (user_id, created DESC);
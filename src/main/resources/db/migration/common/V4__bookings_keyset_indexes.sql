@@ -0,0 +1,6 @@
+-- BookingRepository.find...ByBookerAfterCursor: порядок (start_time, id) совпадает с ключом курсора,
+-- поэтому следующая страница читается из индекса сразу с позиции курсора
+CREATE INDEX IF NOT EXISTS idx_bookings_booker_start_id ON bookings (user_id, start_time DESC, id DESC);
+
+-- BookingRepository.find...ByItemOwnerAfterCursor (через items.user_id)
+CREATE INDEX IF NOT EXISTS idx_bookings_item_start_id ON bookings (item_id, start_time DESC, id DESC);
@@ -0,0 +1,35 @@
+-- Последнее и следующее бронирование вещи хранятся прямо в items, чтобы страница вещей владельца
+-- читалась без обращения к bookings. Поддерживаются ItemBookingSnapshotUpdater.
+ALTER TABLE items ADD COLUMN last_booking_id BIGINT;
+ALTER TABLE items ADD COLUMN last_booking_start TIMESTAMP WITHOUT TIME ZONE;
+ALTER TABLE items ADD COLUMN last_booking_end TIMESTAMP WITHOUT TIME ZONE;
+ALTER TABLE items ADD COLUMN last_booker_id BIGINT;
+ALTER TABLE items ADD COLUMN next_booking_id BIGINT;
+ALTER TABLE items ADD COLUMN next_booking_start TIMESTAMP WITHOUT TIME ZONE;
+ALTER TABLE items ADD COLUMN next_booking_end TIMESTAMP WITHOUT TIME ZONE;
+ALTER TABLE items ADD COLUMN next_booker_id BIGINT;
+
+UPDATE items SET
+    last_booking_id = (SELECT bk.id FROM bookings AS bk
+                       WHERE bk.item_id = items.id
+                         AND bk.status NOT IN ('CANCELLED', 'REJECTED')
+                         AND bk.start_time < LOCALTIMESTAMP
+                       ORDER BY bk.start_time DESC
+                       LIMIT 1),
+    next_booking_id = (SELECT bk.id FROM bookings AS bk
+                       WHERE bk.item_id = items.id
+                         AND bk.status NOT IN ('CANCELLED', 'REJECTED')
+                         AND bk.start_time > LOCALTIMESTAMP
+                       ORDER BY bk.start_time
+                       LIMIT 1);
+
+UPDATE items SET
+    last_booking_start = (SELECT bk.start_time FROM bookings AS bk WHERE bk.id = items.last_booking_id),
+    last_booking_end = (SELECT bk.end_time FROM bookings AS bk WHERE bk.id = items.last_booking_id),
+    last_booker_id = (SELECT bk.user_id FROM bookings AS bk WHERE bk.id = items.last_booking_id),
+    next_booking_start = (SELECT bk.start_time FROM bookings AS bk WHERE bk.id = items.next_booking_id),
+    next_booking_end = (SELECT bk.end_time FROM bookings AS bk WHERE bk.id = items.next_booking_id),
+    next_booker_id = (SELECT bk.user_id FROM bookings AS bk WHERE bk.id = items.next_booking_id);
+
+-- ItemBookingSnapshotRepository.findAllByNextBookingStartBefore: вещи, чье следующее бронирование уже началось
+CREATE INDEX IF NOT EXISTS idx_items_next_booking_start ON items (next_booking_start);
@@ -0,0 +1,3 @@
+-- Время создания вещи для фильтра и фасета свежести в ItemFacetIndex. Заполняется базой при вставке,
+-- существующим строкам достается время миграции.
+ALTER TABLE items ADD COLUMN created TIMESTAMP WITHOUT TIME ZONE DEFAULT LOCALTIMESTAMP NOT NULL;
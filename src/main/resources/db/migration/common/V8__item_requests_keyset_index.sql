@@ -0,0 +1,3 @@
+-- ItemRequestRepository.findAllByRequesterNotAfterCursor: порядок (created, id) совпадает с ключом курсора,
+-- поэтому лента чужих запросов читается из индекса сразу с позиции курсора, а не пропуском OFFSET строк
+CREATE INDEX IF NOT EXISTS idx_item_requests_created_id ON item_requests (created DESC, id DESC);
@@ -0,0 +1,14 @@
+-- Кандидаты в ответы на запросы, найденные ItemRequestMatcher по сходству текста вещи и описания запроса.
+-- К запросу вещь по-прежнему привязывает только владелец, указывая requestId.
+CREATE TABLE IF NOT EXISTS item_request_matches (
+request_id BIGINT NOT NULL,
+item_id BIGINT NOT NULL,
+score DOUBLE PRECISION NOT NULL,
+created timestamp NOT NULL,
+PRIMARY KEY (request_id, item_id),
+CONSTRAINT fk_item_request_matches_to_requests FOREIGN KEY(request_id) REFERENCES item_requests(id) ON DELETE CASCADE ON UPDATE CASCADE,
+CONSTRAINT fk_item_request_matches_to_items FOREIGN KEY(item_id) REFERENCES items(id) ON DELETE CASCADE ON UPDATE CASCADE
+);
+
+-- ItemRequestMatchStorage.replaceForItems: кандидаты измененной вещи удаляются перед записью новых
+CREATE INDEX IF NOT EXISTS idx_item_request_matches_item ON item_request_matches (item_id);
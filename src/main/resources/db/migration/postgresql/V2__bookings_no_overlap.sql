@@ -0,0 +1,7 @@
+-- В H2 нет ограничений-исключений (EXCLUDE USING gist), поэтому там пересечение броней
+-- отсекается только индексом интервалов и блокировками в BookingServiceImpl.
+CREATE EXTENSION IF NOT EXISTS btree_gist;
+
+ALTER TABLE bookings ADD CONSTRAINT bookings_no_overlap
+EXCLUDE USING gist (item_id WITH =, tsrange(start_time, end_time, '[]') WITH &&)
+WHERE (status NOT IN ('REJECTED', 'CANCELLED'));
@@ -0,0 +1,9 @@
+-- ItemRepository.findAllContainingTextWithAvailableStatus (shareit.search.mode=database):
+-- lower(...) like '%text%' по индексам GIN из pg_trgm. Частичные индексы хранят только доступные вещи,
+-- условие it.available = true в запросе позволяет планировщику их использовать.
+-- В H2 расширения нет, там остается полный просмотр таблицы.
+CREATE EXTENSION IF NOT EXISTS pg_trgm;
+
+CREATE INDEX IF NOT EXISTS idx_items_name_trgm ON items USING gin (lower(name) gin_trgm_ops) WHERE available;
+
+CREATE INDEX IF NOT EXISTS idx_items_description_trgm ON items USING gin (lower(description) gin_trgm_ops) WHERE available;
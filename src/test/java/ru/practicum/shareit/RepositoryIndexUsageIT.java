@@ -0,0 +1,230 @@
+package ru.practicum.shareit;
+
+import net.ttddyy.dsproxy.QueryInfo;
+import net.ttddyy.dsproxy.proxy.ParameterSetOperation;
+import net.ttddyy.dsproxy.support.ProxyDataSource;
+import net.ttddyy.dsproxy.support.ProxyDataSourceBuilder;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.jackson.JacksonAutoConfiguration;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import ru.practicum.shareit.booking.enums.BookingRole;
+import ru.practicum.shareit.booking.enums.BookingState;
+import ru.practicum.shareit.booking.enums.Status;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.storage.BookingQuery;
+import ru.practicum.shareit.booking.storage.BookingRepository;
+import ru.practicum.shareit.item.model.Comment;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.storage.CommentRepository;
+import ru.practicum.shareit.item.storage.ItemBookingSnapshotRepository;
+import ru.practicum.shareit.item.storage.ItemRepository;
+import ru.practicum.shareit.pagination.Cursor;
+import ru.practicum.shareit.request.model.ItemRequest;
+import ru.practicum.shareit.request.storage.ItemRequestInfoStorage;
+import ru.practicum.shareit.user.model.User;
+
+import javax.sql.DataSource;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Проверяет по плану EXPLAIN, что операторы, которые на самом деле выполняют репозитории, читают таблицы
+ * через индексы из миграций. Операторы перехватываются прокси источника данных и объясняются с теми же
+ * параметрами. Проверка имеет смысл только в PostgreSQL: H2 сам создает индекс на каждую колонку внешнего
+ * ключа, и без миграций план там тоже был бы индексным. На пустых таблицах планировщик PostgreSQL выбрал бы
+ * полный просмотр, поэтому он запрещается через enable_seqscan: без нужного индекса в плане останется Seq Scan.
+ * Запуск на PostgreSQL из application.properties: mvn test -P postgresql
+ */
+@Tag("postgresql")
+@DataJpaTest(properties = {"db.name=shareItTest"})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import({RepositoryIndexUsageIT.StatementCapture.class, ItemRequestInfoStorage.class, JacksonAutoConfiguration.class})
+class RepositoryIndexUsageIT {
+
+    private static final List<QueryInfo> STATEMENTS = new CopyOnWriteArrayList<>();
+
+    @Autowired
+    private TestEntityManager testEntityManager;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @Autowired
+    private BookingRepository bookingRepository;
+    @Autowired
+    private ItemRepository itemRepository;
+    @Autowired
+    private CommentRepository commentRepository;
+    @Autowired
+    private ItemBookingSnapshotRepository itemBookingSnapshotRepository;
+    @Autowired
+    private ItemRequestInfoStorage itemRequestInfoStorage;
+
+    private final LocalDateTime now = LocalDateTime.of(2025, 10, 21, 10, 10, 10);
+    private User user;
+    private Item item;
+    private ItemRequest itemRequest;
+
+    @BeforeEach
+    void setUp() {
+        user = testEntityManager.persist(new User(null, "Kirill", "kirill.index@yandex.ru"));
+        User owner = testEntityManager.persist(new User(null, "Ilya", "ilya.index@yandex.ru"));
+        itemRequest = testEntityManager.persist(new ItemRequest(null, "Нужна дрель", user, now));
+        item = testEntityManager.persist(new Item(null, "Дрель для индексов", "Ударная дрель", true, owner,
+                itemRequest));
+        testEntityManager.persist(new Booking(null, now.minusDays(1), now.plusDays(1), item, user, Status.WAITING));
+        testEntityManager.persist(new Comment(null, "Отличная дрель", item, user, now));
+        testEntityManager.flush();
+        testEntityManager.clear();
+        jdbcTemplate.execute("SET LOCAL enable_seqscan = off");
+    }
+
+    @Test
+    void findAllByQueryTest_whenBookerAndAll_thenQueryUsesIndex() {
+        assertUsesIndexes(() -> bookingRepository.findAllByQuery(new BookingQuery(BookingRole.BOOKER, user,
+                BookingState.ALL, now, Cursor.FIRST, 0, 20)), "idx_bookings_booker_start_id");
+    }
+
+    @Test
+    void findAllByQueryTest_whenBookerAndWaiting_thenQueryUsesIndex() {
+        assertUsesIndexes(() -> bookingRepository.findAllByQuery(new BookingQuery(BookingRole.BOOKER, user,
+                        BookingState.WAITING, now, Cursor.FIRST, 0, 20)),
+                "idx_bookings_booker_status_start|idx_bookings_booker_start_id");
+    }
+
+    @Test
+    void findAllByQueryTest_whenBookerAndCurrent_thenQueryUsesIndex() {
+        assertUsesIndexes(() -> bookingRepository.findAllByQuery(new BookingQuery(BookingRole.BOOKER, user,
+                        BookingState.CURRENT, now, Cursor.FIRST, 0, 20)),
+                "idx_bookings_booker_start_id|idx_bookings_booker_start");
+    }
+
+    @Test
+    void findAllByQueryTest_whenOwnerAndAll_thenQueryUsesIndex() {
+        assertUsesIndexes(() -> bookingRepository.findAllByQuery(new BookingQuery(BookingRole.OWNER, user,
+                        BookingState.ALL, now, Cursor.FIRST, 0, 20)),
+                "idx_bookings_owner_start_id");
+    }
+
+    @Test
+    void countByBookerAndItemAndEndBeforeTest_thenQueryUsesIndex() {
+        assertUsesIndexes(() -> bookingRepository.countByBookerAndItemAndEndBefore(user, item, now),
+                "idx_bookings_booker_start|idx_bookings_booker_start_id|idx_bookings_booker_status_start" +
+                        "|idx_bookings_item_status_start|idx_bookings_item_start_id");
+    }
+
+    @Test
+    void findLastAndNextByItemIdInTest_thenQueryUsesIndex() {
+        assertUsesIndexes(() -> bookingRepository.findLastAndNextByItemIdIn(List.of(item.getId()), now),
+                "idx_bookings_item_status_start|idx_bookings_item_start_id");
+    }
+
+    @Test
+    void findAllByOwnerTest_thenQueryUsesIndex() {
+        assertUsesIndexes(() -> itemRepository.findAllByOwner(user, PageRequest.of(0, 20)), "idx_items_owner");
+    }
+
+    @Test
+    void findAllDtoByRequestIdTest_thenQueryUsesIndex() {
+        assertUsesIndexes(() -> itemRepository.findAllDtoByRequestId(itemRequest.getId()), "idx_items_request");
+    }
+
+    @Test
+    void findAllByItemInTest_thenQueryUsesIndex() {
+        assertUsesIndexes(() -> commentRepository.findAllByItemIn(List.of(item)), "idx_comments_item");
+    }
+
+    @Test
+    void findAllByNextBookingStartBeforeTest_thenQueryUsesIndex() {
+        assertUsesIndexes(() -> itemBookingSnapshotRepository.findAllByNextBookingStartBefore(now,
+                PageRequest.of(0, 20)), "idx_items_next_booking_start");
+    }
+
+    @Test
+    void findAllByRequesterTest_thenQueryUsesIndex() {
+        assertUsesIndexes(() -> itemRequestInfoStorage.findAllByRequester(user.getId()),
+                "idx_item_requests_requester_created", "idx_items_request");
+    }
+
+    @Test
+    void findAllByRequesterNotAfterCursorTest_thenQueryUsesIndex() {
+        assertUsesIndexes(() -> itemRequestInfoStorage.findAllByRequesterNotAfterCursor(user.getId(),
+                Cursor.FIRST, 20), "idx_item_requests_created_id", "idx_items_request");
+    }
+
+    /**
+     * Выполняет вызов репозитория и проверяет план каждого его SELECT. Каждое ожидание - имя индекса
+     * или несколько равноценных имен через "|", из которых в плане должно встретиться хотя бы одно.
+     */
+    private void assertUsesIndexes(Runnable repositoryCall, String... expectedIndexes) {
+        STATEMENTS.clear();
+        repositoryCall.run();
+        List<QueryInfo> selects = new ArrayList<>();
+        for (QueryInfo statement : STATEMENTS) {
+            if (statement.getQuery().trim().toLowerCase().startsWith("select")) {
+                selects.add(statement);
+            }
+        }
+        assertThat(selects).isNotEmpty();
+
+        StringBuilder plan = new StringBuilder();
+        for (QueryInfo select : selects) {
+            jdbcTemplate.queryForList("EXPLAIN " + select.getQuery(), String.class, parameters(select))
+                    .forEach(line -> plan.append(line).append('\n'));
+        }
+        for (String expected : expectedIndexes) {
+            assertThat(plan.toString()).containsAnyOf(expected.split("\\|"));
+        }
+    }
+
+    private static Object[] parameters(QueryInfo statement) {
+        if (statement.getParametersList().isEmpty()) {
+            return new Object[0];
+        }
+        List<ParameterSetOperation> operations = new ArrayList<>(statement.getParametersList().get(0));
+        operations.sort(Comparator.comparing(operation -> (Integer) operation.getArgs()[0]));
+        Object[] parameters = new Object[operations.size()];
+        for (int i = 0; i < operations.size(); i++) {
+            ParameterSetOperation operation = operations.get(i);
+            parameters[i] = "setNull".equals(operation.getMethod().getName()) ? null : operation.getArgs()[1];
+        }
+        return parameters;
+    }
+
+    /**
+     * Оборачивает источник данных прокси, который запоминает выполненные операторы вместе с параметрами.
+     */
+    @TestConfiguration
+    static class StatementCapture {
+
+        @Bean
+        static BeanPostProcessor statementCapturingDataSourcePostProcessor() {
+            return new BeanPostProcessor() {
+                @Override
+                public Object postProcessAfterInitialization(Object bean, String beanName) {
+                    if (bean instanceof DataSource && !(bean instanceof ProxyDataSource)) {
+                        return ProxyDataSourceBuilder.create((DataSource) bean)
+                                .name(beanName)
+                                .afterQuery((execution, queries) -> STATEMENTS.addAll(queries))
+                                .build();
+                    }
+                    return bean;
+                }
+            };
+        }
+    }
+}
@@ -0,0 +1,37 @@
+package ru.practicum.shareit;
+
+import net.ttddyy.dsproxy.QueryCountHolder;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.RequestBuilder;
+import org.springframework.test.web.servlet.ResultActions;
+import org.springframework.test.web.servlet.ResultMatcher;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Бюджет операторов SQL на один HTTP-запрос: perform обнуляет счетчик и выполняет запрос, atMost падает,
+ * если запрос выполнил больше операторов, чем разрешено. Нужен контекст с StatementCountingDataSourceConfiguration.
+ * Так N+1 в списках (по запросу на каждую строку страницы) ловится тестом, а не в production.
+ */
+public final class SqlStatementBudget {
+
+    private SqlStatementBudget() {
+    }
+
+    public static ResultActions perform(MockMvc mvc, RequestBuilder requestBuilder) throws Exception {
+        QueryCountHolder.clear();
+        return mvc.perform(requestBuilder);
+    }
+
+    public static ResultMatcher atMost(long budget) {
+        return result -> {
+            long statements = QueryCountHolder.getGrandTotal().getTotal();
+            MockHttpServletRequest request = result.getRequest();
+            assertThat(statements)
+                    .as("%s %s: операторов SQL %d, бюджет %d", request.getMethod(), request.getRequestURI(),
+                            statements, budget)
+                    .isLessThanOrEqualTo(budget);
+        };
+    }
+}
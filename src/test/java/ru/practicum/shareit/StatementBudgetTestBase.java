@@ -0,0 +1,60 @@
+package ru.practicum.shareit;
+
+import org.junit.jupiter.api.AfterEach;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.RequestBuilder;
+import org.springframework.test.web.servlet.ResultActions;
+import ru.practicum.shareit.user.model.User;
+import ru.practicum.shareit.user.storage.UserRepository;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Основа вложенных классов StatementBudget в *ControllerTestIT: полный контекст с H2 и счетчиком операторов SQL.
+ * Созданные тестом пользователи удаляются вместе со своими вещами и запросами, кэши после теста очищаются.
+ * performCold выполняет запрос с пустыми кэшами, как первый запрос после старта или вытеснения, поэтому его
+ * бюджет включает чтение пользователя из заголовка и промахи кэшей. Повторный запрос считает SqlStatementBudget.
+ */
+@SpringBootTest(properties = {"db.name=shareItTest"})
+@AutoConfigureMockMvc
+@Import(StatementCountingDataSourceConfiguration.class)
+public abstract class StatementBudgetTestBase {
+
+    @Autowired
+    protected MockMvc mockMvc;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private CacheManager cacheManager;
+
+    private final List<User> users = new ArrayList<>();
+
+    @AfterEach
+    void deleteUsersAndClearCaches() {
+        users.forEach(saved -> userRepository.deleteById(saved.getId()));
+        users.clear();
+        clearCaches();
+    }
+
+    protected User saveUser(String name, String email) {
+        User saved = userRepository.save(new User(null, name, email));
+        users.add(saved);
+        return saved;
+    }
+
+    protected ResultActions performCold(RequestBuilder requestBuilder) throws Exception {
+        clearCaches();
+        return SqlStatementBudget.perform(mockMvc, requestBuilder);
+    }
+
+    private void clearCaches() {
+        cacheManager.getCacheNames().forEach(name -> Objects.requireNonNull(cacheManager.getCache(name)).clear());
+    }
+}
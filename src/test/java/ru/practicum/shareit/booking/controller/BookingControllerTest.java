@@ -23,9 +23,11 @@ import ru.practicum.shareit.booking.service.BookingService;
 import ru.practicum.shareit.item.dto.ItemDtoToUser;
 import ru.practicum.shareit.item.model.Item;
 import ru.practicum.shareit.item.service.ItemService;
+import ru.practicum.shareit.pagination.Cursor;
+import ru.practicum.shareit.user.controller.SharerUserArgumentResolver;
 import ru.practicum.shareit.user.dto.UserDtoWithIdOnly;
 import ru.practicum.shareit.user.model.User;
-import ru.practicum.shareit.user.service.UserService;
+import ru.practicum.shareit.user.service.ActingUserContext;
 
 import java.time.LocalDateTime;
 import java.util.List;
@@ -34,6 +36,7 @@ import static org.hamcrest.Matchers.hasSize;
 import static org.hamcrest.Matchers.is;
 import static org.mockito.Mockito.*;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
@@ -43,7 +46,7 @@ class BookingControllerTest {
     @Mock
     private BookingService bookingService;
     @Mock
-    private UserService userService;
+    private ActingUserContext actingUserContext;
     @Mock
     private ItemService itemService;
     @Mock
@@ -67,7 +70,9 @@ class BookingControllerTest {
 
     @BeforeEach
     void setUp() {
-        mvc = MockMvcBuilders.standaloneSetup(bookingController).build();
+        mvc = MockMvcBuilders.standaloneSetup(bookingController)
+                .setCustomArgumentResolvers(new SharerUserArgumentResolver(actingUserContext))
+                .build();
         objectMapper = new ObjectMapper();
         objectMapper.findAndRegisterModules();
 
@@ -106,7 +111,7 @@ class BookingControllerTest {
         Booking booking = new Booking(1L, bookingForAdding.getStart(), bookingForAdding.getEnd(),
                 bookingForAdding.getItem(), bookingForAdding.getBooker(), Status.WAITING);
 
-        when(userService.getById(requesterId)).thenReturn(user);
+        when(actingUserContext.resolve(requesterId)).thenReturn(user);
         when(itemService.getById(item.getId())).thenReturn(item);
         when(bookingDtoMapper.toBooking(bookingDtoFromUser, user, item)).thenReturn(bookingForAdding);
         when(bookingService.add(bookingForAdding)).thenReturn(booking);
@@ -234,6 +239,40 @@ class BookingControllerTest {
                 .andExpect(jsonPath("$[0].item.owner.id", is(booking.getItem().getOwner().getId()), Long.class))
                 .andExpect(jsonPath("$[0].booker.id", is(booking.getBooker().getId()), Long.class));
     }
-}
 
+    @SneakyThrows
+    @Test
+    void getAllBookingsForUserTest_whenCursorPageFull_thenReturnNextCursorHeader() {
+        when(bookingService.getBookingsForUserByCursor(requesterId, BookingState.ALL, Cursor.FIRST, 1))
+                .thenReturn(List.of(booking));
+        when(bookingDtoMapper.toBookingDtoToUserList(List.of(booking))).thenReturn(List.of(bookingDtoToUser));
+
+        mvc.perform(get("/bookings")
+                        .header("X-Sharer-User-Id", requesterId)
+                        .param("cursor", "")
+                        .param("size", "1")
+                        .param("state", "ALL"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.*", hasSize(1)))
+                .andExpect(header().string(BookingController.NEXT_CURSOR_HEADER,
+                        new Cursor(booking.getStart(), booking.getId()).encode()));
+    }
 
+    @SneakyThrows
+    @Test
+    void getAllBookingsForUserItemsTest_whenCursorPageNotFull_thenNoNextCursorHeader() {
+        Cursor cursor = new Cursor(LocalDateTime.of(2026, 1, 1, 0, 0, 0), 10L);
+        when(bookingService.getAllBookingsForUserItemsByCursor(owner.getId(), BookingState.ALL, cursor, 2))
+                .thenReturn(List.of(booking));
+        when(bookingDtoMapper.toBookingDtoToUserList(List.of(booking))).thenReturn(List.of(bookingDtoToUser));
+
+        mvc.perform(get("/bookings/owner")
+                        .header("X-Sharer-User-Id", owner.getId())
+                        .param("cursor", cursor.encode())
+                        .param("size", "2")
+                        .param("state", "ALL"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.*", hasSize(1)))
+                .andExpect(header().doesNotExist(BookingController.NEXT_CURSOR_HEADER));
+    }
+}
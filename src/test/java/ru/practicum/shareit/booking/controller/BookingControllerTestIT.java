@@ -3,12 +3,18 @@ package ru.practicum.shareit.booking.controller;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.SneakyThrows;
 import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Nested;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.http.MediaType;
+import org.springframework.test.context.NestedTestConfiguration;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.RequestBuilder;
+import ru.practicum.shareit.SqlStatementBudget;
+import ru.practicum.shareit.StatementBudgetTestBase;
 import ru.practicum.shareit.booking.dto.BookingDtoFromUser;
 import ru.practicum.shareit.booking.dto.BookingDtoToUser;
 import ru.practicum.shareit.booking.dto.mapper.BookingDtoMapper;
@@ -16,12 +22,14 @@ import ru.practicum.shareit.booking.enums.BookingState;
 import ru.practicum.shareit.booking.enums.Status;
 import ru.practicum.shareit.booking.model.Booking;
 import ru.practicum.shareit.booking.service.BookingService;
+import ru.practicum.shareit.booking.storage.BookingRepository;
 import ru.practicum.shareit.item.dto.ItemDtoToUser;
 import ru.practicum.shareit.item.model.Item;
 import ru.practicum.shareit.item.service.ItemService;
+import ru.practicum.shareit.item.storage.ItemRepository;
 import ru.practicum.shareit.user.dto.UserDtoWithIdOnly;
 import ru.practicum.shareit.user.model.User;
-import ru.practicum.shareit.user.service.UserService;
+import ru.practicum.shareit.user.service.ActingUserContext;
 
 import java.time.LocalDateTime;
 import java.util.List;
@@ -39,7 +47,7 @@ class BookingControllerTestIT {
     @MockBean
     private BookingService bookingService;
     @MockBean
-    private UserService userService;
+    private ActingUserContext actingUserContext;
     @MockBean
     private ItemService itemService;
     @MockBean
@@ -98,7 +106,7 @@ class BookingControllerTestIT {
         Booking booking = new Booking(1L, bookingForAdding.getStart(), bookingForAdding.getEnd(),
                 bookingForAdding.getItem(), bookingForAdding.getBooker(), Status.WAITING);
 
-        when(userService.getById(requesterId)).thenReturn(user);
+        when(actingUserContext.resolve(requesterId)).thenReturn(user);
         when(itemService.getById(item.getId())).thenReturn(item);
         when(bookingDtoMapper.toBooking(bookingDtoFromUser, user, item)).thenReturn(bookingForAdding);
         when(bookingService.add(bookingForAdding)).thenReturn(booking);
@@ -124,7 +132,7 @@ class BookingControllerTestIT {
     @Test
     void addTestTest_whenNotValidBooking_thenBadRequest() {
         BookingDtoFromUser notValidBookingDtoFromUser = new BookingDtoFromUser(1L, null, null, null);
-        when(userService.getById(requesterId)).thenReturn(user);
+        when(actingUserContext.resolve(requesterId)).thenReturn(user);
         when(itemService.getById(item.getId())).thenReturn(item);
         when(bookingService.add(booking)).thenReturn(booking);
         when(bookingDtoMapper.toBooking(notValidBookingDtoFromUser, user, item)).thenReturn(booking);
@@ -140,6 +148,23 @@ class BookingControllerTestIT {
         verify(bookingService, never()).add(booking);
     }
 
+    @SneakyThrows
+    @Test
+    void addTest_whenUserIdNotPositive_thenBadRequest() {
+        BookingDtoFromUser validBookingDtoFromUser = new BookingDtoFromUser(null,
+                LocalDateTime.now().plusDays(1).withNano(0), LocalDateTime.now().plusDays(2).withNano(0), item.getId());
+
+        mvc.perform(post("/bookings")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(validBookingDtoFromUser))
+                        .header("X-Sharer-User-Id", 0)
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isBadRequest());
+
+        verify(actingUserContext, never()).resolve(anyLong());
+        verify(bookingService, never()).add(any());
+    }
+
     @SneakyThrows
     @Test
     void processBookingTest_returnApprovedBooking() {
@@ -241,4 +266,69 @@ class BookingControllerTestIT {
                 .andExpect(jsonPath("$[0].item.owner.id", is(booking.getItem().getOwner().getId()), Long.class))
                 .andExpect(jsonPath("$[0].booker.id", is(booking.getBooker().getId()), Long.class));
     }
-}
\ No newline at end of file
+
+    /**
+     * Полный контекст с H2: страница бронирований владельца или автора вместе с вещами читается одним оператором
+     * SQL. С пустыми кэшами к бюджету добавляется чтение пользователя из заголовка.
+     */
+    @Nested
+    @NestedTestConfiguration(NestedTestConfiguration.EnclosingConfiguration.OVERRIDE)
+    class StatementBudget extends StatementBudgetTestBase {
+
+        private static final int BOOKINGS = 10;
+
+        @Autowired
+        private ItemRepository itemRepository;
+        @Autowired
+        private BookingRepository bookingRepository;
+
+        private User itemOwner;
+        private User firstBooker;
+
+        @BeforeEach
+        void setUp() {
+            itemOwner = saveUser("Igor", "igor.budget@yandex.ru");
+            firstBooker = saveUser("Kirill", "kirill.budget@yandex.ru");
+            User secondBooker = saveUser("Oleg", "oleg.budget@yandex.ru");
+            for (int i = 0; i < BOOKINGS; i++) {
+                Item ownerItem = itemRepository.save(new Item(null, "вещь для бюджета " + i, "описание", true,
+                        itemOwner, null));
+                bookingRepository.save(new Booking(null, LocalDateTime.now().plusDays(i + 1),
+                        LocalDateTime.now().plusDays(i + 2), ownerItem, i % 2 == 0 ? firstBooker : secondBooker,
+                        Status.WAITING));
+            }
+        }
+
+        @Test
+        void getAllBookingsForUserItemsTest_thenPageReadByOneStatement() throws Exception {
+            RequestBuilder request = get("/bookings/owner")
+                    .header("X-Sharer-User-Id", itemOwner.getId())
+                    .param("size", "100");
+
+            performCold(request)
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$", hasSize(BOOKINGS)))
+                    .andExpect(jsonPath("$[0].item.name").exists())
+                    .andExpect(SqlStatementBudget.atMost(2));
+            SqlStatementBudget.perform(mockMvc, request)
+                    .andExpect(status().isOk())
+                    .andExpect(SqlStatementBudget.atMost(1));
+        }
+
+        @Test
+        void getAllBookingsForUserTest_thenPageReadByOneStatement() throws Exception {
+            RequestBuilder request = get("/bookings")
+                    .header("X-Sharer-User-Id", firstBooker.getId())
+                    .param("size", "100");
+
+            performCold(request)
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$", hasSize(BOOKINGS / 2)))
+                    .andExpect(jsonPath("$[0].item.name").exists())
+                    .andExpect(SqlStatementBudget.atMost(2));
+            SqlStatementBudget.perform(mockMvc, request)
+                    .andExpect(status().isOk())
+                    .andExpect(SqlStatementBudget.atMost(1));
+        }
+    }
+}
@@ -0,0 +1,152 @@
+package ru.practicum.shareit.booking.service;
+
+import lombok.RequiredArgsConstructor;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import ru.practicum.shareit.booking.enums.Status;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.storage.BookingRepository;
+import ru.practicum.shareit.exceptions.ObjectAlreadyExistsException;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.storage.ItemRepository;
+import ru.practicum.shareit.user.model.User;
+import ru.practicum.shareit.user.storage.UserRepository;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(
+        properties = {"db.name=shareItTest"},
+        webEnvironment = SpringBootTest.WebEnvironment.NONE)
+@RequiredArgsConstructor(onConstructor_ = @Autowired)
+class BookingServiceImplConcurrencyTestIT {
+
+    private static final int WRITERS = 64;
+    private static final int ITEMS = 8;
+
+    private final BookingService bookingService;
+    private final BookingRepository bookingRepository;
+    private final ItemRepository itemRepository;
+    private final UserRepository userRepository;
+
+    private User owner;
+    private User booker;
+    private final List<Item> items = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        owner = userRepository.save(new User(null, "Igor", "igor.concurrency@yandex.ru"));
+        booker = userRepository.save(new User(null, "Ilya", "ilya.concurrency@yandex.ru"));
+        for (int i = 0; i < ITEMS; i++) {
+            items.add(itemRepository.save(new Item(null, "вещь для гонки " + i, "описание", true, owner, null)));
+        }
+    }
+
+    @AfterEach
+    void tearDown() {
+        userRepository.deleteById(booker.getId());
+        userRepository.deleteById(owner.getId());
+    }
+
+    @Test
+    void addTest_whenConcurrentWritersBookSameItemAndTime_thenOnlyOneBookingSaved() throws Exception {
+        Item item = items.get(0);
+        LocalDateTime start = LocalDateTime.now().plusDays(1);
+        LocalDateTime end = start.plusHours(2);
+
+        int saved = runConcurrently(writer -> bookingService.add(newBooking(item, start.plusMinutes(writer % 30), end)));
+
+        assertThat(saved).isEqualTo(1);
+        assertThat(bookingRepository.findAll().stream()
+                .filter(booking -> booking.getItem().getId().equals(item.getId()))
+                .count()).isEqualTo(1);
+    }
+
+    @Test
+    void addTest_whenConcurrentWritersBookDifferentItems_thenOneBookingPerItemSaved() throws Exception {
+        LocalDateTime start = LocalDateTime.now().plusDays(1);
+        LocalDateTime end = start.plusHours(2);
+
+        int saved = runConcurrently(writer -> bookingService.add(newBooking(items.get(writer % ITEMS), start, end)));
+
+        assertThat(saved).isEqualTo(ITEMS);
+        for (Item item : items) {
+            assertThat(bookingRepository.findAll().stream()
+                    .filter(booking -> booking.getItem().getId().equals(item.getId()))
+                    .count()).isEqualTo(1);
+        }
+    }
+
+    @Test
+    void processBookingTest_whenConcurrentOwnersApproveRejectedBookingsForSameTime_thenOnlyOneApproved()
+            throws Exception {
+        Item item = items.get(0);
+        LocalDateTime start = LocalDateTime.now().plusDays(1);
+        List<Long> bookingIds = new ArrayList<>();
+        for (int i = 0; i < WRITERS; i++) {
+            Booking booking = newBooking(item, start.plusMinutes(i % 30), start.plusHours(2));
+            booking.setStatus(Status.REJECTED);
+            bookingIds.add(bookingRepository.save(booking).getId());
+        }
+
+        int approved = runConcurrently(writer -> bookingService.processBooking(owner.getId(),
+                bookingIds.get(writer), true));
+
+        assertThat(approved).isEqualTo(1);
+        assertThat(bookingRepository.findAllById(bookingIds).stream()
+                .filter(booking -> booking.getStatus() == Status.APPROVED)
+                .count()).isEqualTo(1);
+    }
+
+    private int runConcurrently(WriterTask task) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(WRITERS);
+        CountDownLatch startGate = new CountDownLatch(1);
+        AtomicInteger saved = new AtomicInteger();
+        AtomicInteger rejected = new AtomicInteger();
+        List<Future<?>> futures = new ArrayList<>();
+        try {
+            for (int i = 0; i < WRITERS; i++) {
+                int writer = i;
+                futures.add(executor.submit(() -> {
+                    startGate.await();
+                    try {
+                        task.write(writer);
+                        saved.incrementAndGet();
+                    } catch (ObjectAlreadyExistsException e) {
+                        rejected.incrementAndGet();
+                    }
+                    return null;
+                }));
+            }
+            startGate.countDown();
+            for (Future<?> future : futures) {
+                future.get(60, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        assertThat(saved.get() + rejected.get()).isEqualTo(WRITERS);
+        return saved.get();
+    }
+
+    private Booking newBooking(Item item, LocalDateTime start, LocalDateTime end) {
+        Booking booking = new Booking();
+        booking.setStart(start);
+        booking.setEnd(end);
+        booking.setItem(item);
+        booking.setBooker(booker);
+        return booking;
+    }
+
+    private interface WriterTask {
+        void write(int writer);
+    }
+}
@@ -0,0 +1,80 @@
+package ru.practicum.shareit.booking.service;
+
+import lombok.RequiredArgsConstructor;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import ru.practicum.shareit.booking.enums.Status;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.storage.BookingRepository;
+import ru.practicum.shareit.exceptions.ObjectAlreadyExistsException;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.storage.ItemRepository;
+import ru.practicum.shareit.user.model.User;
+import ru.practicum.shareit.user.storage.UserRepository;
+
+import java.time.LocalDateTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Ограничение bookings_no_overlap есть только в PostgreSQL. Брони сохраняются в обход индекса интервалов,
+ * как будто их создал другой узел приложения, поэтому пересечение находит только база.
+ * Запуск на PostgreSQL из application.properties: mvn test -P postgresql
+ */
+@Tag("postgresql")
+@SpringBootTest(
+        properties = {"db.name=shareItTest"},
+        webEnvironment = SpringBootTest.WebEnvironment.NONE)
+@RequiredArgsConstructor(onConstructor_ = @Autowired)
+class BookingServiceImplPostgresTestIT {
+
+    private final BookingService bookingService;
+    private final BookingRepository bookingRepository;
+    private final ItemRepository itemRepository;
+    private final UserRepository userRepository;
+
+    private User owner;
+    private User booker;
+    private Item item;
+
+    @BeforeEach
+    void setUp() {
+        owner = userRepository.save(new User(null, "Igor", "igor.postgres@yandex.ru"));
+        booker = userRepository.save(new User(null, "Ilya", "ilya.postgres@yandex.ru"));
+        item = itemRepository.save(new Item(null, "дрель", "описание", true, owner, null));
+    }
+
+    @AfterEach
+    void tearDown() {
+        userRepository.deleteById(booker.getId());
+        userRepository.deleteById(owner.getId());
+    }
+
+    @Test
+    void processBookingTest_whenRejectedBookingApprovedOverOtherNodesBooking_thenThrowObjectAlreadyExistsException() {
+        LocalDateTime start = LocalDateTime.now().plusDays(1).withNano(0);
+        Booking rejected = bookingRepository.save(newBooking(start, start.plusHours(2), Status.REJECTED));
+        bookingRepository.save(newBooking(start.plusHours(1), start.plusHours(3), Status.APPROVED));
+
+        assertThrows(ObjectAlreadyExistsException.class,
+                () -> bookingService.processBooking(owner.getId(), rejected.getId(), true));
+
+        assertThat(bookingRepository.findById(rejected.getId()).orElseThrow().getStatus())
+                .isEqualTo(Status.REJECTED);
+    }
+
+    private Booking newBooking(LocalDateTime start, LocalDateTime end, Status status) {
+        Booking booking = new Booking();
+        booking.setStart(start);
+        booking.setEnd(end);
+        booking.setItem(item);
+        booking.setBooker(booker);
+        booking.setStatus(status);
+        return booking;
+    }
+}
@@ -6,27 +6,32 @@ import org.mockito.ArgumentCaptor;
 import org.mockito.Captor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
-import org.springframework.data.domain.PageRequest;
+import org.springframework.dao.DataIntegrityViolationException;
+import ru.practicum.shareit.booking.enums.BookingRole;
 import ru.practicum.shareit.booking.enums.BookingState;
 import ru.practicum.shareit.booking.enums.Status;
 import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.storage.BookingIntervalIndex;
+import ru.practicum.shareit.booking.storage.BookingQuery;
 import ru.practicum.shareit.booking.storage.BookingRepository;
 import ru.practicum.shareit.exceptions.BookingCannotBeProcessedException;
 import ru.practicum.shareit.exceptions.ObjectAlreadyExistsException;
 import ru.practicum.shareit.exceptions.ObjectNotFoundException;
 import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.pagination.Cursor;
 import ru.practicum.shareit.user.model.User;
-import ru.practicum.shareit.user.service.UserService;
+import ru.practicum.shareit.user.service.ActingUserContext;
 
+import java.sql.SQLException;
 import java.time.LocalDateTime;
-import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
-import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
@@ -36,11 +41,19 @@ class BookingServiceImplTest {
     @Mock
     private BookingRepository bookingRepository;
     @Mock
-    private UserService userService;
+    private BookingIntervalIndex bookingIntervalIndex;
+    @Spy
+    private ItemBookingLocks itemBookingLocks = new ItemBookingLocks();
+    @Mock
+    private ItemBookingSnapshotUpdater itemBookingSnapshotUpdater;
+    @Mock
+    private ActingUserContext actingUserContext;
     @InjectMocks
     private BookingServiceImpl bookingService;
     @Captor
     private ArgumentCaptor<Booking> bookingArgumentCaptor;
+    @Captor
+    private ArgumentCaptor<BookingQuery> bookingQueryArgumentCaptor;
 
     private static final long requesterUserId = 1L;
     private static final long bookingId = 1L;
@@ -68,7 +81,7 @@ class BookingServiceImplTest {
         Booking booking = new Booking(1L, LocalDateTime.of(2025, 10, 20, 10, 10, 10),
                 LocalDateTime.of(2025, 10, 20, 11, 10, 10),
                 item, user, Status.WAITING);
-        when(bookingRepository.findIfBookingTimeCrossed(booking.getItem(), booking.getStart(), booking.getEnd())).thenReturn(Optional.of(booking));
+        when(bookingIntervalIndex.isBooked(booking.getItem().getId(), booking.getStart(), booking.getEnd())).thenReturn(true);
         ObjectAlreadyExistsException exception = assertThrows(ObjectAlreadyExistsException.class, () ->
                 bookingService.add(booking));
         assertEquals("На данные даты вещи уже забронирована: start = 2025-10-20T10:10:10, end = 2025-10-20T11:10:10", exception.getMessage());
@@ -104,11 +117,42 @@ class BookingServiceImplTest {
         verify(bookingRepository).save(bookingArgumentCaptor.capture());
         Booking savedBooking = bookingArgumentCaptor.getValue();
         assertEquals(expectedBooking, savedBooking);
+        verify(itemBookingSnapshotUpdater).bookingAdded(expectedBooking);
+    }
+
+    @Test
+    void addTest_whenOverlapConstraintViolated_thenThrowObjectAlreadyExistsException() {
+        User user = new User(1L, "Vladimir", "vladimir@yandex.ru");
+        User owner = new User(2L, "Ilya", "ilya@yandex.ru");
+        Item item = new Item(1L, "имя", "описание", true, owner, null);
+        Booking booking = new Booking(null, LocalDateTime.of(2025, 10, 20, 10, 10, 10),
+                LocalDateTime.of(2025, 10, 20, 11, 10, 10),
+                item, user, Status.WAITING);
+        when(bookingRepository.save(booking)).thenThrow(new DataIntegrityViolationException("bookings_no_overlap",
+                new SQLException("conflicting key value violates exclusion constraint", "23P01")));
+
+        ObjectAlreadyExistsException exception = assertThrows(ObjectAlreadyExistsException.class, () ->
+                bookingService.add(booking));
+        assertEquals("На данные даты вещи уже забронирована: start = 2025-10-20T10:10:10, end = 2025-10-20T11:10:10", exception.getMessage());
+    }
+
+    @Test
+    void addTest_whenOtherConstraintViolated_thenRethrowDataIntegrityViolationException() {
+        User user = new User(1L, "Vladimir", "vladimir@yandex.ru");
+        User owner = new User(2L, "Ilya", "ilya@yandex.ru");
+        Item item = new Item(1L, "имя", "описание", true, owner, null);
+        Booking booking = new Booking(null, LocalDateTime.of(2025, 10, 20, 10, 10, 10),
+                LocalDateTime.of(2025, 10, 20, 11, 10, 10),
+                item, user, Status.WAITING);
+        when(bookingRepository.save(booking)).thenThrow(new DataIntegrityViolationException("fk_bookings_to_users",
+                new SQLException("violates foreign key constraint", "23503")));
+
+        assertThrows(DataIntegrityViolationException.class, () -> bookingService.add(booking));
     }
 
     @Test
     void getByIdTest_whenNoUserFound_thenThrowObjectNotFoundException() {
-        when(userService.getById(requesterUserId)).thenThrow(new ObjectNotFoundException("Пользователь с id 1 не найден"));
+        when(actingUserContext.resolve(requesterUserId)).thenThrow(new ObjectNotFoundException("Пользователь с id 1 не найден"));
 
         ObjectNotFoundException exception = assertThrows(ObjectNotFoundException.class, () ->
                 bookingService.getById(requesterUserId, bookingId));
@@ -118,7 +162,7 @@ class BookingServiceImplTest {
     @Test
     void getByIdTest_whenBookingNotFound_thenThrowObjectNotFoundException() {
         User user = new User(1L, "Vladimir", "vladimir@yandex.ru");
-        when(userService.getById(requesterUserId)).thenReturn(user);
+        when(actingUserContext.resolve(requesterUserId)).thenReturn(user);
         when(bookingRepository.findById(bookingId)).thenReturn(Optional.empty());
 
         ObjectNotFoundException exception = assertThrows(ObjectNotFoundException.class, () ->
@@ -135,7 +179,7 @@ class BookingServiceImplTest {
         Booking booking = new Booking(1L, LocalDateTime.of(2025, 10, 20, 10, 10, 10),
                 LocalDateTime.of(2025, 10, 20, 11, 10, 10),
                 item, user, Status.WAITING);
-        when(userService.getById(requesterForBooking.getId())).thenReturn(requesterForBooking);
+        when(actingUserContext.resolve(requesterForBooking.getId())).thenReturn(requesterForBooking);
         when(bookingRepository.findById(bookingId)).thenReturn(Optional.of(booking));
 
         BookingCannotBeProcessedException exception = assertThrows(BookingCannotBeProcessedException.class, () ->
@@ -152,7 +196,7 @@ class BookingServiceImplTest {
         Booking expectedBooking = new Booking(1L, LocalDateTime.of(2025, 10, 20, 10, 10, 10),
                 LocalDateTime.of(2025, 10, 20, 11, 10, 10),
                 item, user, Status.WAITING);
-        when(userService.getById(owner.getId())).thenReturn(owner);
+        when(actingUserContext.resolve(owner.getId())).thenReturn(owner);
         when(bookingRepository.findById(bookingId)).thenReturn(Optional.of(expectedBooking));
 
         Booking resultBooking = bookingService.getById(owner.getId(), bookingId);
@@ -161,7 +205,7 @@ class BookingServiceImplTest {
 
     @Test
     void processBookingTest_whenUserNotFound_thenThrowObjectNotFoundException() {
-        when(userService.getById(requesterUserId)).thenThrow(new ObjectNotFoundException("Пользователь с id 1 не найден"));
+        when(actingUserContext.resolve(requesterUserId)).thenThrow(new ObjectNotFoundException("Пользователь с id 1 не найден"));
 
         ObjectNotFoundException exception = assertThrows(ObjectNotFoundException.class, () ->
                 bookingService.getById(requesterUserId, bookingId));
@@ -171,7 +215,7 @@ class BookingServiceImplTest {
     @Test
     void processBookingTest_whenBookingNotFound_thenThrowObjectNotFoundException() {
         User user = new User(1L, "Vladimir", "vladimir@yandex.ru");
-        when(userService.getById(requesterUserId)).thenReturn(user);
+        when(actingUserContext.resolve(requesterUserId)).thenReturn(user);
         when(bookingRepository.findById(bookingId)).thenReturn(Optional.empty());
 
         ObjectNotFoundException exception = assertThrows(ObjectNotFoundException.class, () ->
@@ -188,7 +232,7 @@ class BookingServiceImplTest {
                 LocalDateTime.of(2025, 10, 20, 11, 10, 10),
                 item, user, Status.APPROVED);
         boolean isRequestForApproval = true;
-        when(userService.getById(owner.getId())).thenReturn(owner);
+        when(actingUserContext.resolve(owner.getId())).thenReturn(owner);
         when(bookingRepository.findById(bookingId)).thenReturn(Optional.of(booking));
 
         IllegalArgumentException exception = assertThrows(IllegalArgumentException.class,
@@ -206,7 +250,7 @@ class BookingServiceImplTest {
                 LocalDateTime.of(2025, 10, 20, 11, 10, 10),
                 item, user, Status.CANCELLED);
         boolean isRequestForApproval = true;
-        when(userService.getById(owner.getId())).thenReturn(owner);
+        when(actingUserContext.resolve(owner.getId())).thenReturn(owner);
         when(bookingRepository.findById(bookingId)).thenReturn(Optional.of(booking));
 
         IllegalArgumentException exception = assertThrows(IllegalArgumentException.class,
@@ -225,7 +269,7 @@ class BookingServiceImplTest {
                 LocalDateTime.of(2025, 10, 20, 11, 10, 10),
                 item, user, Status.WAITING);
         boolean isRequestForApproval = true;
-        when(userService.getById(requesterToProcessBooking.getId())).thenReturn(requesterToProcessBooking);
+        when(actingUserContext.resolve(requesterToProcessBooking.getId())).thenReturn(requesterToProcessBooking);
         when(bookingRepository.findById(bookingId)).thenReturn(Optional.of(booking));
 
         ObjectNotFoundException exception = assertThrows(ObjectNotFoundException.class,
@@ -246,13 +290,70 @@ class BookingServiceImplTest {
                 LocalDateTime.of(2025, 10, 20, 11, 10, 10),
                 item, user, Status.APPROVED);
         boolean isRequestForApproval = true;
-        when(userService.getById(owner.getId())).thenReturn(owner);
+        when(actingUserContext.resolve(owner.getId())).thenReturn(owner);
         when(bookingRepository.findById(bookingId)).thenReturn(Optional.of(booking));
 
         Booking resultBooking = bookingService.processBooking(owner.getId(), bookingId, isRequestForApproval);
         assertEquals(expectedBookingAfterApproval, resultBooking);
     }
 
+    @Test
+    void processBookingTest_whenRejectedBookingApprovedAndDatesTaken_thenThrowObjectAlreadyExistsException() {
+        User user = new User(1L, "Vladimir", "vladimir@yandex.ru");
+        User owner = new User(2L, "Ilya", "ilya@yandex.ru");
+        Item item = new Item(1L, "имя", "описание", true, owner, null);
+        Booking booking = new Booking(1L, LocalDateTime.of(2025, 10, 20, 10, 10, 10),
+                LocalDateTime.of(2025, 10, 20, 11, 10, 10),
+                item, user, Status.REJECTED);
+        when(actingUserContext.resolve(owner.getId())).thenReturn(owner);
+        when(bookingRepository.findById(bookingId)).thenReturn(Optional.of(booking));
+        when(bookingIntervalIndex.isBooked(item.getId(), booking.getStart(), booking.getEnd())).thenReturn(true);
+
+        assertThrows(ObjectAlreadyExistsException.class,
+                () -> bookingService.processBooking(owner.getId(), bookingId, true));
+
+        assertEquals(Status.REJECTED, booking.getStatus());
+        verify(bookingIntervalIndex, never()).add(any());
+    }
+
+    @Test
+    void processBookingTest_whenRejectedBookingApprovedAndDatesFree_thenIntervalOccupiedAgain() {
+        User user = new User(1L, "Vladimir", "vladimir@yandex.ru");
+        User owner = new User(2L, "Ilya", "ilya@yandex.ru");
+        Item item = new Item(1L, "имя", "описание", true, owner, null);
+        Booking booking = new Booking(1L, LocalDateTime.of(2025, 10, 20, 10, 10, 10),
+                LocalDateTime.of(2025, 10, 20, 11, 10, 10),
+                item, user, Status.REJECTED);
+        when(actingUserContext.resolve(owner.getId())).thenReturn(owner);
+        when(bookingRepository.findById(bookingId)).thenReturn(Optional.of(booking));
+
+        Booking resultBooking = bookingService.processBooking(owner.getId(), bookingId, true);
+
+        assertEquals(Status.APPROVED, resultBooking.getStatus());
+        verify(bookingIntervalIndex).add(booking);
+        verify(itemBookingSnapshotUpdater).bookingAdded(booking);
+    }
+
+    @Test
+    void processBookingTest_whenRejectedBookingApprovedAndOverlapConstraintViolated_thenThrowObjectAlreadyExistsException() {
+        User user = new User(1L, "Vladimir", "vladimir@yandex.ru");
+        User owner = new User(2L, "Ilya", "ilya@yandex.ru");
+        Item item = new Item(1L, "имя", "описание", true, owner, null);
+        Booking booking = new Booking(1L, LocalDateTime.of(2025, 10, 20, 10, 10, 10),
+                LocalDateTime.of(2025, 10, 20, 11, 10, 10),
+                item, user, Status.REJECTED);
+        when(actingUserContext.resolve(owner.getId())).thenReturn(owner);
+        when(bookingRepository.findById(bookingId)).thenReturn(Optional.of(booking));
+        when(bookingRepository.saveAndFlush(booking)).thenThrow(new DataIntegrityViolationException("bookings_no_overlap",
+                new SQLException("conflicting key value violates exclusion constraint", "23P01")));
+
+        ObjectAlreadyExistsException exception = assertThrows(ObjectAlreadyExistsException.class, () ->
+                bookingService.processBooking(owner.getId(), bookingId, true));
+
+        assertEquals("На данные даты вещи уже забронирована: start = 2025-10-20T10:10:10, end = 2025-10-20T11:10:10", exception.getMessage());
+        verify(bookingIntervalIndex, never()).add(any());
+    }
+
     @Test
     void processBookingTest_whenRejected_thenReturnRejectedBooking() {
         User user = new User(1L, "Vladimir", "vladimir@yandex.ru");
@@ -265,18 +366,19 @@ class BookingServiceImplTest {
                 LocalDateTime.of(2025, 10, 20, 11, 10, 10),
                 item, user, Status.REJECTED);
         boolean isRequestForApproval = false;
-        when(userService.getById(owner.getId())).thenReturn(owner);
+        when(actingUserContext.resolve(owner.getId())).thenReturn(owner);
         when(bookingRepository.findById(bookingId)).thenReturn(Optional.of(booking));
 
         Booking resultBooking = bookingService.processBooking(owner.getId(), bookingId, isRequestForApproval);
         assertEquals(expectedBookingAfterApproval, resultBooking);
+        verify(itemBookingSnapshotUpdater).bookingReleased(booking);
     }
 
     @Test
     void getBookingsForUserTest_whenNoUserFound_thenThrowObjectNotFoundException() {
         int page = 0;
         int size = 1;
-        when(userService.getById(requesterUserId)).thenThrow(ObjectNotFoundException.class);
+        when(actingUserContext.resolve(requesterUserId)).thenThrow(ObjectNotFoundException.class);
 
         ObjectNotFoundException exception = assertThrows(ObjectNotFoundException.class, () ->
                 bookingService.getBookingsForUser(requesterUserId, BookingState.ALL, page, size));
@@ -290,14 +392,65 @@ class BookingServiceImplTest {
         Booking expectedBooking = new Booking(1L, LocalDateTime.of(2025, 10, 20, 10, 10, 10),
                 LocalDateTime.of(2025, 10, 20, 11, 10, 10),
                 item, user, Status.WAITING);
-        int page = 0;
-        int size = 1;
-        when(userService.getById(requesterUserId)).thenReturn(user);
-        when(bookingRepository.findAllByBookerOrderByStartDesc(user, PageRequest.of(page, size))).thenReturn(List.of(expectedBooking));
+        int page = 2;
+        int size = 3;
+        when(actingUserContext.resolve(requesterUserId)).thenReturn(user);
+        when(bookingRepository.findAllByQuery(bookingQueryArgumentCaptor.capture())).thenReturn(List.of(expectedBooking));
 
         List<Booking> bookings = bookingService.getBookingsForUser(requesterUserId, BookingState.ALL, page, size);
 
         assertEquals(List.of(expectedBooking), bookings);
+        BookingQuery query = bookingQueryArgumentCaptor.getValue();
+        assertEquals(BookingRole.BOOKER, query.getRole());
+        assertEquals(Cursor.FIRST, query.getCursor());
+        assertEquals(6, query.getOffset());
+        assertEquals(size, query.getLimit());
+    }
+
+    @Test
+    void getBookingsForUserByCursorTest_whenBookingStateIsAll_thenReturnBookingsAfterCursor() {
+        User user = new User(1L, "Vladimir", "vladimir@yandex.ru");
+        User owner = new User(2L, "Ilya", "ilya@yandex.ru");
+        Item item = new Item(1L, "имя", "описание", true, owner, null);
+        Booking expectedBooking = new Booking(1L, LocalDateTime.of(2025, 10, 20, 10, 10, 10),
+                LocalDateTime.of(2025, 10, 20, 11, 10, 10),
+                item, user, Status.WAITING);
+        Cursor cursor = new Cursor(LocalDateTime.of(2025, 10, 21, 10, 10, 10), 5L);
+        int size = 1;
+        when(actingUserContext.resolve(requesterUserId)).thenReturn(user);
+        when(bookingRepository.findAllByQuery(bookingQueryArgumentCaptor.capture())).thenReturn(List.of(expectedBooking));
+
+        List<Booking> bookings = bookingService.getBookingsForUserByCursor(requesterUserId, BookingState.ALL,
+                cursor, size);
+
+        assertEquals(List.of(expectedBooking), bookings);
+        BookingQuery query = bookingQueryArgumentCaptor.getValue();
+        assertEquals(BookingRole.BOOKER, query.getRole());
+        assertEquals(cursor, query.getCursor());
+        assertEquals(0, query.getOffset());
+        assertEquals(size, query.getLimit());
+    }
+
+    @Test
+    void getAllBookingsForUserItemsByCursorTest_whenBookingStateIsWaiting_thenReturnWaitingBookings() {
+        User user = new User(1L, "Vladimir", "vladimir@yandex.ru");
+        User owner = new User(2L, "Ilya", "ilya@yandex.ru");
+        Item item = new Item(1L, "имя", "описание", true, owner, null);
+        Booking expectedBooking = new Booking(1L, LocalDateTime.of(2025, 10, 20, 10, 10, 10),
+                LocalDateTime.of(2025, 10, 20, 11, 10, 10),
+                item, user, Status.WAITING);
+        int size = 1;
+        when(actingUserContext.resolve(owner.getId())).thenReturn(owner);
+        when(bookingRepository.findAllByQuery(bookingQueryArgumentCaptor.capture())).thenReturn(List.of(expectedBooking));
+
+        List<Booking> bookings = bookingService.getAllBookingsForUserItemsByCursor(owner.getId(),
+                BookingState.WAITING, Cursor.FIRST, size);
+
+        assertEquals(List.of(expectedBooking), bookings);
+        BookingQuery query = bookingQueryArgumentCaptor.getValue();
+        assertEquals(BookingRole.OWNER, query.getRole());
+        assertEquals(owner, query.getUser());
+        assertEquals(BookingState.WAITING, query.getState());
     }
 
     @Test
@@ -310,8 +463,8 @@ class BookingServiceImplTest {
                 item, user, Status.WAITING);
         int page = 0;
         int size = 1;
-        when(userService.getById(requesterUserId)).thenReturn(user);
-        when(bookingRepository.findAllByBookerAndStartBeforeAndEndAfterOrderByStartDesc(any(User.class), any(LocalDateTime.class), any(LocalDateTime.class), any(PageRequest.class))).thenReturn(List.of(expectedBooking));
+        when(actingUserContext.resolve(requesterUserId)).thenReturn(user);
+        when(bookingRepository.findAllByQuery(any(BookingQuery.class))).thenReturn(List.of(expectedBooking));
 
         List<Booking> bookings = bookingService.getBookingsForUser(requesterUserId, BookingState.CURRENT, page, size);
 
@@ -328,8 +481,8 @@ class BookingServiceImplTest {
                 item, user, Status.WAITING);
         int page = 0;
         int size = 1;
-        when(userService.getById(requesterUserId)).thenReturn(user);
-        when(bookingRepository.findAllByBookerAndEndBeforeOrderByStartDesc(any(User.class), any(LocalDateTime.class), any(PageRequest.class))).thenReturn(List.of(expectedBooking));
+        when(actingUserContext.resolve(requesterUserId)).thenReturn(user);
+        when(bookingRepository.findAllByQuery(any(BookingQuery.class))).thenReturn(List.of(expectedBooking));
 
         List<Booking> bookings = bookingService.getBookingsForUser(requesterUserId, BookingState.PAST, page, size);
 
@@ -346,8 +499,8 @@ class BookingServiceImplTest {
                 item, user, Status.WAITING);
         int page = 0;
         int size = 1;
-        when(userService.getById(requesterUserId)).thenReturn(user);
-        when(bookingRepository.findAllByBookerAndStartAfterOrderByStartDesc(any(User.class), any(LocalDateTime.class), any(PageRequest.class))).thenReturn(List.of(expectedBooking));
+        when(actingUserContext.resolve(requesterUserId)).thenReturn(user);
+        when(bookingRepository.findAllByQuery(any(BookingQuery.class))).thenReturn(List.of(expectedBooking));
 
         List<Booking> bookings = bookingService.getBookingsForUser(requesterUserId, BookingState.FUTURE, page, size);
 
@@ -364,8 +517,8 @@ class BookingServiceImplTest {
                 item, user, Status.WAITING);
         int page = 0;
         int size = 1;
-        when(userService.getById(requesterUserId)).thenReturn(user);
-        when(bookingRepository.findAllByBookerAndStatus(any(User.class), any(Status.class), any(PageRequest.class))).thenReturn(List.of(expectedBooking));
+        when(actingUserContext.resolve(requesterUserId)).thenReturn(user);
+        when(bookingRepository.findAllByQuery(any(BookingQuery.class))).thenReturn(List.of(expectedBooking));
 
         List<Booking> bookings = bookingService.getBookingsForUser(requesterUserId, BookingState.WAITING, page, size);
 
@@ -382,8 +535,8 @@ class BookingServiceImplTest {
                 item, user, Status.WAITING);
         int page = 0;
         int size = 1;
-        when(userService.getById(requesterUserId)).thenReturn(user);
-        when(bookingRepository.findAllByBookerAndStatus(any(User.class), any(Status.class), any(PageRequest.class))).thenReturn(List.of(expectedBooking));
+        when(actingUserContext.resolve(requesterUserId)).thenReturn(user);
+        when(bookingRepository.findAllByQuery(any(BookingQuery.class))).thenReturn(List.of(expectedBooking));
 
         List<Booking> bookings = bookingService.getBookingsForUser(requesterUserId, BookingState.REJECTED, page, size);
 
@@ -401,8 +554,8 @@ class BookingServiceImplTest {
                 item, user, Status.WAITING);
         int page = 0;
         int size = 1;
-        when(userService.getById(requesterUserId)).thenReturn(user);
-        when(bookingRepository.findAllByItemOwnerOrderByStartDesc(user, PageRequest.of(page, size))).thenReturn(List.of(expectedBooking));
+        when(actingUserContext.resolve(requesterUserId)).thenReturn(user);
+        when(bookingRepository.findAllByQuery(any(BookingQuery.class))).thenReturn(List.of(expectedBooking));
 
         List<Booking> bookings = bookingService.getAllBookingsForUserItems(requesterUserId, BookingState.ALL, page, size);
 
@@ -419,8 +572,8 @@ class BookingServiceImplTest {
                 item, user, Status.WAITING);
         int page = 0;
         int size = 1;
-        when(userService.getById(requesterUserId)).thenReturn(user);
-        when(bookingRepository.findAllByItemOwnerAndStartBeforeAndEndAfterOrderByStartDesc(any(User.class), any(LocalDateTime.class), any(LocalDateTime.class), any(PageRequest.class))).thenReturn(List.of(expectedBooking));
+        when(actingUserContext.resolve(requesterUserId)).thenReturn(user);
+        when(bookingRepository.findAllByQuery(any(BookingQuery.class))).thenReturn(List.of(expectedBooking));
 
         List<Booking> bookings = bookingService.getAllBookingsForUserItems(requesterUserId, BookingState.CURRENT, page, size);
 
@@ -437,8 +590,8 @@ class BookingServiceImplTest {
                 item, user, Status.WAITING);
         int page = 0;
         int size = 1;
-        when(userService.getById(requesterUserId)).thenReturn(user);
-        when(bookingRepository.findAllByItemOwnerAndEndBeforeOrderByStartDesc(any(User.class), any(LocalDateTime.class), any(PageRequest.class))).thenReturn(List.of(expectedBooking));
+        when(actingUserContext.resolve(requesterUserId)).thenReturn(user);
+        when(bookingRepository.findAllByQuery(any(BookingQuery.class))).thenReturn(List.of(expectedBooking));
 
         List<Booking> bookings = bookingService.getAllBookingsForUserItems(requesterUserId, BookingState.PAST, page, size);
 
@@ -455,8 +608,8 @@ class BookingServiceImplTest {
                 item, user, Status.WAITING);
         int page = 0;
         int size = 1;
-        when(userService.getById(requesterUserId)).thenReturn(user);
-        when(bookingRepository.findAllByItemOwnerAndStartAfterOrderByStartDesc(any(User.class), any(LocalDateTime.class), any(PageRequest.class))).thenReturn(List.of(expectedBooking));
+        when(actingUserContext.resolve(requesterUserId)).thenReturn(user);
+        when(bookingRepository.findAllByQuery(any(BookingQuery.class))).thenReturn(List.of(expectedBooking));
 
         List<Booking> bookings = bookingService.getAllBookingsForUserItems(requesterUserId, BookingState.FUTURE, page, size);
 
@@ -473,8 +626,8 @@ class BookingServiceImplTest {
                 item, user, Status.WAITING);
         int page = 0;
         int size = 1;
-        when(userService.getById(requesterUserId)).thenReturn(user);
-        when(bookingRepository.findAllByItemOwnerAndStatusOrderByStartDesc(any(User.class), any(Status.class), any(PageRequest.class))).thenReturn(List.of(expectedBooking));
+        when(actingUserContext.resolve(requesterUserId)).thenReturn(user);
+        when(bookingRepository.findAllByQuery(any(BookingQuery.class))).thenReturn(List.of(expectedBooking));
 
         List<Booking> bookings = bookingService.getAllBookingsForUserItems(requesterUserId, BookingState.WAITING, page, size);
 
@@ -491,73 +644,14 @@ class BookingServiceImplTest {
                 item, user, Status.REJECTED);
         int page = 0;
         int size = 1;
-        when(userService.getById(requesterUserId)).thenReturn(user);
-        when(bookingRepository.findAllByItemOwnerAndStatusOrderByStartDesc(any(User.class), any(Status.class), any(PageRequest.class))).thenReturn(List.of(expectedBooking));
+        when(actingUserContext.resolve(requesterUserId)).thenReturn(user);
+        when(bookingRepository.findAllByQuery(any(BookingQuery.class))).thenReturn(List.of(expectedBooking));
 
         List<Booking> bookings = bookingService.getAllBookingsForUserItems(requesterUserId, BookingState.REJECTED, page, size);
 
         assertEquals(List.of(expectedBooking), bookings);
     }
 
-    @Test
-    void getLastOrNextBookingTest_whenLastBookingRequested_thenReturnLastBookingForItem() {
-        User user = new User(1L, "Vladimir", "vladimir@yandex.ru");
-        User owner = new User(2L, "Ilya", "ilya@yandex.ru");
-        Item item = new Item(1L, "имя", "описание", true, owner, null);
-        Booking expectedBooking = new Booking(1L, LocalDateTime.of(2023, 2, 20, 10, 10, 10),
-                LocalDateTime.of(2024, 2, 20, 11, 10, 10),
-                item, user, Status.WAITING);
-
-        when(bookingRepository.findFirstByItemAndStatusNotInAndStartBeforeOrderByStartDesc(any(Item.class), anyList(), any(LocalDateTime.class))).thenReturn(expectedBooking);
-
-        Booking resultBooking = bookingService.getLastOrNextBooking(item, true);
-        assertEquals(expectedBooking, resultBooking);
-    }
-
-    @Test
-    void getLastOrNextBookingTest_whenNextBookingRequested_thenReturnNextBookingForItem() {
-        User user = new User(1L, "Vladimir", "vladimir@yandex.ru");
-        User owner = new User(2L, "Ilya", "ilya@yandex.ru");
-        Item item = new Item(1L, "имя", "описание", true, owner, null);
-        Booking expectedBooking = new Booking(1L, LocalDateTime.of(2025, 2, 20, 10, 10, 10),
-                LocalDateTime.of(2026, 2, 20, 11, 10, 10),
-                item, user, Status.WAITING);
-
-        when(bookingRepository.findFirstByItemAndStatusNotInAndStartAfterOrderByStartAsc(any(Item.class), anyList(), any(LocalDateTime.class))).thenReturn(expectedBooking);
-
-        Booking resultBooking = bookingService.getLastOrNextBooking(item, false);
-        assertEquals(expectedBooking, resultBooking);
-    }
-
-    @Test
-    void findAllLastAndNextBookingsForItemsTest_whenNoBookings_thenReturnEmptyList() {
-        User user = new User(1L, "Vladimir", "vladimir@yandex.ru");
-        Item item = new Item(1L, "имя", "описание", true, user, null);
-        int page = 0;
-        int size = 1;
-        when(bookingRepository.findAllUnion(anyList(), any(LocalDateTime.class), any(PageRequest.class))).thenReturn(Collections.emptyList());
-
-        List<Booking> resultList = bookingService.findAllLastAndNextBookingsForItems(List.of(item), page, size);
-
-        assertTrue(resultList.isEmpty());
-    }
-
-    @Test
-    void findAllLastAndNextBookingsForItemsTest_whenFound_thenReturnBookingsList() {
-        User user = new User(1L, "Vladimir", "vladimir@yandex.ru");
-        Item item = new Item(1L, "имя", "описание", true, user, null);
-        Booking expectedBooking = new Booking(1L, LocalDateTime.of(2025, 10, 20, 10, 10, 10),
-                LocalDateTime.of(2025, 10, 20, 11, 10, 10),
-                item, user, Status.WAITING);
-        int page = 0;
-        int size = 1;
-        when(bookingRepository.findAllUnion(anyList(), any(LocalDateTime.class), any(PageRequest.class))).thenReturn(List.of(expectedBooking));
-
-        List<Booking> resultList = bookingService.findAllLastAndNextBookingsForItems(List.of(item), page, size);
-
-        assertEquals(List.of(expectedBooking), resultList);
-    }
-
     @Test
     void checkIfUserRentedItemTest_whenRented_thenReturnTrue() {
         User user = new User(1L, "Vladimir", "vladimir@yandex.ru");
@@ -18,7 +18,7 @@ import java.util.List;
 
 @Transactional
 @SpringBootTest(
-        properties = {"db.name=shareItTest", "spring.sql.init.schema-locations=classpath:schema_test.sql"},
+        properties = {"db.name=shareItTest"},
         webEnvironment = SpringBootTest.WebEnvironment.NONE)
 @RequiredArgsConstructor(onConstructor_ = @Autowired)
 class BookingServiceImplTestIT {
@@ -0,0 +1,136 @@
+package ru.practicum.shareit.booking.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import ru.practicum.shareit.booking.enums.Status;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.storage.BookingRepository;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.model.ItemBookingSnapshot;
+import ru.practicum.shareit.item.storage.ItemBookingSnapshotRepository;
+import ru.practicum.shareit.user.model.User;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ItemBookingSnapshotUpdaterTest {
+
+    private static final int ADVANCE_BATCH = 2;
+
+    @Mock
+    private ItemBookingSnapshotRepository itemBookingSnapshotRepository;
+    @Mock
+    private BookingRepository bookingRepository;
+    private ItemBookingSnapshotUpdater itemBookingSnapshotUpdater;
+
+    private User booker;
+    private Item item;
+
+    @BeforeEach
+    void setUp() {
+        User owner = new User(1L, "Vladimir", "vladimir@yandex.ru");
+        booker = new User(2L, "Ilya", "ilya@yandex.ru");
+        item = new Item(1L, "имя", "описание", true, owner, null);
+        itemBookingSnapshotUpdater = new ItemBookingSnapshotUpdater(itemBookingSnapshotRepository, bookingRepository,
+                ADVANCE_BATCH);
+    }
+
+    @Test
+    void bookingAddedTest_whenFutureBooking_thenOfferedAsNext() {
+        Booking booking = new Booking(5L, LocalDateTime.now().plusDays(1), LocalDateTime.now().plusDays(2),
+                item, booker, Status.WAITING);
+
+        itemBookingSnapshotUpdater.bookingAdded(booking);
+
+        verify(itemBookingSnapshotRepository).offerNextBooking(item.getId(), booking.getId(), booking.getStart(),
+                booking.getEnd(), booker.getId());
+        verify(itemBookingSnapshotRepository, never()).offerLastBooking(anyLong(), anyLong(), any(), any(), anyLong());
+        verifyNoInteractions(bookingRepository);
+    }
+
+    @Test
+    void bookingReleasedTest_whenBookingIsNext_thenSnapshotRecomputed() {
+        Booking released = new Booking(5L, LocalDateTime.now().plusDays(1), LocalDateTime.now().plusDays(2),
+                item, booker, Status.REJECTED);
+        Booking replacement = new Booking(6L, LocalDateTime.now().plusDays(3), LocalDateTime.now().plusDays(4),
+                item, booker, Status.WAITING);
+        ItemBookingSnapshot snapshot = new ItemBookingSnapshot();
+        snapshot.setId(item.getId());
+        snapshot.setNextBooking(released);
+        when(itemBookingSnapshotRepository.findByIdForUpdate(item.getId())).thenReturn(Optional.of(snapshot));
+        when(bookingRepository.findLastAndNextByItemIdIn(eq(List.of(item.getId())), any(LocalDateTime.class)))
+                .thenReturn(List.of(replacement));
+
+        itemBookingSnapshotUpdater.bookingReleased(released);
+
+        assertEquals(replacement.getId(), snapshot.getNextBookingId());
+        assertNull(snapshot.getLastBookingId());
+    }
+
+    @Test
+    void bookingReleasedTest_whenBookingNotInSnapshot_thenBookingsNotRead() {
+        Booking released = new Booking(5L, LocalDateTime.now().plusDays(1), LocalDateTime.now().plusDays(2),
+                item, booker, Status.REJECTED);
+        ItemBookingSnapshot snapshot = new ItemBookingSnapshot();
+        snapshot.setId(item.getId());
+        when(itemBookingSnapshotRepository.findByIdForUpdate(item.getId())).thenReturn(Optional.of(snapshot));
+
+        itemBookingSnapshotUpdater.bookingReleased(released);
+
+        verifyNoInteractions(bookingRepository);
+    }
+
+    @Test
+    void advanceTest_whenNextBookingStarted_thenItBecomesLast() {
+        Booking started = new Booking(5L, LocalDateTime.now().minusMinutes(1), LocalDateTime.now().plusHours(1),
+                item, booker, Status.APPROVED);
+        ItemBookingSnapshot snapshot = new ItemBookingSnapshot();
+        snapshot.setId(item.getId());
+        snapshot.setNextBooking(started);
+        when(itemBookingSnapshotRepository.findAllByNextBookingStartBefore(any(LocalDateTime.class),
+                any(Pageable.class))).thenReturn(List.of(snapshot));
+        when(bookingRepository.findLastAndNextByItemIdIn(anyList(), any(LocalDateTime.class)))
+                .thenReturn(List.of(started));
+
+        itemBookingSnapshotUpdater.advance();
+
+        assertEquals(started.getId(), snapshot.getLastBookingId());
+        assertNull(snapshot.getNextBookingId());
+    }
+
+    @Test
+    void advanceTest_whenMoreStartedThanBatch_thenAllBatchesAdvanced() {
+        List<ItemBookingSnapshot> firstBatch = List.of(startedSnapshot(1L), startedSnapshot(2L));
+        List<ItemBookingSnapshot> secondBatch = List.of(startedSnapshot(3L));
+        when(itemBookingSnapshotRepository.findAllByNextBookingStartBefore(any(LocalDateTime.class),
+                any(Pageable.class))).thenReturn(firstBatch, secondBatch);
+
+        itemBookingSnapshotUpdater.advance();
+
+        verify(itemBookingSnapshotRepository, times(2)).findAllByNextBookingStartBefore(any(LocalDateTime.class),
+                eq(PageRequest.of(0, ADVANCE_BATCH)));
+        verify(bookingRepository).findLastAndNextByItemIdIn(eq(List.of(3L)), any(LocalDateTime.class));
+        assertNull(secondBatch.get(0).getNextBookingId());
+    }
+
+    private ItemBookingSnapshot startedSnapshot(long itemId) {
+        ItemBookingSnapshot snapshot = new ItemBookingSnapshot();
+        snapshot.setId(itemId);
+        snapshot.setNextBooking(new Booking(itemId, LocalDateTime.now().minusMinutes(1),
+                LocalDateTime.now().plusHours(1), item, booker, Status.APPROVED));
+        return snapshot;
+    }
+}
@@ -0,0 +1,110 @@
+package ru.practicum.shareit.booking.storage;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import ru.practicum.shareit.booking.enums.Status;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.user.model.User;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class BookingIntervalIndexTest {
+
+    @Mock
+    private BookingRepository bookingRepository;
+    @InjectMocks
+    private BookingIntervalIndex bookingIntervalIndex;
+
+    private Item item;
+    private Booking booking;
+
+    @BeforeEach
+    void setUp() {
+        User owner = new User(1L, "Vladimir", "vladimir@yandex.ru");
+        User booker = new User(2L, "Ilya", "ilya@yandex.ru");
+        item = new Item(1L, "имя", "описание", true, owner, null);
+        booking = new Booking(1L, LocalDateTime.of(2025, 10, 20, 10, 0, 0),
+                LocalDateTime.of(2025, 10, 20, 12, 0, 0),
+                item, booker, Status.WAITING);
+    }
+
+    @Test
+    void isBookedTest_whenNoBookingsForItem_thenReturnFalse() {
+        assertFalse(bookingIntervalIndex.isBooked(item.getId(), booking.getStart(), booking.getEnd()));
+    }
+
+    @Test
+    void isBookedTest_whenIntervalsCrossed_thenReturnTrue() {
+        bookingIntervalIndex.add(booking);
+
+        assertTrue(bookingIntervalIndex.isBooked(item.getId(),
+                LocalDateTime.of(2025, 10, 20, 11, 0, 0),
+                LocalDateTime.of(2025, 10, 20, 13, 0, 0)));
+        assertTrue(bookingIntervalIndex.isBooked(item.getId(),
+                LocalDateTime.of(2025, 10, 20, 9, 0, 0),
+                LocalDateTime.of(2025, 10, 20, 10, 30, 0)));
+        assertTrue(bookingIntervalIndex.isBooked(item.getId(),
+                LocalDateTime.of(2025, 10, 20, 9, 0, 0),
+                LocalDateTime.of(2025, 10, 20, 13, 0, 0)));
+        assertTrue(bookingIntervalIndex.isBooked(item.getId(),
+                LocalDateTime.of(2025, 10, 20, 10, 30, 0),
+                LocalDateTime.of(2025, 10, 20, 11, 30, 0)));
+    }
+
+    @Test
+    void isBookedTest_whenIntervalsNotCrossed_thenReturnFalse() {
+        bookingIntervalIndex.add(booking);
+
+        assertFalse(bookingIntervalIndex.isBooked(item.getId(),
+                LocalDateTime.of(2025, 10, 20, 12, 30, 0),
+                LocalDateTime.of(2025, 10, 20, 13, 0, 0)));
+        assertFalse(bookingIntervalIndex.isBooked(item.getId(),
+                LocalDateTime.of(2025, 10, 20, 8, 0, 0),
+                LocalDateTime.of(2025, 10, 20, 9, 0, 0)));
+        assertFalse(bookingIntervalIndex.isBooked(2L, booking.getStart(), booking.getEnd()));
+    }
+
+    @Test
+    void removeTest_whenBookingRemoved_thenIntervalIsFree() {
+        bookingIntervalIndex.add(booking);
+
+        bookingIntervalIndex.remove(booking);
+
+        assertFalse(bookingIntervalIndex.isBooked(item.getId(), booking.getStart(), booking.getEnd()));
+    }
+
+    @Test
+    void removeTest_whenOtherBookingHasSameStart_thenOtherIntervalKept() {
+        Booking sameStart = new Booking(2L, booking.getStart(), booking.getEnd().plusHours(1), item,
+                booking.getBooker(), Status.WAITING);
+        bookingIntervalIndex.add(booking);
+        bookingIntervalIndex.add(sameStart);
+
+        bookingIntervalIndex.remove(booking);
+
+        assertTrue(bookingIntervalIndex.isBooked(item.getId(), booking.getEnd().plusMinutes(30),
+                booking.getEnd().plusMinutes(40)));
+    }
+
+    @Test
+    void rebuildTest_whenActiveBookingsInRepository_thenIndexContainsThem() {
+        when(bookingRepository.findAllIntervalsByStatusNotIn(anyList())).thenReturn(List.of(
+                new BookingInterval(booking.getId(), item.getId(), booking.getStart(), booking.getEnd())));
+
+        bookingIntervalIndex.rebuild();
+
+        assertTrue(bookingIntervalIndex.isBooked(item.getId(), booking.getStart(), booking.getEnd()));
+    }
+}
@@ -0,0 +1,239 @@
+package ru.practicum.shareit.booking.storage;
+
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.support.JpaRepositoryFactory;
+import org.springframework.data.repository.Repository;
+import ru.practicum.shareit.booking.enums.BookingRole;
+import ru.practicum.shareit.booking.enums.BookingState;
+import ru.practicum.shareit.booking.enums.Status;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.pagination.Cursor;
+import ru.practicum.shareit.user.model.User;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Сравнивает построитель запросов бронирований с удаленными производными методами репозитория, по одному
+ * на пару (роль, состояние): сначала проверяет, что оба пути возвращают одни и те же страницы, затем считает
+ * попадания в кэш планов Hibernate, подготовленные операторы и среднее время. Страница, как в контроллере,
+ * отображается с названием вещи. Запуск: mvn test -P benchmark
+ */
+@Tag("benchmark")
+@Slf4j
+@DataJpaTest(properties = {"db.name=shareItTest", "spring.jpa.properties.hibernate.generate_statistics=true"})
+class BookingQueryBenchmarkTest {
+
+    private static final int ITEMS = 50;
+    private static final int BOOKINGS_PER_ITEM = 40;
+    private static final int ITERATIONS = 200;
+    private static final int PAGE_SIZE = 20;
+    private static final int QUERY_SHAPES = 10;
+
+    @Autowired
+    private BookingRepository bookingRepository;
+    @Autowired
+    private TestEntityManager testEntityManager;
+
+    private final LocalDateTime now = LocalDateTime.now();
+    private User booker;
+    private User owner;
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        booker = testEntityManager.persist(new User(null, "Kirill", "kirill.benchmark@yandex.ru"));
+        owner = testEntityManager.persist(new User(null, "Igor", "igor.benchmark@yandex.ru"));
+        LocalDateTime base = LocalDateTime.now().minusDays(BOOKINGS_PER_ITEM / 2);
+        Status[] statuses = Status.values();
+        for (int i = 0; i < ITEMS; i++) {
+            Item item = testEntityManager.persist(new Item(null, "вещь " + i, "описание", true, owner, null));
+            for (int j = 0; j < BOOKINGS_PER_ITEM; j++) {
+                LocalDateTime start = base.plusDays(j).plusMinutes(i);
+                testEntityManager.persist(new Booking(null, start, start.plusHours(12), item, booker,
+                        statuses[j % statuses.length]));
+            }
+        }
+        testEntityManager.flush();
+        testEntityManager.clear();
+        statistics = testEntityManager.getEntityManager().getEntityManagerFactory()
+                .unwrap(SessionFactory.class).getStatistics();
+    }
+
+    @Test
+    void findAllByQueryTest_comparedToPerStateFinders() {
+        PerStateFinders finders = new JpaRepositoryFactory(testEntityManager.getEntityManager())
+                .getRepository(PerStateFinders.class);
+        for (BookingRole role : BookingRole.values()) {
+            for (BookingState state : BookingState.values()) {
+                assertThat(ids(runDerivedFinder(finders, role, state)))
+                        .as("%s %s", role, state)
+                        .isEqualTo(ids(runQueryBuilder(role, state)));
+                testEntityManager.clear();
+            }
+        }
+
+        Result derived = measure((role, state) -> runDerivedFinder(finders, role, state));
+        Result builder = measure(this::runQueryBuilder);
+
+        log.info("Производные методы: {}", derived);
+        log.info("Построитель запросов: {}", builder);
+
+        assertThat(builder.planCacheMisses).isLessThanOrEqualTo(QUERY_SHAPES);
+        assertThat(builder.planCacheHitRatio()).isGreaterThan(0.9);
+        assertThat(builder.planCacheMisses).isLessThanOrEqualTo(derived.planCacheMisses);
+        assertThat(builder.preparedStatements).isEqualTo(builder.queries);
+        assertThat(derived.preparedStatements).isGreaterThan(builder.preparedStatements);
+    }
+
+    private List<Booking> runQueryBuilder(BookingRole role, BookingState state) {
+        return withItemNames(bookingRepository.findAllByQuery(new BookingQuery(role,
+                role == BookingRole.BOOKER ? booker : owner, state, now, Cursor.FIRST, 0, PAGE_SIZE)));
+    }
+
+    private List<Booking> runDerivedFinder(PerStateFinders finders, BookingRole role, BookingState state) {
+        PageRequest page = PageRequest.of(0, PAGE_SIZE);
+        if (role == BookingRole.BOOKER) {
+            switch (state) {
+                case CURRENT:
+                    return withItemNames(finders.findAllByBookerAndStartBeforeAndEndAfterOrderByStartDesc(booker,
+                            now, now, page));
+                case PAST:
+                    return withItemNames(finders.findAllByBookerAndEndBeforeOrderByStartDesc(booker, now, page));
+                case FUTURE:
+                    return withItemNames(finders.findAllByBookerAndStartAfterOrderByStartDesc(booker, now, page));
+                case WAITING:
+                case REJECTED:
+                    return withItemNames(finders.findAllByBookerAndStatusOrderByStartDesc(booker,
+                            Status.valueOf(state.name()), page));
+                default:
+                    return withItemNames(finders.findAllByBookerOrderByStartDesc(booker, page));
+            }
+        }
+        switch (state) {
+            case CURRENT:
+                return withItemNames(finders.findAllByItemOwnerAndStartBeforeAndEndAfterOrderByStartDesc(owner,
+                        now, now, page));
+            case PAST:
+                return withItemNames(finders.findAllByItemOwnerAndEndBeforeOrderByStartDesc(owner, now, page));
+            case FUTURE:
+                return withItemNames(finders.findAllByItemOwnerAndStartAfterOrderByStartDesc(owner, now, page));
+            case WAITING:
+            case REJECTED:
+                return withItemNames(finders.findAllByItemOwnerAndStatusOrderByStartDesc(owner,
+                        Status.valueOf(state.name()), page));
+            default:
+                return withItemNames(finders.findAllByItemOwnerOrderByStartDesc(owner, page));
+        }
+    }
+
+    /**
+     * Обращение к вещи, как при отображении брони в BookingDtoToUser.
+     */
+    private List<Booking> withItemNames(List<Booking> bookings) {
+        bookings.forEach(booking -> booking.getItem().getName());
+        return bookings;
+    }
+
+    private List<Long> ids(List<Booking> bookings) {
+        return bookings.stream().map(Booking::getId).collect(Collectors.toList());
+    }
+
+    private Result measure(QueryRunner runner) {
+        statistics.clear();
+        long startedAt = System.nanoTime();
+        for (int i = 0; i < ITERATIONS; i++) {
+            for (BookingRole role : BookingRole.values()) {
+                for (BookingState state : BookingState.values()) {
+                    runner.run(role, state);
+                }
+            }
+            testEntityManager.clear();
+        }
+        long elapsed = System.nanoTime() - startedAt;
+        int queries = ITERATIONS * BookingRole.values().length * BookingState.values().length;
+        return new Result(queries, statistics.getQueryPlanCacheHitCount(), statistics.getQueryPlanCacheMissCount(),
+                statistics.getPrepareStatementCount(), elapsed / 1_000.0 / queries);
+    }
+
+    private interface QueryRunner {
+        void run(BookingRole role, BookingState state);
+    }
+
+    /**
+     * Удаленные производные методы BookingRepository. Spring Data строит их запросы по именам так же, как строил
+     * в репозитории; у выборки по статусу автора добавлена сортировка, чтобы страницы совпадали с построителем.
+     */
+    interface PerStateFinders extends Repository<Booking, Long> {
+
+        List<Booking> findAllByBookerOrderByStartDesc(User booker, Pageable pageable);
+
+        List<Booking> findAllByBookerAndStatusOrderByStartDesc(User booker, Status status, Pageable pageable);
+
+        List<Booking> findAllByBookerAndEndBeforeOrderByStartDesc(User booker, LocalDateTime currentTime,
+                                                                  Pageable pageable);
+
+        List<Booking> findAllByBookerAndStartBeforeAndEndAfterOrderByStartDesc(User booker, LocalDateTime currentTime,
+                                                                               LocalDateTime currentTimeSecondParameter,
+                                                                               Pageable pageable);
+
+        List<Booking> findAllByBookerAndStartAfterOrderByStartDesc(User booker, LocalDateTime currentTime,
+                                                                   Pageable pageable);
+
+        List<Booking> findAllByItemOwnerOrderByStartDesc(User owner, Pageable pageable);
+
+        List<Booking> findAllByItemOwnerAndStatusOrderByStartDesc(User owner, Status status, Pageable pageable);
+
+        List<Booking> findAllByItemOwnerAndEndBeforeOrderByStartDesc(User owner, LocalDateTime currentTime,
+                                                                     Pageable pageable);
+
+        List<Booking> findAllByItemOwnerAndStartBeforeAndEndAfterOrderByStartDesc(User owner,
+                                                                                  LocalDateTime currentTime,
+                                                                                  LocalDateTime currentTimeSecondParameter,
+                                                                                  Pageable pageable);
+
+        List<Booking> findAllByItemOwnerAndStartAfterOrderByStartDesc(User owner, LocalDateTime currentTime,
+                                                                      Pageable pageable);
+    }
+
+    private static class Result {
+        private final long queries;
+        private final long planCacheHits;
+        private final long planCacheMisses;
+        private final long preparedStatements;
+        private final double meanMicros;
+
+        Result(long queries, long planCacheHits, long planCacheMisses, long preparedStatements, double meanMicros) {
+            this.queries = queries;
+            this.planCacheHits = planCacheHits;
+            this.planCacheMisses = planCacheMisses;
+            this.preparedStatements = preparedStatements;
+            this.meanMicros = meanMicros;
+        }
+
+        double planCacheHitRatio() {
+            return (double) planCacheHits / (planCacheHits + planCacheMisses);
+        }
+
+        @Override
+        public String toString() {
+            return String.format("запросов %d, план из кэша %d, промахов %d (доля попаданий %.3f), " +
+                    "подготовлено операторов %d, среднее время запроса %.1f мкс", queries, planCacheHits,
+                    planCacheMisses, planCacheHitRatio(), preparedStatements, meanMicros);
+        }
+    }
+}
@@ -1,26 +1,35 @@
 package ru.practicum.shareit.booking.storage;
 
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
 import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
-import org.springframework.data.domain.PageRequest;
+import ru.practicum.shareit.booking.dto.BookingDtoToUser;
+import ru.practicum.shareit.booking.dto.mapper.BookingDtoMapper;
+import ru.practicum.shareit.booking.enums.BookingRole;
+import ru.practicum.shareit.booking.enums.BookingState;
 import ru.practicum.shareit.booking.enums.Status;
 import ru.practicum.shareit.booking.model.Booking;
 import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.pagination.Cursor;
 import ru.practicum.shareit.request.model.ItemRequest;
 import ru.practicum.shareit.user.model.User;
 
 import java.time.LocalDateTime;
 import java.util.List;
-import java.util.Optional;
+import java.util.function.Supplier;
 
 import static org.assertj.core.api.Assertions.assertThat;
 
-@DataJpaTest(properties = {"db.name=shareItTest", "spring.sql.init.schema-locations=classpath:schema_test.sql"})
+@DataJpaTest(properties = {"db.name=shareItTest", "spring.jpa.properties.hibernate.generate_statistics=true"})
 class BookingRepositoryIT {
 
+    private static final LocalDateTime NOW = LocalDateTime.of(2024, 1, 1, 0, 0, 0);
+    private static final int PAGE_SIZE = 100;
+
     @Autowired
     private BookingRepository bookingRepository;
     @Autowired
@@ -71,23 +80,54 @@ class BookingRepositoryIT {
 
 
     @Test
-    void findIfBookingTimeCrossedTest_whenTimeCrossed_thenReturnBooking() {
-        LocalDateTime start = LocalDateTime.of(2025, 10, 20, 10, 20, 10);
-        LocalDateTime end = LocalDateTime.of(2025, 10, 20, 11, 20, 10);
+    void findAllIntervalsByStatusNotInTest_whenBookingActive_thenReturnInterval() {
+        Booking rejectedBooking = new Booking();
+        rejectedBooking.setStart(LocalDateTime.of(2025, 10, 21, 10, 10, 10));
+        rejectedBooking.setEnd(LocalDateTime.of(2025, 10, 21, 11, 10, 10));
+        rejectedBooking.setStatus(Status.REJECTED);
+        rejectedBooking.setItem(item);
+        rejectedBooking.setBooker(user);
+        bookingRepository.save(rejectedBooking);
+
+        List<BookingInterval> intervals = bookingRepository.findAllIntervalsByStatusNotIn(
+                List.of(Status.REJECTED, Status.CANCELLED));
+
+        assertThat(intervals.size()).isEqualTo(1);
+        assertThat(intervals.get(0).getBookingId()).isEqualTo(booking.getId());
+        assertThat(intervals.get(0).getItemId()).isEqualTo(item.getId());
+        assertThat(intervals.get(0).getStart()).isEqualTo(booking.getStart());
+        assertThat(intervals.get(0).getEnd()).isEqualTo(booking.getEnd());
+    }
 
-        Optional<Booking> bookingOptional = bookingRepository.findIfBookingTimeCrossed(item, start, end);
 
-        assertThat(bookingOptional).isPresent();
-        assertThat(bookingOptional.get().getItem()).isEqualTo(booking.getItem());
+    @Test
+    void findAllByQueryTest_whenPagedByCursor_thenPagesDoNotOverlap() {
+        Booking laterBooking = new Booking();
+        laterBooking.setStart(LocalDateTime.of(2025, 10, 22, 10, 10, 10));
+        laterBooking.setEnd(LocalDateTime.of(2025, 10, 22, 11, 10, 10));
+        laterBooking.setStatus(Status.WAITING);
+        laterBooking.setItem(item);
+        laterBooking.setBooker(user);
+        bookingRepository.save(laterBooking);
+
+        List<Booking> firstPage = bookingRepository.findAllByQuery(byBooker(Cursor.FIRST));
+        Booking last = firstPage.get(0);
+        List<Booking> secondPage = bookingRepository.findAllByQuery(byBooker(new Cursor(last.getStart(), last.getId())));
+        last = secondPage.get(0);
+        List<Booking> thirdPage = bookingRepository.findAllByQuery(byBooker(new Cursor(last.getStart(), last.getId())));
+
+        assertThat(firstPage).containsExactly(laterBooking);
+        assertThat(secondPage).containsExactly(booking);
+        assertThat(thirdPage).isEmpty();
     }
 
-
     @Test
-    void findAllByBookerOrderByStartDescTest_whenBookingExists_thenReturnListOfBooking() {
+    void findAllByQueryTest_whenBookerAndStateAll_thenReturnListOfBooking() {
         int page = 0;
         int size = 1;
 
-        List<Booking> bookings = bookingRepository.findAllByBookerOrderByStartDesc(user, PageRequest.of(page, size));
+        List<Booking> bookings = bookingRepository.findAllByQuery(new BookingQuery(BookingRole.BOOKER, user, BookingState.ALL,
+                NOW, Cursor.FIRST, page * size, size));
 
         assertThat(bookings.size()).isEqualTo(1);
         assertThat(bookings.get(0).getStart()).isEqualTo(booking.getStart().toString());
@@ -98,11 +138,12 @@ class BookingRepositoryIT {
     }
 
     @Test
-    void findAllByBookerAndStatusTest_whenBookingExists_thenReturnListOfBooking() {
+    void findAllByQueryTest_whenBookerAndStateWaiting_thenReturnListOfBooking() {
         int page = 0;
         int size = 1;
 
-        List<Booking> bookings = bookingRepository.findAllByBookerAndStatus(user, Status.WAITING, PageRequest.of(page, size));
+        List<Booking> bookings = bookingRepository.findAllByQuery(new BookingQuery(BookingRole.BOOKER, user, BookingState.WAITING,
+                NOW, Cursor.FIRST, page * size, size));
 
         assertThat(bookings.size()).isEqualTo(1);
         assertThat(bookings.get(0).getStart()).isEqualTo(booking.getStart().toString());
@@ -113,7 +154,7 @@ class BookingRepositoryIT {
     }
 
     @Test
-    void findAllByBookerAndEndBeforeOrderByStartDescTest_whenBookingExists_thenReturnListOfBooking() {
+    void findAllByQueryTest_whenBookerAndStatePast_thenReturnListOfBooking() {
         int page = 0;
         int size = 1;
 
@@ -125,7 +166,8 @@ class BookingRepositoryIT {
         booking.setBooker(user);
         bookingRepository.save(booking);
 
-        List<Booking> bookings = bookingRepository.findAllByBookerAndEndBeforeOrderByStartDesc(user, LocalDateTime.now(), PageRequest.of(page, size));
+        List<Booking> bookings = bookingRepository.findAllByQuery(new BookingQuery(BookingRole.BOOKER, user, BookingState.PAST,
+                NOW, Cursor.FIRST, page * size, size));
 
         assertThat(bookings.size()).isEqualTo(1);
         assertThat(bookings.get(0).getStart()).isEqualTo(booking.getStart().toString());
@@ -136,7 +178,7 @@ class BookingRepositoryIT {
     }
 
     @Test
-    void findAllByBookerAndStartBeforeAndEndAfterOrderByStartDescTest_whenBookingExists_thenReturnListOfBooking() {
+    void findAllByQueryTest_whenBookerAndStateCurrent_thenReturnListOfBooking() {
         int page = 0;
         int size = 1;
 
@@ -148,10 +190,8 @@ class BookingRepositoryIT {
         booking.setBooker(user);
         bookingRepository.save(booking);
 
-        List<Booking> bookings = bookingRepository.findAllByBookerAndStartBeforeAndEndAfterOrderByStartDesc(user,
-                LocalDateTime.now(),
-                LocalDateTime.now(),
-                PageRequest.of(page, size));
+        List<Booking> bookings = bookingRepository.findAllByQuery(new BookingQuery(BookingRole.BOOKER, user, BookingState.CURRENT,
+                NOW, Cursor.FIRST, page * size, size));
 
         assertThat(bookings.size()).isEqualTo(1);
         assertThat(bookings.get(0).getStart()).isEqualTo(booking.getStart().toString());
@@ -162,12 +202,11 @@ class BookingRepositoryIT {
     }
 
     @Test
-    void findAllByBookerAndStartAfterOrderByStartDescTest_whenBookingExists_thenReturnListOfBooking() {
+    void findAllByQueryTest_whenBookerAndStateFuture_thenReturnListOfBooking() {
         int page = 0;
         int size = 1;
-        List<Booking> bookings = bookingRepository.findAllByBookerAndStartAfterOrderByStartDesc(user,
-                LocalDateTime.now(),
-                PageRequest.of(page, size));
+        List<Booking> bookings = bookingRepository.findAllByQuery(new BookingQuery(BookingRole.BOOKER, user, BookingState.FUTURE,
+                NOW, Cursor.FIRST, page * size, size));
 
         assertThat(bookings.size()).isEqualTo(1);
         assertThat(bookings.get(0).getStart()).isEqualTo(booking.getStart().toString());
@@ -178,11 +217,11 @@ class BookingRepositoryIT {
     }
 
     @Test
-    void findAllByItemOwnerOrderByStartDescTest_whenBookingExists_thenReturnListOfBooking() {
+    void findAllByQueryTest_whenOwnerAndStateAll_thenReturnListOfBooking() {
         int page = 0;
         int size = 1;
-        List<Booking> bookings = bookingRepository.findAllByItemOwnerOrderByStartDesc(owner,
-                PageRequest.of(page, size));
+        List<Booking> bookings = bookingRepository.findAllByQuery(new BookingQuery(BookingRole.OWNER, owner, BookingState.ALL,
+                NOW, Cursor.FIRST, page * size, size));
 
         assertThat(bookings.size()).isEqualTo(1);
         assertThat(bookings.get(0).getStart()).isEqualTo(booking.getStart().toString());
@@ -193,11 +232,11 @@ class BookingRepositoryIT {
     }
 
     @Test
-    void findAllByItemOwnerAndStatusOrderByStartDescTest_whenBookingExists_thenReturnListOfBooking() {
+    void findAllByQueryTest_whenOwnerAndStateWaiting_thenReturnListOfBooking() {
         int page = 0;
         int size = 1;
-        List<Booking> bookings = bookingRepository.findAllByItemOwnerAndStatusOrderByStartDesc(owner, Status.WAITING,
-                PageRequest.of(page, size));
+        List<Booking> bookings = bookingRepository.findAllByQuery(new BookingQuery(BookingRole.OWNER, owner, BookingState.WAITING,
+                NOW, Cursor.FIRST, page * size, size));
 
         assertThat(bookings.size()).isEqualTo(1);
         assertThat(bookings.get(0).getStart()).isEqualTo(booking.getStart().toString());
@@ -208,7 +247,7 @@ class BookingRepositoryIT {
     }
 
     @Test
-    void findAllByItemOwnerAndEndBeforeOrderByStartDescTest_whenBookingExists_thenReturnListOfBooking() {
+    void findAllByQueryTest_whenOwnerAndStatePast_thenReturnListOfBooking() {
         int page = 0;
         int size = 1;
         booking = new Booking();
@@ -219,8 +258,8 @@ class BookingRepositoryIT {
         booking.setBooker(user);
         bookingRepository.save(booking);
 
-        List<Booking> bookings = bookingRepository.findAllByItemOwnerAndEndBeforeOrderByStartDesc(owner, LocalDateTime.now(),
-                PageRequest.of(page, size));
+        List<Booking> bookings = bookingRepository.findAllByQuery(new BookingQuery(BookingRole.OWNER, owner, BookingState.PAST,
+                NOW, Cursor.FIRST, page * size, size));
 
         assertThat(bookings.size()).isEqualTo(1);
         assertThat(bookings.get(0).getStart()).isEqualTo(booking.getStart().toString());
@@ -231,7 +270,7 @@ class BookingRepositoryIT {
     }
 
     @Test
-    void findAllByItemOwnerAndStartBeforeAndEndAfterOrderByStartDescTest_whenBookingExists_thenReturnListOfBooking() {
+    void findAllByQueryTest_whenOwnerAndStateCurrent_thenReturnListOfBooking() {
         int page = 0;
         int size = 1;
         booking = new Booking();
@@ -242,11 +281,8 @@ class BookingRepositoryIT {
         booking.setBooker(user);
         bookingRepository.save(booking);
 
-        List<Booking> bookings = bookingRepository.findAllByItemOwnerAndStartBeforeAndEndAfterOrderByStartDesc(owner,
-                LocalDateTime.now(),
-                LocalDateTime.now(),
-                PageRequest.of(page,
-                        size));
+        List<Booking> bookings = bookingRepository.findAllByQuery(new BookingQuery(BookingRole.OWNER, owner, BookingState.CURRENT,
+                NOW, Cursor.FIRST, page * size, size));
 
         assertThat(bookings.size()).isEqualTo(1);
         assertThat(bookings.get(0).getStart()).isEqualTo(booking.getStart().toString());
@@ -257,13 +293,11 @@ class BookingRepositoryIT {
     }
 
     @Test
-    void findAllByItemOwnerAndStartAfterOrderByStartDescTest_whenBookingExists_thenReturnListOfBooking() {
+    void findAllByQueryTest_whenOwnerAndStateFuture_thenReturnListOfBooking() {
         int page = 0;
         int size = 1;
-        List<Booking> bookings = bookingRepository.findAllByItemOwnerAndStartAfterOrderByStartDesc(owner,
-                LocalDateTime.now(),
-                PageRequest.of(page,
-                        size));
+        List<Booking> bookings = bookingRepository.findAllByQuery(new BookingQuery(BookingRole.OWNER, owner, BookingState.FUTURE,
+                NOW, Cursor.FIRST, page * size, size));
 
         assertThat(bookings.size()).isEqualTo(1);
         assertThat(bookings.get(0).getStart()).isEqualTo(booking.getStart().toString());
@@ -274,71 +308,124 @@ class BookingRepositoryIT {
     }
 
     @Test
-    void findFirstByItemAndStatusNotInAndStartBeforeOrderByStartDescTest_whenBookingExists_thenReturnBooking() {
+    void countByBookerAndItemAndEndBeforeTest_whenBookingExists_thenReturnNumberMoreThanZero() {
         booking = new Booking();
         booking.setStart(LocalDateTime.of(2022, 10, 20, 10, 10, 10));
-        booking.setEnd(LocalDateTime.of(2025, 10, 20, 11, 10, 10));
+        booking.setEnd(LocalDateTime.of(2023, 10, 20, 11, 10, 10));
         booking.setStatus(Status.WAITING);
         booking.setItem(item);
         booking.setBooker(user);
         bookingRepository.save(booking);
 
-        Booking resultBooking = bookingRepository.findFirstByItemAndStatusNotInAndStartBeforeOrderByStartDesc(item,
-                List.of(Status.REJECTED),
+        long count = bookingRepository.countByBookerAndItemAndEndBefore(user, item,
                 LocalDateTime.now());
 
-        assertThat(resultBooking.getId()).isNotNull();
-        assertThat(resultBooking.getBooker()).isEqualTo(booking.getBooker());
-        assertThat(resultBooking.getItem()).isEqualTo(booking.getItem());
-        assertThat(resultBooking.getStart()).isEqualTo(booking.getStart().toString());
-        assertThat(resultBooking.getEnd()).isEqualTo(booking.getEnd().toString());
-        assertThat(resultBooking.getStatus()).isEqualTo(booking.getStatus());
+        assertThat(count).isEqualTo(1);
     }
 
     @Test
-    void findFirstByItemAndStatusNotInAndStartAfterOrderByStartAscTest_whenBookingExists_thenReturnBooking() {
-        Booking resultBooking = bookingRepository.findFirstByItemAndStatusNotInAndStartAfterOrderByStartAsc(item,
-                List.of(Status.REJECTED),
-                LocalDateTime.now());
-
-        assertThat(resultBooking.getId()).isNotNull();
-        assertThat(resultBooking.getBooker()).isEqualTo(booking.getBooker());
-        assertThat(resultBooking.getItem()).isEqualTo(booking.getItem());
-        assertThat(resultBooking.getStart()).isEqualTo(booking.getStart().toString());
-        assertThat(resultBooking.getEnd()).isEqualTo(booking.getEnd().toString());
-        assertThat(resultBooking.getStatus()).isEqualTo(booking.getStatus());
+    void findLastAndNextByItemIdInTest_whenSeveralBookingsPerItem_thenReturnOneLastAndOneNextPerItem() {
+        Item secondItem = new Item(null, "другое имя", "описание", true, owner, null);
+        testEntityManager.persist(secondItem);
+        Booking olderLast = saveBooking(item, NOW.minusDays(10), Status.APPROVED);
+        Booking last = saveBooking(item, NOW.minusDays(1), Status.APPROVED);
+        saveBooking(item, NOW.minusHours(1), Status.REJECTED);
+        Booking next = saveBooking(item, NOW.plusDays(1), Status.WAITING);
+        Booking laterNext = saveBooking(item, NOW.plusDays(10), Status.APPROVED);
+        Booking secondItemNext = saveBooking(secondItem, NOW.plusDays(2), Status.APPROVED);
+
+        List<Booking> bookings = bookingRepository.findLastAndNextByItemIdIn(List.of(item.getId(), secondItem.getId()), NOW);
+
+        assertThat(bookings).containsExactlyInAnyOrder(last, next, secondItemNext);
+        assertThat(bookings).doesNotContain(olderLast, laterNext);
     }
 
     @Test
-    void countByBookerAndItemAndEndBeforeTest_whenBookingExists_thenReturnNumberMoreThanZero() {
-        booking = new Booking();
-        booking.setStart(LocalDateTime.of(2022, 10, 20, 10, 10, 10));
-        booking.setEnd(LocalDateTime.of(2023, 10, 20, 11, 10, 10));
-        booking.setStatus(Status.WAITING);
-        booking.setItem(item);
-        booking.setBooker(user);
-        bookingRepository.save(booking);
+    void findAllByQueryTest_whenOwnerHasSeveralItems_thenPageAfterCursorOrderedAcrossItems() {
+        Item secondItem = testEntityManager.persist(new Item(null, "другое имя", "описание", true, owner, null));
+        Booking first = saveBooking(secondItem, NOW.plusDays(3), Status.WAITING);
+        Booking second = saveBooking(item, NOW.plusDays(2), Status.WAITING);
+        Booking third = saveBooking(secondItem, NOW.plusDays(1), Status.WAITING);
 
-        long count = bookingRepository.countByBookerAndItemAndEndBefore(user, item,
-                LocalDateTime.now());
+        List<Booking> bookings = bookingRepository.findAllByQuery(new BookingQuery(BookingRole.OWNER, owner,
+                BookingState.FUTURE, NOW, new Cursor(first.getStart(), first.getId()), 0, 10));
 
-        assertThat(count).isEqualTo(1);
+        assertThat(bookings).containsExactly(second, third);
+        assertThat(bookings).extracting(Booking::getOwnerId).containsOnly(owner.getId());
     }
 
     @Test
-    void findAllUnionTest_whenBookingExists_thenReturnListOfBooking() {
-        int page = 0;
-        int size = 1;
-        List<Booking> bookings = bookingRepository.findAllUnion(List.of(item),
-                LocalDateTime.now(),
-                PageRequest.of(page,
-                        size));
+    void findAllByQueryTest_whenOwnerPageOf100Bookings_thenPageAndDtoLoadedByOneStatement() {
+        User secondBooker = testEntityManager.persist(new User(null, "Oleg", "oleg@yandex.ru"));
+        for (int i = 0; i < PAGE_SIZE; i++) {
+            Item bookedItem = testEntityManager.persist(new Item(null, "вещь " + i, "описание", true, owner, null));
+            saveBooking(bookedItem, i % 2 == 0 ? user : secondBooker, NOW.plusDays(i), Status.APPROVED);
+        }
+
+        List<BookingDtoToUser> page = countStatements(1, () -> new BookingDtoMapper().toBookingDtoToUserList(
+                bookingRepository.findAllByQuery(new BookingQuery(BookingRole.OWNER, owner, BookingState.FUTURE,
+                        NOW, Cursor.FIRST, 0, PAGE_SIZE))));
+
+        assertThat(page).hasSize(PAGE_SIZE);
+        assertThat(page.get(0).getItem().getName()).isEqualTo(item.getName());
+        assertThat(page).allSatisfy(dto -> assertThat(dto.getItem().getOwner().getId()).isEqualTo(owner.getId()));
+    }
 
-        assertThat(bookings.get(0).getId()).isNotNull();
-        assertThat(bookings.get(0).getStart()).isEqualTo(booking.getStart().toString());
-        assertThat(bookings.get(0).getEnd()).isEqualTo(booking.getEnd().toString());
-        assertThat(bookings.get(0).getStatus()).isEqualTo(booking.getStatus());
-        assertThat(bookings.get(0).getBooker()).isEqualTo(booking.getBooker());
-        assertThat(bookings.get(0).getItem()).isEqualTo(booking.getItem());
+    @Test
+    void findAllByQueryTest_whenBookerPageOf100Bookings_thenPageAndDtoLoadedByOneStatement() {
+        for (int i = 0; i < PAGE_SIZE; i++) {
+            User itemOwner = testEntityManager.persist(new User(null, "Владелец " + i, "owner" + i + "@yandex.ru"));
+            Item bookedItem = testEntityManager.persist(new Item(null, "вещь " + i, "описание", true, itemOwner, null));
+            saveBooking(bookedItem, user, NOW.plusDays(i), Status.WAITING);
+        }
+
+        List<BookingDtoToUser> page = countStatements(1, () -> new BookingDtoMapper().toBookingDtoToUserList(
+                bookingRepository.findAllByQuery(new BookingQuery(BookingRole.BOOKER, user, BookingState.FUTURE,
+                        NOW, Cursor.FIRST, 0, PAGE_SIZE))));
+
+        assertThat(page).hasSize(PAGE_SIZE);
+        assertThat(page).allSatisfy(dto -> assertThat(dto.getBooker().getId()).isEqualTo(user.getId()));
+    }
+
+    @Test
+    void findByIdTest_thenBookingAndDtoLoadedByOneStatement() {
+        BookingDtoToUser dto = countStatements(1, () -> new BookingDtoMapper().toBookingDtoToUser(
+                bookingRepository.findById(booking.getId()).orElseThrow()));
+
+        assertThat(dto.getItem().getName()).isEqualTo(item.getName());
+        assertThat(dto.getItem().getOwner().getId()).isEqualTo(owner.getId());
+        assertThat(dto.getBooker().getId()).isEqualTo(user.getId());
+    }
+
+    /**
+     * Выполняет чтение на пустом контексте персистентности и проверяет число подготовленных операторов SQL.
+     */
+    private <T> T countStatements(long expected, Supplier<T> reader) {
+        testEntityManager.flush();
+        testEntityManager.clear();
+        Statistics statistics = testEntityManager.getEntityManager().getEntityManagerFactory()
+                .unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+        T result = reader.get();
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(expected);
+        return result;
+    }
+
+    private BookingQuery byBooker(Cursor cursor) {
+        return new BookingQuery(BookingRole.BOOKER, user, BookingState.ALL, NOW, cursor, 0, 1);
+    }
+
+    private Booking saveBooking(Item bookedItem, LocalDateTime start, Status status) {
+        return saveBooking(bookedItem, user, start, status);
+    }
+
+    private Booking saveBooking(Item bookedItem, User booker, LocalDateTime start, Status status) {
+        Booking newBooking = new Booking();
+        newBooking.setStart(start);
+        newBooking.setEnd(start.plusHours(2));
+        newBooking.setStatus(status);
+        newBooking.setItem(bookedItem);
+        newBooking.setBooker(booker);
+        return bookingRepository.save(newBooking);
     }
-}
\ No newline at end of file
+}
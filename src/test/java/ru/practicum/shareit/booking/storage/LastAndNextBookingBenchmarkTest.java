@@ -0,0 +1,83 @@
+package ru.practicum.shareit.booking.storage;
+
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import ru.practicum.shareit.booking.enums.Status;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.user.model.User;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Последнее и следующее бронирование для 10 000 вещей одного владельца одним запросом.
+ * Запуск: mvn test -P benchmark
+ */
+@Tag("benchmark")
+@Slf4j
+@DataJpaTest(properties = {"db.name=shareItTest"})
+class LastAndNextBookingBenchmarkTest {
+
+    private static final int ITEMS = 10_000;
+    private static final int BOOKINGS_PER_ITEM = 4;
+    private static final int BATCH = 500;
+    private static final int ITERATIONS = 10;
+
+    @Autowired
+    private BookingRepository bookingRepository;
+    @Autowired
+    private TestEntityManager testEntityManager;
+
+    private final List<Long> itemIds = new ArrayList<>();
+    private LocalDateTime now;
+
+    @BeforeEach
+    void setUp() {
+        User owner = testEntityManager.persist(new User(null, "Igor", "igor.benchmark@yandex.ru"));
+        User booker = testEntityManager.persist(new User(null, "Kirill", "kirill.benchmark@yandex.ru"));
+        now = LocalDateTime.now();
+        for (int i = 0; i < ITEMS; i++) {
+            Item item = testEntityManager.persist(new Item(null, "вещь " + i, "описание", true, owner, null));
+            itemIds.add(item.getId());
+            for (int j = 0; j < BOOKINGS_PER_ITEM; j++) {
+                LocalDateTime start = now.plusDays(j * 2L - BOOKINGS_PER_ITEM + 1);
+                testEntityManager.persist(new Booking(null, start, start.plusHours(2), item, booker, Status.APPROVED));
+            }
+            if (i % BATCH == 0) {
+                testEntityManager.flush();
+                testEntityManager.clear();
+            }
+        }
+        testEntityManager.flush();
+        testEntityManager.clear();
+    }
+
+    @Test
+    void findLastAndNextByItemIdInTest_when10kItems_thenOneLastAndOneNextPerItem() {
+        List<Booking> bookings = List.of();
+        long startedAt = System.nanoTime();
+        for (int i = 0; i < ITERATIONS; i++) {
+            bookings = bookingRepository.findLastAndNextByItemIdIn(itemIds, now);
+            testEntityManager.clear();
+        }
+        double meanMillis = (System.nanoTime() - startedAt) / 1_000_000.0 / ITERATIONS;
+        log.info("Последнее и следующее бронирование для {} вещей: {} строк, в среднем {} мс",
+                ITEMS, bookings.size(), String.format("%.1f", meanMillis));
+
+        Map<Boolean, Long> byPosition = bookings.stream()
+                .collect(Collectors.partitioningBy(booking -> booking.getStart().isBefore(now), Collectors.counting()));
+        assertThat(byPosition.get(true)).isEqualTo(ITEMS);
+        assertThat(byPosition.get(false)).isEqualTo(ITEMS);
+    }
+}
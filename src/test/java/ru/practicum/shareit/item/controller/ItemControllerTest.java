@@ -6,9 +6,11 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 import org.springframework.test.web.servlet.setup.MockMvcBuilders;
 import ru.practicum.shareit.booking.dto.BookingDto;
 import ru.practicum.shareit.booking.enums.Status;
@@ -17,24 +19,30 @@ import ru.practicum.shareit.item.dto.CommentDto;
 import ru.practicum.shareit.item.dto.CommentDtoFromUser;
 import ru.practicum.shareit.item.dto.ItemDtoFromOrToUser;
 import ru.practicum.shareit.item.dto.ItemDtoWithComments;
+import ru.practicum.shareit.item.dto.ItemFacetedSearchDto;
 import ru.practicum.shareit.item.dto.mapper.CommentDtoMapper;
 import ru.practicum.shareit.item.dto.mapper.ItemDtoMapper;
+import ru.practicum.shareit.item.enums.ItemRecency;
 import ru.practicum.shareit.item.model.Comment;
 import ru.practicum.shareit.item.model.Item;
 import ru.practicum.shareit.item.service.ItemService;
+import ru.practicum.shareit.item.storage.ItemFacetFilter;
 import ru.practicum.shareit.user.model.User;
 
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
 
 import static org.hamcrest.CoreMatchers.is;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
 import static org.mockito.ArgumentMatchers.anyLong;
-import static org.mockito.Mockito.when;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
-import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
-import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
 @ExtendWith(MockitoExtension.class)
 class ItemControllerTest {
@@ -46,6 +54,7 @@ class ItemControllerTest {
     private CommentDtoMapper commentDtoMapper;
     @InjectMocks
     private ItemController itemController;
+    @Spy
     private ObjectMapper objectMapper = new ObjectMapper();
     private MockMvc mvc;
 
@@ -168,8 +177,7 @@ class ItemControllerTest {
         int from = 1;
         int size = 1;
         String text = "описание";
-        when(itemService.search(requesterId, text, from / size, size)).thenReturn(List.of(item));
-        when(itemDtoMapper.toDto(item)).thenReturn(itemDtoFromOrToUser);
+        when(itemService.search(requesterId, text, from / size, size)).thenReturn(List.of(itemDtoFromOrToUser));
 
         mvc.perform(get("/items/search")
                         .header("X-Sharer-User-Id", requesterId)
@@ -185,6 +193,112 @@ class ItemControllerTest {
 
     }
 
+    @Test
+    void searchTest_whenSortByRelevance_thenSearchByRelevance() throws Exception {
+        String text = "описание";
+        when(itemService.searchByRelevance(requesterId, text, 0, 20)).thenReturn(List.of(itemDtoFromOrToUser));
+
+        mvc.perform(get("/items/search")
+                        .header("X-Sharer-User-Id", requesterId)
+                        .param("text", text)
+                        .param("sort", "relevance"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].id", is(itemDtoFromOrToUser.getId()), Long.class));
+
+        verify(itemService, never()).search(anyLong(), anyString(), anyInt(), anyInt());
+    }
+
+    @Test
+    void searchTest_whenDeepPageSortedById_thenReturnItems() throws Exception {
+        String text = "описание";
+        when(itemService.search(requesterId, text, 1_000, 20)).thenReturn(List.of(itemDtoFromOrToUser));
+
+        mvc.perform(get("/items/search")
+                        .header("X-Sharer-User-Id", requesterId)
+                        .param("text", text)
+                        .param("from", "20000")
+                        .param("size", "20"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].id", is(itemDtoFromOrToUser.getId()), Long.class));
+    }
+
+    @Test
+    void searchTest_whenDeepPageSortedByRelevance_thenReturnBadRequest() throws Exception {
+        mvc.perform(get("/items/search")
+                        .header("X-Sharer-User-Id", requesterId)
+                        .param("text", "описание")
+                        .param("from", "20000")
+                        .param("size", "20")
+                        .param("sort", "relevance"))
+                .andExpect(status().isBadRequest());
+
+        verify(itemService, never()).searchByRelevance(anyLong(), anyString(), anyInt(), anyInt());
+    }
+
+    @Test
+    void streamSearchTest_whenItemsFound_thenWriteOneJsonObjectPerLine() throws Exception {
+        ItemDtoFromOrToUser secondItemDto = new ItemDtoFromOrToUser(2L, "дрель", "описание", true, 5L);
+        doAnswer(invocation -> {
+            Consumer<ItemDtoFromOrToUser> consumer = invocation.getArgument(2);
+            consumer.accept(itemDtoFromOrToUser);
+            consumer.accept(secondItemDto);
+            return null;
+        }).when(itemService).streamSearch(eq(requesterId), eq("описание"), any());
+
+        MvcResult mvcResult = mvc.perform(get("/items/search/stream")
+                        .header("X-Sharer-User-Id", requesterId)
+                        .param("text", "описание"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mvc.perform(asyncDispatch(mvcResult))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(ItemController.APPLICATION_NDJSON_VALUE))
+                .andExpect(content().string(objectMapper.writeValueAsString(itemDtoFromOrToUser) + "\n" +
+                        objectMapper.writeValueAsString(secondItemDto) + "\n"));
+    }
+
+    @Test
+    void facetedSearchTest_whenFiltersGiven_thenReturnItemsAndFacets() throws Exception {
+        ItemFacetFilter filter = new ItemFacetFilter(2L, true, false, ItemRecency.WEEK);
+        ItemFacetedSearchDto result = new ItemFacetedSearchDto(List.of(itemDtoFromOrToUser), 1,
+                Map.of("available", Map.of("true", 1, "false", 3)));
+        when(itemService.facetedSearch(requesterId, "описание", filter, 0, 20)).thenReturn(result);
+
+        mvc.perform(get("/items/search/faceted")
+                        .header("X-Sharer-User-Id", requesterId)
+                        .param("text", "описание")
+                        .param("ownerId", "2")
+                        .param("available", "true")
+                        .param("hasRequest", "false")
+                        .param("createdWithin", "week"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items[0].id", is(itemDtoFromOrToUser.getId()), Long.class))
+                .andExpect(jsonPath("$.total", is(1)))
+                .andExpect(jsonPath("$.facets.available.false", is(3)));
+    }
+
+    @Test
+    void suggestTest_whenNamesFound_thenReturnNames() throws Exception {
+        when(itemService.suggestNames(requesterId, "дре", 10)).thenReturn(List.of("Дрель", "Дрель аккумуляторная"));
+
+        mvc.perform(get("/items/suggest")
+                        .header("X-Sharer-User-Id", requesterId)
+                        .param("prefix", "дре"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0]", is("Дрель")))
+                .andExpect(jsonPath("$[1]", is("Дрель аккумуляторная")));
+    }
+
+    @Test
+    void suggestTest_whenPrefixMissing_thenStatusIsBadRequest() throws Exception {
+        mvc.perform(get("/items/suggest")
+                        .header("X-Sharer-User-Id", requesterId))
+                .andExpect(status().isBadRequest());
+
+        verify(itemService, never()).suggestNames(anyLong(), anyString(), anyInt());
+    }
+
     @Test
     void addCommentTest_whenCommentDtoValid_thenReturnComment() throws Exception {
         String text = "описание";
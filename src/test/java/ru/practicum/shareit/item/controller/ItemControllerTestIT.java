@@ -2,15 +2,22 @@ package ru.practicum.shareit.item.controller;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Nested;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.http.MediaType;
+import org.springframework.test.context.NestedTestConfiguration;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.RequestBuilder;
+import ru.practicum.shareit.SqlStatementBudget;
+import ru.practicum.shareit.StatementBudgetTestBase;
 import ru.practicum.shareit.booking.dto.BookingDto;
 import ru.practicum.shareit.booking.enums.Status;
 import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.storage.BookingRepository;
 import ru.practicum.shareit.item.dto.CommentDto;
 import ru.practicum.shareit.item.dto.CommentDtoFromUser;
 import ru.practicum.shareit.item.dto.ItemDtoFromOrToUser;
@@ -19,7 +26,10 @@ import ru.practicum.shareit.item.dto.mapper.CommentDtoMapper;
 import ru.practicum.shareit.item.dto.mapper.ItemDtoMapper;
 import ru.practicum.shareit.item.model.Comment;
 import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.model.ItemBookingSnapshot;
 import ru.practicum.shareit.item.service.ItemService;
+import ru.practicum.shareit.item.storage.CommentRepository;
+import ru.practicum.shareit.item.storage.ItemBookingSnapshotRepository;
 import ru.practicum.shareit.user.model.User;
 
 import java.time.LocalDateTime;
@@ -27,6 +37,7 @@ import java.time.format.DateTimeFormatter;
 import java.util.List;
 
 import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.Matchers.hasSize;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.Mockito.*;
@@ -236,8 +247,7 @@ class ItemControllerTestIT {
         int from = 1;
         int size = 1;
         String text = "описание";
-        when(itemService.search(requesterId, text, from / size, size)).thenReturn(List.of(item));
-        when(itemDtoMapper.toDto(item)).thenReturn(itemDtoFromOrToUser);
+        when(itemService.search(requesterId, text, from / size, size)).thenReturn(List.of(itemDtoFromOrToUser));
 
         mvc.perform(get("/items/search")
                         .header("X-Sharer-User-Id", requesterId)
@@ -253,6 +263,18 @@ class ItemControllerTestIT {
 
     }
 
+    @Test
+    void searchTest_whenFromAboveLimit_thenStatusIsBadRequest() throws Exception {
+        mvc.perform(get("/items/search")
+                        .header("X-Sharer-User-Id", requesterId)
+                        .param("from", "2147483647")
+                        .param("text", "описание")
+                        .param("sort", "relevance"))
+                .andExpect(status().isBadRequest());
+
+        verify(itemService, never()).searchByRelevance(anyLong(), anyString(), anyInt(), anyInt());
+    }
+
     @Test
     void addCommentTest_whenCommentDtoValid_thenReturnComment() throws Exception {
         String text = "описание";
@@ -271,4 +293,93 @@ class ItemControllerTestIT {
                 .andExpect(jsonPath("$.created", is(commentDto.getCreated().format(DateTimeFormatter.ofPattern("yyyy-MM-dd'T'HH:mm:ss.SSS")))));
 
     }
-}
\ No newline at end of file
+
+    /**
+     * Полный контекст с H2: список и карточка вещи владельца укладываются в бюджет операторов SQL при любом числе
+     * вещей и комментариев, поиск читает из базы только найденные вещи, а повторный поиск обходится без SQL.
+     * С пустыми кэшами к бюджету добавляется чтение пользователя из заголовка.
+     */
+    @Nested
+    @NestedTestConfiguration(NestedTestConfiguration.EnclosingConfiguration.OVERRIDE)
+    class StatementBudget extends StatementBudgetTestBase {
+
+        private static final int ITEMS = 3;
+
+        @Autowired
+        private ItemService itemService;
+        @Autowired
+        private CommentRepository commentRepository;
+        @Autowired
+        private BookingRepository bookingRepository;
+        @Autowired
+        private ItemBookingSnapshotRepository itemBookingSnapshotRepository;
+
+        private User owner;
+        private Item ownerItem;
+
+        @BeforeEach
+        void setUp() {
+            owner = saveUser("Igor", "igor.budget@yandex.ru");
+            User firstAuthor = saveUser("Kirill", "kirill.budget@yandex.ru");
+            User secondAuthor = saveUser("Oleg", "oleg.budget@yandex.ru");
+            for (int i = 0; i < ITEMS; i++) {
+                ownerItem = itemService.add(owner.getId(), new ItemDtoFromOrToUser(null, "вещь для бюджета " + i,
+                        "описание", true, null));
+                commentRepository.save(new Comment(null, "отзыв", ownerItem, firstAuthor, LocalDateTime.now()));
+                commentRepository.save(new Comment(null, "отзыв", ownerItem, secondAuthor, LocalDateTime.now()));
+                Booking next = bookingRepository.save(new Booking(null, LocalDateTime.now().plusDays(i + 1),
+                        LocalDateTime.now().plusDays(i + 2), ownerItem, firstAuthor, Status.APPROVED));
+                ItemBookingSnapshot snapshot = itemBookingSnapshotRepository.findById(ownerItem.getId()).orElseThrow();
+                snapshot.setNextBooking(next);
+                itemBookingSnapshotRepository.save(snapshot);
+            }
+        }
+
+        @Test
+        void getAllForUserTest_thenItemsCommentsAndBookingsReadByThreeStatements() throws Exception {
+            RequestBuilder request = get("/items")
+                    .header("X-Sharer-User-Id", owner.getId());
+
+            performCold(request)
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$", hasSize(ITEMS)))
+                    .andExpect(jsonPath("$[0].comments", hasSize(2)))
+                    .andExpect(jsonPath("$[0].nextBooking.id").exists())
+                    .andExpect(SqlStatementBudget.atMost(4));
+            SqlStatementBudget.perform(mockMvc, request)
+                    .andExpect(status().isOk())
+                    .andExpect(SqlStatementBudget.atMost(3));
+        }
+
+        @Test
+        void getByIdTest_whenOwner_thenItemCommentsAndBookingsReadByThreeStatements() throws Exception {
+            RequestBuilder request = get("/items/{itemId}", ownerItem.getId())
+                    .header("X-Sharer-User-Id", owner.getId());
+
+            performCold(request)
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.comments", hasSize(2)))
+                    .andExpect(jsonPath("$.nextBooking.id").exists())
+                    .andExpect(SqlStatementBudget.atMost(4));
+            SqlStatementBudget.perform(mockMvc, request)
+                    .andExpect(status().isOk())
+                    .andExpect(SqlStatementBudget.atMost(3));
+        }
+
+        @Test
+        void searchTest_thenFoundItemsReadByOneStatementAndRepeatedSearchCached() throws Exception {
+            RequestBuilder request = get("/items/search")
+                    .header("X-Sharer-User-Id", owner.getId())
+                    .param("text", "для бюджета");
+
+            performCold(request)
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$", hasSize(ITEMS)))
+                    .andExpect(SqlStatementBudget.atMost(1));
+            SqlStatementBudget.perform(mockMvc, request)
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$", hasSize(ITEMS)))
+                    .andExpect(SqlStatementBudget.atMost(0));
+        }
+    }
+}
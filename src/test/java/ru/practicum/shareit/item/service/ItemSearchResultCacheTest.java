@@ -0,0 +1,133 @@
+package ru.practicum.shareit.item.service;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import ru.practicum.shareit.item.dto.ItemDtoFromOrToUser;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.storage.ItemSearchDocument;
+import ru.practicum.shareit.user.model.User;
+import ru.practicum.shareit.user.service.UserDeletedEvent;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class ItemSearchResultCacheTest {
+
+    private final User owner = new User(1L, "Vladimir", "vladimir@yandex.ru");
+    private final Item drill = new Item(1L, "Дрель", "Ударная дрель", true, owner, null);
+    private final Item tent = new Item(2L, "Палатка", "Четырехместная", true, owner, null);
+    private final AtomicInteger loads = new AtomicInteger();
+
+    private SimpleMeterRegistry meterRegistry;
+    private ItemSearchResultCache itemSearchResultCache;
+
+    @BeforeEach
+    void setUp() {
+        CaffeineCacheManager cacheManager = new CaffeineCacheManager();
+        cacheManager.registerCustomCache(ItemSearchResultCache.ITEM_SEARCH_CACHE, Caffeine.newBuilder()
+                .recordStats()
+                .build());
+        meterRegistry = new SimpleMeterRegistry();
+        itemSearchResultCache = new ItemSearchResultCache(cacheManager, meterRegistry);
+    }
+
+    @Test
+    void getTest_whenSameQueryInDifferentCase_thenLoadedOnce() {
+        search("Дрель", drill);
+        List<ItemDtoFromOrToUser> items = search("дРЕЛЬ", drill);
+
+        assertEquals(List.of(toDto(drill)), items);
+        assertEquals(1, loads.get());
+        assertEquals(0.5, meterRegistry.get("cache.hit.ratio").gauge().value());
+    }
+
+    @Test
+    void getTest_whenReturnedDtoChanged_thenCachedPageUnchanged() {
+        search("дрель", drill).get(0).setName("Перфоратор");
+
+        List<ItemDtoFromOrToUser> items = search("дрель", drill);
+
+        assertEquals(List.of(toDto(drill)), items);
+        assertEquals(1, loads.get());
+    }
+
+    @Test
+    void onItemChangedTest_thenOnlyQueriesMatchingItemTextEvicted() {
+        search("дрель", drill);
+        search("палат", tent);
+
+        itemSearchResultCache.onItemChanged(new ItemChangedEvent(
+                new Item(1L, "Дрель", "Новая дрель", true, owner, null),
+                new ItemSearchDocument(1L, 1L, "Дрель", "Ударная дрель")));
+        search("дрель", drill);
+        search("палат", tent);
+
+        assertEquals(3, loads.get());
+        assertEquals(1.0, meterRegistry.get("cache.invalidated.entries").counter().count());
+    }
+
+    @Test
+    void onItemChangedTest_whenItemBecameUnavailable_thenQueriesMatchingPreviousTextEvicted() {
+        search("ударная", drill);
+
+        itemSearchResultCache.onItemChanged(new ItemChangedEvent(
+                new Item(1L, "Перфоратор", "мощный", false, owner, null),
+                new ItemSearchDocument(1L, 1L, "Дрель", "Ударная дрель")));
+        search("ударная");
+
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    void onItemChangedTest_whenItemUnavailableBeforeAndAfter_thenNothingEvicted() {
+        search("дрель", drill);
+
+        itemSearchResultCache.onItemChanged(new ItemChangedEvent(new Item(3L, "Дрель", "Сломана", false, owner, null)));
+        search("дрель", drill);
+
+        assertEquals(1, loads.get());
+    }
+
+    @Test
+    void getTest_whenItemChangedDuringLoad_thenResultNotCached() {
+        itemSearchResultCache.get("дрель", 0, 10, () -> {
+            loads.incrementAndGet();
+            itemSearchResultCache.onItemChanged(new ItemChangedEvent(drill));
+            return List.of();
+        });
+        search("дрель", drill);
+
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    void onUserDeletedTest_thenAllQueriesEvicted() {
+        search("дрель", drill);
+        search("палат", tent);
+
+        itemSearchResultCache.onUserDeleted(new UserDeletedEvent(1L, Set.of()));
+        search("дрель", drill);
+        search("палат", tent);
+
+        assertEquals(4, loads.get());
+    }
+
+    private List<ItemDtoFromOrToUser> search(String text, Item... found) {
+        return itemSearchResultCache.get(text, 0, 10, () -> {
+            loads.incrementAndGet();
+            return Arrays.stream(found).map(this::toDto).collect(Collectors.toList());
+        });
+    }
+
+    private ItemDtoFromOrToUser toDto(Item item) {
+        return new ItemDtoFromOrToUser(item.getId(), item.getName(), item.getDescription(), item.getAvailable(), null);
+    }
+}
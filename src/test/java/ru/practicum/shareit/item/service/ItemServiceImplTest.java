@@ -7,6 +7,7 @@ import org.mockito.Captor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.PageRequest;
 import ru.practicum.shareit.booking.dto.BookingDto;
 import ru.practicum.shareit.booking.dto.mapper.BookingDtoMapper;
@@ -18,21 +19,37 @@ import ru.practicum.shareit.exceptions.ObjectNotFoundException;
 import ru.practicum.shareit.item.dto.CommentDto;
 import ru.practicum.shareit.item.dto.ItemDtoFromOrToUser;
 import ru.practicum.shareit.item.dto.ItemDtoWithComments;
+import ru.practicum.shareit.item.dto.ItemFacetedSearchDto;
 import ru.practicum.shareit.item.dto.mapper.CommentDtoMapper;
 import ru.practicum.shareit.item.dto.mapper.ItemDtoMapper;
 import ru.practicum.shareit.item.model.Comment;
 import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.model.ItemBookingSnapshot;
 import ru.practicum.shareit.item.storage.CommentRepository;
+import ru.practicum.shareit.item.storage.ItemFacetFilter;
+import ru.practicum.shareit.item.storage.ItemFacetIndex;
+import ru.practicum.shareit.item.storage.ItemFacetPage;
+import ru.practicum.shareit.item.storage.ItemBookingSnapshotRepository;
+import ru.practicum.shareit.item.storage.ItemNameSuggester;
+import ru.practicum.shareit.item.storage.ItemRelevanceIndex;
 import ru.practicum.shareit.item.storage.ItemRepository;
+import ru.practicum.shareit.item.storage.ItemSearchDocument;
+import ru.practicum.shareit.item.storage.ItemTextSearch;
 import ru.practicum.shareit.request.model.ItemRequest;
+import ru.practicum.shareit.request.service.ItemRequestFulfilledEvent;
 import ru.practicum.shareit.request.storage.ItemRequestRepository;
 import ru.practicum.shareit.user.model.User;
-import ru.practicum.shareit.user.storage.UserRepository;
+import ru.practicum.shareit.user.service.ActingUserContext;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
@@ -43,7 +60,7 @@ class ItemServiceImplTest {
     @Mock
     private ItemRepository itemRepository;
     @Mock
-    private UserRepository userRepository;
+    private ActingUserContext actingUserContext;
     @Mock
     private BookingService bookingService;
     @Mock
@@ -51,6 +68,20 @@ class ItemServiceImplTest {
     @Mock
     private ItemRequestRepository itemRequestRepository;
     @Mock
+    private ItemBookingSnapshotRepository itemBookingSnapshotRepository;
+    @Mock
+    private ItemTextSearch itemTextSearch;
+    @Mock
+    private ItemRelevanceIndex itemRelevanceIndex;
+    @Mock
+    private ItemNameSuggester itemNameSuggester;
+    @Mock
+    private ItemSearchResultCache itemSearchResultCache;
+    @Mock
+    private ItemFacetIndex itemFacetIndex;
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+    @Mock
     private ItemDtoMapper itemDtoMapper;
     @Mock
     private BookingDtoMapper bookingDtoMapper;
@@ -62,6 +93,8 @@ class ItemServiceImplTest {
     private ArgumentCaptor<Item> itemArgumentCaptor;
     @Captor
     private ArgumentCaptor<Comment> commentArgumentCaptor;
+    @Captor
+    private ArgumentCaptor<ItemChangedEvent> eventArgumentCaptor;
 
 
     private static final long requesterUserId = 1L;
@@ -98,7 +131,8 @@ class ItemServiceImplTest {
     @Test
     void addTest_whenNoUserFound_thenThrowObjectNotFoundException() {
         ItemDtoFromOrToUser itemDtoFromOrToUser = new ItemDtoFromOrToUser(1L, "имя", "описание", true, null);
-        when(userRepository.findById(requesterUserId)).thenReturn(Optional.empty());
+        when(actingUserContext.resolve(requesterUserId))
+                .thenThrow(new ObjectNotFoundException(String.format("Пользователь с id %d не найден", requesterUserId)));
 
         ObjectNotFoundException exception = assertThrows(ObjectNotFoundException.class, () ->
                 itemServiceImpl.add(requesterUserId, itemDtoFromOrToUser));
@@ -112,13 +146,14 @@ class ItemServiceImplTest {
         Item expectedItem = new Item(1L, "имя", "описание", true, null, null);
         Item itemForSave = new Item(1L, "имя", "описание", true, user, null);
         ItemDtoFromOrToUser itemDtoFromOrToUser = new ItemDtoFromOrToUser(1L, "имя", "описание", true, null);
-        when(userRepository.findById(requesterUserId)).thenReturn(Optional.of(user));
+        when(actingUserContext.resolve(requesterUserId)).thenReturn(user);
         when(itemDtoMapper.toItem(itemDtoFromOrToUser)).thenReturn(expectedItem);
         when(itemRepository.save(itemForSave)).thenReturn(itemForSave);
 
         Item savedItem = itemServiceImpl.add(requesterUserId, itemDtoFromOrToUser);
 
         assertEquals(expectedItem, savedItem);
+        verify(eventPublisher).publishEvent(any(ItemChangedEvent.class));
     }
 
     @Test
@@ -128,7 +163,7 @@ class ItemServiceImplTest {
         Item item = new Item(1L, "имя", "описание", true, user, itemRequest);
         ItemDtoFromOrToUser itemDtoFromOrToUser = new ItemDtoFromOrToUser(1L, "имя", "описание", true, itemRequest.getId());
         Long requestId = 1L;
-        when(userRepository.findById(requesterUserId)).thenReturn(Optional.of(user));
+        when(actingUserContext.resolve(requesterUserId)).thenReturn(user);
         when(itemDtoMapper.toItem(itemDtoFromOrToUser)).thenReturn(item);
         when(itemRequestRepository.findById(requestId)).thenReturn(Optional.empty());
 
@@ -146,7 +181,7 @@ class ItemServiceImplTest {
         Item expectedItem = new Item(1L, "имя", "описание", true, user, itemRequest);
         ItemDtoFromOrToUser itemDtoFromOrToUser = new ItemDtoFromOrToUser(1L, "имя", "описание", true, itemRequest.getId());
         Long requestId = 1L;
-        when(userRepository.findById(requesterUserId)).thenReturn(Optional.of(user));
+        when(actingUserContext.resolve(requesterUserId)).thenReturn(user);
         when(itemDtoMapper.toItem(itemDtoFromOrToUser)).thenReturn(item);
         when(itemRequestRepository.findById(requestId)).thenReturn(Optional.of(itemRequest));
         when(itemRepository.save(expectedItem)).thenReturn(expectedItem);
@@ -154,6 +189,7 @@ class ItemServiceImplTest {
         Item savedItem = itemServiceImpl.add(requesterUserId, itemDtoFromOrToUser);
 
         verify(itemRepository, times(1)).save(expectedItem);
+        verify(eventPublisher).publishEvent(any(ItemRequestFulfilledEvent.class));
         assertEquals(expectedItem, savedItem);
     }
 
@@ -161,7 +197,8 @@ class ItemServiceImplTest {
     void updateItemTest_whenUserNotFound_thenThrowObjectNotFoundException() {
         User user = new User(1L, "Vladimir", "vladimir@yandex.ru");
         Item item = new Item(1L, "имя", "описание", true, user, null);
-        when(userRepository.findById(requesterUserId)).thenReturn(Optional.empty());
+        when(actingUserContext.resolve(requesterUserId))
+                .thenThrow(new ObjectNotFoundException(String.format("Пользователь с id %d не найден", requesterUserId)));
 
         ObjectNotFoundException exception = assertThrows(ObjectNotFoundException.class, () ->
                 itemServiceImpl.updateItem(requesterUserId, itemId, item));
@@ -173,7 +210,7 @@ class ItemServiceImplTest {
     void updateItemTest_whenUserFoundAndItemNotFound_henThrowObjectNotFoundException() {
         User user = new User(1L, "Vladimir", "vladimir@yandex.ru");
         Item item = new Item(1L, "имя", "описание", true, user, null);
-        when(userRepository.findById(requesterUserId)).thenReturn(Optional.of(user));
+        when(actingUserContext.resolve(requesterUserId)).thenReturn(user);
         when(itemRepository.findById(itemId)).thenReturn(Optional.empty());
 
         ObjectNotFoundException exception = assertThrows(ObjectNotFoundException.class, () ->
@@ -187,7 +224,7 @@ class ItemServiceImplTest {
         User user = new User(1L, "Vladimir", "vladimir@yandex.ru");
         User owner = new User(2L, "Vladimir", "vladimir@yandex.ru");
         Item item = new Item(1L, "имя", "описание", true, owner, null);
-        when(userRepository.findById(requesterUserId)).thenReturn(Optional.of(user));
+        when(actingUserContext.resolve(requesterUserId)).thenReturn(user);
         when(itemRepository.findById(itemId)).thenReturn(Optional.of(item));
 
 
@@ -202,7 +239,7 @@ class ItemServiceImplTest {
         User user = new User(1L, "Vladimir", "vladimir@yandex.ru");
         Item newItem = new Item(1L, "новое имя", null, null, null, null);
         Item expectedItemAfterUpdate = new Item(1L, "новое имя", "описание", true, user, null);
-        when(userRepository.findById(requesterUserId)).thenReturn(Optional.of(user));
+        when(actingUserContext.resolve(requesterUserId)).thenReturn(user);
         when(itemRepository.findById(itemId)).thenReturn(Optional.of(expectedItemAfterUpdate));
         when(itemRepository.save(expectedItemAfterUpdate)).thenReturn(expectedItemAfterUpdate);
 
@@ -219,7 +256,7 @@ class ItemServiceImplTest {
         User user = new User(1L, "Vladimir", "vladimir@yandex.ru");
         Item newItem = new Item(1L, null, "новое описание", null, null, null);
         Item expectedItemAfterUpdate = new Item(1L, "имя", "новое описание", true, user, null);
-        when(userRepository.findById(requesterUserId)).thenReturn(Optional.of(user));
+        when(actingUserContext.resolve(requesterUserId)).thenReturn(user);
         when(itemRepository.findById(itemId)).thenReturn(Optional.of(expectedItemAfterUpdate));
         when(itemRepository.save(expectedItemAfterUpdate)).thenReturn(expectedItemAfterUpdate);
 
@@ -236,7 +273,7 @@ class ItemServiceImplTest {
         User user = new User(1L, "Vladimir", "vladimir@yandex.ru");
         Item newItem = new Item(1L, null, null, false, null, null);
         Item expectedItemAfterUpdate = new Item(1L, "имя", "описание", false, user, null);
-        when(userRepository.findById(requesterUserId)).thenReturn(Optional.of(user));
+        when(actingUserContext.resolve(requesterUserId)).thenReturn(user);
         when(itemRepository.findById(itemId)).thenReturn(Optional.of(expectedItemAfterUpdate));
         when(itemRepository.save(expectedItemAfterUpdate)).thenReturn(expectedItemAfterUpdate);
 
@@ -246,11 +283,30 @@ class ItemServiceImplTest {
         verify(itemRepository).save(itemArgumentCaptor.capture());
         updatedItem = itemArgumentCaptor.getValue();
         assertEquals(expectedItemAfterUpdate, updatedItem);
+        verify(eventPublisher).publishEvent(any(ItemChangedEvent.class));
+    }
+
+    @Test
+    void updateItemTest_whenAvailableItemUpdated_thenEventContainsPreviousText() {
+        User user = new User(1L, "Vladimir", "vladimir@yandex.ru");
+        Item newItem = new Item(1L, "новое имя", null, false, null, null);
+        Item savedItem = new Item(1L, "имя", "описание", true, user, null);
+        when(actingUserContext.resolve(requesterUserId)).thenReturn(user);
+        when(itemRepository.findById(itemId)).thenReturn(Optional.of(savedItem));
+
+        itemServiceImpl.updateItem(requesterUserId, itemId, newItem);
+
+        verify(eventPublisher).publishEvent(eventArgumentCaptor.capture());
+        ItemChangedEvent event = eventArgumentCaptor.getValue();
+        assertEquals(new ItemSearchDocument(1L, 1L, "имя", "описание"), event.getPrevious());
+        assertEquals("новое имя", event.getItem().getName());
+        assertFalse(event.getItem().getAvailable());
     }
 
     @Test
     void getWithBookingsByIdTest_whenUserNotFound_thenThrowObjectNotFoundException() {
-        when(userRepository.findById(requesterUserId)).thenReturn(Optional.empty());
+        when(actingUserContext.resolve(requesterUserId))
+                .thenThrow(new ObjectNotFoundException(String.format("Пользователь с id %d не найден", requesterUserId)));
 
         ObjectNotFoundException exception = assertThrows(ObjectNotFoundException.class, () ->
                 itemServiceImpl.getWithBookingsById(requesterUserId, itemId));
@@ -261,7 +317,7 @@ class ItemServiceImplTest {
     @Test
     void getWithBookingsByIdTest_whenItemNotFound_thenThrowObjectNotFoundException() {
         User user = new User(1L, "Vladimir", "vladimir@yandex.ru");
-        when(userRepository.findById(requesterUserId)).thenReturn(Optional.of(user));
+        when(actingUserContext.resolve(requesterUserId)).thenReturn(user);
         when(itemRepository.findById(itemId)).thenReturn(Optional.empty());
 
         ObjectNotFoundException exception = assertThrows(ObjectNotFoundException.class, () ->
@@ -281,15 +337,15 @@ class ItemServiceImplTest {
         BookingDto nextBookingDto = new BookingDto(1L, nextBooking.getStart(), nextBooking.getEnd(), item, 1L);
         ItemDtoWithComments expectedItemDtoWithComments = new ItemDtoWithComments(1L, "имя", "описание", true, lastBookingDto, nextBookingDto, Collections.emptyList());
 
-        when(userRepository.findById(requesterUserId)).thenReturn(Optional.of(user));
+        when(actingUserContext.resolve(requesterUserId)).thenReturn(user);
         when(itemRepository.findById(itemId)).thenReturn(Optional.of(item));
         when(itemDtoMapper.toItemDtoWithComments(item, Collections.emptyList(), lastBookingDto, nextBookingDto)).thenReturn(expectedItemDtoWithComments);
         when(commentDtoMapper.toCommentDtoList(anyList())).thenReturn(Collections.emptyList());
         when(commentRepository.findAllByItem(item)).thenReturn(Collections.emptyList());
-        when(bookingService.getLastOrNextBooking(item, true)).thenReturn(lastBooking);
-        when(bookingService.getLastOrNextBooking(item, false)).thenReturn(nextBooking);
-        when(bookingDtoMapper.toBookingDtoWithBookerId(lastBooking)).thenReturn(lastBookingDto);
-        when(bookingDtoMapper.toBookingDtoWithBookerId(nextBooking)).thenReturn(nextBookingDto);
+        ItemBookingSnapshot snapshot = snapshotOf(item, lastBooking, nextBooking);
+        when(itemBookingSnapshotRepository.findById(itemId)).thenReturn(Optional.of(snapshot));
+        when(bookingDtoMapper.toLastBookingDto(snapshot, item)).thenReturn(lastBookingDto);
+        when(bookingDtoMapper.toNextBookingDto(snapshot, item)).thenReturn(nextBookingDto);
 
         ItemDtoWithComments savedItemDtoWithComments = itemServiceImpl.getWithBookingsById(requesterUserId, itemId);
 
@@ -305,15 +361,15 @@ class ItemServiceImplTest {
         CommentDto commentDto = new CommentDto(1L, "текст", user.getName(), LocalDateTime.of(2025, 10, 20, 10, 10, 10));
         ItemDtoWithComments expectedItemDtoWithComments = new ItemDtoWithComments(1L, "имя", "описание", true, null, null, List.of(commentDto));
 
-        when(userRepository.findById(requesterUserId)).thenReturn(Optional.of(user));
+        when(actingUserContext.resolve(requesterUserId)).thenReturn(user);
         when(itemRepository.findById(itemId)).thenReturn(Optional.of(item));
         when(itemDtoMapper.toItemDtoWithComments(item, List.of(commentDto), null, null)).thenReturn(expectedItemDtoWithComments);
         when(commentDtoMapper.toCommentDtoList(anyList())).thenReturn(List.of(commentDto));
         when(commentRepository.findAllByItem(item)).thenReturn(List.of(comment));
-        when(bookingService.getLastOrNextBooking(item, true)).thenReturn(null);
-        when(bookingService.getLastOrNextBooking(item, false)).thenReturn(null);
-        when(bookingDtoMapper.toBookingDtoWithBookerId(null)).thenReturn(null);
-        when(bookingDtoMapper.toBookingDtoWithBookerId(null)).thenReturn(null);
+        ItemBookingSnapshot snapshot = snapshotOf(item, null, null);
+        when(itemBookingSnapshotRepository.findById(itemId)).thenReturn(Optional.of(snapshot));
+        when(bookingDtoMapper.toLastBookingDto(snapshot, item)).thenReturn(null);
+        when(bookingDtoMapper.toNextBookingDto(snapshot, item)).thenReturn(null);
 
         ItemDtoWithComments savedItemDtoWithComments = itemServiceImpl.getWithBookingsById(requesterUserId, itemId);
 
@@ -333,15 +389,15 @@ class ItemServiceImplTest {
         CommentDto commentDto = new CommentDto(1L, "текст", user.getName(), LocalDateTime.of(2025, 10, 20, 10, 10, 10));
         ItemDtoWithComments expectedItemDtoWithComments = new ItemDtoWithComments(1L, "имя", "описание", true, lastBookingDto, nextBookingDto, List.of(commentDto));
 
-        when(userRepository.findById(requesterUserId)).thenReturn(Optional.of(user));
+        when(actingUserContext.resolve(requesterUserId)).thenReturn(user);
         when(itemRepository.findById(itemId)).thenReturn(Optional.of(item));
         when(itemDtoMapper.toItemDtoWithComments(item, List.of(commentDto), lastBookingDto, nextBookingDto)).thenReturn(expectedItemDtoWithComments);
         when(commentDtoMapper.toCommentDtoList(anyList())).thenReturn(List.of(commentDto));
         when(commentRepository.findAllByItem(item)).thenReturn(List.of(comment));
-        when(bookingService.getLastOrNextBooking(item, true)).thenReturn(lastBooking);
-        when(bookingService.getLastOrNextBooking(item, false)).thenReturn(nextBooking);
-        when(bookingDtoMapper.toBookingDtoWithBookerId(lastBooking)).thenReturn(lastBookingDto);
-        when(bookingDtoMapper.toBookingDtoWithBookerId(nextBooking)).thenReturn(nextBookingDto);
+        ItemBookingSnapshot snapshot = snapshotOf(item, lastBooking, nextBooking);
+        when(itemBookingSnapshotRepository.findById(itemId)).thenReturn(Optional.of(snapshot));
+        when(bookingDtoMapper.toLastBookingDto(snapshot, item)).thenReturn(lastBookingDto);
+        when(bookingDtoMapper.toNextBookingDto(snapshot, item)).thenReturn(nextBookingDto);
 
         ItemDtoWithComments savedItemDtoWithComments = itemServiceImpl.getWithBookingsById(requesterUserId, itemId);
 
@@ -357,7 +413,7 @@ class ItemServiceImplTest {
         CommentDto commentDto = new CommentDto(1L, "текст", user.getName(), LocalDateTime.of(2025, 10, 20, 10, 10, 10));
         ItemDtoWithComments expectedItemDtoWithComments = new ItemDtoWithComments(1L, "имя", "описание", true, null, null, List.of(commentDto));
         long requesterUserId = 2L;
-        when(userRepository.findById(requesterUserId)).thenReturn(Optional.of(user));
+        when(actingUserContext.resolve(requesterUserId)).thenReturn(user);
         when(itemRepository.findById(itemId)).thenReturn(Optional.of(item));
         when(itemDtoMapper.toItemDtoWithComments(item, List.of(commentDto), null, null)).thenReturn(expectedItemDtoWithComments);
         when(commentDtoMapper.toCommentDtoList(anyList())).thenReturn(List.of(commentDto));
@@ -371,7 +427,8 @@ class ItemServiceImplTest {
     @Test
     void addCommentTest_whenUserNotFound_thenThrowObjectNotFoundException() {
         Comment comment = new Comment(1L, "текст", null, null, LocalDateTime.of(2025, 10, 20, 10, 10, 10));
-        when(userRepository.findById(requesterUserId)).thenReturn(Optional.empty());
+        when(actingUserContext.resolve(requesterUserId))
+                .thenThrow(new ObjectNotFoundException(String.format("Пользователь с id %d не найден", requesterUserId)));
 
         ObjectNotFoundException exception = assertThrows(ObjectNotFoundException.class, () ->
                 itemServiceImpl.addComment(requesterUserId, itemId, comment));
@@ -383,7 +440,7 @@ class ItemServiceImplTest {
     void addCommentTest_whenItemNotFound_thenThrowObjectNotFoundException() {
         User user = new User(1L, "Vladimir", "vladimir@yandex.ru");
         Comment comment = new Comment(1L, "текст", null, user, LocalDateTime.of(2025, 10, 20, 10, 10, 10));
-        when(userRepository.findById(requesterUserId)).thenReturn(Optional.of(user));
+        when(actingUserContext.resolve(requesterUserId)).thenReturn(user);
         when(itemRepository.findById(itemId)).thenReturn(Optional.empty());
 
         ObjectNotFoundException exception = assertThrows(ObjectNotFoundException.class, () ->
@@ -399,7 +456,7 @@ class ItemServiceImplTest {
         Item item = new Item(1L, "имя", "описание", true, user, itemRequest);
         Comment comment = new Comment(1L, "текст", item, user, LocalDateTime.of(2025, 10, 20, 10, 10, 10));
 
-        when(userRepository.findById(requesterUserId)).thenReturn(Optional.of(user));
+        when(actingUserContext.resolve(requesterUserId)).thenReturn(user);
         when(itemRepository.findById(itemId)).thenReturn(Optional.of(item));
         when(bookingService.checkIfUserRentedItem(user, item)).thenReturn(false);
 
@@ -417,7 +474,7 @@ class ItemServiceImplTest {
         Comment comment = new Comment(1L, "текст", null, null, LocalDateTime.of(2025, 10, 20, 10, 10, 10));
         Comment expectedComment = new Comment(1L, "текст", item, user, LocalDateTime.of(2025, 10, 20, 10, 10, 10));
 
-        when(userRepository.findById(requesterUserId)).thenReturn(Optional.of(user));
+        when(actingUserContext.resolve(requesterUserId)).thenReturn(user);
         when(itemRepository.findById(itemId)).thenReturn(Optional.of(item));
         when(bookingService.checkIfUserRentedItem(user, item)).thenReturn(true);
         when(commentRepository.save(expectedComment)).thenReturn(expectedComment);
@@ -433,47 +490,121 @@ class ItemServiceImplTest {
 
     @Test
     void searchTest_whenTestIsBlank_thenReturnEmptyList() {
-        List<Item> itemsList = itemServiceImpl.search(requesterUserId, "", 0, 1);
+        List<ItemDtoFromOrToUser> itemsList = itemServiceImpl.search(requesterUserId, "", 0, 1);
         assertTrue(itemsList.isEmpty());
     }
 
     @Test
     void searchTest_whenItemFound_thenReturnListOfItem() {
-        User user = new User(1L, "Vladimir", "vladimir@yandex.ru");
-        Item expectedItem = new Item(1L, "имя", "описание", true, user, null);
+        ItemDtoFromOrToUser expectedItem = new ItemDtoFromOrToUser(1L, "имя", "описание", true, null);
         String text = "text";
         int page = 0;
         int size = 1;
-        when(itemRepository.findAllContainingTextWithAvailableStatus(text, PageRequest.of(page, size))).thenReturn(List.of(expectedItem));
+        when(itemTextSearch.search(text, page, size)).thenReturn(List.of(expectedItem));
+        when(itemSearchResultCache.get(eq(text), eq(page), eq(size), any()))
+                .thenAnswer(invocation -> invocation.<Supplier<List<ItemDtoFromOrToUser>>>getArgument(3).get());
 
-        List<Item> items = itemServiceImpl.search(requesterUserId, "text", 0, 1);
+        List<ItemDtoFromOrToUser> items = itemServiceImpl.search(requesterUserId, "text", 0, 1);
 
         assertEquals(List.of(expectedItem), items);
     }
 
+    @Test
+    void searchByRelevanceTest_whenTextIsBlank_thenReturnEmptyList() {
+        List<ItemDtoFromOrToUser> itemsList = itemServiceImpl.searchByRelevance(requesterUserId, " ", 0, 1);
+
+        assertTrue(itemsList.isEmpty());
+        verifyNoInteractions(itemRelevanceIndex);
+    }
 
     @Test
-    void findItemsForRequestTest_whenItemsFound_thenReturnListOfItems() {
-        long requestId = 1;
-        User user = new User(1L, "Vladimir", "vladimir@yandex.ru");
-        ItemRequest itemRequest = new ItemRequest(1L, "описание", user, LocalDateTime.now());
-        Item expectedItem = new Item(1L, "имя", "описание", true, user, itemRequest);
-        when(itemRequestRepository.findById(requestId)).thenReturn(Optional.of(itemRequest));
-        when(itemRepository.findAllByRequest(itemRequest)).thenReturn(List.of(expectedItem));
+    void searchByRelevanceTest_whenItemsFound_thenReturnItemsInRelevanceOrder() {
+        ItemDtoFromOrToUser firstItem = new ItemDtoFromOrToUser(2L, "дрель", "описание", true, null);
+        ItemDtoFromOrToUser secondItem = new ItemDtoFromOrToUser(1L, "отвертка", "к дрели", true, null);
+        when(itemRelevanceIndex.search("дрель", 10, 10)).thenReturn(List.of(2L, 1L));
+        when(itemRepository.findAllDtoByIdInOrder(List.of(2L, 1L))).thenReturn(List.of(firstItem, secondItem));
 
-        List<Item> items = itemServiceImpl.findItemsForRequest(requestId);
+        List<ItemDtoFromOrToUser> items = itemServiceImpl.searchByRelevance(requesterUserId, "дрель", 1, 10);
 
-        assertEquals(List.of(expectedItem), items);
+        assertEquals(List.of(firstItem, secondItem), items);
     }
 
     @Test
-    void findItemsForRequestsTest_whenItemsFound_thenReturnListOfItems() {
-        User user = new User(1L, "Vladimir", "vladimir@yandex.ru");
-        ItemRequest itemRequest = new ItemRequest(1L, "описание", user, LocalDateTime.now());
-        Item expectedItem = new Item(1L, "имя", "описание", true, user, itemRequest);
-        when(itemRepository.findAllByRequestIn(anyList())).thenReturn(List.of(expectedItem));
+    void suggestNamesTest_whenPrefixIsBlank_thenReturnEmptyList() {
+        List<String> names = itemServiceImpl.suggestNames(requesterUserId, "", 10);
 
-        List<Item> items = itemServiceImpl.findItemsForRequests(List.of(itemRequest));
+        assertTrue(names.isEmpty());
+        verifyNoInteractions(itemNameSuggester);
+    }
+
+    @Test
+    void suggestNamesTest_whenNamesFound_thenReturnNames() {
+        when(itemNameSuggester.suggest("дре", 5)).thenReturn(List.of("Дрель", "Дрель аккумуляторная"));
+
+        List<String> names = itemServiceImpl.suggestNames(requesterUserId, "дре", 5);
+
+        assertEquals(List.of("Дрель", "Дрель аккумуляторная"), names);
+    }
+
+    @Test
+    void streamSearchTest_whenItemsFound_thenConsumerReceivesItemsAndStreamClosed() {
+        ItemDtoFromOrToUser first = new ItemDtoFromOrToUser(1L, "дрель", "описание", true, null);
+        ItemDtoFromOrToUser second = new ItemDtoFromOrToUser(2L, "дрель", "описание", true, 1L);
+        AtomicBoolean closed = new AtomicBoolean();
+        when(itemRepository.streamAllContainingTextWithAvailableStatus("дрель"))
+                .thenReturn(Stream.of(first, second).onClose(() -> closed.set(true)));
+        List<ItemDtoFromOrToUser> received = new ArrayList<>();
+
+        itemServiceImpl.streamSearch(requesterUserId, "дрель", received::add);
+
+        assertEquals(List.of(first, second), received);
+        assertTrue(closed.get());
+    }
+
+    @Test
+    void streamSearchTest_whenTextIsBlank_thenNothingStreamed() {
+        List<ItemDtoFromOrToUser> received = new ArrayList<>();
+
+        itemServiceImpl.streamSearch(requesterUserId, "", received::add);
+
+        assertTrue(received.isEmpty());
+        verifyNoInteractions(itemRepository);
+    }
+
+    @Test
+    void facetedSearchTest_whenTextGiven_thenFacetIndexSearchesTextMatches() {
+        ItemDtoFromOrToUser itemDto = new ItemDtoFromOrToUser(3L, "дрель", "описание", true, null);
+        ItemFacetFilter filter = new ItemFacetFilter(1L, true, null, null);
+        Map<String, Map<String, Integer>> facets = Map.of(ItemFacetIndex.AVAILABLE_FACET, Map.of("true", 1, "false", 1));
+        when(itemRepository.findAllIdsContainingText("дрель")).thenReturn(List.of(3L, 4L));
+        when(itemFacetIndex.search(ItemFacetIndex.toBitSet(List.of(3L, 4L)), filter, 20, 20))
+                .thenReturn(new ItemFacetPage(List.of(3L), 21, facets));
+        when(itemRepository.findAllDtoByIdInOrder(List.of(3L))).thenReturn(List.of(itemDto));
+
+        ItemFacetedSearchDto result = itemServiceImpl.facetedSearch(requesterUserId, "дрель", filter, 1, 20);
+
+        assertEquals(new ItemFacetedSearchDto(List.of(itemDto), 21, facets), result);
+    }
+
+    @Test
+    void facetedSearchTest_whenTextIsBlank_thenAllItemsAreCandidates() {
+        ItemFacetFilter filter = new ItemFacetFilter();
+        when(itemFacetIndex.search(null, filter, 0, 20)).thenReturn(new ItemFacetPage(List.of(), 0, Map.of()));
+        when(itemRepository.findAllDtoByIdInOrder(List.of())).thenReturn(List.of());
+
+        ItemFacetedSearchDto result = itemServiceImpl.facetedSearch(requesterUserId, " ", filter, 0, 20);
+
+        assertTrue(result.getItems().isEmpty());
+        verify(itemRepository, never()).findAllIdsContainingText(anyString());
+    }
+
+    @Test
+    void findItemsForRequestTest_whenItemsFound_thenReturnListOfItems() {
+        long requestId = 1;
+        ItemDtoFromOrToUser expectedItem = new ItemDtoFromOrToUser(1L, "имя", "описание", true, requestId);
+        when(itemRepository.findAllDtoByRequestId(requestId)).thenReturn(List.of(expectedItem));
+
+        List<ItemDtoFromOrToUser> items = itemServiceImpl.findItemsForRequest(requestId);
 
         assertEquals(List.of(expectedItem), items);
     }
@@ -503,7 +634,8 @@ class ItemServiceImplTest {
 
     @Test
     void getAllForUserPageableTest_whenUserNotFound_ThenReturnEmptyList() {
-        when(userRepository.findById(requesterUserId)).thenReturn(Optional.empty());
+        when(actingUserContext.resolve(requesterUserId))
+                .thenThrow(new ObjectNotFoundException(String.format("Пользователь с id %d не найден", requesterUserId)));
 
         ObjectNotFoundException exception = assertThrows(ObjectNotFoundException.class, () ->
                 itemServiceImpl.getAllForUserPageable(requesterUserId, 0, 1));
@@ -516,7 +648,7 @@ class ItemServiceImplTest {
         User user = new User(1L, "Vladimir", "vladimir@yandex.ru");
         int page = 0;
         int size = 1;
-        when(userRepository.findById(requesterUserId)).thenReturn(Optional.of(user));
+        when(actingUserContext.resolve(requesterUserId)).thenReturn(user);
         when(itemRepository.findAllByOwner(user, PageRequest.of(page, size))).thenReturn(Collections.emptyList());
 
         List<ItemDtoWithComments> resultList = itemServiceImpl.getAllForUserPageable(requesterUserId, 0, 1);
@@ -533,13 +665,15 @@ class ItemServiceImplTest {
         ItemDtoWithComments expectedItemDtoWithComments = new ItemDtoWithComments(1L, "имя", "описание", true, null, null, List.of(commentDto));
         int page = 0;
         int size = 1;
-        when(userRepository.findById(requesterUserId)).thenReturn(Optional.of(user));
+        when(actingUserContext.resolve(requesterUserId)).thenReturn(user);
         when(itemRepository.findAllByOwner(user, PageRequest.of(page, size))).thenReturn(List.of(item));
         when(commentRepository.findAllByItemIn(List.of(item))).thenReturn(List.of(comment));
-        when(bookingService.findAllLastAndNextBookingsForItems(List.of(item), page, size)).thenReturn(Collections.emptyList());
+        ItemBookingSnapshot snapshot = snapshotOf(item, null, null);
+        when(itemBookingSnapshotRepository.findAllById(List.of(item.getId()))).thenReturn(List.of(snapshot));
         when(itemDtoMapper.toItemDtoWithComments(item, List.of(commentDto), null, null)).thenReturn(expectedItemDtoWithComments);
         when(commentDtoMapper.toCommentDtoList(List.of(comment))).thenReturn(List.of(commentDto));
-        when(bookingDtoMapper.toBookingDtoWithBookerId(null)).thenReturn(null);
+        when(bookingDtoMapper.toLastBookingDto(snapshot, item)).thenReturn(null);
+        when(bookingDtoMapper.toNextBookingDto(snapshot, item)).thenReturn(null);
 
         List<ItemDtoWithComments> resultList = itemServiceImpl.getAllForUserPageable(requesterUserId, 0, 1);
 
@@ -559,17 +693,26 @@ class ItemServiceImplTest {
         ItemDtoWithComments expectedItemDtoWithComments = new ItemDtoWithComments(1L, "имя", "описание", true, lastBookingDto, nextBookingDto, List.of(commentDto));
         int page = 0;
         int size = 1;
-        when(userRepository.findById(requesterUserId)).thenReturn(Optional.of(user));
+        when(actingUserContext.resolve(requesterUserId)).thenReturn(user);
         when(itemRepository.findAllByOwner(user, PageRequest.of(page, size))).thenReturn(List.of(item));
         when(commentRepository.findAllByItemIn(List.of(item))).thenReturn(List.of(comment));
-        when(bookingService.findAllLastAndNextBookingsForItems(List.of(item), page, size)).thenReturn(List.of(lastBooking, nextBooking));
+        ItemBookingSnapshot snapshot = snapshotOf(item, lastBooking, nextBooking);
+        when(itemBookingSnapshotRepository.findAllById(List.of(item.getId()))).thenReturn(List.of(snapshot));
         when(itemDtoMapper.toItemDtoWithComments(item, List.of(commentDto), lastBookingDto, nextBookingDto)).thenReturn(expectedItemDtoWithComments);
         when(commentDtoMapper.toCommentDtoList(List.of(comment))).thenReturn(List.of(commentDto));
-        when(bookingDtoMapper.toBookingDtoWithBookerId(lastBooking)).thenReturn(lastBookingDto);
-        when(bookingDtoMapper.toBookingDtoWithBookerId(nextBooking)).thenReturn(nextBookingDto);
+        when(bookingDtoMapper.toLastBookingDto(snapshot, item)).thenReturn(lastBookingDto);
+        when(bookingDtoMapper.toNextBookingDto(snapshot, item)).thenReturn(nextBookingDto);
 
         List<ItemDtoWithComments> resultList = itemServiceImpl.getAllForUserPageable(requesterUserId, 0, 1);
 
         assertEquals(List.of(expectedItemDtoWithComments), resultList);
     }
-}
\ No newline at end of file
+
+    private ItemBookingSnapshot snapshotOf(Item item, Booking lastBooking, Booking nextBooking) {
+        ItemBookingSnapshot snapshot = new ItemBookingSnapshot();
+        snapshot.setId(item.getId());
+        snapshot.setLastBooking(lastBooking);
+        snapshot.setNextBooking(nextBooking);
+        return snapshot;
+    }
+}
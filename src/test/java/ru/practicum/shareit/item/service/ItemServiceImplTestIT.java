@@ -15,7 +15,7 @@ import javax.persistence.TypedQuery;
 
 @Transactional
 @SpringBootTest(
-        properties = {"db.name=shareItTest", "spring.sql.init.schema-locations=classpath:schema_test.sql"},
+        properties = {"db.name=shareItTest"},
         webEnvironment = SpringBootTest.WebEnvironment.NONE)
 @RequiredArgsConstructor(onConstructor_ = @Autowired)
 class ItemServiceImplTestIT {
@@ -0,0 +1,92 @@
+package ru.practicum.shareit.item.storage;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.data.domain.PageRequest;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.model.ItemBookingSnapshot;
+import ru.practicum.shareit.user.model.User;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataJpaTest(properties = {"db.name=shareItTest"})
+class ItemBookingSnapshotRepositoryIT {
+
+    private static final LocalDateTime NOW = LocalDateTime.of(2024, 1, 1, 0, 0, 0);
+
+    @Autowired
+    private ItemBookingSnapshotRepository itemBookingSnapshotRepository;
+    @Autowired
+    private TestEntityManager testEntityManager;
+
+    private User booker;
+    private Item item;
+
+    @BeforeEach
+    void setUp() {
+        User owner = testEntityManager.persist(new User(null, "Igor", "igor@yandex.ru"));
+        booker = testEntityManager.persist(new User(null, "Kirill", "kirill@yandex.ru"));
+        item = testEntityManager.persist(new Item(null, "имя", "описание", true, owner, null));
+        testEntityManager.flush();
+    }
+
+    @Test
+    void findByIdTest_whenItemCreated_thenSnapshotIsEmpty() {
+        ItemBookingSnapshot snapshot = itemBookingSnapshotRepository.findById(item.getId()).orElseThrow();
+
+        assertThat(snapshot.getLastBookingId()).isNull();
+        assertThat(snapshot.getNextBookingId()).isNull();
+    }
+
+    @Test
+    void offerNextBookingTest_whenEarlierBookingOffered_thenItReplacesNext() {
+        itemBookingSnapshotRepository.offerNextBooking(item.getId(), 1L, NOW.plusDays(5), NOW.plusDays(6),
+                booker.getId());
+        int replaced = itemBookingSnapshotRepository.offerNextBooking(item.getId(), 2L, NOW.plusDays(2),
+                NOW.plusDays(3), booker.getId());
+        int ignored = itemBookingSnapshotRepository.offerNextBooking(item.getId(), 3L, NOW.plusDays(4),
+                NOW.plusDays(5), booker.getId());
+        testEntityManager.clear();
+
+        ItemBookingSnapshot snapshot = itemBookingSnapshotRepository.findById(item.getId()).orElseThrow();
+        assertThat(replaced).isEqualTo(1);
+        assertThat(ignored).isZero();
+        assertThat(snapshot.getNextBookingId()).isEqualTo(2L);
+        assertThat(snapshot.getNextBookingStart()).isEqualTo(NOW.plusDays(2));
+        assertThat(snapshot.getNextBookerId()).isEqualTo(booker.getId());
+    }
+
+    @Test
+    void offerLastBookingTest_whenLaterBookingOffered_thenItReplacesLast() {
+        itemBookingSnapshotRepository.offerLastBooking(item.getId(), 1L, NOW.minusDays(5), NOW.minusDays(4),
+                booker.getId());
+        itemBookingSnapshotRepository.offerLastBooking(item.getId(), 2L, NOW.minusDays(1), NOW,
+                booker.getId());
+        testEntityManager.clear();
+
+        ItemBookingSnapshot snapshot = itemBookingSnapshotRepository.findById(item.getId()).orElseThrow();
+        assertThat(snapshot.getLastBookingId()).isEqualTo(2L);
+        assertThat(snapshot.getLastBookingEnd()).isEqualTo(NOW);
+    }
+
+    @Test
+    void findAllByNextBookingStartBeforeTest_whenNextBookingStarted_thenReturnSnapshot() {
+        itemBookingSnapshotRepository.offerNextBooking(item.getId(), 1L, NOW.plusHours(1), NOW.plusHours(2),
+                booker.getId());
+        testEntityManager.clear();
+
+        List<ItemBookingSnapshot> notStarted = itemBookingSnapshotRepository.findAllByNextBookingStartBefore(NOW,
+                PageRequest.of(0, 10));
+        List<ItemBookingSnapshot> started = itemBookingSnapshotRepository.findAllByNextBookingStartBefore(
+                NOW.plusHours(1), PageRequest.of(0, 10));
+
+        assertThat(notStarted).isEmpty();
+        assertThat(started).extracting(ItemBookingSnapshot::getId).containsExactly(item.getId());
+    }
+}
@@ -0,0 +1,74 @@
+package ru.practicum.shareit.item.storage;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.service.ItemChangedEvent;
+import ru.practicum.shareit.request.model.ItemRequest;
+import ru.practicum.shareit.user.model.User;
+import ru.practicum.shareit.user.service.UserDeletedEvent;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Set;
+
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class ItemCatalogueTest {
+
+    @Mock
+    private ItemRepository itemRepository;
+    @Mock
+    private ItemCatalogueListener searchIndex;
+    @Mock
+    private ItemCatalogueListener facetIndex;
+
+    private ItemCatalogue itemCatalogue;
+
+    @BeforeEach
+    void setUp() {
+        itemCatalogue = new ItemCatalogue(itemRepository, List.of(searchIndex, facetIndex));
+    }
+
+    @Test
+    void loadTest_thenItemsReadOnceAndPassedToEveryListener() {
+        List<ItemCatalogueEntry> items = List.of(
+                new ItemCatalogueEntry(1L, 1L, "Дрель", "Ударная", true, null, LocalDateTime.now()));
+        when(itemRepository.findAllCatalogueEntries()).thenReturn(items);
+
+        itemCatalogue.load();
+
+        verify(itemRepository).findAllCatalogueEntries();
+        verify(searchIndex).catalogueLoaded(items);
+        verify(facetIndex).catalogueLoaded(items);
+    }
+
+    @Test
+    void onItemChangedTest_thenEveryListenerGetsEntry() {
+        User owner = new User(1L, "Vladimir", "vladimir@yandex.ru");
+        ItemRequest request = new ItemRequest(7L, "Нужна дрель", new User(2L, "Ilya", "ilya@yandex.ru"),
+                LocalDateTime.now());
+        ItemCatalogueEntry entry = new ItemCatalogueEntry(5L, 1L, "Дрель", "Ударная", false, 7L, null);
+
+        itemCatalogue.onItemChanged(new ItemChangedEvent(new Item(5L, "Дрель", "Ударная", false, owner, request)));
+
+        verify(searchIndex).itemChanged(entry);
+        verify(facetIndex).itemChanged(entry);
+        verifyNoInteractions(itemRepository);
+    }
+
+    @Test
+    void onUserDeletedTest_thenEveryListenerGetsDeletedItemIds() {
+        itemCatalogue.onUserDeleted(new UserDeletedEvent(1L, Set.of(1L, 3L)));
+
+        verify(searchIndex).itemsDeleted(Set.of(1L, 3L));
+        verify(facetIndex).itemsDeleted(Set.of(1L, 3L));
+        verifyNoInteractions(itemRepository);
+    }
+}
@@ -0,0 +1,135 @@
+package ru.practicum.shareit.item.storage;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import ru.practicum.shareit.item.enums.ItemRecency;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.request.model.ItemRequest;
+import ru.practicum.shareit.user.model.User;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class ItemFacetIndexTest {
+
+    private final ItemFacetIndex itemFacetIndex = new ItemFacetIndex();
+
+    @BeforeEach
+    void setUp() {
+        LocalDateTime now = LocalDateTime.now();
+        itemFacetIndex.catalogueLoaded(List.of(
+                new ItemCatalogueEntry(1L, 1L, "Дрель", "описание", true, null, now.minusDays(40)),
+                new ItemCatalogueEntry(2L, 1L, "Палатка", "описание", false, 7L, now.minusDays(3)),
+                new ItemCatalogueEntry(3L, 2L, "Пила", "описание", true, 7L, now.minusHours(1)),
+                new ItemCatalogueEntry(4L, 2L, "Лестница", "описание", true, null, now.minusDays(10))));
+    }
+
+    @Test
+    void searchTest_whenNoFilters_thenAllItemsAndFullCounts() {
+        ItemFacetPage page = itemFacetIndex.search(null, new ItemFacetFilter(), 0, 10);
+
+        assertEquals(List.of(1L, 2L, 3L, 4L), page.getItemIds());
+        assertEquals(4, page.getTotal());
+        assertEquals(Map.of("1", 2, "2", 2), page.getFacets().get(ItemFacetIndex.OWNER_FACET));
+        assertEquals(Map.of("true", 3, "false", 1), page.getFacets().get(ItemFacetIndex.AVAILABLE_FACET));
+        assertEquals(Map.of("true", 2, "false", 2), page.getFacets().get(ItemFacetIndex.HAS_REQUEST_FACET));
+        assertEquals(Map.of("DAY", 1, "WEEK", 2, "MONTH", 3), page.getFacets().get(ItemFacetIndex.CREATED_WITHIN_FACET));
+    }
+
+    @Test
+    void searchTest_whenFiltersSet_thenEachFacetCountedWithoutItsOwnFilter() {
+        ItemFacetPage page = itemFacetIndex.search(null, new ItemFacetFilter(2L, true, null, ItemRecency.WEEK), 0, 10);
+
+        assertEquals(List.of(3L), page.getItemIds());
+        assertEquals(1, page.getTotal());
+        assertEquals(Map.of("2", 1), page.getFacets().get(ItemFacetIndex.OWNER_FACET));
+        assertEquals(Map.of("true", 1, "false", 0), page.getFacets().get(ItemFacetIndex.AVAILABLE_FACET));
+        assertEquals(Map.of("true", 1, "false", 0), page.getFacets().get(ItemFacetIndex.HAS_REQUEST_FACET));
+        assertEquals(Map.of("DAY", 1, "WEEK", 1, "MONTH", 2), page.getFacets().get(ItemFacetIndex.CREATED_WITHIN_FACET));
+    }
+
+    @Test
+    void searchTest_whenCandidatesAndPage_thenPageOfCandidatesInIdOrder() {
+        ItemFacetPage page = itemFacetIndex.search(ItemFacetIndex.toBitSet(List.of(4L, 2L, 1L, 99L)),
+                new ItemFacetFilter(null, null, false, null), 1, 1);
+
+        assertEquals(List.of(4L), page.getItemIds());
+        assertEquals(2, page.getTotal());
+        assertEquals(Map.of("true", 1, "false", 2), page.getFacets().get(ItemFacetIndex.HAS_REQUEST_FACET));
+    }
+
+    @Test
+    void itemChangedTest_whenNewItemAndToggledItem_thenCountsUpdated() {
+        User owner = new User(3L, "Vladimir", "vladimir@yandex.ru");
+        ItemRequest request = new ItemRequest(7L, "описание", owner, LocalDateTime.now());
+
+        itemFacetIndex.itemChanged(ItemCatalogueEntry.of(new Item(5L, "Дрель", "описание", true, owner, request)));
+        itemFacetIndex.itemChanged(ItemCatalogueEntry.of(new Item(2L, "Палатка", "описание", true,
+                new User(1L, "Igor", "igor@yandex.ru"), request)));
+        ItemFacetPage page = itemFacetIndex.search(null, new ItemFacetFilter(null, true, true, ItemRecency.DAY), 0, 10);
+
+        assertEquals(List.of(3L, 5L), page.getItemIds());
+        assertEquals(Map.of("true", 2, "false", 0), page.getFacets().get(ItemFacetIndex.AVAILABLE_FACET));
+        assertEquals(Map.of("DAY", 2, "WEEK", 3, "MONTH", 3), page.getFacets().get(ItemFacetIndex.CREATED_WITHIN_FACET));
+    }
+
+    @Test
+    void itemsDeletedTest_thenOwnerItemsRemoved() {
+        itemFacetIndex.itemsDeleted(Set.of(1L, 2L));
+
+        ItemFacetPage page = itemFacetIndex.search(null, new ItemFacetFilter(), 0, 10);
+
+        assertEquals(List.of(3L, 4L), page.getItemIds());
+        assertEquals(Map.of("2", 2), page.getFacets().get(ItemFacetIndex.OWNER_FACET));
+    }
+
+    @Test
+    void itemsDeletedTest_whenOtherOwnersItemAnsweredUsersRequest_thenItemRemoved() {
+        itemFacetIndex.itemsDeleted(Set.of(3L));
+
+        ItemFacetPage page = itemFacetIndex.search(null, new ItemFacetFilter(), 0, 10);
+
+        assertEquals(List.of(1L, 2L, 4L), page.getItemIds());
+        assertEquals(Map.of("true", 1, "false", 2), page.getFacets().get(ItemFacetIndex.HAS_REQUEST_FACET));
+    }
+
+    @Test
+    void searchTest_whenFewCandidatesAmongManyItems_thenOwnersCountedByCandidates() {
+        LocalDateTime now = LocalDateTime.now();
+        List<ItemCatalogueEntry> catalogue = new ArrayList<>();
+        for (long id = 1; id <= 100; id++) {
+            catalogue.add(new ItemCatalogueEntry(id, id % 3, "Дрель", "описание", true, null, now.minusDays(id)));
+        }
+        itemFacetIndex.catalogueLoaded(catalogue);
+
+        ItemFacetPage page = itemFacetIndex.search(ItemFacetIndex.toBitSet(List.of(3L, 4L, 9L)),
+                new ItemFacetFilter(), 0, 10);
+
+        assertEquals(List.of(3L, 4L, 9L), page.getItemIds());
+        assertEquals(Map.of("0", 2, "1", 1), page.getFacets().get(ItemFacetIndex.OWNER_FACET));
+        assertEquals(Map.of("DAY", 0, "WEEK", 2, "MONTH", 3), page.getFacets().get(ItemFacetIndex.CREATED_WITHIN_FACET));
+    }
+
+    @Test
+    void searchTest_whenDateChangedSinceItemsIndexed_thenRecencyRecomputed() {
+        LocalDateTime now = LocalDateTime.now();
+        ReflectionTestUtils.setField(itemFacetIndex, "fullDaysDate", LocalDate.now().minusDays(60));
+        itemFacetIndex.catalogueLoaded(List.of(
+                new ItemCatalogueEntry(1L, 1L, "Дрель", "описание", true, null, now.minusDays(40)),
+                new ItemCatalogueEntry(2L, 1L, "Палатка", "описание", false, 7L, now.minusDays(3)),
+                new ItemCatalogueEntry(3L, 2L, "Пила", "описание", true, 7L, now.minusHours(1)),
+                new ItemCatalogueEntry(4L, 2L, "Лестница", "описание", true, null, now.minusDays(10))));
+
+        ItemFacetPage page = itemFacetIndex.search(null, new ItemFacetFilter(null, null, null, ItemRecency.MONTH), 0, 10);
+
+        assertEquals(List.of(2L, 3L, 4L), page.getItemIds());
+        assertEquals(Map.of("DAY", 1, "WEEK", 2, "MONTH", 3), page.getFacets().get(ItemFacetIndex.CREATED_WITHIN_FACET));
+    }
+}
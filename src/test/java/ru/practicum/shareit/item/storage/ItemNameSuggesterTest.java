@@ -0,0 +1,85 @@
+package ru.practicum.shareit.item.storage;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.user.model.User;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ItemNameSuggesterTest {
+
+    private final ItemNameSuggester itemNameSuggester = new ItemNameSuggester();
+
+    @BeforeEach
+    void setUp() {
+        itemNameSuggester.put(new ItemSearchDocument(1L, 1L, "Дрель", "Ударная"));
+        itemNameSuggester.put(new ItemSearchDocument(2L, 1L, "Дрель аккумуляторная", "С двумя батареями"));
+        itemNameSuggester.put(new ItemSearchDocument(3L, 2L, "Домкрат", "Подъемник"));
+        itemNameSuggester.put(new ItemSearchDocument(4L, 2L, "дрель", "Обычная"));
+    }
+
+    @Test
+    void suggestTest_whenPrefixMatches_thenMostFrequentNamesFirst() {
+        assertEquals(List.of("Дрель", "Домкрат", "Дрель аккумуляторная"), itemNameSuggester.suggest("д", 10));
+        assertEquals(List.of("Дрель", "Дрель аккумуляторная"), itemNameSuggester.suggest("ДРЕ", 10));
+        assertEquals(List.of("Дрель аккумуляторная"), itemNameSuggester.suggest("дрель а", 10));
+    }
+
+    @Test
+    void suggestTest_whenPrefixEndsInsideEdge_thenReturnCompletions() {
+        assertEquals(List.of("Домкрат"), itemNameSuggester.suggest("домк", 10));
+    }
+
+    @Test
+    void suggestTest_whenNoMatchOrBlankPrefix_thenReturnEmptyList() {
+        assertTrue(itemNameSuggester.suggest("дом кр", 10).isEmpty());
+        assertTrue(itemNameSuggester.suggest("палатка", 10).isEmpty());
+        assertTrue(itemNameSuggester.suggest(" ", 10).isEmpty());
+    }
+
+    @Test
+    void suggestTest_whenLimitLessThanMatches_thenReturnOnlyLimit() {
+        assertEquals(List.of("Дрель"), itemNameSuggester.suggest("д", 1));
+    }
+
+    @Test
+    void itemChangedTest_whenNameChangedOrItemUnavailable_thenSuggestionsUpdated() {
+        User owner = new User(1L, "Vladimir", "vladimir@yandex.ru");
+
+        itemNameSuggester.itemChanged(ItemCatalogueEntry.of(new Item(2L, "Дальномер", "Лазерный", true, owner, null)));
+        itemNameSuggester.itemChanged(ItemCatalogueEntry.of(new Item(3L, "Домкрат", "Подъемник", false, owner, null)));
+
+        assertEquals(List.of("Дрель", "Дальномер"), itemNameSuggester.suggest("д", 10));
+        assertTrue(itemNameSuggester.suggest("дрель а", 10).isEmpty());
+    }
+
+    @Test
+    void itemsDeletedTest_thenOwnerItemsRemoved() {
+        itemNameSuggester.itemsDeleted(Set.of(1L, 2L));
+
+        assertEquals(List.of("Домкрат", "Дрель"), itemNameSuggester.suggest("д", 10));
+    }
+
+    @Test
+    void itemsDeletedTest_whenOtherOwnersItemAnsweredUsersRequest_thenItemRemoved() {
+        itemNameSuggester.itemsDeleted(Set.of(3L));
+
+        assertEquals(List.of("Дрель", "Дрель аккумуляторная"), itemNameSuggester.suggest("д", 10));
+    }
+
+    @Test
+    void catalogueLoadedTest_thenSuggestionsOnlyForAvailableItems() {
+        itemNameSuggester.catalogueLoaded(List.of(
+                new ItemCatalogueEntry(5L, 3L, "Палатка", "Четырехместная", true, null, LocalDateTime.now()),
+                new ItemCatalogueEntry(6L, 3L, "Пила", "Ручная", false, null, LocalDateTime.now())));
+
+        assertEquals(List.of("Палатка"), itemNameSuggester.suggest("па", 10));
+        assertTrue(itemNameSuggester.suggest("д", 10).isEmpty());
+    }
+}
@@ -0,0 +1,220 @@
+package ru.practicum.shareit.item.storage;
+
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.Hibernate;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.support.JpaRepositoryFactory;
+import org.springframework.data.repository.Repository;
+import ru.practicum.shareit.item.dto.ItemDtoFromOrToUser;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.request.model.ItemRequest;
+import ru.practicum.shareit.user.model.User;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Сравнивает чтение вещей для поиска и для ответов на запросы тремя способами: сущности с загрузкой
+ * владельца, запроса и автора запроса (как при EAGER), ленивые сущности и проекции в ItemDtoFromOrToUser.
+ * Объем прочитанных данных оценивается числом значений колонок: строка каждой загруженной сущности
+ * читается целиком, строка проекции - только колонками DTO. Запуск: mvn test -P benchmark
+ */
+@Tag("benchmark")
+@Slf4j
+@DataJpaTest(properties = {"db.name=shareItTest", "spring.jpa.properties.hibernate.generate_statistics=true"})
+class ItemProjectionBenchmarkTest {
+
+    private static final int OWNERS = 50;
+    private static final int REQUESTERS = 20;
+    private static final int REQUESTS = 200;
+    private static final int ITEMS = 2_000;
+    private static final int PAGE_SIZE = 100;
+    private static final int REQUEST_PAGE = 20;
+    private static final int ITERATIONS = 20;
+    private static final int ITEM_COLUMNS = 7;
+    private static final int USER_COLUMNS = 3;
+    private static final int REQUEST_COLUMNS = 4;
+    private static final int DTO_COLUMNS = 5;
+
+    @Autowired
+    private ItemRepository itemRepository;
+    @Autowired
+    private TestEntityManager testEntityManager;
+
+    private final List<Long> requestIds = new ArrayList<>();
+    private Statistics statistics;
+    private RemovedFinders finders;
+
+    @BeforeEach
+    void setUp() {
+        List<User> owners = new ArrayList<>();
+        for (int i = 0; i < OWNERS; i++) {
+            owners.add(testEntityManager.persist(new User(null, "Владелец " + i, "owner" + i + "@yandex.ru")));
+        }
+        List<User> requesters = new ArrayList<>();
+        for (int i = 0; i < REQUESTERS; i++) {
+            requesters.add(testEntityManager.persist(new User(null, "Автор " + i, "requester" + i + "@yandex.ru")));
+        }
+        List<ItemRequest> requests = new ArrayList<>();
+        for (int i = 0; i < REQUESTS; i++) {
+            ItemRequest request = testEntityManager.persist(new ItemRequest(null, "нужна вещь " + i,
+                    requesters.get(i % REQUESTERS), LocalDateTime.now()));
+            requests.add(request);
+            requestIds.add(request.getId());
+        }
+        for (int i = 0; i < ITEMS; i++) {
+            testEntityManager.persist(new Item(null, "вещь " + i, "описание вещи " + i, true,
+                    owners.get(i % OWNERS), i % 2 == 0 ? requests.get(i % REQUESTS) : null));
+        }
+        testEntityManager.flush();
+        testEntityManager.clear();
+        statistics = testEntityManager.getEntityManager().getEntityManagerFactory()
+                .unwrap(SessionFactory.class).getStatistics();
+        finders = new JpaRepositoryFactory(testEntityManager.getEntityManager()).getRepository(RemovedFinders.class);
+    }
+
+    @Test
+    void searchTest_projectionComparedToEntities() {
+        Result eager = measure(() -> withAssociations(finders.findAllContainingTextWithAvailableStatus(
+                "вещ", PageRequest.of(0, PAGE_SIZE))));
+        Result lazy = measure(() -> finders.findAllContainingTextWithAvailableStatus(
+                "вещ", PageRequest.of(0, PAGE_SIZE)).size());
+        Result projection = measure(() -> itemRepository.findAllDtoContainingTextWithAvailableStatus(
+                "вещ", PageRequest.of(0, PAGE_SIZE)).size());
+
+        log.info("Поиск, сущности со связями: {}", eager);
+        log.info("Поиск, ленивые сущности: {}", lazy);
+        log.info("Поиск, проекция: {}", projection);
+
+        assertThat(projection.statements).isEqualTo(ITERATIONS);
+        assertThat(lazy.statements).isEqualTo(ITERATIONS);
+        assertThat(eager.statements).isGreaterThan(lazy.statements);
+        assertThat(projection.values()).isLessThan(lazy.values());
+        assertThat(lazy.values()).isLessThan(eager.values());
+    }
+
+    @Test
+    void findAllByRequestInTest_projectionComparedToEntities() {
+        Result eager = measure(() -> withAssociations(finders.findAllByRequestIn(requestPage())));
+        Result lazy = measure(() -> finders.findAllByRequestIn(requestPage()).size());
+        Result projection = measure(() -> finders.findAllDtoByRequestIn(requestPage()).size());
+
+        log.info("Вещи для запросов, сущности со связями: {}", eager);
+        log.info("Вещи для запросов, ленивые сущности: {}", lazy);
+        log.info("Вещи для запросов, проекция: {}", projection);
+
+        assertThat(projection.rows).isEqualTo(lazy.rows);
+        assertThat(projection.statements).isEqualTo(ITERATIONS);
+        assertThat(eager.statements).isGreaterThan(lazy.statements);
+        assertThat(projection.values()).isLessThan(lazy.values());
+        assertThat(lazy.values()).isLessThan(eager.values());
+    }
+
+    /**
+     * Загрузка связей, которые раньше читались сразу из-за FetchType.EAGER.
+     */
+    private int withAssociations(List<Item> items) {
+        for (Item item : items) {
+            Hibernate.initialize(item.getOwner());
+            if (item.getRequest() != null) {
+                Hibernate.initialize(item.getRequest());
+                Hibernate.initialize(item.getRequest().getRequester());
+            }
+        }
+        return items.size();
+    }
+
+    private List<ItemRequest> requestPage() {
+        return requestIds.subList(0, REQUEST_PAGE).stream()
+                .map(requestId -> testEntityManager.getEntityManager().getReference(ItemRequest.class, requestId))
+                .collect(Collectors.toList());
+    }
+
+    private Result measure(Supplier<Integer> reader) {
+        statistics.clear();
+        long rows = 0;
+        long startedAt = System.nanoTime();
+        for (int i = 0; i < ITERATIONS; i++) {
+            rows += reader.get();
+            testEntityManager.clear();
+        }
+        double meanMicros = (System.nanoTime() - startedAt) / 1_000.0 / ITERATIONS;
+        long items = statistics.getEntityStatistics(Item.class.getName()).getLoadCount();
+        long users = statistics.getEntityStatistics(User.class.getName()).getLoadCount();
+        long requests = statistics.getEntityStatistics(ItemRequest.class.getName()).getLoadCount();
+        return new Result(statistics.getPrepareStatementCount(), rows, items, users, requests, meanMicros);
+    }
+
+    /**
+     * Удаленные методы ItemRepository, которые больше не вызывает приложение. Spring Data строит их запросы
+     * так же, как строил в репозитории. Фабрика без контекста приложения не знает SpEL-функции escape,
+     * поэтому текст поиска подставляется без экранирования: в тексте бенчмарка нет % и _.
+     */
+    interface RemovedFinders extends Repository<Item, Long> {
+
+        @Query("select it " +
+                "from Item as it " +
+                "where it.available = true " +
+                "and (lower(it.description) like lower(CONCAT('%', ?1, '%')) " +
+                "or lower(it.name) like lower(CONCAT('%', ?1, '%'))) " +
+                "order by it.id")
+        List<Item> findAllContainingTextWithAvailableStatus(String text, Pageable pageable);
+
+        List<Item> findAllByRequestIn(List<ItemRequest> itemRequests);
+
+        @Query("select new ru.practicum.shareit.item.dto.ItemDtoFromOrToUser(" +
+                "it.id, it.name, it.description, it.available, it.request.id) " +
+                "from Item as it " +
+                "where it.request in ?1 " +
+                "order by it.id")
+        List<ItemDtoFromOrToUser> findAllDtoByRequestIn(List<ItemRequest> itemRequests);
+    }
+
+    private static class Result {
+        private final long statements;
+        private final long rows;
+        private final long items;
+        private final long users;
+        private final long requests;
+        private final double meanMicros;
+
+        Result(long statements, long rows, long items, long users, long requests, double meanMicros) {
+            this.statements = statements;
+            this.rows = rows;
+            this.items = items;
+            this.users = users;
+            this.requests = requests;
+            this.meanMicros = meanMicros;
+        }
+
+        /**
+         * Значения колонок, прочитанные из базы: целые строки загруженных сущностей или колонки DTO.
+         */
+        long values() {
+            long entityValues = items * ITEM_COLUMNS + users * USER_COLUMNS + requests * REQUEST_COLUMNS;
+            return entityValues > 0 ? entityValues : rows * DTO_COLUMNS;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("операторов %d, вещей %d, загружено сущностей: вещей %d, пользователей %d, " +
+                            "запросов %d, значений колонок %d, среднее время %.1f мкс",
+                    statements, rows, items, users, requests, values(), meanMicros);
+        }
+    }
+}
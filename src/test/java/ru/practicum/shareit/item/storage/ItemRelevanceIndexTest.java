@@ -0,0 +1,77 @@
+package ru.practicum.shareit.item.storage;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.user.model.User;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ItemRelevanceIndexTest {
+
+    private final ItemRelevanceIndex itemRelevanceIndex = new ItemRelevanceIndex();
+
+    @BeforeEach
+    void setUp() {
+        itemRelevanceIndex.put(new ItemSearchDocument(1L, 1L, "Отвертка", "Крестовая, с магнитным наконечником"));
+        itemRelevanceIndex.put(new ItemSearchDocument(2L, 1L, "Дрель", "Ударная дрель с набором сверл"));
+        itemRelevanceIndex.put(new ItemSearchDocument(3L, 2L, "Перфоратор", "Мощнее, чем дрель"));
+        itemRelevanceIndex.put(new ItemSearchDocument(4L, 2L, "Палатка", "Четырехместная палатка"));
+    }
+
+    @Test
+    void searchTest_whenTermInNameAndDescription_thenNameMatchRankedFirst() {
+        assertEquals(List.of(2L, 3L), itemRelevanceIndex.search("дрель", 0, 10));
+    }
+
+    @Test
+    void searchTest_whenQueryHasTypo_thenMatchFound() {
+        assertEquals(List.of(4L), itemRelevanceIndex.search("палтка", 0, 10));
+        assertEquals(List.of(3L), itemRelevanceIndex.search("перфаратр", 0, 10));
+    }
+
+    @Test
+    void searchTest_whenShortTermWithTypo_thenNoMatch() {
+        assertTrue(itemRelevanceIndex.search("дрел", 0, 10).isEmpty());
+    }
+
+    @Test
+    void searchTest_whenSeveralTerms_thenItemsMatchingMoreTermsRankedHigher() {
+        List<Long> result = itemRelevanceIndex.search("ударная дрель", 0, 10);
+
+        assertEquals(2L, result.get(0));
+        assertEquals(List.of(2L, 3L), result);
+    }
+
+    @Test
+    void searchTest_whenOffsetAndLimit_thenReturnPageOfRanking() {
+        assertEquals(List.of(3L), itemRelevanceIndex.search("дрель", 1, 1));
+        assertTrue(itemRelevanceIndex.search("дрель", 2, 1).isEmpty());
+    }
+
+    @Test
+    void searchTest_whenOffsetAndLimitNearIntMax_thenNoOverflow() {
+        assertEquals(List.of(3L), itemRelevanceIndex.search("дрель", 1, Integer.MAX_VALUE));
+        assertTrue(itemRelevanceIndex.search("дрель", Integer.MAX_VALUE, Integer.MAX_VALUE).isEmpty());
+    }
+
+    @Test
+    void itemChangedTest_whenItemBecameUnavailable_thenItemNotFound() {
+        User owner = new User(1L, "Vladimir", "vladimir@yandex.ru");
+
+        itemRelevanceIndex.itemChanged(ItemCatalogueEntry.of(new Item(2L, "Дрель", "Ударная дрель", false, owner, null)));
+
+        assertEquals(List.of(3L), itemRelevanceIndex.search("дрель", 0, 10));
+    }
+
+    @Test
+    void boundedLevenshteinTest() {
+        assertEquals(0, ItemRelevanceIndex.boundedLevenshtein("дрель", "дрель", 1));
+        assertEquals(1, ItemRelevanceIndex.boundedLevenshtein("дрель", "дрели", 1));
+        assertEquals(2, ItemRelevanceIndex.boundedLevenshtein("перфаратр", "перфоратор", 2));
+        assertEquals(2, ItemRelevanceIndex.boundedLevenshtein("палатка", "лопата", 1));
+    }
+}
@@ -6,16 +6,21 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
 import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
 import org.springframework.data.domain.PageRequest;
+import ru.practicum.shareit.item.dto.ItemDtoFromOrToUser;
 import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.model.ItemFacetAttributes;
 import ru.practicum.shareit.request.model.ItemRequest;
 import ru.practicum.shareit.user.model.User;
 
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
 
-@DataJpaTest(properties = {"db.name=shareItTest", "spring.sql.init.schema-locations=classpath:schema_test.sql"})
+@DataJpaTest(properties = {"db.name=shareItTest"})
 class ItemRepositoryIT {
 
     @Autowired
@@ -59,6 +64,16 @@ class ItemRepositoryIT {
         itemRepository.save(item);
     }
 
+    @Test
+    void findAllIdsDeletedWithUserTest_whenOtherOwnersItemAnswersUsersRequest_thenItsIdReturned() {
+        Item ownItem = itemRepository.save(new Item(null, "своя вещь", "описание", true, user, null));
+        itemRepository.save(new Item(null, "чужая вещь", "описание", true, owner, null));
+
+        List<Long> itemIds = itemRepository.findAllIdsDeletedWithUser(user.getId());
+
+        assertThat(itemIds).containsExactlyInAnyOrder(ownItem.getId(), item.getId());
+    }
+
     @Test
     void findAllByOwnerTest_whenItemExists_thenReturnItem() {
         int page = 0;
@@ -75,44 +90,102 @@ class ItemRepositoryIT {
     }
 
     @Test
-    void findAllContainingTextWithAvailableStatusTest_whenItemExists_thenReturnListOfItem() {
-        int page = 0;
-        int size = 1;
-        List<Item> items = itemRepository.findAllContainingTextWithAvailableStatus("имя", PageRequest.of(page, size));
+    void streamAllContainingTextWithAvailableStatusTest_thenStreamAvailableMatchesInIdOrder() {
+        Item secondItem = itemRepository.save(new Item(null, "Дрель", "с описанием", true, owner, null));
+        itemRepository.save(new Item(null, "Дрель", "описание", false, owner, null));
+
+        List<ItemDtoFromOrToUser> items;
+        try (Stream<ItemDtoFromOrToUser> stream = itemRepository.streamAllContainingTextWithAvailableStatus("ОПИСАН")) {
+            items = stream.collect(Collectors.toList());
+        }
+
+        assertThat(items).containsExactly(
+                new ItemDtoFromOrToUser(item.getId(), "имя", "описание", true, itemRequest.getId()),
+                new ItemDtoFromOrToUser(secondItem.getId(), "Дрель", "с описанием", true, null));
+    }
 
-        assertThat(items.size()).isEqualTo(1);
-        assertThat(items.get(0).getId()).isEqualTo(item.getId());
-        assertThat(items.get(0).getDescription()).isEqualTo(item.getDescription());
-        assertThat(items.get(0).getName()).isEqualTo(item.getName());
-        assertThat(items.get(0).getAvailable()).isEqualTo(item.getAvailable());
-        assertThat(items.get(0).getOwner()).isEqualTo(item.getOwner());
-        assertThat(items.get(0).getRequest()).isEqualTo(item.getRequest());
+    @Test
+    void findAllIdsContainingTextTest_thenReturnMatchesRegardlessOfAvailability() {
+        Item unavailableItem = itemRepository.save(new Item(null, "дрель", "старое ОПИСАНИЕ", false, owner, null));
+        itemRepository.save(new Item(null, "палатка", "туристическая", true, owner, null));
+
+        List<Long> itemIds = itemRepository.findAllIdsContainingText("описание");
+
+        assertThat(itemIds).containsExactlyInAnyOrder(item.getId(), unavailableItem.getId());
     }
 
     @Test
-    void findAllByRequestTest_whenItemExists_thenReturnListOfItem() {
-        List<Item> items = itemRepository.findAllByRequest(itemRequest);
+    void findAllDtoContainingTextWithAvailableStatusTest_whenTextHasLikeWildcards_thenMatchedLiterally() {
+        Item percent = itemRepository.save(new Item(null, "скидка 100%", "хлопок", true, owner, null));
+        Item underscore = itemRepository.save(new Item(null, "ключ_10", "рожковый", true, owner, null));
+        itemRepository.save(new Item(null, "скидка 1000", "шерсть", true, owner, null));
+        itemRepository.save(new Item(null, "ключ-10", "накидной", true, owner, null));
+
+        assertThat(itemRepository.findAllDtoContainingTextWithAvailableStatus("0%", PageRequest.of(0, 10)))
+                .extracting(ItemDtoFromOrToUser::getId).containsExactly(percent.getId());
+        assertThat(itemRepository.findAllDtoContainingTextWithAvailableStatus("ч_1", PageRequest.of(0, 10)))
+                .extracting(ItemDtoFromOrToUser::getId).containsExactly(underscore.getId());
+        assertThat(itemRepository.findAllIdsContainingText("%")).containsExactly(percent.getId());
+    }
 
-        assertThat(items.size()).isEqualTo(1);
-        assertThat(items.get(0).getId()).isEqualTo(item.getId());
-        assertThat(items.get(0).getDescription()).isEqualTo(item.getDescription());
-        assertThat(items.get(0).getName()).isEqualTo(item.getName());
-        assertThat(items.get(0).getAvailable()).isEqualTo(item.getAvailable());
-        assertThat(items.get(0).getOwner()).isEqualTo(item.getOwner());
-        assertThat(items.get(0).getRequest()).isEqualTo(item.getRequest());
+    @Test
+    void itemFacetAttributesTest_whenItemSaved_thenCreatedFilledByDatabase() {
+        testEntityManager.flush();
+        testEntityManager.clear();
+
+        ItemFacetAttributes attributes = testEntityManager.find(ItemFacetAttributes.class, item.getId());
+
+        assertThat(attributes.getOwnerId()).isEqualTo(owner.getId());
+        assertThat(attributes.getRequestId()).isEqualTo(itemRequest.getId());
+        assertThat(attributes.getAvailable()).isTrue();
+        assertThat(attributes.getCreated()).isNotNull();
     }
 
     @Test
-    void findAllByRequestInTest_whenItemExists_thenReturnListOfItem() {
+    void findAllCatalogueEntriesTest_thenReturnAllItemsWithCreated() {
+        Item unavailableItem = itemRepository.save(new Item(null, "дрель", "описание", false, owner, null));
+        testEntityManager.flush();
+        testEntityManager.clear();
+
+        List<ItemCatalogueEntry> entries = itemRepository.findAllCatalogueEntries();
+
+        assertThat(entries).extracting(ItemCatalogueEntry::getId, ItemCatalogueEntry::getOwnerId,
+                        ItemCatalogueEntry::getAvailable, ItemCatalogueEntry::getRequestId)
+                .containsExactly(tuple(item.getId(), owner.getId(), true, itemRequest.getId()),
+                        tuple(unavailableItem.getId(), owner.getId(), false, null));
+        assertThat(entries).allSatisfy(entry -> assertThat(entry.getCreated()).isNotNull());
+    }
 
-        List<Item> items = itemRepository.findAllByRequestIn(List.of(itemRequest));
+    @Test
+    void findAllDtoByIdInOrderTest_thenReturnItemsInRequestedOrderSkippingMissing() {
+        Item secondItem = itemRepository.save(new Item(null, "дрель", "описание", true, owner, null));
 
-        assertThat(items.size()).isEqualTo(1);
-        assertThat(items.get(0).getId()).isEqualTo(item.getId());
-        assertThat(items.get(0).getDescription()).isEqualTo(item.getDescription());
-        assertThat(items.get(0).getName()).isEqualTo(item.getName());
-        assertThat(items.get(0).getAvailable()).isEqualTo(item.getAvailable());
-        assertThat(items.get(0).getOwner()).isEqualTo(item.getOwner());
-        assertThat(items.get(0).getRequest()).isEqualTo(item.getRequest());
+        List<ItemDtoFromOrToUser> items = itemRepository.findAllDtoByIdInOrder(
+                List.of(secondItem.getId(), Long.MAX_VALUE, item.getId()));
+
+        assertThat(items).containsExactly(
+                new ItemDtoFromOrToUser(secondItem.getId(), "дрель", "описание", true, null),
+                new ItemDtoFromOrToUser(item.getId(), item.getName(), item.getDescription(), true, itemRequest.getId()));
+    }
+
+    @Test
+    void findAllDtoContainingTextWithAvailableStatusTest_thenReturnAvailableMatchesWithRequestId() {
+        itemRepository.save(new Item(null, "Имя другое", "описание", false, owner, null));
+
+        List<ItemDtoFromOrToUser> items = itemRepository.findAllDtoContainingTextWithAvailableStatus("ИМЯ",
+                PageRequest.of(0, 10));
+
+        assertThat(items).containsExactly(new ItemDtoFromOrToUser(item.getId(), item.getName(),
+                item.getDescription(), true, itemRequest.getId()));
+    }
+
+    @Test
+    void findAllDtoByRequestIdTest_whenItemExists_thenReturnItemDto() {
+        itemRepository.save(new Item(null, "дрель", "описание", true, owner, null));
+
+        List<ItemDtoFromOrToUser> items = itemRepository.findAllDtoByRequestId(itemRequest.getId());
+
+        assertThat(items).containsExactly(new ItemDtoFromOrToUser(item.getId(), item.getName(),
+                item.getDescription(), true, itemRequest.getId()));
     }
 }
\ No newline at end of file
@@ -0,0 +1,110 @@
+package ru.practicum.shareit.item.storage;
+
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.Session;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.data.domain.PageRequest;
+import ru.practicum.shareit.item.dto.ItemDtoFromOrToUser;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.user.model.User;
+
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Время поиска по подстроке в зависимости от размера таблицы items для режимов memory и database.
+ * Запуск на H2 (database - LIKE с полным просмотром): mvn test -P benchmark
+ * Запуск на PostgreSQL из application.properties (database - индексы pg_trgm):
+ * mvn test -P benchmark -Dtest.spring.profiles=default
+ */
+@Tag("benchmark")
+@Slf4j
+@DataJpaTest(properties = {"db.name=shareItTest"})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+class ItemSearchBenchmarkTest {
+
+    private static final int[] TABLE_SIZES = {1_000, 10_000, 100_000};
+    private static final int BATCH = 500;
+    private static final int ITERATIONS = 50;
+    private static final int PAGE_SIZE = 20;
+    private static final String RARE_WORD = "перфоратор";
+    private static final int RARE_EVERY = 1_000;
+    private static final String[] WORDS = {"дрель", "пила", "молоток", "отвертка", "лестница", "палатка",
+            "велосипед", "удочка", "рюкзак", "проектор", "колонка", "гитара", "шуруповерт", "тиски", "насос"};
+
+    @Autowired
+    private ItemRepository itemRepository;
+    @Autowired
+    private TestEntityManager testEntityManager;
+
+    @Test
+    void searchTest_latencyByTableSize() {
+        User owner = testEntityManager.persist(new User(null, "Igor", "igor.search.benchmark@yandex.ru"));
+        String database = testEntityManager.getEntityManager().unwrap(Session.class)
+                .doReturningWork(connection -> connection.getMetaData().getDatabaseProductName());
+        ItemSearchIndex itemSearchIndex = new ItemSearchIndex();
+        MemoryItemTextSearch memorySearch = new MemoryItemTextSearch(itemSearchIndex, itemRepository);
+        DatabaseItemTextSearch databaseSearch = new DatabaseItemTextSearch(itemRepository);
+        Random random = new Random(42);
+
+        int persisted = 0;
+        for (int tableSize : TABLE_SIZES) {
+            for (; persisted < tableSize; persisted++) {
+                testEntityManager.persist(newItem(owner, persisted, random));
+                if (persisted % BATCH == 0) {
+                    testEntityManager.flush();
+                    testEntityManager.clear();
+                }
+            }
+            testEntityManager.flush();
+            testEntityManager.clear();
+            if ("PostgreSQL".equals(database)) {
+                testEntityManager.getEntityManager().createNativeQuery("ANALYZE items").executeUpdate();
+            }
+            itemSearchIndex.catalogueLoaded(itemRepository.findAllCatalogueEntries());
+
+            for (String needle : List.of(RARE_WORD, WORDS[0])) {
+                double databaseMicros = measure(databaseSearch, needle);
+                double memoryMicros = measure(memorySearch, needle);
+                log.info("{}: строк {}, запрос '{}': database {} мкс, memory {} мкс", database, tableSize, needle,
+                        String.format("%.1f", databaseMicros), String.format("%.1f", memoryMicros));
+
+                assertThat(ids(memorySearch.search(needle, 0, PAGE_SIZE)))
+                        .isEqualTo(ids(databaseSearch.search(needle, 0, PAGE_SIZE)));
+            }
+        }
+    }
+
+    private Item newItem(User owner, int number, Random random) {
+        StringBuilder description = new StringBuilder();
+        for (int i = 0; i < 8; i++) {
+            description.append(WORDS[random.nextInt(WORDS.length)]).append(' ');
+        }
+        if (number % RARE_EVERY == 0) {
+            description.append(RARE_WORD);
+        }
+        return new Item(null, WORDS[number % WORDS.length] + " " + number, description.toString().trim(),
+                number % 10 != 0, owner, null);
+    }
+
+    private double measure(ItemTextSearch search, String needle) {
+        long startedAt = System.nanoTime();
+        for (int i = 0; i < ITERATIONS; i++) {
+            search.search(needle, 0, PAGE_SIZE);
+            testEntityManager.clear();
+        }
+        return (System.nanoTime() - startedAt) / 1_000.0 / ITERATIONS;
+    }
+
+    private List<Long> ids(List<ItemDtoFromOrToUser> items) {
+        return items.stream().map(ItemDtoFromOrToUser::getId).collect(Collectors.toList());
+    }
+}
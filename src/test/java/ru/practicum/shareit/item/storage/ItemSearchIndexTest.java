@@ -0,0 +1,87 @@
+package ru.practicum.shareit.item.storage;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.user.model.User;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ItemSearchIndexTest {
+
+    private final ItemSearchIndex itemSearchIndex = new ItemSearchIndex();
+
+    private User owner;
+
+    @BeforeEach
+    void setUp() {
+        owner = new User(1L, "Vladimir", "vladimir@yandex.ru");
+        itemSearchIndex.put(new ItemSearchDocument(1L, 1L, "Дрель", "Простая дрель"));
+        itemSearchIndex.put(new ItemSearchDocument(2L, 1L, "Отвертка", "Аккумуляторная отвертка"));
+        itemSearchIndex.put(new ItemSearchDocument(3L, 2L, "Дрель ударная", null));
+    }
+
+    @Test
+    void searchTest_whenSubstringInNameOrDescription_thenReturnIdsInOrder() {
+        assertEquals(List.of(1L, 3L), itemSearchIndex.search("дрЕль", 0, 10));
+        assertEquals(List.of(2L), itemSearchIndex.search("кумулятор", 0, 10));
+        assertEquals(List.of(1L, 3L), itemSearchIndex.search("ре", 0, 10));
+    }
+
+    @Test
+    void searchTest_whenGramsPresentButNoSubstring_thenReturnEmptyList() {
+        itemSearchIndex.put(new ItemSearchDocument(4L, 1L, "абвг", "бвгд"));
+
+        assertTrue(itemSearchIndex.search("абвгд", 0, 10).isEmpty());
+    }
+
+    @Test
+    void searchTest_whenOffsetAndLimit_thenReturnPage() {
+        assertEquals(List.of(3L), itemSearchIndex.search("дрель", 1, 1));
+        assertTrue(itemSearchIndex.search("дрель", 2, 1).isEmpty());
+    }
+
+    @Test
+    void itemChangedTest_whenItemBecameUnavailable_thenItemRemoved() {
+        itemSearchIndex.itemChanged(ItemCatalogueEntry.of(new Item(1L, "Дрель", "Простая дрель", false, owner, null)));
+
+        assertEquals(List.of(3L), itemSearchIndex.search("дрель", 0, 10));
+    }
+
+    @Test
+    void itemChangedTest_whenItemRenamed_thenOldTextNotFound() {
+        itemSearchIndex.itemChanged(ItemCatalogueEntry.of(new Item(1L, "Перфоратор", "мощный", true, owner, null)));
+
+        assertEquals(List.of(3L), itemSearchIndex.search("дрель", 0, 10));
+        assertEquals(List.of(1L), itemSearchIndex.search("перфоратор", 0, 10));
+    }
+
+    @Test
+    void itemsDeletedTest_thenOwnerItemsRemoved() {
+        itemSearchIndex.itemsDeleted(Set.of(1L, 2L));
+
+        assertEquals(List.of(3L), itemSearchIndex.search("р", 0, 10));
+    }
+
+    @Test
+    void itemsDeletedTest_whenOtherOwnersItemAnsweredUsersRequest_thenItemRemoved() {
+        itemSearchIndex.itemsDeleted(Set.of(3L));
+
+        assertEquals(List.of(1L), itemSearchIndex.search("дрель", 0, 10));
+    }
+
+    @Test
+    void catalogueLoadedTest_thenIndexContainsOnlyAvailableItems() {
+        itemSearchIndex.catalogueLoaded(List.of(
+                new ItemCatalogueEntry(5L, 1L, "Пила", "ножовка", true, null, LocalDateTime.now()),
+                new ItemCatalogueEntry(6L, 1L, "Пила", "лобзик", false, null, LocalDateTime.now())));
+
+        assertEquals(List.of(5L), itemSearchIndex.search("пила", 0, 10));
+        assertTrue(itemSearchIndex.search("дрель", 0, 10).isEmpty());
+    }
+}
@@ -0,0 +1,36 @@
+package ru.practicum.shareit.item.storage;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import ru.practicum.shareit.item.dto.ItemDtoFromOrToUser;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class MemoryItemTextSearchTest {
+
+    @Mock
+    private ItemSearchIndex itemSearchIndex;
+    @Mock
+    private ItemRepository itemRepository;
+    @InjectMocks
+    private MemoryItemTextSearch memoryItemTextSearch;
+
+    @Test
+    void searchTest_whenItemsFound_thenLoadItemsForIndexPage() {
+        ItemDtoFromOrToUser firstItem = new ItemDtoFromOrToUser(1L, "дрель", "описание", true, null);
+        ItemDtoFromOrToUser secondItem = new ItemDtoFromOrToUser(2L, "дрель ударная", "описание", true, null);
+        when(itemSearchIndex.search("дрель", 20, 10)).thenReturn(List.of(1L, 2L));
+        when(itemRepository.findAllDtoByIdInOrder(List.of(1L, 2L))).thenReturn(List.of(firstItem, secondItem));
+
+        List<ItemDtoFromOrToUser> items = memoryItemTextSearch.search("дрель", 2, 10);
+
+        assertEquals(List.of(firstItem, secondItem), items);
+    }
+}
@@ -0,0 +1,30 @@
+package ru.practicum.shareit.pagination;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class CursorTest {
+
+    @Test
+    void decodeTest_whenEncodedCursor_thenReturnSameCursor() {
+        Cursor cursor = new Cursor(LocalDateTime.of(2025, 10, 20, 10, 10, 10), 42L);
+
+        assertEquals(cursor, Cursor.decode(cursor.encode()));
+    }
+
+    @Test
+    void decodeTest_whenTokenBlank_thenReturnFirst() {
+        assertEquals(Cursor.FIRST, Cursor.decode(""));
+        assertEquals(Cursor.FIRST, Cursor.decode(null));
+    }
+
+    @Test
+    void decodeTest_whenTokenMalformed_thenThrowIllegalArgumentException() {
+        assertThrows(IllegalArgumentException.class, () -> Cursor.decode("не курсор"));
+        assertThrows(IllegalArgumentException.class, () -> Cursor.decode("MjAyNQ"));
+    }
+}
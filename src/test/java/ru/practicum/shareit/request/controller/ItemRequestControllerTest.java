@@ -10,6 +10,8 @@ import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import ru.practicum.shareit.pagination.Cursor;
 import ru.practicum.shareit.request.dto.ItemRequestFromUserDto;
 import ru.practicum.shareit.request.dto.ItemRequestInfoDto;
 import ru.practicum.shareit.request.dto.ItemRequestToUserDto;
@@ -26,7 +28,9 @@ import static org.hamcrest.CoreMatchers.is;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 @ExtendWith(MockitoExtension.class)
@@ -117,4 +121,43 @@ class ItemRequestControllerTest {
                 .andExpect(jsonPath("$[0].created", is(itemRequestToUserDto.getCreated().format(formatter))))
                 .andExpect(jsonPath("$[0].items", is(Collections.emptyList())));
     }
-}
\ No newline at end of file
+
+    @Test
+    void getAllFromOtherUsersTest_whenCursorPageFull_thenReturnNextCursorHeader() throws Exception {
+        when(itemRequestService.getAllFromOtherUsersByCursor(requesterId, Cursor.FIRST, 1)).thenReturn(List.of(itemRequestInfoDto));
+
+        mvc.perform(get("/requests/all")
+                        .header("X-Sharer-User-Id", requesterId)
+                        .param("cursor", "")
+                        .param("size", "1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].id", is(itemRequestInfoDto.getId()), Long.class))
+                .andExpect(header().string(ItemRequestController.NEXT_CURSOR_HEADER,
+                        new Cursor(itemRequestInfoDto.getCreated(), itemRequestInfoDto.getId()).encode()));
+    }
+
+    @Test
+    void getAllFromOtherUsersTest_whenCursorPageNotFull_thenNoNextCursorHeader() throws Exception {
+        Cursor cursor = new Cursor(LocalDateTime.of(2026, 1, 1, 0, 0, 0), 10L);
+        when(itemRequestService.getAllFromOtherUsersByCursor(requesterId, cursor, 2)).thenReturn(List.of(itemRequestInfoDto));
+
+        mvc.perform(get("/requests/all")
+                        .header("X-Sharer-User-Id", requesterId)
+                        .param("cursor", cursor.encode())
+                        .param("size", "2"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].id", is(itemRequestInfoDto.getId()), Long.class))
+                .andExpect(header().doesNotExist(ItemRequestController.NEXT_CURSOR_HEADER));
+    }
+
+    @Test
+    void subscribeTest_thenEventStreamStarted() throws Exception {
+        when(itemRequestService.subscribe(requesterId)).thenReturn(new SseEmitter());
+
+        mvc.perform(get("/requests/events")
+                        .header("X-Sharer-User-Id", requesterId)
+                        .accept(MediaType.TEXT_EVENT_STREAM))
+                .andExpect(status().isOk())
+                .andExpect(request().asyncStarted());
+    }
+}
@@ -2,18 +2,26 @@ package ru.practicum.shareit.request.controller;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Nested;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.http.MediaType;
+import org.springframework.test.context.NestedTestConfiguration;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.RequestBuilder;
+import ru.practicum.shareit.SqlStatementBudget;
+import ru.practicum.shareit.StatementBudgetTestBase;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.storage.ItemRepository;
 import ru.practicum.shareit.request.dto.ItemRequestFromUserDto;
 import ru.practicum.shareit.request.dto.ItemRequestInfoDto;
 import ru.practicum.shareit.request.dto.ItemRequestToUserDto;
 import ru.practicum.shareit.request.model.ItemRequest;
 import ru.practicum.shareit.request.service.ItemRequestService;
+import ru.practicum.shareit.request.storage.ItemRequestRepository;
 import ru.practicum.shareit.user.model.User;
 
 import java.time.LocalDateTime;
@@ -22,6 +30,7 @@ import java.util.Collections;
 import java.util.List;
 
 import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.Matchers.hasSize;
 import static org.mockito.Mockito.*;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
@@ -132,4 +141,89 @@ class ItemRequestControllerTestIT {
                 .andExpect(jsonPath("$[0].created", is(itemRequestToUserDto.getCreated().format(formatter))))
                 .andExpect(jsonPath("$[0].items", is(Collections.emptyList())));
     }
-}
\ No newline at end of file
+
+    /**
+     * Полный контекст с H2: запросы со всеми откликнувшимися вещами читаются одним оператором SQL
+     * при любом числе запросов и вещей, а повторный просмотр запроса обходится без SQL.
+     * С пустыми кэшами к бюджету добавляется чтение пользователя из заголовка.
+     */
+    @Nested
+    @NestedTestConfiguration(NestedTestConfiguration.EnclosingConfiguration.OVERRIDE)
+    class StatementBudget extends StatementBudgetTestBase {
+
+        private static final int REQUESTS_PER_USER = 3;
+        private static final int ITEMS_PER_REQUEST = 2;
+
+        @Autowired
+        private ItemRequestRepository itemRequestRepository;
+        @Autowired
+        private ItemRepository itemRepository;
+
+        private User viewer;
+        private User requester;
+        private ItemRequest viewedRequest;
+
+        @BeforeEach
+        void setUp() {
+            viewer = saveUser("Igor", "igor.budget@yandex.ru");
+            User itemOwner = saveUser("Oleg", "oleg.budget@yandex.ru");
+            requester = saveUser("Kirill", "kirill.budget@yandex.ru");
+            for (User author : List.of(requester, saveUser("Vladimir", "vladimir.budget@yandex.ru"))) {
+                for (int i = 0; i < REQUESTS_PER_USER; i++) {
+                    ItemRequest request = itemRequestRepository.save(new ItemRequest(null, "нужна вещь", author,
+                            LocalDateTime.now()));
+                    viewedRequest = request;
+                    for (int j = 0; j < ITEMS_PER_REQUEST; j++) {
+                        itemRepository.save(new Item(null, "вещь для бюджета " + request.getId() + "-" + j,
+                                "описание", true, itemOwner, request));
+                    }
+                }
+            }
+        }
+
+        @Test
+        void getAllForUserTest_thenRequestsAndItemsReadByOneStatement() throws Exception {
+            RequestBuilder request = get("/requests")
+                    .header("X-Sharer-User-Id", requester.getId());
+
+            performCold(request)
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$", hasSize(REQUESTS_PER_USER)))
+                    .andExpect(jsonPath("$[0].items", hasSize(ITEMS_PER_REQUEST)))
+                    .andExpect(SqlStatementBudget.atMost(2));
+            SqlStatementBudget.perform(mockMvc, request)
+                    .andExpect(status().isOk())
+                    .andExpect(SqlStatementBudget.atMost(1));
+        }
+
+        @Test
+        void getAllFromOtherUsersTest_thenRequestsAndItemsReadByOneStatement() throws Exception {
+            RequestBuilder request = get("/requests/all")
+                    .header("X-Sharer-User-Id", viewer.getId())
+                    .param("size", "100");
+
+            performCold(request)
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$[0].items", hasSize(ITEMS_PER_REQUEST)))
+                    .andExpect(SqlStatementBudget.atMost(2));
+            SqlStatementBudget.perform(mockMvc, request)
+                    .andExpect(status().isOk())
+                    .andExpect(SqlStatementBudget.atMost(1));
+        }
+
+        @Test
+        void getByIdTest_whenRequestViewedBefore_thenServedWithoutStatements() throws Exception {
+            RequestBuilder request = get("/requests/{requestId}", viewedRequest.getId())
+                    .header("X-Sharer-User-Id", viewer.getId());
+
+            performCold(request)
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.items", hasSize(ITEMS_PER_REQUEST)))
+                    .andExpect(SqlStatementBudget.atMost(3));
+            SqlStatementBudget.perform(mockMvc, request)
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.items", hasSize(ITEMS_PER_REQUEST)))
+                    .andExpect(SqlStatementBudget.atMost(0));
+        }
+    }
+}
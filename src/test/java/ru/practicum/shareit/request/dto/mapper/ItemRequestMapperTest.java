@@ -2,7 +2,7 @@ package ru.practicum.shareit.request.dto.mapper;
 
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
-import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.dto.ItemDtoFromOrToUser;
 import ru.practicum.shareit.request.dto.ItemRequestFromUserDto;
 import ru.practicum.shareit.request.dto.ItemRequestInfoDto;
 import ru.practicum.shareit.request.dto.ItemRequestToUserDto;
@@ -46,9 +46,8 @@ class ItemRequestMapperTest {
     @Test
     void toItemRequestInfoDtoTest_returnItemRequestInfoDto() {
         User user = new User(1L, "Vladimir", "vladimir@yandex.ru");
-        User owner = new User(2L, "Ilya", "ilya@yandex.ru");
         ItemRequest itemRequest = new ItemRequest(1L, "описание", user, LocalDateTime.now());
-        List<Item> itemsList = List.of(new Item(1L, "имя", "описание", true, owner, itemRequest));
+        List<ItemDtoFromOrToUser> itemsList = List.of(new ItemDtoFromOrToUser(1L, "имя", "описание", true, itemRequest.getId()));
         ItemRequestInfoDto.ItemInfoDto itemInfoDto = new ItemRequestInfoDto.ItemInfoDto(1L, "имя", "описание", itemRequest.getId(), true);
         ItemRequestInfoDto expectedItemRequestInfoDto = new ItemRequestInfoDto(1L, "описание", itemRequest.getCreated(), List.of(itemInfoDto));
 
@@ -61,7 +60,7 @@ class ItemRequestMapperTest {
     void toItemRequestInfoDtoTest_whenItemsListIsEmpty_thenReturnItemRequestInfoDtoWithEmptyItemsList() {
         User user = new User(1L, "Vladimir", "vladimir@yandex.ru");
         ItemRequest itemRequest = new ItemRequest(1L, "описание", user, LocalDateTime.now());
-        List<Item> itemsList = Collections.emptyList();
+        List<ItemDtoFromOrToUser> itemsList = Collections.emptyList();
         ItemRequestInfoDto expectedItemRequestInfoDto = new ItemRequestInfoDto(1L, "описание", itemRequest.getCreated(), Collections.emptyList());
 
         ItemRequestInfoDto resultItemRequestInfoDto = itemRequestMapper.toItemRequestInfoDto(itemRequest, itemsList);
@@ -72,11 +71,8 @@ class ItemRequestMapperTest {
 
     @Test
     void toItemInfoDtoTest_returnItemRequestInfoDto() {
-        User owner = new User(2L, "Ilya", "ilya@yandex.ru");
-        User user = new User(1L, "Vladimir", "vladimir@yandex.ru");
-        ItemRequest itemRequest = new ItemRequest(1L, "описание", user, LocalDateTime.now());
-        Item item = new Item(1L, "имя", "описание", true, owner, itemRequest);
-        ItemRequestInfoDto.ItemInfoDto expectedItemInfoDto = new ItemRequestInfoDto.ItemInfoDto(1L, "имя", "описание", itemRequest.getId(), true);
+        ItemDtoFromOrToUser item = new ItemDtoFromOrToUser(1L, "имя", "описание", true, 1L);
+        ItemRequestInfoDto.ItemInfoDto expectedItemInfoDto = new ItemRequestInfoDto.ItemInfoDto(1L, "имя", "описание", 1L, true);
 
         ItemRequestInfoDto.ItemInfoDto resultItemInfoDto = itemRequestMapper.toItemInfoDto(item);
 
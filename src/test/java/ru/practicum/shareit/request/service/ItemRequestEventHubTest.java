@@ -0,0 +1,148 @@
+package ru.practicum.shareit.request.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import ru.practicum.shareit.request.dto.ItemRequestInfoDto;
+
+import java.util.concurrent.CountDownLatch;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class ItemRequestEventHubTest {
+
+    private static final long REQUESTER_ID = 1L;
+    private static final long SEND_TIMEOUT_MILLIS = 200L;
+
+    private SimpleMeterRegistry meterRegistry;
+    private ItemRequestEventHub itemRequestEventHub;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        itemRequestEventHub = new ItemRequestEventHub(meterRegistry, 1, 1, SEND_TIMEOUT_MILLIS, 1);
+    }
+
+    @AfterEach
+    void tearDown() {
+        itemRequestEventHub.stop();
+    }
+
+    @Test
+    void onItemRequestFulfilledTest_thenEventSentOnlyToRequesterSubscribers() throws Exception {
+        SseEmitter requesterEmitter = mock(SseEmitter.class);
+        SseEmitter otherEmitter = mock(SseEmitter.class);
+        itemRequestEventHub.subscribe(REQUESTER_ID, requesterEmitter);
+        itemRequestEventHub.subscribe(2L, otherEmitter);
+
+        itemRequestEventHub.onItemRequestFulfilled(fulfilled());
+
+        verify(requesterEmitter, timeout(1000)).send(any(SseEmitter.SseEventBuilder.class));
+        verify(otherEmitter, after(200).never()).send(any(SseEmitter.SseEventBuilder.class));
+        assertEquals(2.0, meterRegistry.get("item.request.events.subscribers").gauge().value());
+    }
+
+    @Test
+    void onItemRequestFulfilledTest_whenSubscriberBufferFull_thenSubscriptionClosed() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        SseEmitter slowEmitter = mock(SseEmitter.class);
+        doAnswer(invocation -> {
+            release.await();
+            return null;
+        }).when(slowEmitter).send(any(SseEmitter.SseEventBuilder.class));
+        itemRequestEventHub.subscribe(REQUESTER_ID, slowEmitter);
+
+        itemRequestEventHub.onItemRequestFulfilled(fulfilled());
+        verify(slowEmitter, timeout(1000)).send(any(SseEmitter.SseEventBuilder.class));
+        itemRequestEventHub.onItemRequestFulfilled(fulfilled());
+        itemRequestEventHub.onItemRequestFulfilled(fulfilled());
+
+        assertEquals(1.0, meterRegistry.get("item.request.events.slow.subscribers").counter().count());
+        assertEquals(0.0, meterRegistry.get("item.request.events.subscribers").gauge().value());
+        verify(slowEmitter, never()).complete();
+
+        release.countDown();
+
+        verify(slowEmitter, timeout(1000)).complete();
+        verify(slowEmitter).send(any(SseEmitter.SseEventBuilder.class));
+    }
+
+    @Test
+    void stopTest_whenSendInProgress_thenSubscriptionClosedBySenderAfterWrite() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        SseEmitter busyEmitter = mock(SseEmitter.class);
+        doAnswer(invocation -> {
+            release.await();
+            return null;
+        }).when(busyEmitter).send(any(SseEmitter.SseEventBuilder.class));
+        SseEmitter idleEmitter = mock(SseEmitter.class);
+        itemRequestEventHub.subscribe(REQUESTER_ID, busyEmitter);
+        itemRequestEventHub.subscribe(2L, idleEmitter);
+        itemRequestEventHub.onItemRequestFulfilled(fulfilled());
+        verify(busyEmitter, timeout(1000)).send(any(SseEmitter.SseEventBuilder.class));
+
+        itemRequestEventHub.stop();
+
+        verify(idleEmitter).complete();
+        verify(busyEmitter, never()).complete();
+
+        release.countDown();
+
+        verify(busyEmitter, timeout(1000)).complete();
+    }
+
+    @Test
+    void onItemRequestFulfilledTest_whenSendFails_thenSubscriberRemoved() throws Exception {
+        SseEmitter brokenEmitter = mock(SseEmitter.class);
+        doThrow(new IllegalStateException("ResponseBodyEmitter has already completed"))
+                .when(brokenEmitter).send(any(SseEmitter.SseEventBuilder.class));
+        itemRequestEventHub.subscribe(REQUESTER_ID, brokenEmitter);
+
+        itemRequestEventHub.onItemRequestFulfilled(fulfilled());
+
+        verify(brokenEmitter, timeout(1000)).send(any(SseEmitter.SseEventBuilder.class));
+        verify(brokenEmitter, after(200).never()).complete();
+        assertEquals(0.0, meterRegistry.get("item.request.events.subscribers").gauge().value());
+    }
+
+    @Test
+    void onItemRequestFulfilledTest_whenSubscriberStalled_thenSubscriberDroppedAndOthersStillServed() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        SseEmitter stalledEmitter = mock(SseEmitter.class);
+        doAnswer(invocation -> {
+            release.await();
+            return null;
+        }).when(stalledEmitter).send(any(SseEmitter.SseEventBuilder.class));
+        SseEmitter otherEmitter = mock(SseEmitter.class);
+        itemRequestEventHub.subscribe(REQUESTER_ID, stalledEmitter);
+        itemRequestEventHub.subscribe(2L, otherEmitter);
+
+        itemRequestEventHub.onItemRequestFulfilled(fulfilled());
+        verify(stalledEmitter, timeout(1000)).send(any(SseEmitter.SseEventBuilder.class));
+        Thread.sleep(SEND_TIMEOUT_MILLIS * 2);
+        itemRequestEventHub.onItemRequestFulfilled(fulfilled());
+        itemRequestEventHub.onItemRequestFulfilled(new ItemRequestFulfilledEvent(2L,
+                new ItemRequestInfoDto.ItemInfoDto(2L, "Пила", "Ручная пила", 2L, true)));
+
+        verify(otherEmitter, timeout(1000)).send(any(SseEmitter.SseEventBuilder.class));
+        assertEquals(1.0, meterRegistry.get("item.request.events.stalled.subscribers").counter().count());
+        assertEquals(1.0, meterRegistry.get("item.request.events.stalled.senders").gauge().value());
+        assertEquals(1.0, meterRegistry.get("item.request.events.subscribers").gauge().value());
+        verify(stalledEmitter, never()).complete();
+
+        release.countDown();
+
+        verify(stalledEmitter, timeout(1000)).complete();
+        verify(stalledEmitter).send(any(SseEmitter.SseEventBuilder.class));
+        assertEquals(0.0, meterRegistry.get("item.request.events.stalled.senders").gauge().value());
+    }
+
+    private static ItemRequestFulfilledEvent fulfilled() {
+        return new ItemRequestFulfilledEvent(REQUESTER_ID,
+                new ItemRequestInfoDto.ItemInfoDto(1L, "Дрель", "Ударная дрель", 1L, true));
+    }
+}
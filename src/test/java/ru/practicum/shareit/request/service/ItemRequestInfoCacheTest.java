@@ -0,0 +1,127 @@
+package ru.practicum.shareit.request.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.service.ItemChangedEvent;
+import ru.practicum.shareit.request.dto.ItemRequestInfoDto;
+import ru.practicum.shareit.request.model.ItemRequest;
+import ru.practicum.shareit.user.model.User;
+import ru.practicum.shareit.user.service.UserDeletedEvent;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+
+class ItemRequestInfoCacheTest {
+
+    private final User user = new User(1L, "Vladimir", "vladimir@yandex.ru");
+    private final ItemRequest drillRequest = new ItemRequest(1L, "Нужна дрель", user, LocalDateTime.now());
+    private final ItemRequest tentRequest = new ItemRequest(2L, "Нужна палатка", user, LocalDateTime.now());
+    private final AtomicInteger loads = new AtomicInteger();
+
+    private ItemRequestInfoCache itemRequestInfoCache;
+
+    @BeforeEach
+    void setUp() {
+        CaffeineCacheManager cacheManager = new CaffeineCacheManager(ItemRequestInfoCache.ITEM_REQUESTS_CACHE);
+        itemRequestInfoCache = new ItemRequestInfoCache(cacheManager);
+    }
+
+    @Test
+    void getTest_whenCalledTwice_thenLoadedOnce() {
+        ItemRequestInfoDto first = get(drillRequest);
+        ItemRequestInfoDto second = get(drillRequest);
+
+        assertEquals(first, second);
+        assertNotSame(first, second);
+        assertEquals(1, loads.get());
+    }
+
+    @Test
+    void getTest_whenReturnedDtoChanged_thenCachedEntryUnchanged() {
+        ItemRequestInfoDto.ItemInfoDto drill = new ItemRequestInfoDto.ItemInfoDto(1L, "Дрель", "Ударная дрель",
+                drillRequest.getId(), true);
+        itemRequestInfoCache.get(drillRequest.getId(), () -> new ItemRequestInfoDto(drillRequest.getId(),
+                drillRequest.getDescription(), drillRequest.getCreated(), new ArrayList<>(List.of(drill))));
+
+        ItemRequestInfoDto changed = get(drillRequest);
+        changed.setDescription("Нужна пила");
+        changed.getItems().get(0).setAvailable(false);
+        changed.getItems().clear();
+        ItemRequestInfoDto cached = get(drillRequest);
+
+        assertEquals(drillRequest.getDescription(), cached.getDescription());
+        assertEquals(List.of(new ItemRequestInfoDto.ItemInfoDto(1L, "Дрель", "Ударная дрель", drillRequest.getId(),
+                true)), cached.getItems());
+        assertEquals(0, loads.get());
+    }
+
+    @Test
+    void onItemChangedTest_whenItemReferencesRequest_thenOnlyThatRequestEvicted() {
+        get(drillRequest);
+        get(tentRequest);
+
+        itemRequestInfoCache.onItemChanged(new ItemChangedEvent(
+                new Item(1L, "Дрель", "Ударная дрель", true, user, drillRequest)));
+        get(drillRequest);
+        get(tentRequest);
+
+        assertEquals(3, loads.get());
+    }
+
+    @Test
+    void onItemChangedTest_whenItemWithoutRequest_thenNothingEvicted() {
+        get(drillRequest);
+
+        itemRequestInfoCache.onItemChanged(new ItemChangedEvent(
+                new Item(1L, "Дрель", "Ударная дрель", true, user, null)));
+        get(drillRequest);
+
+        assertEquals(1, loads.get());
+    }
+
+    @Test
+    void getTest_whenItemChangedDuringLoad_thenResultNotCached() {
+        itemRequestInfoCache.get(drillRequest.getId(), () -> {
+            loads.incrementAndGet();
+            itemRequestInfoCache.onItemChanged(new ItemChangedEvent(
+                    new Item(1L, "Дрель", "Ударная дрель", true, user, drillRequest)));
+            return toDto(drillRequest);
+        });
+        get(drillRequest);
+
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    void onUserDeletedTest_thenAllEntriesEvicted() {
+        get(drillRequest);
+        get(tentRequest);
+
+        itemRequestInfoCache.onUserDeleted(new UserDeletedEvent(user.getId(), Set.of()));
+        get(drillRequest);
+        get(tentRequest);
+
+        assertEquals(4, loads.get());
+    }
+
+    private ItemRequestInfoDto get(ItemRequest itemRequest) {
+        return itemRequestInfoCache.get(itemRequest.getId(), () -> {
+            loads.incrementAndGet();
+            return toDto(itemRequest);
+        });
+    }
+
+    private static ItemRequestInfoDto toDto(ItemRequest itemRequest) {
+        return new ItemRequestInfoDto(itemRequest.getId(), itemRequest.getDescription(), itemRequest.getCreated(),
+                Collections.emptyList());
+    }
+}
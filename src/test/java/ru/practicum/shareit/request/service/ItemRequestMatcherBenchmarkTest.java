@@ -0,0 +1,172 @@
+package ru.practicum.shareit.request.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.service.ItemChangedEvent;
+import ru.practicum.shareit.item.storage.ItemRepository;
+import ru.practicum.shareit.request.model.ItemRequest;
+import ru.practicum.shareit.request.storage.ItemRequestMatchStorage;
+import ru.practicum.shareit.request.storage.ItemRequestRepository;
+import ru.practicum.shareit.request.storage.OpenItemRequestIndex;
+import ru.practicum.shareit.user.model.User;
+import ru.practicum.shareit.user.storage.UserRepository;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Пропускная способность подбора запросов при разном числе потоков. Каждая вещь приходит несколько раз подряд,
+ * как при повторных изменениях, поэтому в пачках встречаются повторы одной вещи. Запись кандидатов
+ * не должна падать на первичном ключе item_request_matches ни при каком числе потоков.
+ * Данные коммитятся, чтобы их видели потоки подбора, и удаляются после теста вместе с пользователями.
+ * Запуск: mvn test -P benchmark
+ */
+@Tag("benchmark")
+@Slf4j
+@DataJpaTest(properties = {"db.name=shareItTest"})
+@Import({OpenItemRequestIndex.class, ItemRequestMatchStorage.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class ItemRequestMatcherBenchmarkTest {
+
+    private static final int REQUESTS = 2_000;
+    private static final int ITEMS = 5_000;
+    private static final int CHANGES_PER_ITEM = 3;
+    private static final int[] THREADS = {1, 2, 4};
+    private static final String[] WORDS = {"дрель", "пила", "палатка", "лестница", "перфоратор", "отвертка",
+            "ударная", "ручная", "туристическая", "складная", "аккумуляторная", "большая", "легкая", "садовая",
+            "сверла", "бетон", "дерево", "поход", "ремонт", "дача"};
+
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private ItemRequestRepository itemRequestRepository;
+    @Autowired
+    private ItemRepository itemRepository;
+    @Autowired
+    private OpenItemRequestIndex openItemRequestIndex;
+    @Autowired
+    private ItemRequestMatchStorage itemRequestMatchStorage;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private final List<User> users = new ArrayList<>();
+    private List<Item> items;
+
+    @BeforeEach
+    void setUp() {
+        User requester = userRepository.save(new User(null, "Kirill", "kirill.matching@yandex.ru"));
+        User owner = userRepository.save(new User(null, "Ilya", "ilya.matching@yandex.ru"));
+        users.add(requester);
+        users.add(owner);
+        Random random = new Random(42);
+        List<ItemRequest> requests = new ArrayList<>(REQUESTS);
+        for (int i = 0; i < REQUESTS; i++) {
+            requests.add(new ItemRequest(null, "нужна " + text(random, 3), requester, LocalDateTime.now()));
+        }
+        itemRequestRepository.saveAll(requests);
+        List<Item> newItems = new ArrayList<>(ITEMS);
+        for (int i = 0; i < ITEMS; i++) {
+            newItems.add(new Item(null, text(random, 1), text(random, 3), true, owner, null));
+        }
+        items = itemRepository.saveAll(newItems);
+        openItemRequestIndex.rebuild();
+    }
+
+    @AfterEach
+    void tearDown() {
+        users.forEach(user -> userRepository.deleteById(user.getId()));
+    }
+
+    @Test
+    void processTest_throughputByThreads() throws InterruptedException {
+        for (int threads : THREADS) {
+            Result result = measure(threads);
+            log.info("Подбор запросов, потоков {}: {}", threads, result);
+
+            assertThat(result.failed).isZero();
+            assertThat(result.processed).isEqualTo((long) ITEMS * CHANGES_PER_ITEM);
+        }
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM item_request_matches", Long.class))
+                .isPositive();
+    }
+
+    private Result measure(int threads) throws InterruptedException {
+        long events = (long) ITEMS * CHANGES_PER_ITEM;
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        ItemRequestMatcher matcher = new ItemRequestMatcher(openItemRequestIndex, itemRequestMatchStorage,
+                meterRegistry, threads, (int) events * threads);
+        matcher.start();
+        try {
+            long startedAt = System.nanoTime();
+            for (Item item : items) {
+                for (int change = 0; change < CHANGES_PER_ITEM; change++) {
+                    matcher.onItemChanged(new ItemChangedEvent(item));
+                }
+            }
+            long deadline = startedAt + TimeUnit.MINUTES.toNanos(2);
+            while (handled(meterRegistry) < events && System.nanoTime() < deadline) {
+                TimeUnit.MILLISECONDS.sleep(5);
+            }
+            double seconds = (System.nanoTime() - startedAt) / 1_000_000_000.0;
+            return new Result(count(meterRegistry, "item.request.matching.processed"),
+                    count(meterRegistry, "item.request.matching.failed"), events / seconds);
+        } finally {
+            matcher.stop();
+        }
+    }
+
+    private static long handled(SimpleMeterRegistry meterRegistry) {
+        return count(meterRegistry, "item.request.matching.processed")
+                + count(meterRegistry, "item.request.matching.failed")
+                + count(meterRegistry, "item.request.matching.dropped");
+    }
+
+    private static long count(SimpleMeterRegistry meterRegistry, String name) {
+        return (long) meterRegistry.get(name).counter().count();
+    }
+
+    private static String text(Random random, int words) {
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < words; i++) {
+            if (i > 0) {
+                text.append(' ');
+            }
+            text.append(WORDS[random.nextInt(WORDS.length)]);
+        }
+        return text.toString();
+    }
+
+    private static class Result {
+        private final long processed;
+        private final long failed;
+        private final double itemsPerSecond;
+
+        Result(long processed, long failed, double itemsPerSecond) {
+            this.processed = processed;
+            this.failed = failed;
+            this.itemsPerSecond = itemsPerSecond;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("обработано изменений %d, ошибок записи %d, %.0f изменений/с",
+                    processed, failed, itemsPerSecond);
+        }
+    }
+}
@@ -0,0 +1,149 @@
+package ru.practicum.shareit.request.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.DuplicateKeyException;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.service.ItemChangedEvent;
+import ru.practicum.shareit.item.storage.ItemSearchDocument;
+import ru.practicum.shareit.request.model.ItemRequest;
+import ru.practicum.shareit.request.model.ItemRequestMatch;
+import ru.practicum.shareit.request.storage.ItemRequestMatchStorage;
+import ru.practicum.shareit.request.storage.OpenItemRequestIndex;
+import ru.practicum.shareit.user.model.User;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class ItemRequestMatcherTest {
+
+    @Mock
+    private OpenItemRequestIndex openItemRequestIndex;
+    @Mock
+    private ItemRequestMatchStorage itemRequestMatchStorage;
+
+    private SimpleMeterRegistry meterRegistry;
+    private ItemRequestMatcher itemRequestMatcher;
+    private User owner;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        itemRequestMatcher = new ItemRequestMatcher(openItemRequestIndex, itemRequestMatchStorage, meterRegistry,
+                1, 1);
+        owner = new User(1L, "Kirill", "kirill@yandex.ru");
+    }
+
+    @Test
+    void onItemChangedTest_whenQueueFull_thenItemDroppedAndCounted() {
+        itemRequestMatcher.onItemChanged(new ItemChangedEvent(new Item(1L, "Дрель", "Ударная", true, owner, null)));
+        itemRequestMatcher.onItemChanged(new ItemChangedEvent(new Item(2L, "Пила", "Ручная", true, owner, null)));
+
+        assertEquals(1.0, meterRegistry.get("item.request.matching.queue").gauge().value());
+        assertEquals(1.0, meterRegistry.get("item.request.matching.dropped").counter().count());
+    }
+
+    @Test
+    void onItemChangedTest_whenItemUnavailableOrHasRequest_thenItemNotQueued() {
+        ItemRequest itemRequest = new ItemRequest(1L, "Нужна дрель", new User(2L, "Ilya", "ilya@yandex.ru"),
+                LocalDateTime.now());
+
+        itemRequestMatcher.onItemChanged(new ItemChangedEvent(new Item(1L, "Дрель", "Ударная", false, owner, null)));
+        itemRequestMatcher.onItemChanged(new ItemChangedEvent(new Item(2L, "Дрель", "Ударная", true, owner,
+                itemRequest)));
+
+        assertEquals(0.0, meterRegistry.get("item.request.matching.queue").gauge().value());
+    }
+
+    @Test
+    void processTest_thenMatchesOfBatchReplacedByOneCall() {
+        ItemRequestMatch match = new ItemRequestMatch(5L, 1L, 0.8);
+        when(openItemRequestIndex.match(1L, 1L, "Дрель Ударная", ItemRequestMatcher.MAX_MATCHES_PER_ITEM))
+                .thenReturn(List.of(match));
+        when(openItemRequestIndex.match(2L, 1L, "Пила Ручная", ItemRequestMatcher.MAX_MATCHES_PER_ITEM))
+                .thenReturn(List.of());
+
+        itemRequestMatcher.process(List.of(new ItemSearchDocument(1L, 1L, "Дрель", "Ударная"),
+                new ItemSearchDocument(2L, 1L, "Пила", "Ручная")));
+
+        verify(itemRequestMatchStorage).replaceForItems(List.of(1L, 2L), List.of(match));
+        assertEquals(2.0, meterRegistry.get("item.request.matching.processed").counter().count());
+    }
+
+    @Test
+    void processTest_whenItemRepeatedInBatch_thenOnlyLastTextMatched() {
+        ItemRequestMatch match = new ItemRequestMatch(5L, 1L, 0.8);
+        when(openItemRequestIndex.match(1L, 1L, "Перфоратор Ударный", ItemRequestMatcher.MAX_MATCHES_PER_ITEM))
+                .thenReturn(List.of(match));
+        when(openItemRequestIndex.match(2L, 1L, "Пила Ручная", ItemRequestMatcher.MAX_MATCHES_PER_ITEM))
+                .thenReturn(List.of());
+
+        itemRequestMatcher.process(List.of(new ItemSearchDocument(1L, 1L, "Дрель", "Ударная"),
+                new ItemSearchDocument(2L, 1L, "Пила", "Ручная"),
+                new ItemSearchDocument(1L, 1L, "Перфоратор", "Ударный")));
+
+        verify(itemRequestMatchStorage).replaceForItems(List.of(2L, 1L), List.of(match));
+        verify(openItemRequestIndex, never()).match(1L, 1L, "Дрель Ударная", ItemRequestMatcher.MAX_MATCHES_PER_ITEM);
+    }
+
+    @Test
+    void processTest_whenSaveFailed_thenItemsCountedAsFailed() {
+        when(openItemRequestIndex.match(1L, 1L, "Дрель Ударная", ItemRequestMatcher.MAX_MATCHES_PER_ITEM))
+                .thenReturn(List.of());
+        doThrow(new DuplicateKeyException("item_request_matches")).when(itemRequestMatchStorage)
+                .replaceForItems(List.of(1L), List.of());
+
+        itemRequestMatcher.process(List.of(new ItemSearchDocument(1L, 1L, "Дрель", "Ударная")));
+
+        assertEquals(1.0, meterRegistry.get("item.request.matching.failed").counter().count());
+        assertEquals(0.0, meterRegistry.get("item.request.matching.processed").counter().count());
+    }
+
+    @Test
+    void processTest_whenBatchViolatesForeignKey_thenItemsSavedOneByOne() {
+        ItemRequestMatch drillMatch = new ItemRequestMatch(5L, 1L, 0.8);
+        ItemRequestMatch sawMatch = new ItemRequestMatch(6L, 2L, 0.6);
+        when(openItemRequestIndex.match(1L, 1L, "Дрель Ударная", ItemRequestMatcher.MAX_MATCHES_PER_ITEM))
+                .thenReturn(List.of(drillMatch));
+        when(openItemRequestIndex.match(2L, 1L, "Пила Ручная", ItemRequestMatcher.MAX_MATCHES_PER_ITEM))
+                .thenReturn(List.of(sawMatch));
+        doThrow(new DataIntegrityViolationException("fk_item_request_matches_to_requests"))
+                .when(itemRequestMatchStorage).replaceForItems(List.of(1L, 2L), List.of(drillMatch, sawMatch));
+        doThrow(new DataIntegrityViolationException("fk_item_request_matches_to_requests"))
+                .when(itemRequestMatchStorage).replaceForItems(List.of(2L), List.of(sawMatch));
+
+        itemRequestMatcher.process(List.of(new ItemSearchDocument(1L, 1L, "Дрель", "Ударная"),
+                new ItemSearchDocument(1L, 1L, "Дрель", "Ударная"),
+                new ItemSearchDocument(2L, 1L, "Пила", "Ручная")));
+
+        verify(itemRequestMatchStorage).replaceForItems(List.of(1L), List.of(drillMatch));
+        assertEquals(2.0, meterRegistry.get("item.request.matching.processed").counter().count());
+        assertEquals(1.0, meterRegistry.get("item.request.matching.failed").counter().count());
+    }
+
+    @Test
+    void onItemChangedTest_whenSameItemChangedTwice_thenBothChangesGoToOneWorkerQueue() {
+        meterRegistry = new SimpleMeterRegistry();
+        itemRequestMatcher = new ItemRequestMatcher(openItemRequestIndex, itemRequestMatchStorage, meterRegistry,
+                2, 2);
+
+        itemRequestMatcher.onItemChanged(new ItemChangedEvent(new Item(1L, "Дрель", "Ударная", true, owner, null)));
+        itemRequestMatcher.onItemChanged(new ItemChangedEvent(new Item(1L, "Дрель", "Новая", true, owner, null)));
+        itemRequestMatcher.onItemChanged(new ItemChangedEvent(new Item(2L, "Пила", "Ручная", true, owner, null)));
+
+        assertEquals(2.0, meterRegistry.get("item.request.matching.queue").gauge().value());
+        assertEquals(1.0, meterRegistry.get("item.request.matching.dropped").counter().count());
+    }
+}
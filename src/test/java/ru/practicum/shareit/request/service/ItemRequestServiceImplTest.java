@@ -1,5 +1,6 @@
 package ru.practicum.shareit.request.service;
 
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.ArgumentCaptor;
@@ -7,23 +8,27 @@ import org.mockito.Captor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
-import org.springframework.data.domain.PageRequest;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 import ru.practicum.shareit.exceptions.ObjectNotFoundException;
-import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.dto.ItemDtoFromOrToUser;
 import ru.practicum.shareit.item.service.ItemService;
+import ru.practicum.shareit.pagination.Cursor;
 import ru.practicum.shareit.request.dto.ItemRequestFromUserDto;
 import ru.practicum.shareit.request.dto.ItemRequestInfoDto;
 import ru.practicum.shareit.request.dto.ItemRequestToUserDto;
 import ru.practicum.shareit.request.dto.mapper.ItemRequestMapper;
 import ru.practicum.shareit.request.model.ItemRequest;
+import ru.practicum.shareit.request.storage.ItemRequestInfoStorage;
 import ru.practicum.shareit.request.storage.ItemRequestRepository;
 import ru.practicum.shareit.user.model.User;
-import ru.practicum.shareit.user.storage.UserRepository;
+import ru.practicum.shareit.user.service.ActingUserContext;
 
 import java.time.LocalDateTime;
 import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
+import java.util.function.Supplier;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
@@ -38,11 +43,23 @@ class ItemRequestServiceImplTest {
     private ItemService itemService;
 
     @Mock
-    private UserRepository userRepository;
+    private ActingUserContext actingUserContext;
 
     @Mock
     private ItemRequestMapper itemRequestMapper;
 
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @Mock
+    private ItemRequestEventHub itemRequestEventHub;
+
+    @Mock
+    private ItemRequestInfoCache itemRequestInfoCache;
+
+    @Mock
+    private ItemRequestInfoStorage itemRequestInfoStorage;
+
     @InjectMocks
     private ItemRequestServiceImpl itemRequestService;
 
@@ -52,13 +69,19 @@ class ItemRequestServiceImplTest {
     private static final long requesterUserId = 1L;
     private static final long requestId = 1;
 
+    @BeforeEach
+    void setUp() {
+        lenient().when(itemRequestInfoCache.get(anyLong(), any()))
+                .thenAnswer(invocation -> invocation.<Supplier<ItemRequestInfoDto>>getArgument(1).get());
+    }
+
     @Test
     void addTest_returnItemRequestToUserDto() {
         User user = new User(1L, "Vladimir", "vladimir@yandex.ru");
         ItemRequest itemRequest = new ItemRequest(1L, "описание", user, LocalDateTime.now());
         ItemRequestFromUserDto itemRequestFromUserDto = new ItemRequestFromUserDto("описание");
         ItemRequestToUserDto expectedItemRequestToUserDto = new ItemRequestToUserDto(1L, "описание", itemRequest.getCreated());
-        when(userRepository.findById(requesterUserId)).thenReturn(Optional.of(user));
+        when(actingUserContext.resolve(requesterUserId)).thenReturn(user);
         when(itemRequestMapper.toItemRequest(itemRequestFromUserDto)).thenReturn(itemRequest);
         when(itemRequestRepository.save(itemRequest)).thenReturn(itemRequest);
         when(itemRequestMapper.toItemRequestForUserDto(itemRequest)).thenReturn(expectedItemRequestToUserDto);
@@ -66,13 +89,15 @@ class ItemRequestServiceImplTest {
         ItemRequestToUserDto savedItemRequestDto = itemRequestService.add(itemRequestFromUserDto, requesterUserId);
 
         verify(itemRequestRepository, times(1)).save(itemRequest);
+        verify(eventPublisher).publishEvent(any(ItemRequestCreatedEvent.class));
         assertEquals(expectedItemRequestToUserDto, savedItemRequestDto);
     }
 
     @Test
     void addTest_whenUserNotFoundById_thenReturnObjectNotFoundException() {
         ItemRequestFromUserDto itemRequestFromUserDto = new ItemRequestFromUserDto("описание");
-        when(userRepository.findById(requesterUserId)).thenReturn(Optional.empty());
+        when(actingUserContext.resolve(requesterUserId))
+                .thenThrow(new ObjectNotFoundException(String.format("Пользователь с id %d не найден", requesterUserId)));
 
         ObjectNotFoundException exception = assertThrows(ObjectNotFoundException.class, () ->
                 itemRequestService.add(itemRequestFromUserDto, 1L));
@@ -82,7 +107,8 @@ class ItemRequestServiceImplTest {
 
     @Test
     void getByIdTest_whenUserNotFound_thenThrowObjectNotFoundException() {
-        when(userRepository.findById(requesterUserId)).thenReturn(Optional.empty());
+        when(actingUserContext.resolve(requesterUserId))
+                .thenThrow(new ObjectNotFoundException(String.format("Пользователь с id %d не найден", requesterUserId)));
 
         final ObjectNotFoundException exception = assertThrows(ObjectNotFoundException.class, () ->
                 itemRequestService.getById(requestId, requesterUserId));
@@ -94,7 +120,7 @@ class ItemRequestServiceImplTest {
     void getByIdTest_whenItemRequestNotFound_thenThrowObjectNotFoundException() {
         User user = new User(1L, "Vladimir", "vladimir@yandex.ru");
         when(itemRequestRepository.findById(requestId)).thenReturn(Optional.empty());
-        when(userRepository.findById(requesterUserId)).thenReturn(Optional.of(user));
+        when(actingUserContext.resolve(requesterUserId)).thenReturn(user);
 
         final ObjectNotFoundException exception = assertThrows(ObjectNotFoundException.class, () ->
                 itemRequestService.getById(requestId, requesterUserId));
@@ -105,16 +131,15 @@ class ItemRequestServiceImplTest {
     @Test
     void getByIdTest_whenUserAndItemRequestWereFound_thenReturnItemRequestInfoDto() {
         User user = new User(1L, "Vladimir", "vladimir@yandex.ru");
-        User owner = new User(2L, "Ilya", "ilya@yandex.ru");
         ItemRequest itemRequest = new ItemRequest(1L, "описание", user, LocalDateTime.now());
         ItemRequestInfoDto.ItemInfoDto itemInfoDto = new ItemRequestInfoDto.ItemInfoDto(1L, "имя", "описание", itemRequest.getId(), true);
         ItemRequestInfoDto expectedItemRequestInfoDto = new ItemRequestInfoDto(1L, "описание", itemRequest.getCreated(), List.of(itemInfoDto));
-        Item item = new Item(1L, "имя", "описание", true, owner, itemRequest);
+        ItemDtoFromOrToUser item = new ItemDtoFromOrToUser(1L, "имя", "описание", true, itemRequest.getId());
 
         long requestId = 1;
         when(itemService.findItemsForRequest(requestId)).thenReturn(List.of(item));
         when(itemRequestRepository.findById(requestId)).thenReturn(Optional.of(itemRequest));
-        when(userRepository.findById(requesterUserId)).thenReturn(Optional.of(user));
+        when(actingUserContext.resolve(requesterUserId)).thenReturn(user);
         when(itemRequestMapper.toItemRequestInfoDto(itemRequest, List.of(item))).thenReturn(expectedItemRequestInfoDto);
 
         ItemRequestInfoDto savedItemRequestInfoDto = itemRequestService.getById(requestId, requesterUserId);
@@ -125,13 +150,12 @@ class ItemRequestServiceImplTest {
     @Test
     void getByIdTest_whenNoResponsesFoundForItemRequest_thenReturnItemRequestInfoDtoWithEmptyItemsList() {
         User user = new User(1L, "Vladimir", "vladimir@yandex.ru");
-        User owner = new User(2L, "Ilya", "ilya@yandex.ru");
         ItemRequest itemRequest = new ItemRequest(1L, "описание", user, LocalDateTime.now());
-        Item item = new Item(1L, "имя", "описание", true, owner, itemRequest);
+        ItemDtoFromOrToUser item = new ItemDtoFromOrToUser(1L, "имя", "описание", true, itemRequest.getId());
         ItemRequestInfoDto expectedItemRequestInfoDto = new ItemRequestInfoDto(1L, "описание", itemRequest.getCreated(), Collections.emptyList());
 
         when(itemService.findItemsForRequest(requestId)).thenReturn(List.of(item));
-        when(userRepository.findById(requesterUserId)).thenReturn(Optional.of(user));
+        when(actingUserContext.resolve(requesterUserId)).thenReturn(user);
         when(itemRequestRepository.findById(requestId)).thenReturn(Optional.of(itemRequest));
         when(itemRequestMapper.toItemRequestInfoDto(any(ItemRequest.class), anyList())).thenReturn(expectedItemRequestInfoDto);
 
@@ -141,9 +165,23 @@ class ItemRequestServiceImplTest {
         assertEquals(expectedItemRequestInfoDto, savedItemRequestInfoDto);
     }
 
+    @Test
+    void getByIdTest_whenItemRequestCached_thenRepositoryNotCalled() {
+        User user = new User(1L, "Vladimir", "vladimir@yandex.ru");
+        ItemRequestInfoDto cachedItemRequestInfoDto = new ItemRequestInfoDto(1L, "описание", LocalDateTime.now(), Collections.emptyList());
+        when(actingUserContext.resolve(requesterUserId)).thenReturn(user);
+        when(itemRequestInfoCache.get(eq(requestId), any())).thenReturn(cachedItemRequestInfoDto);
+
+        ItemRequestInfoDto itemRequestInfoDto = itemRequestService.getById(requestId, requesterUserId);
+
+        assertSame(cachedItemRequestInfoDto, itemRequestInfoDto);
+        verifyNoInteractions(itemRequestRepository, itemService);
+    }
+
     @Test
     void getAllForUserTest_whenNoUserFound_thenThrowObjectNotFoundException() {
-        when(userRepository.findById(requesterUserId)).thenReturn(Optional.empty());
+        when(actingUserContext.resolve(requesterUserId))
+                .thenThrow(new ObjectNotFoundException(String.format("Пользователь с id %d не найден", requesterUserId)));
 
         ObjectNotFoundException exception = assertThrows(ObjectNotFoundException.class, () ->
                 itemRequestService.getAllForUser(requesterUserId));
@@ -154,8 +192,8 @@ class ItemRequestServiceImplTest {
     @Test
     void getAllForUserTest_whenEmptyItemRequestsList_thenReturnEmptyList() {
         User user = new User(1L, "Vladimir", "vladimir@yandex.ru");
-        when(userRepository.findById(requesterUserId)).thenReturn(Optional.of(user));
-        when(itemRequestRepository.findAllByRequesterOrderByCreatedDesc(user)).thenReturn(Collections.emptyList());
+        when(actingUserContext.resolve(requesterUserId)).thenReturn(user);
+        when(itemRequestInfoStorage.findAllByRequester(requesterUserId)).thenReturn(Collections.emptyList());
 
         List<ItemRequestInfoDto> resultList = itemRequestService.getAllForUser(requesterUserId);
 
@@ -165,12 +203,9 @@ class ItemRequestServiceImplTest {
     @Test
     void getAllForUserTest_whenNoItemsResponseForThisRequest_thenReturnItemRequestInfoDtoWithEmptyItemsList() {
         User user = new User(1L, "Vladimir", "vladimir@yandex.ru");
-        ItemRequest itemRequest = new ItemRequest(1L, "описание", user, LocalDateTime.now());
-        ItemRequestInfoDto expectedItemRequestInfoDto = new ItemRequestInfoDto(1L, "описание", itemRequest.getCreated(), Collections.emptyList());
-        when(userRepository.findById(requesterUserId)).thenReturn(Optional.of(user));
-        when(itemRequestRepository.findAllByRequesterOrderByCreatedDesc(user)).thenReturn(List.of(itemRequest));
-        when(itemService.findItemsForRequests(List.of(itemRequest))).thenReturn(Collections.emptyList());
-        when(itemRequestMapper.toItemRequestInfoDto(itemRequest, Collections.emptyList())).thenReturn(expectedItemRequestInfoDto);
+        ItemRequestInfoDto expectedItemRequestInfoDto = new ItemRequestInfoDto(1L, "описание", LocalDateTime.now(), Collections.emptyList());
+        when(actingUserContext.resolve(requesterUserId)).thenReturn(user);
+        when(itemRequestInfoStorage.findAllByRequester(requesterUserId)).thenReturn(List.of(expectedItemRequestInfoDto));
 
         List<ItemRequestInfoDto> resultList = itemRequestService.getAllForUser(requesterUserId);
 
@@ -180,19 +215,15 @@ class ItemRequestServiceImplTest {
     @Test
     void getAllForUserTest_whenUserAndItemRequestAndItemsResponsesWereFound_thenReturnItemRequestInfoDtoWithItemsList() {
         User user = new User(1L, "Vladimir", "vladimir@yandex.ru");
-        User owner = new User(2L, "Ilya", "ilya@yandex.ru");
-        ItemRequest itemRequest = new ItemRequest(1L, "описание", user, LocalDateTime.now());
-        ItemRequestInfoDto.ItemInfoDto itemInfoDto = new ItemRequestInfoDto.ItemInfoDto(1L, "имя", "описание", itemRequest.getId(), true);
-        ItemRequestInfoDto expectedItemRequestInfoDto = new ItemRequestInfoDto(1L, "описание", itemRequest.getCreated(), List.of(itemInfoDto));
-        Item item = new Item(1L, "имя", "описание", true, owner, itemRequest);
-        when(userRepository.findById(requesterUserId)).thenReturn(Optional.of(user));
-        when(itemRequestRepository.findAllByRequesterOrderByCreatedDesc(user)).thenReturn(List.of(itemRequest));
-        when(itemService.findItemsForRequests(List.of(itemRequest))).thenReturn(List.of(item));
-        when(itemRequestMapper.toItemRequestInfoDto(itemRequest, List.of(item))).thenReturn(expectedItemRequestInfoDto);
+        ItemRequestInfoDto.ItemInfoDto itemInfoDto = new ItemRequestInfoDto.ItemInfoDto(1L, "имя", "описание", requestId, true);
+        ItemRequestInfoDto expectedItemRequestInfoDto = new ItemRequestInfoDto(1L, "описание", LocalDateTime.now(), List.of(itemInfoDto));
+        when(actingUserContext.resolve(requesterUserId)).thenReturn(user);
+        when(itemRequestInfoStorage.findAllByRequester(requesterUserId)).thenReturn(List.of(expectedItemRequestInfoDto));
 
         List<ItemRequestInfoDto> resultList = itemRequestService.getAllForUser(requesterUserId);
 
         assertEquals(List.of(expectedItemRequestInfoDto), resultList);
+        verifyNoInteractions(itemRequestRepository, itemService);
     }
 
     @Test
@@ -200,7 +231,8 @@ class ItemRequestServiceImplTest {
         long userId = requesterUserId;
         int page = 0;
         int size = 1;
-        when(userRepository.findById(userId)).thenReturn(Optional.empty());
+        when(actingUserContext.resolve(userId))
+                .thenThrow(new ObjectNotFoundException(String.format("Пользователь с id %d не найден", userId)));
 
         ObjectNotFoundException exception = assertThrows(ObjectNotFoundException.class, () ->
                 itemRequestService.getAllFromOtherUsersPageable(userId, page, size));
@@ -214,8 +246,8 @@ class ItemRequestServiceImplTest {
         long userId = requesterUserId;
         int page = 0;
         int size = 1;
-        when(userRepository.findById(userId)).thenReturn(Optional.of(user));
-        when(itemRequestRepository.findAllByRequesterNotOrderByCreatedDesc(user, PageRequest.of(page, size))).thenReturn(Collections.emptyList());
+        when(actingUserContext.resolve(userId)).thenReturn(user);
+        when(itemRequestInfoStorage.findAllByRequesterNot(userId, 0, size)).thenReturn(Collections.emptyList());
 
         List<ItemRequestInfoDto> resultList = itemRequestService.getAllFromOtherUsersPageable(userId, page, size);
 
@@ -225,21 +257,50 @@ class ItemRequestServiceImplTest {
     @Test
     void getAllFromOtherUsersPageableTest_whenUserAndItemRequestsWereFound_thenReturnItemRequestInfoDtoList() {
         User user = new User(1L, "Vladimir", "vladimir@yandex.ru");
-        User owner = new User(2L, "Ilya", "ilya@yandex.ru");
-        ItemRequest itemRequest = new ItemRequest(1L, "описание", user, LocalDateTime.now());
-        ItemRequestInfoDto.ItemInfoDto itemInfoDto = new ItemRequestInfoDto.ItemInfoDto(1L, "имя", "описание", itemRequest.getId(), true);
-        ItemRequestInfoDto expectedItemRequestInfoDto = new ItemRequestInfoDto(1L, "описание", itemRequest.getCreated(), List.of(itemInfoDto));
-        Item item = new Item(1L, "имя", "описание", true, owner, itemRequest);
+        ItemRequestInfoDto.ItemInfoDto itemInfoDto = new ItemRequestInfoDto.ItemInfoDto(1L, "имя", "описание", requestId, true);
+        ItemRequestInfoDto expectedItemRequestInfoDto = new ItemRequestInfoDto(1L, "описание", LocalDateTime.now(), List.of(itemInfoDto));
         long userId = requesterUserId;
-        int page = 0;
-        int size = 1;
-        when(userRepository.findById(userId)).thenReturn(Optional.of(user));
-        when(itemRequestRepository.findAllByRequesterNotOrderByCreatedDesc(user, PageRequest.of(page, size))).thenReturn(List.of(itemRequest));
-        when(itemService.findItemsForRequests(List.of(itemRequest))).thenReturn(List.of(item));
-        when(itemRequestMapper.toItemRequestInfoDto(itemRequest, List.of(item))).thenReturn(expectedItemRequestInfoDto);
+        int page = 2;
+        int size = 10;
+        when(actingUserContext.resolve(userId)).thenReturn(user);
+        when(itemRequestInfoStorage.findAllByRequesterNot(userId, page * size, size)).thenReturn(List.of(expectedItemRequestInfoDto));
 
         List<ItemRequestInfoDto> resultList = itemRequestService.getAllFromOtherUsersPageable(userId, page, size);
 
         assertEquals(List.of(expectedItemRequestInfoDto), resultList);
     }
-}
\ No newline at end of file
+
+    @Test
+    void getAllFromOtherUsersByCursorTest_whenItemRequestsWereFound_thenReadPageAfterCursor() {
+        User user = new User(1L, "Vladimir", "vladimir@yandex.ru");
+        ItemRequestInfoDto expectedItemRequestInfoDto = new ItemRequestInfoDto(1L, "описание", LocalDateTime.now(), Collections.emptyList());
+        Cursor cursor = new Cursor(LocalDateTime.of(2025, 10, 21, 10, 10, 10), 5L);
+        int size = 1;
+        when(actingUserContext.resolve(requesterUserId)).thenReturn(user);
+        when(itemRequestInfoStorage.findAllByRequesterNotAfterCursor(requesterUserId, cursor, size))
+                .thenReturn(List.of(expectedItemRequestInfoDto));
+
+        List<ItemRequestInfoDto> resultList = itemRequestService.getAllFromOtherUsersByCursor(requesterUserId, cursor, size);
+
+        assertEquals(List.of(expectedItemRequestInfoDto), resultList);
+    }
+
+    @Test
+    void subscribeTest_whenUserNotFound_thenThrowObjectNotFoundException() {
+        when(actingUserContext.resolve(requesterUserId))
+                .thenThrow(new ObjectNotFoundException(String.format("Пользователь с id %d не найден", requesterUserId)));
+
+        assertThrows(ObjectNotFoundException.class, () -> itemRequestService.subscribe(requesterUserId));
+
+        verifyNoInteractions(itemRequestEventHub);
+    }
+
+    @Test
+    void subscribeTest_whenUserFound_thenReturnEmitterFromHub() {
+        SseEmitter emitter = new SseEmitter();
+        when(actingUserContext.resolve(requesterUserId)).thenReturn(new User(1L, "Vladimir", "vladimir@yandex.ru"));
+        when(itemRequestEventHub.subscribe(requesterUserId)).thenReturn(emitter);
+
+        assertSame(emitter, itemRequestService.subscribe(requesterUserId));
+    }
+}
@@ -0,0 +1,165 @@
+package ru.practicum.shareit.request.storage;
+
+import lombok.extern.slf4j.Slf4j;
+import net.ttddyy.dsproxy.QueryCountHolder;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.jackson.JacksonAutoConfiguration;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import ru.practicum.shareit.StatementCountingDataSourceConfiguration;
+import ru.practicum.shareit.item.dto.ItemDtoFromOrToUser;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.request.dto.ItemRequestInfoDto;
+import ru.practicum.shareit.request.model.ItemRequest;
+import ru.practicum.shareit.user.model.User;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Сравнивает чтение страницы чужих запросов с откликнувшимися вещами тремя способами: запросы и вещи-сущности
+ * двумя операторами с группировкой по запросу, запросы и проекции вещей так же и ItemRequestInfoStorage одним
+ * оператором. Операторы считаются прокси источника данных, поэтому учитывается и SQL JdbcTemplate.
+ * На H2 проверяется запасной вариант с LEFT JOIN; агрегат json_agg работает только на PostgreSQL.
+ * Запуск: mvn test -P benchmark
+ */
+@Tag("benchmark")
+@Slf4j
+@DataJpaTest(properties = {"db.name=shareItTest"})
+@Import({ItemRequestInfoStorage.class, JacksonAutoConfiguration.class, StatementCountingDataSourceConfiguration.class})
+class ItemRequestAggregationBenchmarkTest {
+
+    private static final int REQUESTERS = 20;
+    private static final int REQUESTS = 1_000;
+    private static final int ITEMS_PER_REQUEST = 20;
+    private static final int ITERATIONS = 20;
+    private static final String REQUESTS_OF_OTHERS = "select r from ItemRequest as r where r.requester <> ?1 " +
+            "order by r.created desc";
+    private static final String ITEMS_FOR_REQUESTS = "select it from Item as it where it.request in ?1";
+    private static final String ITEM_DTOS_FOR_REQUESTS =
+            "select new ru.practicum.shareit.item.dto.ItemDtoFromOrToUser(" +
+            "it.id, it.name, it.description, it.available, it.request.id) " +
+            "from Item as it where it.request in ?1 order by it.id";
+
+    @Autowired
+    private ItemRequestInfoStorage itemRequestInfoStorage;
+    @Autowired
+    private TestEntityManager testEntityManager;
+
+    private User viewer;
+
+    @BeforeEach
+    void setUp() {
+        viewer = testEntityManager.persist(new User(null, "Зритель", "viewer@yandex.ru"));
+        User owner = testEntityManager.persist(new User(null, "Владелец", "owner@yandex.ru"));
+        List<User> requesters = new ArrayList<>();
+        for (int i = 0; i < REQUESTERS; i++) {
+            requesters.add(testEntityManager.persist(new User(null, "Автор " + i, "requester" + i + "@yandex.ru")));
+        }
+        LocalDateTime created = LocalDateTime.now();
+        for (int i = 0; i < REQUESTS; i++) {
+            ItemRequest request = testEntityManager.persist(new ItemRequest(null, "нужна вещь " + i,
+                    requesters.get(i % REQUESTERS), created.minusMinutes(i)));
+            for (int j = 0; j < ITEMS_PER_REQUEST; j++) {
+                testEntityManager.persist(new Item(null, "вещь " + i + "-" + j, "описание вещи " + i + "-" + j,
+                        true, owner, request));
+            }
+            if (i % 100 == 0) {
+                testEntityManager.flush();
+                testEntityManager.clear();
+            }
+        }
+        testEntityManager.flush();
+        testEntityManager.clear();
+    }
+
+    @Test
+    void getAllFromOtherUsersTest_aggregateComparedToTwoStatements() {
+        Result entities = measure(() -> {
+            List<ItemRequest> requests = requestPage();
+            Map<Long, List<Item>> items = testEntityManager.getEntityManager()
+                    .createQuery(ITEMS_FOR_REQUESTS, Item.class)
+                    .setParameter(1, requests)
+                    .getResultList().stream()
+                    .collect(Collectors.groupingBy(item -> item.getRequest().getId()));
+            return requests.stream().collect(Collectors.toMap(ItemRequest::getId,
+                    request -> items.getOrDefault(request.getId(), List.of()).size()));
+        });
+        Result projections = measure(() -> {
+            List<ItemRequest> requests = requestPage();
+            Map<Long, List<ItemDtoFromOrToUser>> items = testEntityManager.getEntityManager()
+                    .createQuery(ITEM_DTOS_FOR_REQUESTS, ItemDtoFromOrToUser.class)
+                    .setParameter(1, requests)
+                    .getResultList().stream()
+                    .collect(Collectors.groupingBy(ItemDtoFromOrToUser::getRequestId));
+            return requests.stream().collect(Collectors.toMap(ItemRequest::getId,
+                    request -> items.getOrDefault(request.getId(), List.of()).size()));
+        });
+        Result aggregate = measure(() -> itemRequestInfoStorage.findAllByRequesterNot(viewer.getId(), 0, REQUESTS)
+                .stream()
+                .collect(Collectors.toMap(ItemRequestInfoDto::getId, request -> request.getItems().size())));
+
+        log.info("Запросы с вещами, сущности: {}", entities);
+        log.info("Запросы с вещами, проекции: {}", projections);
+        log.info("Запросы с вещами, один оператор: {}", aggregate);
+
+        assertThat(aggregate.itemCounts).hasSize(REQUESTS).isEqualTo(projections.itemCounts)
+                .isEqualTo(entities.itemCounts);
+        assertThat(aggregate.items()).isEqualTo((long) REQUESTS * ITEMS_PER_REQUEST);
+        assertThat(aggregate.statements).isEqualTo(ITERATIONS);
+        assertThat(aggregate.statements).isLessThan(projections.statements);
+        assertThat(aggregate.statements).isLessThan(entities.statements);
+    }
+
+    private List<ItemRequest> requestPage() {
+        return testEntityManager.getEntityManager()
+                .createQuery(REQUESTS_OF_OTHERS, ItemRequest.class)
+                .setParameter(1, viewer)
+                .setMaxResults(REQUESTS)
+                .getResultList();
+    }
+
+    private Result measure(Supplier<Map<Long, Integer>> reader) {
+        Map<Long, Integer> itemCounts = null;
+        QueryCountHolder.clear();
+        long startedAt = System.nanoTime();
+        for (int i = 0; i < ITERATIONS; i++) {
+            itemCounts = reader.get();
+            testEntityManager.clear();
+        }
+        double meanMillis = (System.nanoTime() - startedAt) / 1_000_000.0 / ITERATIONS;
+        return new Result(QueryCountHolder.getGrandTotal().getTotal(), itemCounts, meanMillis);
+    }
+
+    private static class Result {
+        private final long statements;
+        private final Map<Long, Integer> itemCounts;
+        private final double meanMillis;
+
+        Result(long statements, Map<Long, Integer> itemCounts, double meanMillis) {
+            this.statements = statements;
+            this.itemCounts = itemCounts;
+            this.meanMillis = meanMillis;
+        }
+
+        long items() {
+            return itemCounts.values().stream().mapToLong(Integer::longValue).sum();
+        }
+
+        @Override
+        public String toString() {
+            return String.format("операторов %d, запросов %d, вещей %d, среднее время %.1f мс",
+                    statements, itemCounts.size(), items(), meanMillis);
+        }
+    }
+}
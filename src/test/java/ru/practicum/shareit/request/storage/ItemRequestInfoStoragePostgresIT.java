@@ -0,0 +1,117 @@
+package ru.practicum.shareit.request.storage;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.jackson.JacksonAutoConfiguration;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.util.ReflectionTestUtils;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.pagination.Cursor;
+import ru.practicum.shareit.request.dto.ItemRequestInfoDto;
+import ru.practicum.shareit.request.model.ItemRequest;
+import ru.practicum.shareit.user.model.User;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Проверяет разбор массива json_agg, по которому ItemRequestInfoStorage читает запросы с вещами только
+ * в PostgreSQL: на H2 выполняется вариант с LEFT JOIN. Запросы создаются в будущем, чтобы оказаться первыми
+ * в выдаче по убыванию даты независимо от данных, которые уже есть в базе.
+ * Запуск на PostgreSQL из application.properties: mvn test -P postgresql
+ */
+@Tag("postgresql")
+@DataJpaTest(properties = {"db.name=shareItTest"})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import({ItemRequestInfoStorage.class, JacksonAutoConfiguration.class})
+class ItemRequestInfoStoragePostgresIT {
+
+    @Autowired
+    private ItemRequestInfoStorage itemRequestInfoStorage;
+
+    @Autowired
+    private TestEntityManager testEntityManager;
+
+    private User requester;
+    private User owner;
+    private ItemRequest drillRequest;
+    private ItemRequest sawRequest;
+    private ItemRequest tentRequest;
+    private Item drill;
+    private Item hammerDrill;
+
+    @BeforeEach
+    void setUp() {
+        requester = testEntityManager.persist(new User(null, "Kirill", "kirill.json@yandex.ru"));
+        owner = testEntityManager.persist(new User(null, "Ilya", "ilya.json@yandex.ru"));
+        LocalDateTime now = LocalDateTime.of(2100, 10, 21, 10, 10, 10);
+        drillRequest = testEntityManager.persist(new ItemRequest(null, "Нужна дрель", requester, now.minusDays(2)));
+        sawRequest = testEntityManager.persist(new ItemRequest(null, "Нужна пила", requester, now.minusDays(1)));
+        tentRequest = testEntityManager.persist(new ItemRequest(null, "Нужна палатка", owner, now));
+        drill = testEntityManager.persist(new Item(null, "Дрель \"Зубр\"", "Ударная, 800 Вт \\ 220 В", true,
+                owner, drillRequest));
+        hammerDrill = testEntityManager.persist(new Item(null, "Перфоратор", "Сверлит бетон\nи кирпич", false,
+                owner, drillRequest));
+        testEntityManager.persist(new Item(null, "Пила", "Ручная пила", true, owner, null));
+        testEntityManager.flush();
+    }
+
+    @Test
+    void constructorTest_whenPostgreSql_thenItemsReadWithJsonAggregate() {
+        assertThat(ReflectionTestUtils.getField(itemRequestInfoStorage, "jsonAggregate")).isEqualTo(true);
+    }
+
+    @Test
+    void findAllByRequesterTest_thenItemsMappedFromJsonArray() {
+        List<ItemRequestInfoDto> result = itemRequestInfoStorage.findAllByRequester(requester.getId());
+
+        assertThat(result).extracting(ItemRequestInfoDto::getId)
+                .containsExactly(sawRequest.getId(), drillRequest.getId());
+        assertThat(result.get(0).getItems()).isEmpty();
+        assertThat(result.get(1).getItems()).containsExactly(
+                new ItemRequestInfoDto.ItemInfoDto(drill.getId(), "Дрель \"Зубр\"", "Ударная, 800 Вт \\ 220 В",
+                        drillRequest.getId(), true),
+                new ItemRequestInfoDto.ItemInfoDto(hammerDrill.getId(), "Перфоратор", "Сверлит бетон\nи кирпич",
+                        drillRequest.getId(), false));
+        assertThat(result.get(1).getCreated()).isEqualTo(drillRequest.getCreated());
+    }
+
+    @Test
+    void findAllByRequesterNotTest_whenOffsetAndLimit_thenPageOfOtherUsersRequests() {
+        User stranger = testEntityManager.persist(new User(null, "Oleg", "oleg.json@yandex.ru"));
+        testEntityManager.flush();
+
+        List<ItemRequestInfoDto> firstPage = itemRequestInfoStorage.findAllByRequesterNot(stranger.getId(), 0, 2);
+        List<ItemRequestInfoDto> secondPage = itemRequestInfoStorage.findAllByRequesterNot(stranger.getId(), 2, 1);
+
+        assertThat(firstPage).extracting(ItemRequestInfoDto::getId)
+                .containsExactly(tentRequest.getId(), sawRequest.getId());
+        assertThat(firstPage).allSatisfy(request -> assertThat(request.getItems()).isEmpty());
+        assertThat(secondPage).extracting(ItemRequestInfoDto::getId)
+                .containsExactly(drillRequest.getId());
+        assertThat(secondPage.get(0).getItems()).extracting(ItemRequestInfoDto.ItemInfoDto::getId)
+                .containsExactly(drill.getId(), hammerDrill.getId());
+    }
+
+    @Test
+    void findAllByRequesterNotAfterCursorTest_thenRequestsStrictlyAfterCursor() {
+        Cursor cursor = new Cursor(sawRequest.getCreated(), sawRequest.getId());
+
+        List<ItemRequestInfoDto> result = itemRequestInfoStorage.findAllByRequesterNotAfterCursor(owner.getId(),
+                cursor, 1);
+
+        assertThat(result).extracting(ItemRequestInfoDto::getId)
+                .containsExactly(drillRequest.getId());
+        assertThat(result.get(0).getItems()).extracting(ItemRequestInfoDto.ItemInfoDto::getRequestId)
+                .containsOnly(drillRequest.getId());
+        assertThat(result.get(0).getItems()).extracting(ItemRequestInfoDto.ItemInfoDto::getAvailable)
+                .containsExactly(true, false);
+    }
+}
@@ -0,0 +1,97 @@
+package ru.practicum.shareit.request.storage;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.request.model.ItemRequest;
+import ru.practicum.shareit.request.model.ItemRequestMatch;
+import ru.practicum.shareit.user.model.User;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataJpaTest(properties = {"db.name=shareItTest"})
+@Import(ItemRequestMatchStorage.class)
+class ItemRequestMatchStorageIT {
+
+    @Autowired
+    private ItemRequestMatchStorage itemRequestMatchStorage;
+
+    @Autowired
+    private TestEntityManager testEntityManager;
+
+    private ItemRequest itemRequest;
+    private Item drill;
+    private Item saw;
+
+    @BeforeEach
+    void setUp() {
+        User requester = testEntityManager.persist(new User(null, "Kirill", "kirill@yandex.ru"));
+        User owner = testEntityManager.persist(new User(null, "Ilya", "ilya@yandex.ru"));
+        itemRequest = testEntityManager.persist(new ItemRequest(null, "Нужна дрель", requester, LocalDateTime.now()));
+        drill = testEntityManager.persist(new Item(null, "Дрель", "Ударная дрель", true, owner, null));
+        saw = testEntityManager.persist(new Item(null, "Пила", "Ручная пила", true, owner, null));
+        testEntityManager.flush();
+    }
+
+    @Test
+    void replaceForItemsTest_thenMatchesReadByRequestOrderedByScore() {
+        itemRequestMatchStorage.replaceForItems(List.of(drill.getId(), saw.getId()), List.of(
+                new ItemRequestMatch(itemRequest.getId(), saw.getId(), 0.4),
+                new ItemRequestMatch(itemRequest.getId(), drill.getId(), 0.9)));
+
+        assertThat(itemRequestMatchStorage.findAllByRequestId(itemRequest.getId()))
+                .extracting(ItemRequestMatch::getItemId)
+                .containsExactly(drill.getId(), saw.getId());
+    }
+
+    @Test
+    void replaceForItemsTest_whenItemMatchedAgain_thenPreviousMatchesReplaced() {
+        itemRequestMatchStorage.replaceForItems(List.of(drill.getId(), saw.getId()), List.of(
+                new ItemRequestMatch(itemRequest.getId(), saw.getId(), 0.4),
+                new ItemRequestMatch(itemRequest.getId(), drill.getId(), 0.9)));
+
+        itemRequestMatchStorage.replaceForItems(List.of(saw.getId()), List.of());
+
+        assertThat(itemRequestMatchStorage.findAllByRequestId(itemRequest.getId()))
+                .containsExactly(new ItemRequestMatch(itemRequest.getId(), drill.getId(), 0.9));
+    }
+
+    @Test
+    void replaceForItemsTest_whenRequestDeletedAfterMatching_thenOtherMatchesSaved() {
+        ItemRequest sawRequest = testEntityManager.persist(new ItemRequest(null, "Нужна пила",
+                itemRequest.getRequester(), LocalDateTime.now()));
+        testEntityManager.flush();
+        List<ItemRequestMatch> matches = List.of(
+                new ItemRequestMatch(itemRequest.getId(), drill.getId(), 0.9),
+                new ItemRequestMatch(sawRequest.getId(), saw.getId(), 0.7));
+        testEntityManager.remove(sawRequest);
+        testEntityManager.flush();
+
+        itemRequestMatchStorage.replaceForItems(List.of(drill.getId(), saw.getId()), matches);
+
+        assertThat(itemRequestMatchStorage.findAllByRequestId(itemRequest.getId()))
+                .containsExactly(new ItemRequestMatch(itemRequest.getId(), drill.getId(), 0.9));
+        assertThat(itemRequestMatchStorage.findAllByRequestId(sawRequest.getId())).isEmpty();
+    }
+
+    @Test
+    void replaceForItemsTest_whenItemDeletedAfterMatching_thenOtherMatchesSaved() {
+        List<ItemRequestMatch> matches = List.of(
+                new ItemRequestMatch(itemRequest.getId(), drill.getId(), 0.9),
+                new ItemRequestMatch(itemRequest.getId(), saw.getId(), 0.7));
+        testEntityManager.remove(saw);
+        testEntityManager.flush();
+
+        itemRequestMatchStorage.replaceForItems(List.of(drill.getId(), saw.getId()), matches);
+
+        assertThat(itemRequestMatchStorage.findAllByRequestId(itemRequest.getId()))
+                .containsExactly(new ItemRequestMatch(itemRequest.getId(), drill.getId(), 0.9));
+    }
+}
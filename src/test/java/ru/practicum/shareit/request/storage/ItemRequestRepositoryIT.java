@@ -5,7 +5,7 @@ import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
 import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
-import org.springframework.data.domain.PageRequest;
+import ru.practicum.shareit.item.model.Item;
 import ru.practicum.shareit.request.model.ItemRequest;
 import ru.practicum.shareit.user.model.User;
 
@@ -14,7 +14,7 @@ import java.util.List;
 
 import static org.assertj.core.api.Assertions.assertThat;
 
-@DataJpaTest(properties = {"db.name=shareItTest", "spring.sql.init.schema-locations=classpath:schema_test.sql"})
+@DataJpaTest(properties = {"db.name=shareItTest"})
 class ItemRequestRepositoryIT {
 
     @Autowired
@@ -37,30 +37,12 @@ class ItemRequestRepositoryIT {
     }
 
     @Test
-    void findAllByRequesterOrderByCreatedDescTest_whenItemRequestExist_thenReturnListOfItemRequest() {
-        List<ItemRequest> itemRequests = itemRequestRepository.findAllByRequesterOrderByCreatedDesc(user);
+    void findAllOpenTest_whenItemAttachedToRequest_thenRequestNotReturned() {
+        ItemRequest openRequest = itemRequestRepository.save(new ItemRequest(null, "палатка", user, LocalDateTime.now()));
+        testEntityManager.persist(new Item(null, "Дрель", "Ударная дрель", true, user, itemRequest));
 
-        assertThat(itemRequests.size()).isEqualTo(1);
-        assertThat(itemRequests.get(0).getDescription()).isEqualTo(itemRequest.getDescription());
-        assertThat(itemRequests.get(0).getCreated()).isEqualTo(itemRequest.getCreated());
-        assertThat(itemRequests.get(0).getId()).isEqualTo(itemRequest.getId());
+        List<ItemRequest> itemRequests = itemRequestRepository.findAllOpen();
 
+        assertThat(itemRequests).extracting(ItemRequest::getId).containsExactly(openRequest.getId());
     }
-
-    @Test
-    void findAllByRequesterNotOrderByCreatedDescTest_whenItemRequestExist_thenReturnListOfItemRequest() {
-        int page = 0;
-        int size = 1;
-        User anotherUser = new User();
-        anotherUser.setName("Ilya");
-        anotherUser.setEmail("ilya@yandex.ru");
-        testEntityManager.persist(anotherUser);
-
-        List<ItemRequest> itemRequests = itemRequestRepository.findAllByRequesterNotOrderByCreatedDesc(anotherUser, PageRequest.of(page, size));
-
-        assertThat(itemRequests.size()).isEqualTo(1);
-        assertThat(itemRequests.get(0).getDescription()).isEqualTo(itemRequest.getDescription());
-        assertThat(itemRequests.get(0).getCreated()).isEqualTo(itemRequest.getCreated());
-        assertThat(itemRequests.get(0).getId()).isEqualTo(itemRequest.getId());
-    }
-}
\ No newline at end of file
+}
@@ -0,0 +1,90 @@
+package ru.practicum.shareit.request.storage;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.service.ItemChangedEvent;
+import ru.practicum.shareit.request.model.ItemRequest;
+import ru.practicum.shareit.request.model.ItemRequestMatch;
+import ru.practicum.shareit.user.model.User;
+import ru.practicum.shareit.user.service.UserDeletedEvent;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@ExtendWith(MockitoExtension.class)
+class OpenItemRequestIndexTest {
+
+    private static final long OWNER_ID = 10L;
+
+    @Mock
+    private ItemRequestRepository itemRequestRepository;
+    @InjectMocks
+    private OpenItemRequestIndex openItemRequestIndex;
+
+    @BeforeEach
+    void setUp() {
+        openItemRequestIndex.put(1L, 1L, "Нужна ударная дрель для ремонта");
+        openItemRequestIndex.put(2L, 2L, "Нужна палатка для похода");
+        openItemRequestIndex.put(3L, 3L, "Нужна дрель");
+    }
+
+    @Test
+    void matchTest_whenItemSharesRareTerm_thenRequestsRankedBySimilarity() {
+        List<Long> requestIds = requestIds(openItemRequestIndex.match(100L, OWNER_ID, "Дрель ударная", 10));
+
+        assertEquals(List.of(1L, 3L), requestIds);
+    }
+
+    @Test
+    void matchTest_whenOnlyCommonTermsShared_thenNoMatch() {
+        assertTrue(openItemRequestIndex.match(100L, OWNER_ID,
+                "Нужна для всех: отвертка крестовая с магнитным наконечником", 10).isEmpty());
+    }
+
+    @Test
+    void matchTest_whenRequestOfItemOwner_thenRequestSkipped() {
+        assertEquals(List.of(3L), requestIds(openItemRequestIndex.match(100L, 1L, "Дрель ударная", 10)));
+    }
+
+    @Test
+    void matchTest_whenLimit_thenReturnBestMatches() {
+        List<ItemRequestMatch> matches = openItemRequestIndex.match(100L, OWNER_ID, "Дрель ударная", 1);
+
+        assertEquals(List.of(1L), requestIds(matches));
+        assertEquals(100L, matches.get(0).getItemId());
+        assertTrue(matches.get(0).getScore() <= 1.0);
+    }
+
+    @Test
+    void onItemChangedTest_whenItemAttachedToRequest_thenRequestClosed() {
+        ItemRequest itemRequest = new ItemRequest(1L, "Нужна ударная дрель для ремонта", new User(1L, "Kirill",
+                "kirill@yandex.ru"), LocalDateTime.now());
+        Item item = new Item(100L, "Дрель", "Ударная", true, new User(OWNER_ID, "Ilya", "ilya@yandex.ru"),
+                itemRequest);
+
+        openItemRequestIndex.onItemChanged(new ItemChangedEvent(item));
+
+        assertEquals(List.of(3L), requestIds(openItemRequestIndex.match(101L, OWNER_ID, "Дрель ударная", 10)));
+    }
+
+    @Test
+    void onUserDeletedTest_thenRequestsOfUserRemoved() {
+        openItemRequestIndex.onUserDeleted(new UserDeletedEvent(3L, Set.of()));
+
+        assertEquals(List.of(1L), requestIds(openItemRequestIndex.match(100L, OWNER_ID, "Дрель ударная", 10)));
+    }
+
+    private static List<Long> requestIds(List<ItemRequestMatch> matches) {
+        return matches.stream().map(ItemRequestMatch::getRequestId).collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,65 @@
+package ru.practicum.shareit.user.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+import ru.practicum.shareit.user.model.User;
+
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ActingUserContextTest {
+
+    @Mock
+    private UserService userService;
+    @InjectMocks
+    private ActingUserContext actingUserContext;
+
+    private final User user = new User(1L, "Kirill", "kirill@email.com");
+
+    @AfterEach
+    void tearDown() {
+        RequestContextHolder.resetRequestAttributes();
+    }
+
+    @Test
+    void resolveTest_whenCalledTwiceInOneRequest_thenUserLoadedOnce() {
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(new MockHttpServletRequest()));
+        when(userService.getById(1L)).thenReturn(user);
+
+        User first = actingUserContext.resolve(1L);
+        User second = actingUserContext.resolve(1L);
+
+        assertSame(first, second);
+        verify(userService, times(1)).getById(1L);
+    }
+
+    @Test
+    void resolveTest_whenDifferentRequests_thenUserLoadedForEachRequest() {
+        when(userService.getById(1L)).thenReturn(user);
+
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(new MockHttpServletRequest()));
+        actingUserContext.resolve(1L);
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(new MockHttpServletRequest()));
+        actingUserContext.resolve(1L);
+
+        verify(userService, times(2)).getById(1L);
+    }
+
+    @Test
+    void resolveTest_whenNoRequest_thenDelegateToUserService() {
+        when(userService.getById(1L)).thenReturn(user);
+
+        actingUserContext.resolve(1L);
+        actingUserContext.resolve(1L);
+
+        verify(userService, times(2)).getById(1L);
+    }
+}
@@ -0,0 +1,108 @@
+package ru.practicum.shareit.user.service;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.RequiredArgsConstructor;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.shareit.exceptions.ObjectNotFoundException;
+import ru.practicum.shareit.user.model.User;
+import ru.practicum.shareit.user.storage.UserRepository;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@SpringBootTest(
+        properties = {"db.name=shareItTest"},
+        webEnvironment = SpringBootTest.WebEnvironment.NONE)
+@RequiredArgsConstructor(onConstructor_ = @Autowired)
+class UserServiceCacheTestIT {
+
+    private final UserService userService;
+    private final UserRepository userRepository;
+    private final CacheManager cacheManager;
+    private final MeterRegistry meterRegistry;
+    private final TransactionTemplate transactionTemplate;
+
+    private User user;
+
+    @BeforeEach
+    void setUp() {
+        user = userRepository.save(new User(null, "Ilya", "ilya.cache@yandex.ru"));
+    }
+
+    @AfterEach
+    void tearDown() {
+        userRepository.findById(user.getId()).ifPresent(userRepository::delete);
+        usersCache().clear();
+    }
+
+    @Test
+    void getByIdTest_whenCalledTwice_thenSecondCallServedFromCache() {
+        double hitsBefore = cacheGets("hit");
+        double missesBefore = cacheGets("miss");
+
+        User firstCall = userService.getById(user.getId());
+        User secondCall = userService.getById(user.getId());
+
+        assertThat(secondCall).isEqualTo(firstCall).isNotSameAs(firstCall);
+        assertThat(cacheGets("miss") - missesBefore).isEqualTo(1.0);
+        assertThat(cacheGets("hit") - hitsBefore).isEqualTo(1.0);
+    }
+
+    @Test
+    void getByIdTest_whenReturnedUserChanged_thenCachedUserUnchanged() {
+        userService.getById(user.getId()).setName("Изменено вызывающим");
+
+        assertThat(userService.getById(user.getId()).getName()).isEqualTo("Ilya");
+    }
+
+    @Test
+    void getByIdTest_whenTransactionRolledBack_thenUserNotCached() {
+        transactionTemplate.executeWithoutResult(status -> {
+            userService.getById(user.getId());
+            status.setRollbackOnly();
+        });
+
+        assertThat(usersCache().get(user.getId())).isNull();
+    }
+
+    @Test
+    void updateUserTest_whenUserCached_thenCacheEntryEvicted() {
+        userService.getById(user.getId());
+
+        userService.updateUser(user.getId(), new User(null, "Igor", null));
+
+        assertThat(usersCache().get(user.getId())).isNull();
+        assertThat(userService.getById(user.getId()).getName()).isEqualTo("Igor");
+    }
+
+    @Test
+    void deleteUserByIdTest_whenUserCached_thenCacheEntryEvicted() {
+        userService.getById(user.getId());
+
+        userService.deleteUserById(user.getId());
+
+        assertThat(usersCache().get(user.getId())).isNull();
+        assertThatThrownBy(() -> userService.getById(user.getId()))
+                .isInstanceOf(ObjectNotFoundException.class)
+                .hasMessage(String.format("Пользователь с id %d не найден", user.getId()));
+    }
+
+    private Cache usersCache() {
+        return cacheManager.getCache(UserServiceImpl.USERS_CACHE);
+    }
+
+    private double cacheGets(String result) {
+        return meterRegistry.get("cache.gets")
+                .tag("cache", UserServiceImpl.USERS_CACHE)
+                .tag("result", result)
+                .functionCounter()
+                .count();
+    }
+}
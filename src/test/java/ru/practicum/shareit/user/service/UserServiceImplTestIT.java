@@ -17,7 +17,7 @@ import static org.assertj.core.api.Java6Assertions.assertThatThrownBy;
 
 @Transactional
 @SpringBootTest(
-        properties = {"db.name=shareItTest", "spring.sql.init.schema-locations=classpath:schema_test.sql"},
+        properties = {"db.name=shareItTest"},
         webEnvironment = SpringBootTest.WebEnvironment.NONE)
 @RequiredArgsConstructor(onConstructor_ = @Autowired)
 class UserServiceImplTestIT {
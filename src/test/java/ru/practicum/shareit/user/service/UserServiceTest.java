@@ -8,7 +8,11 @@ import org.mockito.Captor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.ApplicationEventPublisher;
 import ru.practicum.shareit.exceptions.ObjectNotFoundException;
+import ru.practicum.shareit.item.storage.ItemRepository;
 import ru.practicum.shareit.user.model.User;
 import ru.practicum.shareit.user.storage.UserRepository;
 
@@ -16,6 +20,7 @@ import javax.validation.ValidationException;
 import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertThrows;
@@ -26,12 +31,22 @@ public class UserServiceTest {
 
     @Mock
     private UserRepository userRepository;
+    @Mock
+    private ItemRepository itemRepository;
+    @Mock
+    private CacheManager cacheManager;
+    @Mock
+    private Cache usersCache;
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
 
     @InjectMocks
     private UserServiceImpl userService;
 
     @Captor
     private ArgumentCaptor<User> userArgumentCaptor;
+    @Captor
+    private ArgumentCaptor<UserDeletedEvent> userDeletedEventCaptor;
 
     private User user;
     private User newUser;
@@ -70,12 +85,14 @@ public class UserServiceTest {
     @Test
     void updateUserTest_whenUserFound_ThenUpdateNotNullFields() {
         when(this.userRepository.findById(anyLong())).thenReturn(Optional.of(user));
+        when(cacheManager.getCache(UserServiceImpl.USERS_CACHE)).thenReturn(usersCache);
 
         userService.updateUser(1, newUser);
 
         verify(userRepository).save(userArgumentCaptor.capture());
         User updatedUser = userArgumentCaptor.getValue();
         assertEquals(newUser, updatedUser);
+        verify(usersCache).evictIfPresent(1L);
     }
 
     @Test
@@ -144,10 +161,15 @@ public class UserServiceTest {
     @Test
     void deleteUserByIdTest_whenUserDeleted_thenUserDeleted() {
         when(userRepository.findById(anyLong())).thenReturn(Optional.of(user));
+        when(itemRepository.findAllIdsDeletedWithUser(1L)).thenReturn(List.of(4L, 7L));
+        when(cacheManager.getCache(UserServiceImpl.USERS_CACHE)).thenReturn(usersCache);
 
         userService.deleteUserById(1);
 
         verify(userRepository, times(1)).deleteById(1L);
+        verify(usersCache).evictIfPresent(1L);
+        verify(eventPublisher).publishEvent(userDeletedEventCaptor.capture());
+        assertEquals(Set.of(4L, 7L), userDeletedEventCaptor.getValue().getDeletedItemIds());
     }
 
     @Test
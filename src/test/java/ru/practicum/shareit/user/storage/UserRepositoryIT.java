@@ -10,7 +10,7 @@ import java.util.Optional;
 
 import static org.assertj.core.api.Assertions.assertThat;
 
-@DataJpaTest(properties = {"db.name=shareItTest", "spring.sql.init.schema-locations=classpath:schema_test.sql"})
+@DataJpaTest(properties = {"db.name=shareItTest"})
 class UserRepositoryIT {
 
     @Autowired